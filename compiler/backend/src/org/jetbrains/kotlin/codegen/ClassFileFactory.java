@@ -36,13 +36,19 @@ import org.jetbrains.kotlin.name.FqName;
 import org.jetbrains.kotlin.psi.KtFile;
 import org.jetbrains.kotlin.resolve.jvm.diagnostics.JvmDeclarationOrigin;
 import org.jetbrains.kotlin.serialization.jvm.JvmPackageTable;
+import org.jetbrains.kotlin.utils.ExceptionUtilsKt;
+import org.jetbrains.org.objectweb.asm.ClassReader;
 import org.jetbrains.org.objectweb.asm.Type;
+import org.jetbrains.org.objectweb.asm.util.TraceClassVisitor;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
 
 import static org.jetbrains.kotlin.codegen.JvmCodegenUtil.getMappingFileName;
 
@@ -54,6 +60,7 @@ public class ClassFileFactory implements OutputFileCollection {
     private final Map<String, OutAndSourceFileList> generators = new LinkedHashMap<String, OutAndSourceFileList>();
 
     private boolean isDone = false;
+    private ClassFileStorage storage = null;
 
     public ClassFileFactory(@NotNull GenerationState state, @NotNull ClassBuilderFactory builderFactory) {
         this.state = state;
@@ -69,7 +76,7 @@ public class ClassFileFactory implements OutputFileCollection {
     }
 
     @NotNull
-    public ClassBuilder newVisitor(
+    public synchronized ClassBuilder newVisitor(
             @NotNull JvmDeclarationOrigin origin,
             @NotNull Type asmType,
             @NotNull Collection<? extends PsiFile> sourceFiles) {
@@ -77,11 +84,60 @@ public class ClassFileFactory implements OutputFileCollection {
         List<File> ioSourceFiles = toIoFilesIgnoringNonPhysical(sourceFiles);
         state.getProgress().reportOutput(ioSourceFiles, new File(outputFilePath));
         ClassBuilder answer = builderFactory.newClassBuilder(origin);
-        generators.put(outputFilePath, new ClassBuilderAndSourceFileList(answer, ioSourceFiles));
-        return answer;
+        ClassBuilderAndSourceFileList generator = new ClassBuilderAndSourceFileList(
+                answer, ioSourceFiles, state.isParallelCodegen() ? Thread.currentThread() : null);
+        generators.put(outputFilePath, generator);
+        return storage != null || state.isParallelCodegen() ? new FinishingClassBuilder(generator, outputFilePath) : answer;
+    }
+
+    /**
+     * Marks all classes still being generated by the given thread as finished, so that other threads reading them don't wait forever
+     * if that thread has failed. Called when a parallel code generation task ends.
+     */
+    public synchronized void finishClassesOf(@NotNull Thread thread) {
+        for (OutAndSourceFileList generator : generators.values()) {
+            if (generator instanceof ClassBuilderAndSourceFileList && ((ClassBuilderAndSourceFileList) generator).owner == thread) {
+                ((ClassBuilderAndSourceFileList) generator).markFinished();
+            }
+        }
+    }
+
+    /**
+     * Makes the factory move bytes of each class to the given storage as soon as the class is done, instead of keeping
+     * its class builder until the output is written. Must be called before any class is generated.
+     */
+    public synchronized void setStorage(@NotNull ClassFileStorage storage) {
+        assert generators.isEmpty() : "Storage should be set before generation: " + generators.keySet();
+        this.storage = storage;
+    }
+
+    /**
+     * Deletes the files kept in the storage, if any. The output is not accessible after that.
+     */
+    public synchronized void releaseStorage() {
+        if (storage != null) {
+            storage.dispose();
+        }
     }
 
-    void done() {
+    private void classDone(@NotNull ClassBuilder classBuilder, @NotNull String outputFilePath) {
+        assert storage != null : "Class is stored without a storage: " + outputFilePath;
+        OutAndSourceFileList generator = getGenerator(outputFilePath);
+        // Class may have been removed after inlining, or registered again with another builder
+        if (!(generator instanceof ClassBuilderAndSourceFileList) ||
+            ((ClassBuilderAndSourceFileList) generator).classBuilder != classBuilder) {
+            return;
+        }
+
+        storage.store(outputFilePath, builderFactory.asBytes(classBuilder));
+        synchronized (this) {
+            if (generators.get(outputFilePath) == generator) {
+                generators.put(outputFilePath, new StoredFileList(storage, outputFilePath, generator.sourceFiles));
+            }
+        }
+    }
+
+    synchronized void done() {
         if (!isDone) {
             isDone = true;
             Collection<PackageCodegen> packageCodegens = package2codegen.values();
@@ -183,9 +239,11 @@ public class ClassFileFactory implements OutputFileCollection {
 
     @NotNull
     @Override
-    public List<OutputFile> asList() {
+    public synchronized List<OutputFile> asList() {
         done();
-        return ContainerUtil.map(generators.keySet(), new Function<String, OutputFile>() {
+        // Classes are registered in the order in which they were generated, which depends on thread scheduling in parallel code generation
+        List<String> relativePaths = CollectionsKt.sorted(generators.keySet());
+        return ContainerUtil.map(relativePaths, new Function<String, OutputFile>() {
             @Override
             public OutputFile fun(String relativeClassFilePath) {
                 return new OutputClassFile(relativeClassFilePath);
@@ -195,7 +253,7 @@ public class ClassFileFactory implements OutputFileCollection {
 
     @Override
     @Nullable
-    public OutputFile get(@NotNull String relativePath) {
+    public synchronized OutputFile get(@NotNull String relativePath) {
         return generators.containsKey(relativePath) ? new OutputClassFile(relativePath) : null;
     }
 
@@ -223,7 +281,7 @@ public class ClassFileFactory implements OutputFileCollection {
     }
 
     @NotNull
-    public PackageCodegen forPackage(@NotNull FqName fqName, @NotNull Collection<KtFile> files) {
+    public synchronized PackageCodegen forPackage(@NotNull FqName fqName, @NotNull Collection<KtFile> files) {
         assert !isDone : "Already done!";
         PackageCodegen codegen = package2codegen.get(fqName);
         if (codegen == null) {
@@ -235,7 +293,7 @@ public class ClassFileFactory implements OutputFileCollection {
     }
 
     @NotNull
-    public MultifileClassCodegen forMultifileClass(@NotNull FqName facadeFqName, @NotNull Collection<KtFile> files) {
+    public synchronized MultifileClassCodegen forMultifileClass(@NotNull FqName facadeFqName, @NotNull Collection<KtFile> files) {
         assert !isDone : "Already done!";
         MultifileClassCodegen codegen = multifileClass2codegen.get(facadeFqName);
         if (codegen == null) {
@@ -259,6 +317,10 @@ public class ClassFileFactory implements OutputFileCollection {
         return result;
     }
 
+    private synchronized OutAndSourceFileList getGenerator(@NotNull String relativePath) {
+        return generators.get(relativePath);
+    }
+
     private class OutputClassFile implements OutputFile {
         private final String relativeClassFilePath;
 
@@ -275,7 +337,7 @@ public class ClassFileFactory implements OutputFileCollection {
         @NotNull
         @Override
         public List<File> getSourceFiles() {
-            OutAndSourceFileList pair = generators.get(relativeClassFilePath);
+            OutAndSourceFileList pair = getGenerator(relativeClassFilePath);
             if (pair == null) {
                 throw new IllegalStateException("No record for binary file " + relativeClassFilePath);
             }
@@ -286,13 +348,19 @@ public class ClassFileFactory implements OutputFileCollection {
         @NotNull
         @Override
         public byte[] asByteArray() {
-            return generators.get(relativeClassFilePath).asBytes(builderFactory);
+            OutAndSourceFileList generator = getGenerator(relativeClassFilePath);
+            if (generator instanceof ClassBuilderAndSourceFileList) {
+                // In parallel code generation, the class may be read by the inliner while another thread is still generating it
+                ((ClassBuilderAndSourceFileList) generator).awaitFinished();
+                generator = getGenerator(relativeClassFilePath);
+            }
+            return generator.asBytes(builderFactory);
         }
 
         @NotNull
         @Override
         public String asText() {
-            return generators.get(relativeClassFilePath).asText(builderFactory);
+            return getGenerator(relativeClassFilePath).asText(builderFactory);
         }
 
         @NotNull
@@ -304,10 +372,29 @@ public class ClassFileFactory implements OutputFileCollection {
 
     private static final class ClassBuilderAndSourceFileList extends OutAndSourceFileList {
         private final ClassBuilder classBuilder;
+        // Thread generating the class in parallel code generation, null otherwise
+        private final Thread owner;
+        private final CountDownLatch finished = new CountDownLatch(1);
 
-        private ClassBuilderAndSourceFileList(ClassBuilder classBuilder, List<File> sourceFiles) {
+        private ClassBuilderAndSourceFileList(ClassBuilder classBuilder, List<File> sourceFiles, @Nullable Thread owner) {
             super(sourceFiles);
             this.classBuilder = classBuilder;
+            this.owner = owner;
+        }
+
+        private void markFinished() {
+            finished.countDown();
+        }
+
+        private void awaitFinished() {
+            if (owner == null || owner == Thread.currentThread()) return;
+            try {
+                finished.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw ExceptionUtilsKt.rethrow(e);
+            }
         }
 
         @Override
@@ -321,6 +408,58 @@ public class ClassFileFactory implements OutputFileCollection {
         }
     }
 
+    private static final class StoredFileList extends OutAndSourceFileList {
+        private final ClassFileStorage storage;
+        private final String relativePath;
+
+        private StoredFileList(ClassFileStorage storage, String relativePath, List<File> sourceFiles) {
+            super(sourceFiles);
+            this.storage = storage;
+            this.relativePath = relativePath;
+        }
+
+        @Override
+        public byte[] asBytes(ClassBuilderFactory factory) {
+            return storage.load(relativePath);
+        }
+
+        @Override
+        public String asText(ClassBuilderFactory factory) {
+            StringWriter writer = new StringWriter();
+            new ClassReader(storage.load(relativePath)).accept(new TraceClassVisitor(new PrintWriter(writer)), 0);
+            return writer.toString();
+        }
+    }
+
+    private class FinishingClassBuilder extends DelegatingClassBuilder {
+        private final ClassBuilderAndSourceFileList generator;
+        private final String outputFilePath;
+
+        private FinishingClassBuilder(@NotNull ClassBuilderAndSourceFileList generator, @NotNull String outputFilePath) {
+            this.generator = generator;
+            this.outputFilePath = outputFilePath;
+        }
+
+        @NotNull
+        @Override
+        protected ClassBuilder getDelegate() {
+            return generator.classBuilder;
+        }
+
+        @Override
+        public void done() {
+            super.done();
+            try {
+                if (storage != null) {
+                    classDone(generator.classBuilder, outputFilePath);
+                }
+            }
+            finally {
+                generator.markFinished();
+            }
+        }
+    }
+
     private static abstract class OutAndSourceFileList {
 
         protected final List<File> sourceFiles;
@@ -334,9 +473,12 @@ public class ClassFileFactory implements OutputFileCollection {
         public abstract String asText(ClassBuilderFactory factory);
     }
 
-    public void removeInlinedClasses(Set<String> classNamesToRemove) {
+    public synchronized void removeInlinedClasses(Set<String> classNamesToRemove) {
         for (String classInternalName : classNamesToRemove) {
-            generators.remove(classInternalName + ".class");
+            OutAndSourceFileList removed = generators.remove(classInternalName + ".class");
+            if (removed instanceof StoredFileList) {
+                storage.delete(classInternalName + ".class");
+            }
         }
     }
 
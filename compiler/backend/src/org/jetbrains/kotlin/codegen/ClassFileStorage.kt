@@ -0,0 +1,99 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen
+
+import com.intellij.openapi.util.io.FileUtil
+import java.io.File
+import java.util.LinkedHashMap
+
+/**
+ * Keeps bytes of finished class files on disk instead of the heap until the output is written.
+ * Recently stored files are also cached in memory up to the given size, since lambdas and anonymous objects of a function
+ * are usually read back by the inliner soon after they are generated.
+ */
+public class ClassFileStorage(
+        private val directory: File,
+        private val cacheSizeInBytes: Long = DEFAULT_CACHE_SIZE_IN_BYTES
+) {
+    private val cache = LinkedHashMap<String, ByteArray>(16, 0.75f, /* accessOrder = */ true)
+    private var cachedBytes = 0L
+    private var disposed = false
+
+    @Synchronized
+    public fun store(relativePath: String, bytes: ByteArray) {
+        checkNotDisposed()
+        FileUtil.writeToFile(File(directory, relativePath), bytes)
+        putToCache(relativePath, bytes)
+    }
+
+    @Synchronized
+    public fun load(relativePath: String): ByteArray {
+        checkNotDisposed()
+        val cached = cache[relativePath]
+        if (cached != null) return cached
+
+        val bytes = FileUtil.loadFileBytes(File(directory, relativePath))
+        putToCache(relativePath, bytes)
+        return bytes
+    }
+
+    @Synchronized
+    public fun delete(relativePath: String) {
+        checkNotDisposed()
+        removeFromCache(relativePath)
+        FileUtil.delete(File(directory, relativePath))
+    }
+
+    @Synchronized
+    public fun dispose() {
+        if (disposed) return
+        disposed = true
+        cache.clear()
+        cachedBytes = 0
+        FileUtil.delete(directory)
+    }
+
+    private fun putToCache(relativePath: String, bytes: ByteArray) {
+        removeFromCache(relativePath)
+        cache[relativePath] = bytes
+        cachedBytes += bytes.size()
+
+        val iterator = cache.entrySet().iterator()
+        while (cachedBytes > cacheSizeInBytes && iterator.hasNext()) {
+            cachedBytes -= iterator.next().getValue().size()
+            iterator.remove()
+        }
+    }
+
+    private fun removeFromCache(relativePath: String) {
+        val removed = cache.remove(relativePath)
+        if (removed != null) {
+            cachedBytes -= removed.size()
+        }
+    }
+
+    private fun checkNotDisposed() {
+        if (disposed) throw IllegalStateException("Class file storage in $directory is already disposed")
+    }
+
+    companion object {
+        public val DEFAULT_CACHE_SIZE_IN_BYTES: Long = 16L * 1024 * 1024
+
+        public @JvmStatic fun createTemporary(): ClassFileStorage =
+                ClassFileStorage(FileUtil.createTempDirectory("kotlin-classes", null, false))
+    }
+}
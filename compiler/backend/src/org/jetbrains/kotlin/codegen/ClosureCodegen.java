@@ -139,21 +139,31 @@ public class ClosureCodegen extends MemberCodegen<KtElement> {
         sw.writeSuperclass();
         superClassAsmType = typeMapper.mapSupertype(superClassType, sw);
         sw.writeSuperclassEnd();
-        String[] superInterfaceAsmTypes = new String[superInterfaceTypes.size()];
-        for (int i = 0; i < superInterfaceTypes.size(); i++) {
-            KotlinType superInterfaceType = superInterfaceTypes.get(i);
+        List<String> superInterfaceAsmTypes = new ArrayList<String>(superInterfaceTypes.size() + 1);
+        for (KotlinType superInterfaceType : superInterfaceTypes) {
             sw.writeInterface();
-            superInterfaceAsmTypes[i] = typeMapper.mapSupertype(superInterfaceType, sw).getInternalName();
+            superInterfaceAsmTypes.add(typeMapper.mapSupertype(superInterfaceType, sw).getInternalName());
             sw.writeInterfaceEnd();
         }
 
+        // Lets calls through e.g. (Int) -> Int reach the primitive invoke method without boxing
+        String specializedInterface = samType == null && state.isPrimitiveInvokeSpecializationEnabled()
+                                      ? PrimitiveSpecializedFunctions.getSpecializedInterface(typeMapper.mapSignature(funDescriptor).getAsmMethod())
+                                      : null;
+        if (specializedInterface != null) {
+            sw.writeInterface();
+            sw.writeAsmType(Type.getObjectType(specializedInterface));
+            sw.writeInterfaceEnd();
+            superInterfaceAsmTypes.add(specializedInterface);
+        }
+
         v.defineClass(element,
                       V1_6,
                       ACC_FINAL | ACC_SUPER | visibilityFlag,
                       asmType.getInternalName(),
                       sw.makeJavaGenericSignature(),
                       superClassAsmType.getInternalName(),
-                      superInterfaceAsmTypes
+                      ArrayUtil.toStringArray(superInterfaceAsmTypes)
         );
 
         InlineCodegenUtil.initDefaultSourceMappingIfNeeded(context, this, state);
@@ -2397,7 +2397,26 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
             return intrinsic.toCallable(fd, superCall, resolvedCall, this);
         }
 
-        return resolveToCallableMethod(fd, superCall);
+        CallableMethod callableMethod = resolveToCallableMethod(fd, superCall);
+
+        // Invocations of lambda parameters inside inline functions must stay FunctionN.invoke calls to be inlined
+        if (!superCall && state.isPrimitiveInvokeSpecializationEnabled() && !isInsideInlineFunction(context)) {
+            Callable specialized = PrimitiveSpecializedFunctions.specializeInvoke(fd, callableMethod, typeMapper);
+            if (specialized != null) {
+                return specialized;
+            }
+        }
+
+        return callableMethod;
+    }
+
+    private static boolean isInsideInlineFunction(@NotNull CodegenContext<?> context) {
+        for (CodegenContext<?> current = context; current != null; current = current.getParentContext()) {
+            if (current instanceof MethodContext && ((MethodContext) current).isInlineFunction()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @NotNull
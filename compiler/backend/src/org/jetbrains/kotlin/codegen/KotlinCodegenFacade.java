@@ -26,9 +26,11 @@ import org.jetbrains.kotlin.name.FqName;
 import org.jetbrains.kotlin.psi.KtFile;
 import org.jetbrains.kotlin.psi.KtScript;
 import org.jetbrains.kotlin.resolve.ScriptNameUtil;
+import org.jetbrains.kotlin.utils.ExceptionUtilsKt;
 import org.jetbrains.org.objectweb.asm.Type;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 import static org.jetbrains.kotlin.codegen.binding.CodegenBinding.registerClassNameForScript;
 
@@ -84,6 +86,11 @@ public class KotlinCodegenFacade {
             }
         }
 
+        if (state.isParallelCodegen()) {
+            doGenerateFilesConcurrently(state, filesInPackages, filesInMultifileClasses, errorHandler);
+            return;
+        }
+
         Set<FqName> obsoleteMultifileClasses = new HashSet<FqName>(state.getObsoleteMultifileClasses());
         for (FqName multifileClassFqName : Sets.union(filesInMultifileClasses.keySet(), obsoleteMultifileClasses)) {
             doCheckCancelled(state);
@@ -100,6 +107,75 @@ public class KotlinCodegenFacade {
         state.getFactory().done();
     }
 
+    private static void doGenerateFilesConcurrently(
+            @NotNull final GenerationState state,
+            @NotNull final MultiMap<FqName, KtFile> filesInPackages,
+            @NotNull final MultiMap<FqName, KtFile> filesInMultifileClasses,
+            @NotNull final CompilationErrorHandler errorHandler
+    ) {
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+
+        Set<FqName> obsoleteMultifileClasses = new HashSet<FqName>(state.getObsoleteMultifileClasses());
+        for (final FqName multifileClassFqName : Sets.union(filesInMultifileClasses.keySet(), obsoleteMultifileClasses)) {
+            // Codegens are created on this thread so that the set of codegens does not depend on scheduling
+            final MultifileClassCodegen codegen =
+                    state.getFactory().forMultifileClass(multifileClassFqName, filesInMultifileClasses.get(multifileClassFqName));
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    try {
+                        doCheckCancelled(state);
+                        codegen.generate(errorHandler);
+                    }
+                    finally {
+                        state.getFactory().finishClassesOf(Thread.currentThread());
+                    }
+                    return null;
+                }
+            });
+        }
+
+        Set<FqName> packagesWithObsoleteParts = new HashSet<FqName>(state.getPackagesWithObsoleteParts());
+        for (final FqName packageFqName : Sets.union(packagesWithObsoleteParts, filesInPackages.keySet())) {
+            final PackageCodegen codegen = state.getFactory().forPackage(packageFqName, filesInPackages.get(packageFqName));
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    try {
+                        doCheckCancelled(state);
+                        codegen.generate(errorHandler);
+                    }
+                    finally {
+                        state.getFactory().finishClassesOf(Thread.currentThread());
+                    }
+                    return null;
+                }
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(state.getCodegenThreads(), Math.max(tasks.size(), 1)));
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                try {
+                    future.get();
+                }
+                catch (ExecutionException e) {
+                    throw ExceptionUtilsKt.rethrow(e.getCause());
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ExceptionUtilsKt.rethrow(e);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        doCheckCancelled(state);
+        state.getFactory().done();
+    }
+
     private static void doCheckCancelled(GenerationState state) {
         if (state.getClassBuilderMode() == ClassBuilderMode.FULL) {
             ProgressIndicatorAndCompilationCanceledStatus.checkCanceled();
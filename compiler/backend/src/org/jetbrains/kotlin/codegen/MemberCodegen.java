@@ -91,6 +91,7 @@ public abstract class MemberCodegen<T extends KtElement/* TODO: & JetDeclaration
 
     private SourceMapper sourceMapper;
     private final ConstantExpressionEvaluator constantExpressionEvaluator;
+    private final Set<String> outOfLineHelperNames = new HashSet<String>();
 
     public MemberCodegen(
             @NotNull GenerationState state,
@@ -548,6 +549,24 @@ public abstract class MemberCodegen<T extends KtElement/* TODO: & JetDeclaration
         return parentCodegen;
     }
 
+    /**
+     * Interfaces can't have static methods with bodies on JVM 6, so no code may be moved out of line into them
+     */
+    public boolean canDeclareOutOfLineHelpers() {
+        return !(context.getContextKind() == OwnerKind.IMPLEMENTATION && DescriptorUtils.isInterface(context.getContextDescriptor()));
+    }
+
+    /**
+     * Declares a private static method of this class holding code moved out of a method body to keep that method small.
+     * Returns null if a helper with this name has already been declared: the same expression may be generated several times,
+     * e.g. in finally blocks or in initializers of secondary constructors, and each time the helper has the same code
+     */
+    @Nullable
+    public MethodVisitor newOutOfLineHelper(@NotNull String name, @NotNull String descriptor) {
+        if (!outOfLineHelperNames.add(name)) return null;
+        return v.newMethod(NO_ORIGIN, ACC_PRIVATE | ACC_STATIC | ACC_SYNTHETIC, name, descriptor, null, null);
+    }
+
     @Override
     public String toString() {
         return context.toString();
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen
+
+import org.jetbrains.kotlin.builtins.functions.FunctionClassDescriptor
+import org.jetbrains.kotlin.codegen.state.JetTypeMapper
+import org.jetbrains.kotlin.descriptors.FunctionDescriptor
+import org.jetbrains.kotlin.util.OperatorNameConventions
+import org.jetbrains.org.objectweb.asm.Type
+import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter
+import org.jetbrains.org.objectweb.asm.commons.Method
+
+/**
+ * Function types like `(Int) -> Int` whose values can be invoked without boxing through the interfaces and helpers
+ * in kotlin.jvm.internal.PrimitiveFunctions. The set of shapes must be kept in sync with the generator of that class.
+ */
+public object PrimitiveSpecializedFunctions {
+    private val PRIMITIVE_FUNCTIONS_CLASS = "kotlin/jvm/internal/PrimitiveFunctions"
+
+    private val PARAMETER_TYPES = listOf(Type.INT_TYPE, Type.LONG_TYPE, Type.DOUBLE_TYPE)
+    private val UNARY_RETURN_TYPES = listOf(Type.INT_TYPE, Type.LONG_TYPE, Type.DOUBLE_TYPE, Type.BOOLEAN_TYPE)
+
+    /**
+     * @return internal name of the interface which a lambda class with the given `invoke` method may implement, or null
+     */
+    public @JvmStatic fun getSpecializedInterface(invokeMethod: Method): String? {
+        val shape = getShapeName(invokeMethod.getArgumentTypes().toList(), invokeMethod.getReturnType()) ?: return null
+        return "$PRIMITIVE_FUNCTIONS_CLASS\$$shape"
+    }
+
+    /**
+     * @return a callable which invokes a function type value through the primitive helper if the substituted signature
+     * of `invoke` has a specialized shape, or null if the call should go through the generic `FunctionN.invoke`
+     */
+    public @JvmStatic fun specializeInvoke(descriptor: FunctionDescriptor, callable: CallableMethod, typeMapper: JetTypeMapper): Callable? {
+        val functionClass = descriptor.getContainingDeclaration() as? FunctionClassDescriptor ?: return null
+        if (functionClass.functionKind != FunctionClassDescriptor.Kind.Function) return null
+        if (descriptor.getName() != OperatorNameConventions.INVOKE || descriptor.getExtensionReceiverParameter() != null) return null
+
+        val returnType = descriptor.getReturnType() ?: return null
+        val parameterTypes = descriptor.getValueParameters().map { typeMapper.mapType(it.getType()) }
+        val asmReturnType = typeMapper.mapType(returnType)
+        val shape = getShapeName(parameterTypes, asmReturnType) ?: return null
+
+        return SpecializedInvokeCallable(callable, parameterTypes, asmReturnType, shape)
+    }
+
+    private fun getShapeName(parameterTypes: List<Type>, returnType: Type): String? {
+        val supported = when (parameterTypes.size()) {
+            1 -> parameterTypes[0] in PARAMETER_TYPES && returnType in UNARY_RETURN_TYPES
+            2 -> parameterTypes[0] in PARAMETER_TYPES && parameterTypes[1] == parameterTypes[0] &&
+                 (returnType == parameterTypes[0] || returnType == Type.INT_TYPE || returnType == Type.BOOLEAN_TYPE)
+            else -> false
+        }
+        if (!supported) return null
+
+        return parameterTypes.map { getTypeName(it) }.joinToString("") + "To" + getTypeName(returnType)
+    }
+
+    private fun getTypeName(type: Type): String =
+            when (type) {
+                Type.INT_TYPE -> "Int"
+                Type.LONG_TYPE -> "Long"
+                Type.DOUBLE_TYPE -> "Double"
+                Type.BOOLEAN_TYPE -> "Boolean"
+                else -> throw IllegalArgumentException("Unsupported type in a primitive function shape: $type")
+            }
+
+    /**
+     * Calls `PrimitiveFunctions.invoke<Shape>(function, arguments)` instead of `FunctionN.invoke(arguments)`.
+     * The function object is generated as the dispatch receiver of the original call, as usual, and is then passed
+     * to the static helper as its first argument.
+     */
+    private class SpecializedInvokeCallable(
+            callable: CallableMethod,
+            override val valueParameterTypes: List<Type>,
+            override val returnType: Type,
+            private val shape: String
+    ) : Callable {
+        override val owner: Type = callable.owner
+
+        override val dispatchReceiverType: Type = callable.owner
+
+        override val extensionReceiverType: Type?
+            get() = null
+
+        override val generateCalleeType: Type?
+            get() = null
+
+        override val parameterTypes: Array<Type>
+            get() = valueParameterTypes.toTypedArray()
+
+        private val helperDescriptor: String =
+                Type.getMethodDescriptor(returnType, *(listOf(dispatchReceiverType) + valueParameterTypes).toTypedArray())
+
+        override fun genInvokeInstruction(v: InstructionAdapter) {
+            v.invokestatic(PRIMITIVE_FUNCTIONS_CLASS, "invoke$shape", helperDescriptor, false)
+        }
+
+        override fun isStaticCall(): Boolean = true
+    }
+}
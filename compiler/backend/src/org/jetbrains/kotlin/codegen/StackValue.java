@@ -56,6 +56,31 @@ public abstract class StackValue {
     private static final String NULLABLE_SHORT_TYPE_NAME = "java/lang/Short";
     private static final String NULLABLE_LONG_TYPE_NAME = "java/lang/Long";
 
+    // Local, OnStack and Constant are immutable, so the most common ones are shared instead of being allocated for every expression.
+    // Arrays are indexed by Type.getSort(), which identifies primitive types; other types are only shared for java/lang/Object
+    private static final int CACHED_LOCALS_COUNT = 16;
+    private static final Local[][] CACHED_LOCALS = new Local[CACHED_LOCALS_COUNT][Type.OBJECT + 1];
+    private static final OnStack[] CACHED_ON_STACK = new OnStack[Type.OBJECT + 1];
+    private static final int MIN_CACHED_INT_CONSTANT = -1;
+    private static final int MAX_CACHED_INT_CONSTANT = 16;
+    private static final Constant[] CACHED_INT_CONSTANTS = new Constant[MAX_CACHED_INT_CONSTANT - MIN_CACHED_INT_CONSTANT + 1];
+
+    static {
+        Type[] cachedTypes = new Type[] {
+                Type.BOOLEAN_TYPE, Type.CHAR_TYPE, Type.BYTE_TYPE, Type.SHORT_TYPE, Type.INT_TYPE,
+                Type.FLOAT_TYPE, Type.LONG_TYPE, Type.DOUBLE_TYPE, OBJECT_TYPE
+        };
+        for (Type type : cachedTypes) {
+            for (int index = 0; index < CACHED_LOCALS_COUNT; index++) {
+                CACHED_LOCALS[index][type.getSort()] = new Local(index, type);
+            }
+            CACHED_ON_STACK[type.getSort()] = new OnStack(type);
+        }
+        for (int value = MIN_CACHED_INT_CONSTANT; value <= MAX_CACHED_INT_CONSTANT; value++) {
+            CACHED_INT_CONSTANTS[value - MIN_CACHED_INT_CONSTANT] = new Constant(value, Type.INT_TYPE);
+        }
+    }
+
     public static final StackValue.Local LOCAL_0 = local(0, OBJECT_TYPE);
     private static final StackValue UNIT = operation(UNIT_TYPE, new Function1<InstructionAdapter, Unit>() {
         @Override
@@ -141,6 +166,9 @@ public abstract class StackValue {
 
     @NotNull
     public static Local local(int index, @NotNull Type type) {
+        if (index >= 0 && index < CACHED_LOCALS_COUNT && isCachedType(type)) {
+            return CACHED_LOCALS[index][type.getSort()];
+        }
         return new Local(index, type);
     }
 
@@ -151,7 +179,8 @@ public abstract class StackValue {
 
     @NotNull
     public static StackValue onStack(@NotNull Type type) {
-        return type == Type.VOID_TYPE ? none() : new OnStack(type);
+        if (type == Type.VOID_TYPE) return none();
+        return isCachedType(type) ? CACHED_ON_STACK[type.getSort()] : new OnStack(type);
     }
 
     @NotNull
@@ -160,11 +189,20 @@ public abstract class StackValue {
             assert value instanceof Boolean : "Value for boolean constant should have boolean type: " + value;
             return BranchedValue.Companion.booleanConstant((Boolean) value);
         }
+        else if (type == Type.INT_TYPE && value instanceof Integer &&
+                 (Integer) value >= MIN_CACHED_INT_CONSTANT && (Integer) value <= MAX_CACHED_INT_CONSTANT) {
+            return CACHED_INT_CONSTANTS[(Integer) value - MIN_CACHED_INT_CONSTANT];
+        }
         else {
             return new Constant(value, type);
         }
     }
 
+    private static boolean isCachedType(@NotNull Type type) {
+        int sort = type.getSort();
+        return (sort >= Type.BOOLEAN && sort <= Type.DOUBLE) || OBJECT_TYPE.equals(type);
+    }
+
     @NotNull
     public static StackValue cmp(@NotNull IElementType opToken, @NotNull Type type, StackValue left, StackValue right) {
         return BranchedValue.Companion.cmp(opToken, type, left, right);
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.extensions
+
+import com.intellij.openapi.project.Project
+import org.jetbrains.kotlin.codegen.optimization.OptimizationPass
+import org.jetbrains.kotlin.extensions.ProjectExtensionDescriptor
+
+/**
+ * Contributes bytecode optimization passes. They are run after the built-in analysis-based passes
+ * and before the built-in dead code and jump cleanup, in the order of registration.
+ */
+public interface OptimizationPassExtension {
+    companion object : ProjectExtensionDescriptor<OptimizationPassExtension>(
+            "org.jetbrains.kotlin.optimizationPassExtension", OptimizationPassExtension::class.java)
+
+    public fun getOptimizationPasses(project: Project): List<OptimizationPass>
+}
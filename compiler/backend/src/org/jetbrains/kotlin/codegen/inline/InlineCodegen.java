@@ -193,10 +193,10 @@ public class InlineCodegen extends CallGenerator {
                     (DeserializedSimpleFunctionDescriptor) functionDescriptor);
 
             VirtualFile file = InlineCodegenUtil.getVirtualFileForCallable(containingClasses.getImplClassId(), state);
-            nodeAndSMAP = InlineCodegenUtil.getMethodNode(file.contentsToByteArray(),
-                                                          asmMethod.getName(),
-                                                          asmMethod.getDescriptor(),
-                                                          containingClasses.getFacadeClassId());
+            nodeAndSMAP = state.getInlineMethodNodeCache().getMethodNode(file.contentsToByteArray(),
+                                                                         asmMethod.getName(),
+                                                                         asmMethod.getDescriptor(),
+                                                                         containingClasses.getFacadeClassId());
 
             if (nodeAndSMAP == null) {
                 throw new RuntimeException("Couldn't obtain compiled function body for " + descriptorName(functionDescriptor));
@@ -117,6 +117,10 @@ public class InlineCodegenUtil {
             }
         }, ClassReader.SKIP_FRAMES | (GENERATE_SMAP ? 0 : ClassReader.SKIP_DEBUG));
 
+        if (node[0] == null) {
+            return null;
+        }
+
         SMAP smap = SMAPParser.parseOrCreateDefault(debugInfo[1], debugInfo[0], classId.toString(), lines[0], lines[1]);
         return new SMAPAndMethodNode(node[0], smap);
     }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.inline
+
+import org.jetbrains.kotlin.name.ClassId
+import org.jetbrains.org.objectweb.asm.tree.MethodNode
+import java.util.Arrays
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Keeps bodies of compiled inline functions read during one code generation session, so that a library class is parsed
+ * once per inline function rather than once per call site.
+ *
+ * Cached nodes are never handed out: inlining rewrites the instructions of the node it gets, so every request returns a copy.
+ * Misses (no such method in the class) are not cached and yield null, like [InlineCodegenUtil.getMethodNode].
+ */
+public class InlineMethodNodeCache {
+    private data class Key(
+            val classId: ClassId,
+            val methodName: String,
+            val methodDescriptor: String,
+            val contentLength: Int,
+            val contentHash: Int
+    )
+
+    private val cache = ConcurrentHashMap<Key, SMAPAndMethodNode>()
+
+    public fun getMethodNode(
+            classData: ByteArray,
+            methodName: String,
+            methodDescriptor: String,
+            classId: ClassId
+    ): SMAPAndMethodNode? {
+        val key = Key(classId, methodName, methodDescriptor, classData.size(), Arrays.hashCode(classData))
+        val cached = cache.get(key) ?: run {
+            val parsed = InlineCodegenUtil.getMethodNode(classData, methodName, methodDescriptor, classId) ?: return null
+            cache.putIfAbsent(key, parsed) ?: parsed
+        }
+        return copy(cached)
+    }
+
+    private fun copy(original: SMAPAndMethodNode): SMAPAndMethodNode {
+        val node = original.node
+        val copy = MethodNode(InlineCodegenUtil.API, node.access, node.name, node.desc, node.signature, node.exceptions.toTypedArray())
+        // label nodes of the original are shared state while it's being visited
+        synchronized(node) {
+            node.instructions.resetLabels()
+            node.accept(copy)
+        }
+        return SMAPAndMethodNode(copy, original.classSMAP)
+    }
+}
@@ -22,14 +22,21 @@ import org.jetbrains.kotlin.codegen.ClassBuilder;
 import org.jetbrains.kotlin.codegen.DelegatingClassBuilder;
 import org.jetbrains.kotlin.resolve.jvm.diagnostics.JvmDeclarationOrigin;
 import org.jetbrains.org.objectweb.asm.MethodVisitor;
+import org.jetbrains.org.objectweb.asm.tree.MethodNode;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class OptimizationClassBuilder extends DelegatingClassBuilder {
     private final ClassBuilder delegate;
-    private final boolean disableOptimization;
+    private final OptimizationPipeline pipeline;
+    // Methods are only emitted when the class is done if calls between them are going to be inlined
+    private final List<OptimizationMethodVisitor> deferredMethods;
 
-    public OptimizationClassBuilder(@NotNull ClassBuilder delegate, boolean disableOptimization) {
+    public OptimizationClassBuilder(@NotNull ClassBuilder delegate, @NotNull OptimizationPipeline pipeline) {
         this.delegate = delegate;
-        this.disableOptimization = disableOptimization;
+        this.pipeline = pipeline;
+        this.deferredMethods = pipeline.getTrivialMethodInliner() != null ? new ArrayList<OptimizationMethodVisitor>() : null;
     }
 
     @NotNull
@@ -50,8 +57,28 @@ public class OptimizationClassBuilder extends DelegatingClassBuilder {
     ) {
         return new OptimizationMethodVisitor(
                 super.newMethod(origin, access, name, desc, signature, exceptions),
-                disableOptimization,
+                pipeline,
+                deferredMethods,
                 access, name, desc, signature, exceptions
         );
     }
+
+    @Override
+    public void done() {
+        TrivialMethodInliner inliner = pipeline.getTrivialMethodInliner();
+        if (inliner != null && deferredMethods != null) {
+            List<MethodNode> methodNodes = new ArrayList<MethodNode>(deferredMethods.size());
+            for (OptimizationMethodVisitor method : deferredMethods) {
+                methodNodes.add(method.getMethodNode());
+            }
+            inliner.inline(getThisName(), methodNodes);
+
+            for (OptimizationMethodVisitor method : deferredMethods) {
+                method.emit();
+            }
+            deferredMethods.clear();
+        }
+
+        super.done();
+    }
 }
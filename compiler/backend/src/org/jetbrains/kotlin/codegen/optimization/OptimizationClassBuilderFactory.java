@@ -24,16 +24,16 @@ import org.jetbrains.kotlin.codegen.DelegatingClassBuilderFactory;
 import org.jetbrains.kotlin.resolve.jvm.diagnostics.JvmDeclarationOrigin;
 
 public class OptimizationClassBuilderFactory extends DelegatingClassBuilderFactory {
-    private final boolean disableOptimization;
+    private final OptimizationPipeline pipeline;
 
-    public OptimizationClassBuilderFactory(ClassBuilderFactory delegate, boolean disableOptimization) {
+    public OptimizationClassBuilderFactory(ClassBuilderFactory delegate, @NotNull OptimizationPipeline pipeline) {
         super(delegate);
-        this.disableOptimization = disableOptimization;
+        this.pipeline = pipeline;
     }
 
     @NotNull
     @Override
     public OptimizationClassBuilder newClassBuilder(@NotNull JvmDeclarationOrigin origin) {
-        return new OptimizationClassBuilder(getDelegate().newClassBuilder(origin), disableOptimization);
+        return new OptimizationClassBuilder(getDelegate().newClassBuilder(origin), pipeline);
     }
 }
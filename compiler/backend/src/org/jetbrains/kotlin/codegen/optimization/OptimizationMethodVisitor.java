@@ -19,8 +19,6 @@ package org.jetbrains.kotlin.codegen.optimization;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.kotlin.codegen.inline.InlineCodegenUtil;
-import org.jetbrains.kotlin.codegen.optimization.boxing.RedundantBoxingMethodTransformer;
-import org.jetbrains.kotlin.codegen.optimization.boxing.RedundantNullCheckMethodTransformer;
 import org.jetbrains.kotlin.codegen.optimization.common.UtilKt;
 import org.jetbrains.kotlin.codegen.optimization.transformer.MethodTransformer;
 import org.jetbrains.org.objectweb.asm.MethodVisitor;
@@ -34,24 +32,33 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class OptimizationMethodVisitor extends MethodVisitor {
-    private static final int MEMORY_LIMIT_BY_METHOD_MB = 50;
-
     private static final MethodTransformer MANDATORY_METHOD_TRANSFORMER = new MandatoryMethodTransformer();
 
-    private static final MethodTransformer[] OPTIMIZATION_TRANSFORMERS = new MethodTransformer[] {
-            new RedundantNullCheckMethodTransformer(),
-            new RedundantBoxingMethodTransformer(),
-            new DeadCodeEliminationMethodTransformer(),
-            new RedundantGotoMethodTransformer()
-    };
-
     private final MethodNode methodNode;
     private final MethodVisitor delegate;
-    private final boolean disableOptimization;
+    private final OptimizationPipeline pipeline;
+    private final List<OptimizationMethodVisitor> deferredMethods;
 
     public OptimizationMethodVisitor(
             @NotNull MethodVisitor delegate,
-            boolean disableOptimization,
+            @NotNull OptimizationPipeline pipeline,
+            int access,
+            @NotNull String name,
+            @NotNull String desc,
+            @Nullable String signature,
+            @Nullable String[] exceptions
+    ) {
+        this(delegate, pipeline, null, access, name, desc, signature, exceptions);
+    }
+
+    /**
+     * @param deferredMethods if not null, the optimized method is added there instead of being emitted at visitEnd,
+     *                        and should be emitted later with {@link #emit()}
+     */
+    public OptimizationMethodVisitor(
+            @NotNull MethodVisitor delegate,
+            @NotNull OptimizationPipeline pipeline,
+            @Nullable List<OptimizationMethodVisitor> deferredMethods,
             int access,
             @NotNull String name,
             @NotNull String desc,
@@ -63,7 +70,8 @@ public class OptimizationMethodVisitor extends MethodVisitor {
         this.methodNode = new MethodNode(access, name, desc, signature, exceptions);
         this.methodNode.localVariables = new ArrayList<LocalVariableNode>(5);
         this.mv = InlineCodegenUtil.wrapWithMaxLocalCalc(methodNode);
-        this.disableOptimization = disableOptimization;
+        this.pipeline = pipeline;
+        this.deferredMethods = deferredMethods;
     }
 
     @Override
@@ -77,14 +85,24 @@ public class OptimizationMethodVisitor extends MethodVisitor {
 
         if (shouldBeTransformed(methodNode)) {
             MANDATORY_METHOD_TRANSFORMER.transform("fake", methodNode);
-            if (canBeOptimized(methodNode) && !disableOptimization) {
-                for (MethodTransformer transformer : OPTIMIZATION_TRANSFORMERS) {
-                    transformer.transform("fake", methodNode);
-                }
-            }
+            pipeline.transform("fake", methodNode);
             UtilKt.prepareForEmitting(methodNode);
         }
 
+        if (deferredMethods != null) {
+            deferredMethods.add(this);
+        }
+        else {
+            emit();
+        }
+    }
+
+    @NotNull
+    public MethodNode getMethodNode() {
+        return methodNode;
+    }
+
+    public void emit() {
         methodNode.accept(new EndIgnoringMethodVisitorDecorator(Opcodes.ASM5, delegate));
 
 
@@ -132,9 +150,4 @@ public class OptimizationMethodVisitor extends MethodVisitor {
     private static boolean shouldBeTransformed(@NotNull MethodNode node) {
         return node.instructions.size() > 0;
     }
-
-    private static boolean canBeOptimized(@NotNull MethodNode node) {
-        int totalFramesSizeMb = node.instructions.size() * (node.maxLocals + node.maxStack) / (1024 * 1024);
-        return totalFramesSizeMb < MEMORY_LIMIT_BY_METHOD_MB;
-    }
 }
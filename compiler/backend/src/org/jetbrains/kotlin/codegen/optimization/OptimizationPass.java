@@ -0,0 +1,54 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.optimization;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.codegen.optimization.transformer.MethodTransformer;
+
+public final class OptimizationPass {
+    private final String name;
+    private final int level;
+    private final MethodTransformer transformer;
+
+    /**
+     * @param level minimal optimization level (see {@link OptimizationPipeline}) at which the pass is run
+     */
+    public OptimizationPass(@NotNull String name, int level, @NotNull MethodTransformer transformer) {
+        this.name = name;
+        this.level = level;
+        this.transformer = transformer;
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    @NotNull
+    public MethodTransformer getTransformer() {
+        return transformer;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.optimization;
+
+import com.intellij.openapi.project.Project;
+import kotlin.jvm.functions.Function1;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.codegen.extensions.OptimizationPassExtension;
+import org.jetbrains.kotlin.codegen.optimization.boxing.RedundantBoxingMethodTransformer;
+import org.jetbrains.kotlin.codegen.optimization.boxing.RedundantNullCheckMethodTransformer;
+import org.jetbrains.kotlin.codegen.optimization.constants.ConstantFoldingMethodTransformer;
+import org.jetbrains.kotlin.codegen.optimization.sharedVars.RedundantSharedVarMethodTransformer;
+import org.jetbrains.org.objectweb.asm.tree.MethodNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ordered list of optimization passes enabled at the given level, with cumulative statistics for each pass.
+ * Shared by all class builders of a generation state, so it must be safe to use from several codegen threads.
+ */
+public class OptimizationPipeline {
+    public static final int LEVEL_NONE = 0;
+    // passes that only clean up unreachable code and jumps
+    public static final int LEVEL_BASIC = 1;
+    // standard passes, including those running data flow analysis over boxed values
+    public static final int LEVEL_FULL = 2;
+    // passes which also change the shape of the generated code for straightforward source, e.g. by folding constant locals
+    // or inlining tiny private methods
+    public static final int LEVEL_AGGRESSIVE = 3;
+
+    public static final int DEFAULT_LEVEL = LEVEL_FULL;
+
+    public static final int DEFAULT_MEMORY_LIMIT_BY_METHOD_MB = 50;
+
+    public static final OptimizationPipeline DISABLED = new OptimizationPipeline(Collections.<OptimizationPass>emptyList(), LEVEL_NONE);
+
+    @NotNull
+    public static OptimizationPipeline create(@NotNull Project project, int level) {
+        List<OptimizationPass> passes = new ArrayList<OptimizationPass>();
+        passes.add(new OptimizationPass("redundant null checks", LEVEL_FULL, new RedundantNullCheckMethodTransformer()));
+        passes.add(new OptimizationPass("redundant boxing", LEVEL_FULL, new RedundantBoxingMethodTransformer()));
+        passes.add(new OptimizationPass("redundant shared vars", LEVEL_FULL, new RedundantSharedVarMethodTransformer()));
+        passes.add(new OptimizationPass("constant folding", LEVEL_AGGRESSIVE, new ConstantFoldingMethodTransformer()));
+        for (OptimizationPassExtension extension : OptimizationPassExtension.Companion.getInstances(project)) {
+            passes.addAll(extension.getOptimizationPasses(project));
+        }
+        passes.add(new OptimizationPass("dead code", LEVEL_BASIC, new DeadCodeEliminationMethodTransformer()));
+        passes.add(new OptimizationPass("redundant goto", LEVEL_BASIC, new RedundantGotoMethodTransformer()));
+        return new OptimizationPipeline(passes, level);
+    }
+
+    private final List<OptimizationPass> passes;
+    private final List<PassStatistics> statistics;
+    private final int memoryLimitByMethodMb;
+    private final TrivialMethodInliner trivialMethodInliner;
+
+    public OptimizationPipeline(@NotNull List<OptimizationPass> allPasses, int level) {
+        this(allPasses, level, DEFAULT_MEMORY_LIMIT_BY_METHOD_MB);
+    }
+
+    public OptimizationPipeline(@NotNull List<OptimizationPass> allPasses, int level, int memoryLimitByMethodMb) {
+        this.passes = new ArrayList<OptimizationPass>();
+        this.statistics = new ArrayList<PassStatistics>();
+        for (OptimizationPass pass : allPasses) {
+            if (pass.getLevel() <= level) {
+                passes.add(pass);
+                statistics.add(new PassStatistics());
+            }
+        }
+        this.memoryLimitByMethodMb = memoryLimitByMethodMb;
+        this.trivialMethodInliner = level >= LEVEL_AGGRESSIVE ? new TrivialMethodInliner() : null;
+    }
+
+    public boolean isEmpty() {
+        return passes.isEmpty();
+    }
+
+    @NotNull
+    public List<OptimizationPass> getPasses() {
+        return Collections.unmodifiableList(passes);
+    }
+
+    /**
+     * @return the inliner to run over all methods of a class once they are optimized, or null if methods can be emitted right away
+     */
+    @Nullable
+    public TrivialMethodInliner getTrivialMethodInliner() {
+        return trivialMethodInliner;
+    }
+
+    public void transform(@NotNull String internalClassName, @NotNull MethodNode methodNode) {
+        if (isEmpty() || !canBeOptimized(methodNode)) return;
+
+        for (int i = 0; i < passes.size(); i++) {
+            int sizeBefore = methodNode.instructions.size();
+            long start = System.nanoTime();
+
+            passes.get(i).getTransformer().transform(internalClassName, methodNode);
+
+            statistics.get(i).record(System.nanoTime() - start, sizeBefore - methodNode.instructions.size());
+        }
+    }
+
+    private boolean canBeOptimized(@NotNull MethodNode node) {
+        int totalFramesSizeMb = node.instructions.size() * (node.maxLocals + node.maxStack) / (1024 * 1024);
+        return totalFramesSizeMb < memoryLimitByMethodMb;
+    }
+
+    public void report(@NotNull Function1<String, ?> consumer) {
+        for (int i = 0; i < passes.size(); i++) {
+            PassStatistics stats = statistics.get(i);
+            consumer.invoke("OPTIMIZE: pass '" + passes.get(i).getName() + "' ran on " + stats.methods.get() + " methods in " +
+                            TimeUnit.NANOSECONDS.toMillis(stats.nanos.get()) + " ms, removed " +
+                            stats.removedInstructions.get() + " instructions");
+        }
+        if (trivialMethodInliner != null) {
+            consumer.invoke("OPTIMIZE: inlined " + trivialMethodInliner.getInlinedCallCount() + " calls of trivial private methods");
+        }
+    }
+
+    private static class PassStatistics {
+        private final AtomicLong methods = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+        private final AtomicLong removedInstructions = new AtomicLong();
+
+        private void record(long elapsedNanos, int removed) {
+            methods.incrementAndGet();
+            nanos.addAndGet(elapsedNanos);
+            removedInstructions.addAndGet(removed);
+        }
+    }
+}
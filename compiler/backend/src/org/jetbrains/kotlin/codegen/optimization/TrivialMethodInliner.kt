@@ -0,0 +1,150 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.optimization
+
+import org.jetbrains.kotlin.codegen.optimization.common.isMeaningful
+import org.jetbrains.org.objectweb.asm.Opcodes
+import org.jetbrains.org.objectweb.asm.Type
+import org.jetbrains.org.objectweb.asm.tree.*
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Replaces calls of tiny straight-line private methods with their bodies in the other methods of the same class.
+ * Private methods may only be called from their own class, so copying their bodies there doesn't change which members
+ * are accessed from where. In particular, a synthetic accessor for a tiny private function ends up containing its body,
+ * so that a lambda calling that function goes through one method instead of two.
+ */
+public class TrivialMethodInliner {
+    private val inlinedCalls = AtomicLong()
+
+    public val inlinedCallCount: Long
+        get() = inlinedCalls.get()
+
+    public fun inline(internalClassName: String, methods: List<MethodNode>) {
+        val candidates = hashMapOf<String, MethodNode>()
+        for (method in methods) {
+            if (isInlinable(method)) {
+                candidates[method.name + method.desc] = method
+            }
+        }
+        if (candidates.isEmpty()) return
+
+        for (caller in methods) {
+            for (insn in caller.instructions.toArray()) {
+                if (insn !is MethodInsnNode || insn.owner != internalClassName) continue
+
+                val callee = candidates[insn.name + insn.desc] ?: continue
+                // The callee may have grown because calls were inlined into it
+                if (callee === caller || !isInlinable(callee)) continue
+                if (isStatic(callee) != (insn.getOpcode() == Opcodes.INVOKESTATIC)) continue
+
+                inlineCall(caller, insn, callee)
+                inlinedCalls.incrementAndGet()
+            }
+        }
+    }
+
+    private fun isInlinable(method: MethodNode): Boolean {
+        if (method.access and Opcodes.ACC_PRIVATE == 0) return false
+        if (method.access and (Opcodes.ACC_ABSTRACT or Opcodes.ACC_NATIVE or Opcodes.ACC_SYNCHRONIZED) != 0) return false
+        if (method.name == "<init>" || method.name == "<clinit>" || method.tryCatchBlocks.isNotEmpty()) return false
+
+        var size = 0
+        var returnSeen = false
+        for (insn in method.instructions.toArray()) {
+            if (!insn.isMeaningful) continue
+            if (returnSeen || !isStraightLine(insn)) return false
+            if (++size > MAX_INLINED_METHOD_SIZE) return false
+            returnSeen = isReturn(insn)
+        }
+        return returnSeen
+    }
+
+    private fun isStraightLine(insn: AbstractInsnNode): Boolean =
+            when (insn.getOpcode()) {
+                Opcodes.ATHROW, Opcodes.MONITORENTER, Opcodes.MONITOREXIT, Opcodes.RET, Opcodes.JSR -> false
+                else -> insn !is JumpInsnNode && insn !is TableSwitchInsnNode && insn !is LookupSwitchInsnNode
+            }
+
+    private fun isReturn(insn: AbstractInsnNode): Boolean =
+            insn.getOpcode() >= Opcodes.IRETURN && insn.getOpcode() <= Opcodes.RETURN
+
+    private fun isStatic(method: MethodNode): Boolean =
+            method.access and Opcodes.ACC_STATIC != 0
+
+    private fun inlineCall(caller: MethodNode, call: MethodInsnNode, callee: MethodNode) {
+        val offset = caller.maxLocals
+        val result = InsnList()
+
+        // Arguments are taken from the stack in reverse order
+        val argumentTypes = Type.getArgumentTypes(callee.desc)
+        val argumentSlots = arrayListOf<Int>()
+        var slot = if (isStatic(callee)) 0 else 1
+        for (type in argumentTypes) {
+            argumentSlots.add(slot)
+            slot += type.getSize()
+        }
+        for (i in argumentTypes.indices.reversed()) {
+            result.add(VarInsnNode(argumentTypes[i].getOpcode(Opcodes.ISTORE), offset + argumentSlots[i]))
+        }
+
+        if (!isStatic(callee)) {
+            result.add(VarInsnNode(Opcodes.ASTORE, offset))
+            if (!isCalledOnThis(caller, call, argumentTypes.isEmpty())) {
+                // The call would have thrown NPE on a null receiver even if the body doesn't use it
+                result.add(VarInsnNode(Opcodes.ALOAD, offset))
+                result.add(MethodInsnNode(Opcodes.INVOKEVIRTUAL, "java/lang/Object", "getClass", "()Ljava/lang/Class;", false))
+                result.add(InsnNode(Opcodes.POP))
+            }
+        }
+
+        // Labels, line numbers and the final return are dropped: the body is straight-line and the result stays on the stack
+        for (insn in callee.instructions.toArray()) {
+            if (!insn.isMeaningful || isReturn(insn)) continue
+
+            val copy = insn.clone(emptyMap())
+            when (copy) {
+                is VarInsnNode -> copy.`var` += offset
+                is IincInsnNode -> copy.`var` += offset
+            }
+            result.add(copy)
+        }
+
+        caller.instructions.insert(call, result)
+        caller.instructions.remove(call)
+        caller.maxLocals += callee.maxLocals
+        caller.maxStack += callee.maxStack
+    }
+
+    private fun isCalledOnThis(caller: MethodNode, call: MethodInsnNode, noArguments: Boolean): Boolean {
+        if (isStatic(caller) || !noArguments) return false
+
+        // A label may be a jump target with another receiver on the stack
+        var receiver = call.getPrevious()
+        while (receiver != null && (receiver.getType() == AbstractInsnNode.LINE || receiver.getType() == AbstractInsnNode.FRAME)) {
+            receiver = receiver.getPrevious()
+        }
+        if (receiver !is VarInsnNode || receiver.getOpcode() != Opcodes.ALOAD || receiver.`var` != 0) return false
+
+        return caller.instructions.toArray().none { it is VarInsnNode && it.getOpcode() == Opcodes.ASTORE && it.`var` == 0 }
+    }
+
+    companion object {
+        // Number of meaningful instructions including the return, keeps inlined bodies well below the JIT inlining threshold
+        private val MAX_INLINED_METHOD_SIZE = 10
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.optimization.constants
+
+import org.jetbrains.kotlin.codegen.optimization.common.isMeaningful
+import org.jetbrains.kotlin.codegen.optimization.transformer.MethodTransformer
+import org.jetbrains.org.objectweb.asm.Opcodes
+import org.jetbrains.org.objectweb.asm.tree.*
+import org.jetbrains.org.objectweb.asm.tree.analysis.BasicValue
+import org.jetbrains.org.objectweb.asm.tree.analysis.Frame
+
+/**
+ * Propagates int constants through the stack and local variables, replaces loads of constant locals with constants,
+ * folds arithmetic on constants and resolves conditional jumps and switches on constants to GOTOs.
+ *
+ * Code which becomes unreachable is left in place for [org.jetbrains.kotlin.codegen.optimization.DeadCodeEliminationMethodTransformer].
+ */
+public class ConstantFoldingMethodTransformer : MethodTransformer() {
+    override fun transform(internalClassName: String, methodNode: MethodNode) {
+        val frames = MethodTransformer.analyze(internalClassName, methodNode, ConstantPropagationInterpreter())
+        val insns = methodNode.instructions.toArray()
+        val folder = Folder(methodNode.instructions, collectReferencedLabels(methodNode))
+
+        for (i in insns.indices) {
+            val frame = frames[i] ?: continue
+            folder.fold(insns[i], frame)
+        }
+    }
+
+    private class Folder(val instructions: InsnList, val referencedLabels: Set<LabelNode>) {
+        fun fold(insn: AbstractInsnNode, frame: Frame<BasicValue>) {
+            val opcode = insn.getOpcode()
+            when (opcode) {
+                Opcodes.ILOAD -> {
+                    val local = frame.getLocal((insn as VarInsnNode).`var`)
+                    if (local is IntConstantValue) {
+                        instructions.set(insn, createIntConstantInsn(local.value))
+                    }
+                }
+                in Opcodes.IFEQ..Opcodes.IFLE -> {
+                    val value = frame.peek(0) as? IntConstantValue ?: return
+                    val taken = compare(opcode - Opcodes.IFEQ, value.value, 0)
+                    replaceWithGoto(insn, 1, if (taken) (insn as JumpInsnNode).label else null)
+                }
+                in Opcodes.IF_ICMPEQ..Opcodes.IF_ICMPLE -> {
+                    val value1 = frame.peek(1) as? IntConstantValue ?: return
+                    val value2 = frame.peek(0) as? IntConstantValue ?: return
+                    val taken = compare(opcode - Opcodes.IF_ICMPEQ, value1.value, value2.value)
+                    replaceWithGoto(insn, 2, if (taken) (insn as JumpInsnNode).label else null)
+                }
+                Opcodes.TABLESWITCH -> {
+                    val key = frame.peek(0) as? IntConstantValue ?: return
+                    val switch = insn as TableSwitchInsnNode
+                    val target = if (key.value >= switch.min && key.value <= switch.max) switch.labels[key.value - switch.min] else switch.dflt
+                    replaceWithGoto(insn, 1, target)
+                }
+                Opcodes.LOOKUPSWITCH -> {
+                    val key = frame.peek(0) as? IntConstantValue ?: return
+                    val switch = insn as LookupSwitchInsnNode
+                    val index = switch.keys.indexOf(key.value)
+                    replaceWithGoto(insn, 1, if (index >= 0) switch.labels[index] else switch.dflt)
+                }
+                else -> {
+                    val result = foldOperation(opcode, frame) ?: return
+                    val operandCount = if (opcode == Opcodes.INEG || opcode in Opcodes.I2B..Opcodes.I2S) 1 else 2
+                    val operands = findRemovableOperands(insn, operandCount) ?: return
+                    operands.forEach { instructions.remove(it) }
+                    instructions.set(insn, createIntConstantInsn(result))
+                }
+            }
+        }
+
+        private fun foldOperation(opcode: Int, frame: Frame<BasicValue>): Int? {
+            if (opcode == Opcodes.INEG || opcode in Opcodes.I2B..Opcodes.I2S) {
+                val value = frame.peek(0) as? IntConstantValue ?: return null
+                return foldUnaryOperation(opcode, value.value)
+            }
+            if (opcode in Opcodes.IADD..Opcodes.IXOR && frame.getStackSize() >= 2) {
+                val value1 = frame.peek(1) as? IntConstantValue ?: return null
+                val value2 = frame.peek(0) as? IntConstantValue ?: return null
+                return foldBinaryOperation(opcode, value1.value, value2.value)
+            }
+            return null
+        }
+
+        // target == null means the jump is never taken
+        private fun replaceWithGoto(insn: AbstractInsnNode, operandCount: Int, target: LabelNode?) {
+            val operands = findRemovableOperands(insn, operandCount)
+            if (operands != null) {
+                operands.forEach { instructions.remove(it) }
+            }
+            else {
+                instructions.insertBefore(insn, InsnNode(if (operandCount == 1) Opcodes.POP else Opcodes.POP2))
+            }
+
+            if (target != null) {
+                instructions.set(insn, JumpInsnNode(Opcodes.GOTO, target))
+            }
+            else {
+                instructions.remove(insn)
+            }
+        }
+
+        // Instructions which push the operands of insn, if all of them are side-effect free int pushes.
+        // Nothing may jump in between them, otherwise the operands could also come from elsewhere.
+        private fun findRemovableOperands(insn: AbstractInsnNode, count: Int): List<AbstractInsnNode>? {
+            val result = arrayListOf<AbstractInsnNode>()
+            var current = insn.getPrevious()
+            while (result.size() < count) {
+                if (current == null || current in referencedLabels) return null
+                if (current.isMeaningful) {
+                    if (current.getIntConstant() == null && current.getOpcode() != Opcodes.ILOAD) return null
+                    result.add(current)
+                }
+                current = current.getPrevious()
+            }
+            return result
+        }
+    }
+}
+
+private fun Frame<BasicValue>.peek(depth: Int): BasicValue = getStack(getStackSize() - 1 - depth)
+
+// conditions are in the order of IFEQ..IFLE and IF_ICMPEQ..IF_ICMPLE opcodes
+private fun compare(condition: Int, a: Int, b: Int): Boolean =
+        when (condition) {
+            0 -> a == b
+            1 -> a != b
+            2 -> a < b
+            3 -> a >= b
+            4 -> a > b
+            5 -> a <= b
+            else -> throw IllegalArgumentException("Unknown condition: $condition")
+        }
+
+private fun collectReferencedLabels(methodNode: MethodNode): Set<LabelNode> {
+    val result = hashSetOf<LabelNode>()
+    for (insn in methodNode.instructions.toArray()) {
+        when (insn) {
+            is JumpInsnNode -> result.add(insn.label)
+            is TableSwitchInsnNode -> {
+                result.add(insn.dflt)
+                result.addAll(insn.labels)
+            }
+            is LookupSwitchInsnNode -> {
+                result.add(insn.dflt)
+                result.addAll(insn.labels)
+            }
+        }
+    }
+    for (tryCatchBlock in methodNode.tryCatchBlocks) {
+        result.add(tryCatchBlock.start)
+        result.add(tryCatchBlock.end)
+        result.add(tryCatchBlock.handler)
+    }
+    return result
+}
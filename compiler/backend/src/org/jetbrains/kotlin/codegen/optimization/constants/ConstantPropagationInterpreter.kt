@@ -0,0 +1,130 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.optimization.constants
+
+import org.jetbrains.kotlin.codegen.optimization.common.OptimizationBasicInterpreter
+import org.jetbrains.org.objectweb.asm.Opcodes
+import org.jetbrains.org.objectweb.asm.Type
+import org.jetbrains.org.objectweb.asm.tree.*
+import org.jetbrains.org.objectweb.asm.tree.analysis.BasicValue
+
+public class IntConstantValue(val value: Int) : BasicValue(Type.INT_TYPE) {
+    override fun equals(other: Any?): Boolean = other is IntConstantValue && other.value == value
+
+    override fun hashCode(): Int = value
+
+    override fun toString(): String = "I($value)"
+}
+
+/**
+ * Int value that used to be a constant on some path, but isn't anymore.
+ *
+ * Frame.merge() only replaces a value when the merge result is not equal to it, and plain [BasicValue.INT_VALUE]
+ * is equal to any int constant, so the result of merging a constant with something else must be a distinct value.
+ */
+private object NonConstantIntValue : BasicValue(Type.INT_TYPE) {
+    override fun equals(other: Any?): Boolean = other === this
+
+    override fun hashCode(): Int = System.identityHashCode(this)
+
+    override fun toString(): String = "I(?)"
+}
+
+public class ConstantPropagationInterpreter : OptimizationBasicInterpreter() {
+    override fun newOperation(insn: AbstractInsnNode): BasicValue? {
+        val constant = insn.getIntConstant()
+        if (constant != null) return IntConstantValue(constant)
+
+        return super.newOperation(insn)
+    }
+
+    override fun unaryOperation(insn: AbstractInsnNode, value: BasicValue): BasicValue? {
+        if (value is IntConstantValue) {
+            val result = if (insn.getOpcode() == Opcodes.IINC)
+                value.value + (insn as IincInsnNode).incr
+            else
+                foldUnaryOperation(insn.getOpcode(), value.value)
+            if (result != null) return IntConstantValue(result)
+        }
+
+        return super.unaryOperation(insn, value)
+    }
+
+    override fun binaryOperation(insn: AbstractInsnNode, value1: BasicValue, value2: BasicValue): BasicValue? {
+        if (value1 is IntConstantValue && value2 is IntConstantValue) {
+            val result = foldBinaryOperation(insn.getOpcode(), value1.value, value2.value)
+            if (result != null) return IntConstantValue(result)
+        }
+
+        return super.binaryOperation(insn, value1, value2)
+    }
+
+    override fun merge(v: BasicValue, w: BasicValue): BasicValue {
+        if (v !is IntConstantValue && v !== NonConstantIntValue && w !is IntConstantValue && w !== NonConstantIntValue) {
+            return super.merge(v, w)
+        }
+
+        if (v == w) return v
+
+        val merged = super.merge(v.withoutConstant(), w.withoutConstant())
+        return if (v is IntConstantValue && merged == BasicValue.INT_VALUE) NonConstantIntValue else merged
+    }
+
+    private fun BasicValue.withoutConstant(): BasicValue =
+            if (this is IntConstantValue || this === NonConstantIntValue) BasicValue.INT_VALUE else this
+}
+
+fun foldUnaryOperation(opcode: Int, a: Int): Int? =
+        when (opcode) {
+            Opcodes.INEG -> -a
+            Opcodes.I2B -> a.toByte().toInt()
+            Opcodes.I2C -> a.toChar().toInt()
+            Opcodes.I2S -> a.toShort().toInt()
+            else -> null
+        }
+
+fun foldBinaryOperation(opcode: Int, a: Int, b: Int): Int? =
+        when (opcode) {
+            Opcodes.IADD -> a + b
+            Opcodes.ISUB -> a - b
+            Opcodes.IMUL -> a * b
+            Opcodes.IDIV -> if (b != 0) a / b else null
+            Opcodes.IREM -> if (b != 0) a % b else null
+            Opcodes.IAND -> a and b
+            Opcodes.IOR -> a or b
+            Opcodes.IXOR -> a xor b
+            Opcodes.ISHL -> a shl b
+            Opcodes.ISHR -> a shr b
+            Opcodes.IUSHR -> a ushr b
+            else -> null
+        }
+
+fun AbstractInsnNode.getIntConstant(): Int? =
+        when (getOpcode()) {
+            in Opcodes.ICONST_M1..Opcodes.ICONST_5 -> getOpcode() - Opcodes.ICONST_0
+            Opcodes.BIPUSH, Opcodes.SIPUSH -> (this as IntInsnNode).operand
+            Opcodes.LDC -> (this as LdcInsnNode).cst as? Int
+            else -> null
+        }
+
+fun createIntConstantInsn(value: Int): AbstractInsnNode =
+        when (value) {
+            in -1..5 -> InsnNode(Opcodes.ICONST_0 + value)
+            in -128..127 -> IntInsnNode(Opcodes.BIPUSH, value)
+            in -32768..32767 -> IntInsnNode(Opcodes.SIPUSH, value)
+            else -> LdcInsnNode(value)
+        }
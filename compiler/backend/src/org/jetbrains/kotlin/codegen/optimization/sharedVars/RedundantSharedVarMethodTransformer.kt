@@ -0,0 +1,266 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.optimization.sharedVars
+
+import org.jetbrains.kotlin.codegen.optimization.transformer.MethodTransformer
+import org.jetbrains.kotlin.resolve.jvm.AsmTypes
+import org.jetbrains.org.objectweb.asm.Opcodes
+import org.jetbrains.org.objectweb.asm.Type
+import org.jetbrains.org.objectweb.asm.tree.*
+import org.jetbrains.org.objectweb.asm.tree.analysis.BasicValue
+import org.jetbrains.org.objectweb.asm.tree.analysis.Frame
+
+/**
+ * Replaces shared var wrappers (kotlin.jvm.internal.Ref.*Ref) which never leave the method with plain local variables.
+ * This is the usual case for a var captured by an inlined lambda, e.g. `var count = 0; list.forEach { count++ }`.
+ */
+public class RedundantSharedVarMethodTransformer : MethodTransformer() {
+    override fun transform(internalClassName: String, methodNode: MethodNode) {
+        val interpreter = SharedVarInterpreter()
+        val frames = MethodTransformer.analyze(internalClassName, methodNode, interpreter)
+        if (interpreter.allValues.isEmpty()) return
+
+        val insns = methodNode.instructions.toArray()
+        markValuesEscapingThroughStackOperations(interpreter, insns, frames)
+        markValuesWithSeveralLiveInstances(interpreter, insns, frames)
+        markValuesClashingWithVariables(interpreter, methodNode, frames)
+
+        val variables = hashMapOf<SharedVarValue, Int>()
+        for (value in interpreter.allValues) {
+            if (interpreter.isEscaped(value)) continue
+            val ownSlot = findOwnSlot(value, methodNode, insns, frames)
+            if (ownSlot != null) {
+                variables[value] = ownSlot
+            }
+            else {
+                variables[value] = methodNode.maxLocals
+                methodNode.maxLocals += value.elementType.getSize()
+            }
+        }
+        if (variables.isEmpty()) return
+
+        adaptLocalVariableTable(methodNode, frames, variables)
+        for (i in insns.indices) {
+            val frame = frames[i] ?: continue
+            adaptInstruction(methodNode.instructions, insns[i], frame, variables)
+        }
+    }
+
+    // Stack operations which don't go through the interpreter, or move a wrapper under the duplicated values
+    private fun markValuesEscapingThroughStackOperations(
+            interpreter: SharedVarInterpreter,
+            insns: Array<AbstractInsnNode>,
+            frames: Array<Frame<BasicValue>?>
+    ) {
+        for (i in insns.indices) {
+            val frame = frames[i] ?: continue
+            when (insns[i].getOpcode()) {
+                Opcodes.DUP2_X1 -> {
+                    if (frame.peek(0).getSize() == 1) {
+                        markTopEscaped(interpreter, frame, 3)
+                    }
+                }
+                Opcodes.DUP_X2, Opcodes.DUP2_X2, Opcodes.POP2 -> markTopEscaped(interpreter, frame, 4)
+            }
+        }
+    }
+
+    private fun markTopEscaped(interpreter: SharedVarInterpreter, frame: Frame<BasicValue>, count: Int) {
+        for (depth in 0..Math.min(count, frame.getStackSize()) - 1) {
+            interpreter.markEscaped(frame.peek(depth))
+        }
+    }
+
+    // When an allocation is reached while a wrapper created by it is still in a variable or on the stack,
+    // both instances would have to share the same local
+    private fun markValuesWithSeveralLiveInstances(
+            interpreter: SharedVarInterpreter,
+            insns: Array<AbstractInsnNode>,
+            frames: Array<Frame<BasicValue>?>
+    ) {
+        for (i in insns.indices) {
+            val frame = frames[i] ?: continue
+            val insn = insns[i]
+            if (insn.getOpcode() != Opcodes.NEW) continue
+
+            val value = interpreter.allValues.firstOrNull { it.allocation === insn } ?: continue
+            val live = (0..frame.getLocals() - 1).any { frame.getLocal(it) === value } ||
+                       (0..frame.getStackSize() - 1).any { frame.getStack(it) === value }
+            if (live) {
+                interpreter.markEscaped(value)
+            }
+        }
+    }
+
+    // A debugger variable can only be retargeted if it holds a single wrapper during its whole range
+    private fun markValuesClashingWithVariables(interpreter: SharedVarInterpreter, methodNode: MethodNode, frames: Array<Frame<BasicValue>?>) {
+        for (localVariable in methodNode.localVariables) {
+            if (!isSharedVarVariable(localVariable)) continue
+
+            val values = getValuesStoredOrLoadedToVariable(localVariable, methodNode, frames)
+            if (values.none { it is SharedVarValue }) continue
+            if (values.distinct().size() > 1) {
+                values.forEach { interpreter.markEscaped(it) }
+            }
+        }
+    }
+
+    // The element is kept in the slot of the wrapper if nothing else is ever stored there, so that the order of variables
+    // in the debugger doesn't change. A two-word element would also need the next slot, so it always gets a fresh one
+    private fun findOwnSlot(
+            value: SharedVarValue,
+            methodNode: MethodNode,
+            insns: Array<AbstractInsnNode>,
+            frames: Array<Frame<BasicValue>?>
+    ): Int? {
+        if (value.elementType.getSize() != 1) return null
+
+        var slot: Int? = null
+        for (i in insns.indices) {
+            val insn = insns[i]
+            if (insn is VarInsnNode && insn.getOpcode() == Opcodes.ASTORE && frames[i]?.peek(0) === value) {
+                slot = insn.`var`
+                break
+            }
+        }
+        if (slot == null) return null
+
+        val parametersSize = (Type.getArgumentsAndReturnSizes(methodNode.desc) shr 2) -
+                             (if (methodNode.access and Opcodes.ACC_STATIC != 0) 1 else 0)
+        if (slot < parametersSize) return null
+
+        for (i in insns.indices) {
+            val insn = insns[i]
+            val accessedSlot = if (insn is VarInsnNode) insn.`var` else if (insn is IincInsnNode) insn.`var` else null
+            if (accessedSlot != slot) continue
+
+            val frame = frames[i] ?: return null
+            val accessedValue = when (insn.getOpcode()) {
+                Opcodes.ASTORE -> frame.peek(0)
+                Opcodes.ALOAD -> frame.getLocal(slot)
+                else -> return null
+            }
+            if (accessedValue !== value) return null
+        }
+        return slot
+    }
+
+    private fun adaptLocalVariableTable(methodNode: MethodNode, frames: Array<Frame<BasicValue>?>, variables: Map<SharedVarValue, Int>) {
+        for (localVariable in methodNode.localVariables) {
+            if (!isSharedVarVariable(localVariable)) continue
+
+            val value = getValuesStoredOrLoadedToVariable(localVariable, methodNode, frames).firstOrNull() as? SharedVarValue ?: continue
+            val index = variables[value] ?: continue
+            localVariable.index = index
+            localVariable.desc = value.elementType.getDescriptor()
+        }
+    }
+
+    private fun isSharedVarVariable(localVariable: LocalVariableNode): Boolean =
+            localVariable.desc.startsWith("L" + AsmTypes.REF_TYPE_PREFIX)
+
+    private fun getValuesStoredOrLoadedToVariable(
+            localVariable: LocalVariableNode,
+            methodNode: MethodNode,
+            frames: Array<Frame<BasicValue>?>
+    ): List<BasicValue> {
+        val result = arrayListOf<BasicValue>()
+        val insnList = methodNode.instructions
+        val from = insnList.indexOf(localVariable.start) + 1
+        val to = insnList.indexOf(localVariable.end) - 1
+
+        val valueAtStart = if (from in frames.indices) frames[from]?.getLocal(localVariable.index) else null
+        if (valueAtStart != null && valueAtStart !== BasicValue.UNINITIALIZED_VALUE) {
+            result.add(valueAtStart)
+        }
+
+        for (i in Math.max(from, 0)..Math.min(to, insnList.size() - 1)) {
+            val insn = insnList.get(i)
+            val frame = frames[i] ?: continue
+            if (insn !is VarInsnNode || insn.`var` != localVariable.index) continue
+            when (insn.getOpcode()) {
+                Opcodes.ASTORE -> result.add(frame.peek(0))
+                Opcodes.ALOAD -> result.add(frame.getLocal(insn.`var`))
+            }
+        }
+        return result
+    }
+
+    private fun adaptInstruction(
+            instructions: InsnList,
+            insn: AbstractInsnNode,
+            frame: Frame<BasicValue>,
+            variables: Map<SharedVarValue, Int>
+    ) {
+        fun variableFor(value: BasicValue?): Int? = if (value is SharedVarValue) variables[value] else null
+
+        when (insn.getOpcode()) {
+            Opcodes.NEW -> {
+                val value = variables.keySet().firstOrNull { it.allocation === insn } ?: return
+                val type = value.elementType
+                instructions.insertBefore(insn, InsnNode(defaultValueOpcode(type)))
+                instructions.set(insn, VarInsnNode(type.getOpcode(Opcodes.ISTORE), variables[value]!!))
+            }
+            Opcodes.ALOAD -> {
+                if (variableFor(frame.getLocal((insn as VarInsnNode).`var`)) != null) {
+                    instructions.remove(insn)
+                }
+            }
+            Opcodes.ASTORE, Opcodes.DUP, Opcodes.POP -> {
+                if (variableFor(frame.peek(0)) != null) {
+                    instructions.remove(insn)
+                }
+            }
+            Opcodes.INVOKESPECIAL -> {
+                if (frame.getStackSize() > 0 && variableFor(frame.peek(0)) != null && (insn as MethodInsnNode).name == "<init>") {
+                    instructions.remove(insn)
+                }
+            }
+            Opcodes.GETFIELD -> {
+                val value = frame.peek(0)
+                val index = variableFor(value) ?: return
+                instructions.set(insn, VarInsnNode((value as SharedVarValue).elementType.getOpcode(Opcodes.ILOAD), index))
+            }
+            Opcodes.PUTFIELD -> {
+                val value = frame.peek(1)
+                val index = variableFor(value) ?: return
+                instructions.set(insn, VarInsnNode((value as SharedVarValue).elementType.getOpcode(Opcodes.ISTORE), index))
+            }
+            Opcodes.DUP_X1 -> {
+                if (variableFor(frame.peek(1)) != null) {
+                    instructions.set(insn, InsnNode(Opcodes.DUP))
+                }
+            }
+            Opcodes.DUP2_X1 -> {
+                if (frame.peek(0).getSize() == 2 && variableFor(frame.peek(1)) != null) {
+                    instructions.set(insn, InsnNode(Opcodes.DUP2))
+                }
+            }
+        }
+    }
+
+    private fun defaultValueOpcode(type: Type): Int =
+            when (type.getSort()) {
+                Type.LONG -> Opcodes.LCONST_0
+                Type.FLOAT -> Opcodes.FCONST_0
+                Type.DOUBLE -> Opcodes.DCONST_0
+                Type.OBJECT, Type.ARRAY -> Opcodes.ACONST_NULL
+                else -> Opcodes.ICONST_0
+            }
+}
+
+private fun Frame<BasicValue>.peek(depth: Int): BasicValue = getStack(getStackSize() - 1 - depth)
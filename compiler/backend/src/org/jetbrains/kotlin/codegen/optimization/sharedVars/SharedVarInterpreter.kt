@@ -0,0 +1,145 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.optimization.sharedVars
+
+import org.jetbrains.kotlin.codegen.StackValue
+import org.jetbrains.kotlin.codegen.optimization.common.OptimizationBasicInterpreter
+import org.jetbrains.kotlin.resolve.jvm.AsmTypes
+import org.jetbrains.org.objectweb.asm.Opcodes
+import org.jetbrains.org.objectweb.asm.Type
+import org.jetbrains.org.objectweb.asm.tree.AbstractInsnNode
+import org.jetbrains.org.objectweb.asm.tree.FieldInsnNode
+import org.jetbrains.org.objectweb.asm.tree.MethodInsnNode
+import org.jetbrains.org.objectweb.asm.tree.TypeInsnNode
+import org.jetbrains.org.objectweb.asm.tree.analysis.BasicValue
+
+/**
+ * Shared var wrapper (kotlin.jvm.internal.Ref.*Ref) allocated by [allocation].
+ * Values are compared by identity, so that wrappers from different allocations never merge silently.
+ */
+public class SharedVarValue(val allocation: TypeInsnNode, val elementType: Type) : BasicValue(Type.getObjectType(allocation.desc)) {
+    override fun equals(other: Any?): Boolean = this === other
+
+    override fun hashCode(): Int = System.identityHashCode(this)
+}
+
+/**
+ * Tracks shared var wrappers and marks those which are used in any way other than
+ * being stored to/loaded from locals, duplicated, popped, constructed, or having their element read or written.
+ */
+public class SharedVarInterpreter : OptimizationBasicInterpreter() {
+    private val valuesByAllocation = hashMapOf<AbstractInsnNode, SharedVarValue>()
+    private val escaped = hashSetOf<SharedVarValue>()
+
+    val allValues: Collection<SharedVarValue>
+        get() = valuesByAllocation.values()
+
+    fun isEscaped(value: SharedVarValue): Boolean = value in escaped
+
+    fun markEscaped(value: BasicValue?) {
+        if (value is SharedVarValue) {
+            escaped.add(value)
+        }
+    }
+
+    override fun newOperation(insn: AbstractInsnNode): BasicValue? {
+        if (insn.getOpcode() == Opcodes.NEW) {
+            val elementType = SHARED_VAR_ELEMENT_TYPES[(insn as TypeInsnNode).desc]
+            if (elementType != null) {
+                return valuesByAllocation.getOrPut(insn) { SharedVarValue(insn, elementType) }
+            }
+        }
+        return super.newOperation(insn)
+    }
+
+    override fun copyOperation(insn: AbstractInsnNode, value: BasicValue): BasicValue {
+        when (insn.getOpcode()) {
+            Opcodes.ALOAD, Opcodes.ASTORE, Opcodes.DUP -> {}
+            else -> markEscaped(value)
+        }
+        return super.copyOperation(insn, value)
+    }
+
+    override fun unaryOperation(insn: AbstractInsnNode, value: BasicValue): BasicValue? {
+        if (!(insn.getOpcode() == Opcodes.GETFIELD && isElementAccess(insn, value))) {
+            markEscaped(value)
+        }
+        return super.unaryOperation(insn, value)
+    }
+
+    override fun binaryOperation(insn: AbstractInsnNode, value1: BasicValue, value2: BasicValue): BasicValue? {
+        if (!(insn.getOpcode() == Opcodes.PUTFIELD && isElementAccess(insn, value1))) {
+            markEscaped(value1)
+        }
+        markEscaped(value2)
+        return super.binaryOperation(insn, value1, value2)
+    }
+
+    override fun ternaryOperation(insn: AbstractInsnNode, value1: BasicValue, value2: BasicValue, value3: BasicValue): BasicValue? {
+        markEscaped(value1)
+        markEscaped(value2)
+        markEscaped(value3)
+        return super.ternaryOperation(insn, value1, value2, value3)
+    }
+
+    override fun naryOperation(insn: AbstractInsnNode, values: List<BasicValue>): BasicValue? {
+        for ((index, value) in values.withIndex()) {
+            if (!(index == 0 && isConstructorCall(insn, value))) {
+                markEscaped(value)
+            }
+        }
+        return super.naryOperation(insn, values)
+    }
+
+    override fun returnOperation(insn: AbstractInsnNode, value: BasicValue, expected: BasicValue) {
+        markEscaped(value)
+        super.returnOperation(insn, value, expected)
+    }
+
+    override fun merge(v: BasicValue, w: BasicValue): BasicValue {
+        if (v === w || (v !is SharedVarValue && w !is SharedVarValue)) {
+            return super.merge(v, w)
+        }
+
+        // a variable declared inside a loop: the wrapper from the previous iteration is dead at the loop start
+        if (v === BasicValue.UNINITIALIZED_VALUE || w === BasicValue.UNINITIALIZED_VALUE) {
+            return BasicValue.UNINITIALIZED_VALUE
+        }
+
+        markEscaped(v)
+        markEscaped(w)
+        return super.merge(v, w)
+    }
+
+    private fun isElementAccess(insn: AbstractInsnNode, value: BasicValue): Boolean =
+            value is SharedVarValue && (insn as FieldInsnNode).owner == value.getType().getInternalName() && insn.name == "element"
+
+    private fun isConstructorCall(insn: AbstractInsnNode, value: BasicValue): Boolean =
+            value is SharedVarValue && insn.getOpcode() == Opcodes.INVOKESPECIAL && (insn as MethodInsnNode).name == "<init>" &&
+            insn.owner == value.getType().getInternalName() && insn.desc == "()V"
+
+    companion object {
+        private val SHARED_VAR_ELEMENT_TYPES = hashMapOf<String, Type>()
+
+        init {
+            for (type in listOf(Type.BOOLEAN_TYPE, Type.CHAR_TYPE, Type.BYTE_TYPE, Type.SHORT_TYPE, Type.INT_TYPE,
+                                Type.FLOAT_TYPE, Type.LONG_TYPE, Type.DOUBLE_TYPE, AsmTypes.OBJECT_TYPE)) {
+                SHARED_VAR_ELEMENT_TYPES[StackValue.sharedTypeForType(type).getInternalName()] = StackValue.refType(type)
+            }
+        }
+    }
+}
@@ -24,8 +24,10 @@ import org.jetbrains.kotlin.codegen.binding.CodegenBinding
 import org.jetbrains.kotlin.codegen.context.CodegenContext
 import org.jetbrains.kotlin.codegen.context.RootContext
 import org.jetbrains.kotlin.codegen.extensions.ClassBuilderInterceptorExtension
+import org.jetbrains.kotlin.codegen.inline.InlineMethodNodeCache
 import org.jetbrains.kotlin.codegen.intrinsics.IntrinsicMethods
 import org.jetbrains.kotlin.codegen.optimization.OptimizationClassBuilderFactory
+import org.jetbrains.kotlin.codegen.optimization.OptimizationPipeline
 import org.jetbrains.kotlin.descriptors.ModuleDescriptor
 import org.jetbrains.kotlin.descriptors.ScriptDescriptor
 import org.jetbrains.kotlin.diagnostics.DiagnosticSink
@@ -52,7 +54,7 @@ public class GenerationState @JvmOverloads constructor(
         disableInline: Boolean = false,
         disableOptimization: Boolean = false,
         public val useTypeTableInSerializer: Boolean = false,
-        public val diagnostics: DiagnosticSink = DiagnosticSink.DO_NOTHING,
+        diagnostics: DiagnosticSink = DiagnosticSink.DO_NOTHING,
         public val packagesWithObsoleteParts: Collection<FqName> = emptySet(),
         public val obsoleteMultifileClasses: Collection<FqName> = emptySet(),
         // for PackageCodegen in incremental compilation mode
@@ -63,7 +65,10 @@ public class GenerationState @JvmOverloads constructor(
         // TODO: get rid of it with the proper module infrastructure
         public val outDirectory: File? = null,
         public val incrementalCompilationComponents: IncrementalCompilationComponents? = null,
-        public val progress: Progress = Progress.DEAF
+        public val progress: Progress = Progress.DEAF,
+        // number of threads used to generate packages and multifile classes, 1 means sequential generation
+        public val codegenThreads: Int = 1,
+        optimizationLevel: Int = OptimizationPipeline.DEFAULT_LEVEL
 ) {
     public abstract class GenerateClassFilter {
         public abstract fun shouldAnnotateClass(classOrObject: KtClassOrObject): Boolean
@@ -93,12 +98,17 @@ public class GenerationState @JvmOverloads constructor(
 
     public val moduleName: String = moduleName ?: JvmCodegenUtil.getModuleName(module)
     public val classBuilderMode: ClassBuilderMode = builderFactory.getClassBuilderMode()
-    public val bindingTrace: BindingTrace = DelegatingBindingTrace(bindingContext, "trace in GenerationState")
+    public val isParallelCodegen: Boolean = codegenThreads > 1
+    public val diagnostics: DiagnosticSink = if (isParallelCodegen) SynchronizedDiagnosticSink(diagnostics) else diagnostics
+    public val bindingTrace: BindingTrace = DelegatingBindingTrace(bindingContext, "trace in GenerationState").let {
+        if (isParallelCodegen) SynchronizedBindingTrace(it) else it
+    }
     public val bindingContext: BindingContext = bindingTrace.getBindingContext()
     public val typeMapper: JetTypeMapper = JetTypeMapper(this.bindingContext, classBuilderMode, fileClassesProvider, getIncrementalCacheForThisTarget(), this.moduleName)
     public val intrinsics: IntrinsicMethods = IntrinsicMethods()
     public val samWrapperClasses: SamWrapperClasses = SamWrapperClasses(this)
-    public val inlineCycleReporter: InlineCycleReporter = InlineCycleReporter(diagnostics)
+    public val inlineCycleReporter: InlineCycleReporter = InlineCycleReporter(this.diagnostics)
+    public val inlineMethodNodeCache: InlineMethodNodeCache = InlineMethodNodeCache()
     public val mappingsClassesForWhenByEnum: MappingsClassesForWhenByEnum = MappingsClassesForWhenByEnum(this)
     public var earlierScriptsForReplInterpreter: List<ScriptDescriptor>? = null
     public val reflectionTypes: ReflectionTypes = ReflectionTypes(module)
@@ -116,22 +126,30 @@ public class GenerationState @JvmOverloads constructor(
     public val isInlineEnabled: Boolean = !disableInline
         @JvmName("isInlineEnabled") get
 
+    // specialized calls need kotlin.jvm.internal.PrimitiveFunctions, which older runtimes don't have
+    public val isPrimitiveInvokeSpecializationEnabled: Boolean =
+            !disableOptimization && optimizationLevel >= OptimizationPipeline.LEVEL_AGGRESSIVE
+        @JvmName("isPrimitiveInvokeSpecializationEnabled") get
+
 
     public val rootContext: CodegenContext<*> = RootContext(this)
 
+    public val optimizationPipeline: OptimizationPipeline =
+            if (disableOptimization) OptimizationPipeline.DISABLED else OptimizationPipeline.create(project, optimizationLevel)
+
     init {
-        val optimizationClassBuilderFactory = OptimizationClassBuilderFactory(builderFactory, disableOptimization)
+        val optimizationClassBuilderFactory = OptimizationClassBuilderFactory(builderFactory, optimizationPipeline)
         var interceptedBuilderFactory: ClassBuilderFactory = BuilderFactoryForDuplicateSignatureDiagnostics(
-                optimizationClassBuilderFactory, this.bindingContext, diagnostics, fileClassesProvider,
+                optimizationClassBuilderFactory, this.bindingContext, this.diagnostics, fileClassesProvider,
                 getIncrementalCacheForThisTarget(),
                 this.moduleName)
 
-        interceptedBuilderFactory = BuilderFactoryForDuplicateClassNameDiagnostics(interceptedBuilderFactory, diagnostics);
+        interceptedBuilderFactory = BuilderFactoryForDuplicateClassNameDiagnostics(interceptedBuilderFactory, this.diagnostics);
 
         val interceptExtensions = ClassBuilderInterceptorExtension.getInstances(project)
 
         for (extension in interceptExtensions) {
-            interceptedBuilderFactory = extension.interceptClassBuilderFactory(interceptedBuilderFactory, bindingContext, diagnostics)
+            interceptedBuilderFactory = extension.interceptClassBuilderFactory(interceptedBuilderFactory, bindingContext, this.diagnostics)
         }
 
         this.interceptedBuilderFactory = interceptedBuilderFactory
@@ -152,5 +170,6 @@ public class GenerationState @JvmOverloads constructor(
 
     public fun destroy() {
         interceptedBuilderFactory.close()
+        factory.releaseStorage()
     }
 }
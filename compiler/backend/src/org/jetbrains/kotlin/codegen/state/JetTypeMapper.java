@@ -22,6 +22,7 @@ import kotlin.CollectionsKt;
 import kotlin.jvm.functions.Function1;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
 import org.jetbrains.kotlin.builtins.BuiltinsPackageFragment;
 import org.jetbrains.kotlin.builtins.KotlinBuiltIns;
 import org.jetbrains.kotlin.builtins.PrimitiveType;
@@ -73,7 +74,9 @@ import org.jetbrains.org.objectweb.asm.Type;
 import org.jetbrains.org.objectweb.asm.commons.Method;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.jetbrains.kotlin.builtins.KotlinBuiltIns.isUnit;
 import static org.jetbrains.kotlin.codegen.AsmUtil.*;
@@ -91,6 +94,8 @@ public class JetTypeMapper {
     private final JvmFileClassesProvider fileClassesProvider;
     private final IncrementalCache incrementalCache;
     private final String moduleName;
+    private final MappedTypeCache mappedTypes = new MappedTypeCache();
+    private boolean mappedTypeCacheEnabled = true;
 
     public JetTypeMapper(
             @NotNull BindingContext bindingContext,
@@ -111,6 +116,11 @@ public class JetTypeMapper {
         return bindingContext;
     }
 
+    @TestOnly
+    public void setMappedTypeCacheEnabled(boolean enabled) {
+        mappedTypeCacheEnabled = enabled;
+    }
+
     private enum JetTypeMapperMode {
         /**
          * foo.Bar is mapped to Lfoo/Bar;
@@ -426,6 +436,26 @@ public class JetTypeMapper {
             @Nullable BothSignatureWriter signatureVisitor,
             @NotNull JetTypeMapperMode kind,
             @NotNull Variance howThisTypeIsUsed
+    ) {
+        // Variance only affects the generic signature, so without a signature visitor the result depends on the type and the mode
+        if (signatureVisitor != null || !mappedTypeCacheEnabled) {
+            return computeType(jetType, signatureVisitor, kind, howThisTypeIsUsed);
+        }
+
+        Type cached = mappedTypes.get(jetType, kind);
+        if (cached != null) return cached;
+
+        Type result = computeType(jetType, null, kind, howThisTypeIsUsed);
+        mappedTypes.put(jetType, kind, result);
+        return result;
+    }
+
+    @NotNull
+    private Type computeType(
+            @NotNull KotlinType jetType,
+            @Nullable BothSignatureWriter signatureVisitor,
+            @NotNull JetTypeMapperMode kind,
+            @NotNull Variance howThisTypeIsUsed
     ) {
         Type known = mapBuiltinType(jetType);
 
@@ -1345,4 +1375,33 @@ public class JetTypeMapper {
         }
         return null;
     }
+
+    /**
+     * Types are mapped by identity: codegen maps the same instances (types of descriptors and of expressions recorded
+     * in the binding context) over and over, while structural equality of types is far more expensive than mapping them
+     */
+    private static class MappedTypeCache {
+        private final List<Map<KotlinType, Type>> byMode = new ArrayList<Map<KotlinType, Type>>();
+
+        public MappedTypeCache() {
+            for (int i = 0; i < JetTypeMapperMode.values().length; i++) {
+                byMode.add(new IdentityHashMap<KotlinType, Type>());
+            }
+        }
+
+        @Nullable
+        public Type get(@NotNull KotlinType type, @NotNull JetTypeMapperMode mode) {
+            Map<KotlinType, Type> map = byMode.get(mode.ordinal());
+            synchronized (map) {
+                return map.get(type);
+            }
+        }
+
+        public void put(@NotNull KotlinType type, @NotNull JetTypeMapperMode mode, @NotNull Type asmType) {
+            Map<KotlinType, Type> map = byMode.get(mode.ordinal());
+            synchronized (map) {
+                map.put(type, asmType);
+            }
+        }
+    }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.state
+
+import com.google.common.collect.ImmutableMap
+import org.jetbrains.kotlin.diagnostics.Diagnostic
+import org.jetbrains.kotlin.diagnostics.DiagnosticSink
+import org.jetbrains.kotlin.psi.KtExpression
+import org.jetbrains.kotlin.resolve.BindingContext
+import org.jetbrains.kotlin.resolve.BindingTrace
+import org.jetbrains.kotlin.resolve.diagnostics.Diagnostics
+import org.jetbrains.kotlin.types.KotlinType
+import org.jetbrains.kotlin.util.slicedMap.ReadOnlySlice
+import org.jetbrains.kotlin.util.slicedMap.WritableSlice
+
+/**
+ * Serializes all accesses to the codegen trace, so that several package codegens may run concurrently
+ */
+class SynchronizedBindingTrace(private val delegate: BindingTrace) : BindingTrace {
+    private val lock = Any()
+
+    private val bindingContext = object : BindingContext {
+        override fun getDiagnostics(): Diagnostics = synchronized(lock) { delegate.bindingContext.diagnostics }
+
+        override fun <K, V> get(slice: ReadOnlySlice<K, V>, key: K): V? = synchronized(lock) { delegate.bindingContext.get(slice, key) }
+
+        override fun <K, V> getKeys(slice: WritableSlice<K, V>): Collection<K> = synchronized(lock) {
+            delegate.bindingContext.getKeys(slice).toList()
+        }
+
+        override fun <K, V> getSliceContents(slice: ReadOnlySlice<K, V>): ImmutableMap<K, V> = synchronized(lock) {
+            delegate.bindingContext.getSliceContents(slice)
+        }
+
+        override fun getType(expression: KtExpression): KotlinType? = synchronized(lock) { delegate.bindingContext.getType(expression) }
+
+        override fun addOwnDataTo(trace: BindingTrace, commitDiagnostics: Boolean) = synchronized(lock) {
+            delegate.bindingContext.addOwnDataTo(trace, commitDiagnostics)
+        }
+    }
+
+    override fun getBindingContext(): BindingContext = bindingContext
+
+    override fun <K, V> record(slice: WritableSlice<K, V>, key: K, value: V) = synchronized(lock) { delegate.record(slice, key, value) }
+
+    override fun <K> record(slice: WritableSlice<K, Boolean>, key: K) = synchronized(lock) { delegate.record(slice, key) }
+
+    override fun <K, V> get(slice: ReadOnlySlice<K, V>, key: K): V? = synchronized(lock) { delegate.get(slice, key) }
+
+    override fun <K, V> getKeys(slice: WritableSlice<K, V>): Collection<K> = synchronized(lock) { delegate.getKeys(slice).toList() }
+
+    override fun getType(expression: KtExpression): KotlinType? = synchronized(lock) { delegate.getType(expression) }
+
+    override fun recordType(expression: KtExpression, type: KotlinType?) = synchronized(lock) { delegate.recordType(expression, type) }
+
+    override fun report(diagnostic: Diagnostic) = synchronized(lock) { delegate.report(diagnostic) }
+
+    override fun toString() = delegate.toString()
+}
+
+class SynchronizedDiagnosticSink(private val delegate: DiagnosticSink) : DiagnosticSink {
+    override fun report(diagnostic: Diagnostic) = synchronized(this) { delegate.report(diagnostic) }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.when;
+
+import com.intellij.openapi.util.Pair;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.codegen.ExpressionCodegen;
+import org.jetbrains.kotlin.codegen.FunctionCodegen;
+import org.jetbrains.kotlin.codegen.MemberCodegen;
+import org.jetbrains.kotlin.codegen.context.CodegenContext;
+import org.jetbrains.kotlin.codegen.context.MethodContext;
+import org.jetbrains.kotlin.psi.KtWhenExpression;
+import org.jetbrains.kotlin.resolve.constants.ConstantValue;
+import org.jetbrains.kotlin.resolve.constants.StringValue;
+import org.jetbrains.org.objectweb.asm.Label;
+import org.jetbrains.org.objectweb.asm.MethodVisitor;
+import org.jetbrains.org.objectweb.asm.Type;
+import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter;
+
+import java.util.*;
+
+import static org.jetbrains.kotlin.resolve.jvm.AsmTypes.JAVA_STRING_TYPE;
+
+/**
+ * Switch by a large number of string constants. {@link StringSwitchCodegen} spends about a dozen bytes per constant on the
+ * hashCode switch and equals checks, which easily pushes the enclosing method over the size beyond which HotSpot refuses to compile it.
+ * Here the lookup of the entry is moved to private synthetic methods, each covering a range of hash codes,
+ * and the method itself only has a dense switch by the index of the entry
+ */
+public class StringLookupSwitchCodegen extends SwitchCodegen {
+    private static final int MIN_CONSTANTS = 64;
+    private static final int CONSTANTS_PER_HELPER = 128;
+
+    private static final String HELPER_NAME_PREFIX = "$when$";
+    private static final String HELPER_DESC = Type.getMethodDescriptor(Type.INT_TYPE, JAVA_STRING_TYPE, Type.INT_TYPE);
+    private static final String HASH_CODE_METHOD_DESC = Type.getMethodDescriptor(Type.INT_TYPE);
+    private static final String EQUALS_METHOD_DESC = Type.getMethodDescriptor(Type.BOOLEAN_TYPE, Type.getType(Object.class));
+
+    private final NavigableMap<Integer, List<Pair<String, Integer>>> hashCodesToStringAndEntryIndex =
+            new TreeMap<Integer, List<Pair<String, Integer>>>();
+    private int subjectVarIndex;
+    private int hashCodeVarIndex;
+
+    public StringLookupSwitchCodegen(
+            @NotNull KtWhenExpression expression,
+            boolean isStatement,
+            @NotNull ExpressionCodegen codegen
+    ) {
+        super(expression, isStatement, codegen);
+    }
+
+    public static boolean isApplicable(@NotNull KtWhenExpression expression, @NotNull ExpressionCodegen codegen) {
+        // Bodies of inline functions and inlined lambdas are copied to other classes, where the helpers aren't accessible
+        for (CodegenContext context = codegen.getContext(); context != null; context = context.getParentContext()) {
+            if (context instanceof MethodContext &&
+                (((MethodContext) context).isInlineFunction() || ((MethodContext) context).isInliningLambda())) {
+                return false;
+            }
+        }
+
+        if (!codegen.getParentCodegen().canDeclareOutOfLineHelpers()) return false;
+
+        int count = 0;
+        for (ConstantValue<?> constant : SwitchCodegenUtil.getAllConstants(expression, codegen.getBindingContext())) {
+            if (constant instanceof StringValue) count++;
+        }
+        return count >= MIN_CONSTANTS;
+    }
+
+    @Override
+    protected void processConstant(@NotNull ConstantValue<?> constant, @NotNull Label entryLabel) {
+        assert constant instanceof StringValue : "guaranteed by usage contract";
+        String value = ((StringValue) constant).getValue();
+
+        // The entry being processed is added to entryLabels right after its constants
+        int entryIndex = entryLabels.size();
+        putTransitionOnce(entryIndex, entryLabel);
+
+        List<Pair<String, Integer>> items = hashCodesToStringAndEntryIndex.get(value.hashCode());
+        if (items == null) {
+            items = new ArrayList<Pair<String, Integer>>();
+            hashCodesToStringAndEntryIndex.put(value.hashCode(), items);
+        }
+        items.add(new Pair<String, Integer>(value, entryIndex));
+    }
+
+    @Override
+    public void generate() {
+        super.generate();
+        codegen.myFrameMap.leaveTemp(Type.INT_TYPE);
+        codegen.myFrameMap.leaveTemp(subjectType);
+    }
+
+    @Override
+    protected void generateSubject() {
+        subjectVarIndex = codegen.myFrameMap.enterTemp(subjectType);
+        hashCodeVarIndex = codegen.myFrameMap.enterTemp(Type.INT_TYPE);
+        super.generateSubject();
+
+        generateNullCheckIfNeeded();
+
+        v.store(subjectVarIndex, subjectType);
+        v.load(subjectVarIndex, subjectType);
+        v.invokevirtual(subjectType.getInternalName(), "hashCode", HASH_CODE_METHOD_DESC, false);
+        v.store(hashCodeVarIndex, Type.INT_TYPE);
+
+        MemberCodegen<?> owner = codegen.getParentCodegen();
+        List<SortedMap<Integer, List<Pair<String, Integer>>>> chunks = splitIntoChunks();
+        Label lookupDone = new Label();
+
+        for (int i = 0; i < chunks.size(); i++) {
+            String helperName = HELPER_NAME_PREFIX + expression.getTextOffset() + "$" + i;
+            generateHelper(owner, helperName, chunks.get(i));
+
+            Label nextChunk = null;
+            if (i + 1 < chunks.size()) {
+                nextChunk = new Label();
+                v.load(hashCodeVarIndex, Type.INT_TYPE);
+                v.iconst(chunks.get(i + 1).firstKey());
+                v.ificmpge(nextChunk);
+            }
+
+            v.load(subjectVarIndex, subjectType);
+            v.load(hashCodeVarIndex, Type.INT_TYPE);
+            v.invokestatic(owner.getClassName(), helperName, HELPER_DESC, false);
+
+            if (nextChunk != null) {
+                v.goTo(lookupDone);
+                v.visitLabel(nextChunk);
+            }
+        }
+
+        v.visitLabel(lookupDone);
+    }
+
+    @NotNull
+    private List<SortedMap<Integer, List<Pair<String, Integer>>>> splitIntoChunks() {
+        List<SortedMap<Integer, List<Pair<String, Integer>>>> result = new ArrayList<SortedMap<Integer, List<Pair<String, Integer>>>>();
+        SortedMap<Integer, List<Pair<String, Integer>>> current = null;
+        int constantsInCurrent = 0;
+
+        for (Map.Entry<Integer, List<Pair<String, Integer>>> entry : hashCodesToStringAndEntryIndex.entrySet()) {
+            // Strings with the same hash code always go to the same helper
+            if (current == null || constantsInCurrent >= CONSTANTS_PER_HELPER) {
+                current = new TreeMap<Integer, List<Pair<String, Integer>>>();
+                constantsInCurrent = 0;
+                result.add(current);
+            }
+            current.put(entry.getKey(), entry.getValue());
+            constantsInCurrent += entry.getValue().size();
+        }
+
+        return result;
+    }
+
+    /**
+     * Generates `static int helper(String subject, int hashCode)` returning the index of the matching entry or -1
+     */
+    private void generateHelper(
+            @NotNull MemberCodegen<?> owner,
+            @NotNull String name,
+            @NotNull SortedMap<Integer, List<Pair<String, Integer>>> hashCodesToItems
+    ) {
+        MethodVisitor mv = owner.newOutOfLineHelper(name, HELPER_DESC);
+        if (mv == null) return;
+
+        InstructionAdapter iv = new InstructionAdapter(mv);
+        mv.visitCode();
+
+        int[] keys = new int[hashCodesToItems.size()];
+        Label[] labels = new Label[keys.length];
+        int i = 0;
+        for (int hashCode : hashCodesToItems.keySet()) {
+            keys[i] = hashCode;
+            labels[i] = new Label();
+            i++;
+        }
+
+        Label notFound = new Label();
+        iv.load(1, Type.INT_TYPE);
+        iv.lookupswitch(notFound, keys, labels);
+
+        i = 0;
+        for (List<Pair<String, Integer>> items : hashCodesToItems.values()) {
+            iv.visitLabel(labels[i++]);
+            for (Pair<String, Integer> stringAndEntryIndex : items) {
+                Label next = new Label();
+                iv.load(0, JAVA_STRING_TYPE);
+                iv.aconst(stringAndEntryIndex.first);
+                iv.invokevirtual(JAVA_STRING_TYPE.getInternalName(), "equals", EQUALS_METHOD_DESC, false);
+                iv.ifeq(next);
+                iv.iconst(stringAndEntryIndex.second);
+                iv.areturn(Type.INT_TYPE);
+                iv.visitLabel(next);
+            }
+            iv.goTo(notFound);
+        }
+
+        iv.visitLabel(notFound);
+        iv.iconst(-1);
+        iv.areturn(Type.INT_TYPE);
+
+        FunctionCodegen.endVisit(mv, "when by strings", expression);
+    }
+}
@@ -122,6 +122,9 @@ public class SwitchCodegenUtil {
         }
 
         if (isStringConstantsSwitch(expression, subjectType, bindingContext)) {
+            if (StringLookupSwitchCodegen.isApplicable(expression, codegen)) {
+                return new StringLookupSwitchCodegen(expression, isStatement, codegen);
+            }
             return new StringSwitchCodegen(expression, isStatement, codegen);
         }
 
@@ -62,9 +62,34 @@ public class K2JVMCompilerArguments extends CommonCompilerArguments {
     @Argument(value = "Xno-optimize", description = "Disable optimizations")
     public boolean noOptimize;
 
+    @Argument(value = "Xopt-level", description = "Bytecode optimization level: 0 disables optimizations, 1 only removes dead code, 2 runs all standard passes (default), 3 also folds constants, inlines tiny private methods and calls primitive function types without boxing (requires a runtime with kotlin.jvm.internal.PrimitiveFunctions)")
+    @ValueDescription("<level>")
+    public String optLevel;
+
     @Argument(value = "Xreport-perf", description = "Report detailed performance statistics")
     public boolean reportPerf;
 
+    @Argument(value = "Xcodegen-threads", description = "Generate bytecode for different packages in parallel using the given number of threads")
+    @ValueDescription("<count>")
+    public String codegenThreads;
+
+    @Argument(value = "Xresolve-threads", description = "Resolve function bodies in parallel using the given number of threads (experimental, off by default). Other declarations are still resolved sequentially, and lazy declarations are computed under a single lock shared by all threads, so the speedup is often small")
+    @ValueDescription("<count>")
+    public String resolveThreads;
+
+    @Argument(value = "Xcompact-binding-trace", description = "Use a more compact storage for analysis results")
+    public boolean compactBindingTrace;
+
+    @Argument(value = "Xindex-cache", description = "Keep a snapshot of packages in classpath jars in the given directory to speed up startup")
+    @ValueDescription("<path>")
+    public String indexCache;
+
+    @Argument(value = "Xstream-output", description = "Keep generated classes on disk instead of in memory until the output is written")
+    public boolean streamOutput;
+
+    @Argument(value = "Xuncompressed-jar", description = "Store entries of the output jar without compression, which is faster to write")
+    public boolean uncompressedJar;
+
     @Override
     @NotNull
     public String executableScriptFileName() {
@@ -26,7 +26,6 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.kotlin.cli.common.arguments.CommonCompilerArguments;
 import org.jetbrains.kotlin.cli.common.messages.*;
-import org.jetbrains.kotlin.cli.jvm.K2JVMCompiler;
 import org.jetbrains.kotlin.cli.jvm.compiler.CompileEnvironmentException;
 import org.jetbrains.kotlin.config.CompilerConfiguration;
 import org.jetbrains.kotlin.config.Services;
@@ -57,6 +56,11 @@ public abstract class CLICompiler<A extends CommonCompilerArguments> {
         return exec(errStream, Services.EMPTY, MessageRenderer.PLAIN_RELATIVE_PATHS, args);
     }
 
+    @NotNull
+    public ExitCode exec(@NotNull PrintStream errStream, @NotNull Services services, @NotNull String... args) {
+        return exec(errStream, services, MessageRenderer.PLAIN_RELATIVE_PATHS, args);
+    }
+
     @SuppressWarnings("UnusedDeclaration") // Used via reflection in CompilerRunnerUtil#invokeExecMethod
     @NotNull
     public ExitCode execAndOutputXml(@NotNull PrintStream errStream, @NotNull Services services, @NotNull String... args) {
@@ -115,8 +119,6 @@ public abstract class CLICompiler<A extends CommonCompilerArguments> {
             @NotNull MessageRenderer messageRenderer,
             @NotNull String[] args
     ) {
-        K2JVMCompiler.Companion.resetInitStartTime();
-
         A arguments = parseArguments(errStream, messageRenderer, args);
         if (arguments == null) {
             return INTERNAL_ERROR;
@@ -165,9 +167,6 @@ public abstract class CLICompiler<A extends CommonCompilerArguments> {
             ProgressIndicatorAndCompilationCanceledStatus.setCompilationCanceledStatus(canceledStatus);
 
             for (int i = 0; i < repeatCount; i++) {
-                if (i > 0) {
-                    K2JVMCompiler.Companion.resetInitStartTime();
-                }
                 Disposable rootDisposable = Disposer.newDisposable();
                 try {
                     MessageSeverityCollector severityCollector = new MessageSeverityCollector(groupingCollector);
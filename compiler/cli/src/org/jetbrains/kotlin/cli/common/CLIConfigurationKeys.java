@@ -18,6 +18,7 @@ package org.jetbrains.kotlin.cli.common;
 
 import org.jetbrains.kotlin.cli.common.messages.MessageCollector;
 import org.jetbrains.kotlin.config.CompilerConfigurationKey;
+import org.jetbrains.kotlin.progress.CompilationPhaseListener;
 
 import java.util.List;
 
@@ -26,6 +27,8 @@ public class CLIConfigurationKeys {
             CompilerConfigurationKey.create("message collector");
     public static final CompilerConfigurationKey<List<CompilerPlugin>> COMPILER_PLUGINS =
             CompilerConfigurationKey.create("compiler plugins");
+    public static final CompilerConfigurationKey<CompilationPhaseListener> COMPILATION_PHASE_LISTENER =
+            CompilerConfigurationKey.create("compilation phase listener");
 
     private CLIConfigurationKeys() {
     }
@@ -32,6 +32,7 @@ import org.jetbrains.kotlin.cli.jvm.config.addJavaSourceRoot
 import org.jetbrains.kotlin.cli.jvm.config.addJvmClasspathRoots
 import org.jetbrains.kotlin.cli.jvm.repl.ReplFromTerminal
 import org.jetbrains.kotlin.codegen.CompilationException
+import org.jetbrains.kotlin.codegen.optimization.OptimizationPipeline
 import org.jetbrains.kotlin.compiler.plugin.CliOptionProcessingException
 import org.jetbrains.kotlin.compiler.plugin.PluginCliOptionProcessingException
 import org.jetbrains.kotlin.compiler.plugin.cliPluginUsageString
@@ -41,6 +42,7 @@ import org.jetbrains.kotlin.config.Services
 import org.jetbrains.kotlin.config.addKotlinSourceRoot
 import org.jetbrains.kotlin.load.java.JvmAbi
 import org.jetbrains.kotlin.load.kotlin.incremental.components.IncrementalCompilationComponents
+import org.jetbrains.kotlin.progress.CompilationPhaseListener
 import org.jetbrains.kotlin.resolve.AnalyzerScriptParameter
 import org.jetbrains.kotlin.util.PerformanceCounter
 import org.jetbrains.kotlin.utils.KotlinPaths
@@ -48,19 +50,39 @@ import org.jetbrains.kotlin.utils.KotlinPathsFromHomeDir
 import org.jetbrains.kotlin.utils.PathUtil
 import java.io.File
 import java.lang.management.ManagementFactory
+import java.util.HashMap
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
 
 public open class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
 
     override fun doExecute(arguments: K2JVMCompilerArguments, services: Services, messageCollector: MessageCollector, rootDisposable: Disposable): ExitCode {
-        val messageSeverityCollector = MessageSeverityCollector(messageCollector)
+        // The first compilation in this JVM reports initialization time since the compiler was loaded
+        val initStartNanos = compilerLoadNanos.getAndSet(0L).let { if (it != 0L) it else System.nanoTime() }
+        val performance = SessionPerformance(initStartNanos)
+
+        if (arguments.reportPerf) PerformanceCounter.enableTimeCounters()
+        try {
+            return doExecute(arguments, services, MessageSeverityCollector(messageCollector), rootDisposable, performance)
+        }
+        finally {
+            if (arguments.reportPerf) PerformanceCounter.disableTimeCounters()
+        }
+    }
+
+    private fun doExecute(
+            arguments: K2JVMCompilerArguments,
+            services: Services,
+            messageSeverityCollector: MessageSeverityCollector,
+            rootDisposable: Disposable,
+            performance: SessionPerformance
+    ): ExitCode {
         val paths = if (arguments.kotlinHome != null)
             KotlinPathsFromHomeDir(File(arguments.kotlinHome))
         else
             PathUtil.getKotlinPathsForCompiler()
 
         messageSeverityCollector.report(CompilerMessageSeverity.LOGGING, "Using Kotlin home directory " + paths.getHomePath(), CompilerMessageLocation.NO_LOCATION)
-        PerformanceCounter.setTimeCounterEnabled(arguments.reportPerf);
 
         val configuration = CompilerConfiguration()
         configuration.put(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY, messageSeverityCollector)
@@ -73,6 +95,8 @@ public open class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
         val locator = services.get(javaClass<CompilerJarLocator>())
         configuration.put(JVMConfigurationKeys.COMPILER_JAR_LOCATOR, locator)
 
+        services.get(javaClass<CompilationPhaseListener>())?.let { configuration.put(CLIConfigurationKeys.COMPILATION_PHASE_LISTENER, it) }
+
         try {
             if (!arguments.noJdk) {
                 configuration.addJvmClasspathRoots(PathUtil.getJdkClassesRoots())
@@ -165,7 +189,7 @@ public open class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
                 val directory = File(arguments.module).getAbsoluteFile().getParentFile()
 
                 val compilerConfiguration = KotlinToJVMBytecodeCompiler.createCompilerConfiguration(configuration, moduleScript.getModules(), directory)
-                environment = createCoreEnvironment(rootDisposable, compilerConfiguration)
+                environment = createCoreEnvironment(rootDisposable, compilerConfiguration, performance)
 
                 if (messageSeverityCollector.anyReported(CompilerMessageSeverity.ERROR)) return COMPILATION_ERROR
 
@@ -173,14 +197,14 @@ public open class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
             }
             else if (arguments.script) {
                 val scriptArgs = arguments.freeArgs.subList(1, arguments.freeArgs.size())
-                environment = createCoreEnvironment(rootDisposable, configuration)
+                environment = createCoreEnvironment(rootDisposable, configuration, performance)
 
                 if (messageSeverityCollector.anyReported(CompilerMessageSeverity.ERROR)) return COMPILATION_ERROR
 
                 KotlinToJVMBytecodeCompiler.compileAndExecuteScript(configuration, paths, environment, scriptArgs)
             }
             else {
-                environment = createCoreEnvironment(rootDisposable, configuration)
+                environment = createCoreEnvironment(rootDisposable, configuration, performance)
 
                 if (messageSeverityCollector.anyReported(CompilerMessageSeverity.ERROR)) return COMPILATION_ERROR
 
@@ -193,8 +217,8 @@ public open class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
             }
 
             if (arguments.reportPerf) {
-                reportGCTime(environment.configuration)
-                reportCompilationTime(environment.configuration)
+                performance.reportGCTime(environment.configuration)
+                performance.reportCompilationTime(environment.configuration)
                 PerformanceCounter.report { s -> reportPerf(environment.configuration, s) }
             }
             return OK
@@ -206,14 +230,15 @@ public open class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
 
     }
 
-    private fun createCoreEnvironment(rootDisposable: Disposable, configuration: CompilerConfiguration): KotlinCoreEnvironment {
+    private fun createCoreEnvironment(
+            rootDisposable: Disposable,
+            configuration: CompilerConfiguration,
+            performance: SessionPerformance
+    ): KotlinCoreEnvironment {
         val result = KotlinCoreEnvironment.createForProduction(rootDisposable, configuration, EnvironmentConfigFiles.JVM_CONFIG_FILES)
 
-        if (initStartNanos != 0L) {
-            val initNanos = System.nanoTime() - initStartNanos
-            reportPerf(configuration, "INIT: Compiler initialized in " + TimeUnit.NANOSECONDS.toMillis(initNanos) + " ms")
-            initStartNanos = 0L
-        }
+        val initNanos = System.nanoTime() - performance.initStartNanos
+        reportPerf(configuration, "INIT: Compiler initialized in " + TimeUnit.NANOSECONDS.toMillis(initNanos) + " ms")
         return result
     }
 
@@ -229,16 +254,7 @@ public open class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
     }
 
     companion object {
-        private var initStartNanos = System.nanoTime()
-        // allows to track GC time for each run when repeated compilation is used
-        private val elapsedGCTime = hashMapOf<String, Long>()
-        private var elapsedJITTime = 0L
-
-        public fun resetInitStartTime() {
-            if (initStartNanos == 0L) {
-                initStartNanos = System.nanoTime()
-            }
-        }
+        private val compilerLoadNanos = AtomicLong(System.nanoTime())
 
         @JvmStatic
         public fun main(args: Array<String>) {
@@ -250,28 +266,49 @@ public open class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
             collector.report(CompilerMessageSeverity.INFO, "PERF: " + message, CompilerMessageLocation.NO_LOCATION)
         }
 
-        fun reportGCTime(configuration: CompilerConfiguration) {
-            ManagementFactory.getGarbageCollectorMXBeans().forEach {
-                val currentTime = it.getCollectionTime()
-                val elapsedTime = elapsedGCTime.getOrElse(it.getName()) { 0 }
-                val time = currentTime - elapsedTime
-                reportPerf(configuration, "GC time for ${it.getName()} is $time ms")
-                elapsedGCTime[it.getName()] = currentTime
-            }
-        }
-
-        fun reportCompilationTime(configuration: CompilerConfiguration) {
-            val bean = ManagementFactory.getCompilationMXBean() ?: return
-            val currentTime = bean.getTotalCompilationTime()
-            reportPerf(configuration, "JIT time is ${currentTime - elapsedJITTime} ms")
-            elapsedJITTime = currentTime
-        }
-
         private fun putAdvancedOptions(configuration: CompilerConfiguration, arguments: K2JVMCompilerArguments) {
             configuration.put(JVMConfigurationKeys.DISABLE_CALL_ASSERTIONS, arguments.noCallAssertions)
             configuration.put(JVMConfigurationKeys.DISABLE_PARAM_ASSERTIONS, arguments.noParamAssertions)
             configuration.put(JVMConfigurationKeys.DISABLE_INLINE, arguments.noInline)
             configuration.put(JVMConfigurationKeys.DISABLE_OPTIMIZATION, arguments.noOptimize)
+            arguments.optLevel?.let { configuration.put(JVMConfigurationKeys.OPTIMIZATION_LEVEL, parseOptimizationLevel(configuration, it)) }
+            configuration.put(JVMConfigurationKeys.CODEGEN_THREADS, parseThreadCount(configuration, arguments.codegenThreads, "codegen"))
+
+            configuration.put(JVMConfigurationKeys.RESOLVE_THREADS, parseThreadCount(configuration, arguments.resolveThreads, "resolve"))
+            configuration.put(JVMConfigurationKeys.COMPACT_BINDING_TRACE, arguments.compactBindingTrace)
+            arguments.indexCache?.let { configuration.put(JVMConfigurationKeys.DEPENDENCIES_INDEX_CACHE_DIR, File(it)) }
+            // Classes of a script are loaded from the generation state after compilation, there's no output to write them to
+            configuration.put(JVMConfigurationKeys.STREAM_OUTPUT, arguments.streamOutput && !arguments.script)
+            configuration.put(JVMConfigurationKeys.UNCOMPRESSED_JAR, arguments.uncompressedJar)
+        }
+
+        private fun parseOptimizationLevel(configuration: CompilerConfiguration, value: String): Int {
+            try {
+                val level = Integer.parseInt(value)
+                if (level >= OptimizationPipeline.LEVEL_NONE && level <= OptimizationPipeline.LEVEL_AGGRESSIVE) return level
+            }
+            catch (e: NumberFormatException) {
+            }
+
+            val collector = configuration[CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY]!!
+            collector.report(CompilerMessageSeverity.WARNING, "Invalid optimization level: $value, falling back to ${OptimizationPipeline.DEFAULT_LEVEL}",
+                             CompilerMessageLocation.NO_LOCATION)
+            return OptimizationPipeline.DEFAULT_LEVEL
+        }
+
+        private fun parseThreadCount(configuration: CompilerConfiguration, value: String?, phase: String): Int {
+            if (value == null) return 1
+            try {
+                val threads = Integer.parseInt(value)
+                if (threads >= 1) return threads
+            }
+            catch (e: NumberFormatException) {
+            }
+
+            val collector = configuration[CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY]!!
+            collector.report(CompilerMessageSeverity.WARNING, "Invalid number of $phase threads: $value, falling back to a single thread",
+                             CompilerMessageLocation.NO_LOCATION)
+            return 1
         }
 
         private fun getClasspath(paths: KotlinPaths, arguments: K2JVMCompilerArguments): List<File> {
@@ -288,3 +325,30 @@ public open class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
 }
 
 fun main(args: Array<String>) = K2JVMCompiler.main(args)
+
+/**
+ * Performance data of one compilation, taken when it starts. Several compilations may run in one JVM at once, e.g. in the daemon,
+ * so GC and JIT time is reported since the start of this compilation rather than since the previous one (it still includes the time
+ * spent by the concurrent ones, the JVM doesn't tell them apart).
+ */
+private class SessionPerformance(val initStartNanos: Long) {
+    private val gcTimeAtStart = HashMap<String, Long>()
+    private val jitTimeAtStart: Long
+
+    init {
+        ManagementFactory.getGarbageCollectorMXBeans().forEach { gcTimeAtStart[it.getName()] = it.getCollectionTime() }
+        jitTimeAtStart = ManagementFactory.getCompilationMXBean()?.getTotalCompilationTime() ?: 0L
+    }
+
+    fun reportGCTime(configuration: CompilerConfiguration) {
+        ManagementFactory.getGarbageCollectorMXBeans().forEach {
+            val time = it.getCollectionTime() - gcTimeAtStart.getOrElse(it.getName()) { 0 }
+            K2JVMCompiler.reportPerf(configuration, "GC time for ${it.getName()} is $time ms")
+        }
+    }
+
+    fun reportCompilationTime(configuration: CompilerConfiguration) {
+        val bean = ManagementFactory.getCompilationMXBean() ?: return
+        K2JVMCompiler.reportPerf(configuration, "JIT time is ${bean.getTotalCompilationTime() - jitTimeAtStart} ms")
+    }
+}
@@ -170,7 +170,10 @@ public class CliLightClassGenerationSupport(project: Project) : LightClassGenera
         return NoScopeRecordCliBindingTrace()
     }
 
-    public class NoScopeRecordCliBindingTrace : CliBindingTrace() {
+    public class NoScopeRecordCliBindingTrace @JvmOverloads constructor(
+            allowConcurrentAccess: Boolean = false,
+            compactStorage: Boolean = false
+    ) : CliBindingTrace(allowConcurrentAccess, compactStorage) {
         override fun <K, V> record(slice: WritableSlice<K, V>, key: K, value: V) {
             if (slice === BindingContext.RESOLUTION_SCOPE || slice === BindingContext.LEXICAL_SCOPE) {
                 // In the compiler there's no need to keep scopes
@@ -184,7 +187,10 @@ public class CliLightClassGenerationSupport(project: Project) : LightClassGenera
         }
     }
 
-    public open class CliBindingTrace @TestOnly constructor() : BindingTraceContext() {
+    public open class CliBindingTrace @TestOnly @JvmOverloads constructor(
+            allowConcurrentAccess: Boolean = false,
+            compactStorage: Boolean = false
+    ) : BindingTraceContext(allowConcurrentAccess, compactStorage) {
         private var kotlinCodeAnalyzer: KotlinCodeAnalyzer? = null
 
         override fun toString(): String {
@@ -70,7 +70,13 @@ public class CompileEnvironmentUtil {
     }
 
     // TODO: includeRuntime should be not a flag but a path to runtime
-    private static void doWriteToJar(ClassFileFactory outputFiles, OutputStream fos, @Nullable FqName mainClass, boolean includeRuntime) {
+    private static void doWriteToJar(
+            ClassFileFactory outputFiles,
+            OutputStream fos,
+            @Nullable FqName mainClass,
+            boolean includeRuntime,
+            boolean compress
+    ) {
         try {
             Manifest manifest = new Manifest();
             Attributes mainAttributes = manifest.getMainAttributes();
@@ -79,26 +85,30 @@ public class CompileEnvironmentUtil {
             if (mainClass != null) {
                 mainAttributes.putValue("Main-Class", mainClass.asString());
             }
-            JarOutputStream stream = new JarOutputStream(fos, manifest);
-            for (OutputFile outputFile : outputFiles.asList()) {
-                stream.putNextEntry(new JarEntry(outputFile.getRelativePath()));
-                stream.write(outputFile.asByteArray());
+            ParallelJarWriter writer = new ParallelJarWriter(fos, manifest, compress, Runtime.getRuntime().availableProcessors());
+            try {
+                for (OutputFile outputFile : outputFiles.asList()) {
+                    writer.addEntry(outputFile.getRelativePath(), outputFile.asByteArray());
+                }
+                if (includeRuntime) {
+                    writeRuntimeToJar(writer);
+                }
+                writer.finish();
             }
-            if (includeRuntime) {
-                writeRuntimeToJar(stream);
+            finally {
+                writer.abort();
             }
-            stream.finish();
         }
         catch (IOException e) {
             throw new CompileEnvironmentException("Failed to generate jar file", e);
         }
     }
 
-    public static void writeToJar(File jarPath, boolean jarRuntime, FqName mainClass, ClassFileFactory outputFiles) {
-        FileOutputStream outputStream = null;
+    public static void writeToJar(File jarPath, boolean jarRuntime, FqName mainClass, ClassFileFactory outputFiles, boolean compress) {
+        OutputStream outputStream = null;
         try {
-            outputStream = new FileOutputStream(jarPath);
-            doWriteToJar(outputFiles, outputStream, mainClass, jarRuntime);
+            outputStream = new BufferedOutputStream(new FileOutputStream(jarPath));
+            doWriteToJar(outputFiles, outputStream, mainClass, jarRuntime, compress);
             outputStream.close();
         }
         catch (FileNotFoundException e) {
@@ -112,7 +122,7 @@ public class CompileEnvironmentUtil {
         }
     }
 
-    private static void writeRuntimeToJar(JarOutputStream stream) throws IOException {
+    private static void writeRuntimeToJar(ParallelJarWriter writer) throws IOException {
         File runtimePath = PathUtil.getKotlinPathsForCompiler().getRuntimePath();
         if (!runtimePath.exists()) {
             throw new CompileEnvironmentException("Couldn't find runtime library");
@@ -126,8 +136,7 @@ public class CompileEnvironmentUtil {
                     break;
                 }
                 if (FileUtilRt.extensionEquals(e.getName(), "class")) {
-                    stream.putNextEntry(e);
-                    FileUtil.copy(jis, stream);
+                    writer.addEntry(e.getName(), FileUtil.loadBytes(jis));
                 }
             }
         }
@@ -16,10 +16,12 @@
 
 package org.jetbrains.kotlin.cli.jvm.compiler
 
+import com.intellij.openapi.vfs.StandardFileSystems
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.util.containers.IntArrayList
 import org.jetbrains.kotlin.name.ClassId
 import org.jetbrains.kotlin.name.FqName
+import java.io.File
 import java.util.ArrayList
 import java.util.EnumSet
 import java.util.HashMap
@@ -37,13 +39,30 @@ public data class JavaRoot(public val file: VirtualFile, public val type: JavaRo
 }
 
 // speeds up finding files/classes in classpath/java source roots
-// NOT THREADSAFE, needs to be adapted/removed if we want compiler to be multithreaded
+// searches are serialized, so that the index may be used by several threads resolving bodies in parallel
 // the main idea of this class is for each package to store roots which contains it to avoid excessive file system traversal
-public class JvmDependenciesIndex(_roots: List<JavaRoot>) {
+// if snapshotCacheDir is given, packages of jar roots are looked up in a persisted JvmDependenciesIndexSnapshot instead of the jars
+public class JvmDependenciesIndex(_roots: List<JavaRoot>, private val snapshotCacheDir: File? = null) {
 
     //these fields are computed based on _roots passed to constructor which are filled in later
     private val roots: List<JavaRoot> by lazy { _roots.toList() }
 
+    // index of each root among the jars of the snapshot, or -1 if the root is not a jar
+    private val snapshotJarIndices: IntArray by lazy {
+        val result = IntArray(maxIndex)
+        var jarCount = 0
+        for (rootIndex in roots.indices) {
+            result[rootIndex] = if (roots[rootIndex].isJar()) jarCount++ else -1
+        }
+        result
+    }
+
+    private val snapshot: JvmDependenciesIndexSnapshot? by lazy {
+        if (snapshotCacheDir == null) return@lazy null
+        val jars = roots.filter { it.isJar() }.map { File(it.file.getPath().substringBefore(StandardFileSystems.JAR_SEPARATOR)) }
+        if (jars.isEmpty()) null else JvmDependenciesIndexSnapshot.loadOrBuild(snapshotCacheDir, jars)
+    }
+
     private val maxIndex: Int
         get() = roots.size()
 
@@ -77,6 +96,7 @@ public class JvmDependenciesIndex(_roots: List<JavaRoot>) {
 
 
     // findClassGivenDirectory MUST check whether the class with this classId exists in given package
+    @Synchronized
     public fun <T : Any> findClass(
             classId: ClassId,
             acceptedRootTypes: Set<JavaRoot.RootType> = JavaRoot.SourceAndBinary,
@@ -88,6 +108,7 @@ public class JvmDependenciesIndex(_roots: List<JavaRoot>) {
         }
     }
 
+    @Synchronized
     public fun traverseDirectoriesInPackage(
             packageFqName: FqName,
             acceptedRootTypes: Set<JavaRoot.RootType> = JavaRoot.SourceAndBinary,
@@ -168,6 +189,19 @@ public class JvmDependenciesIndex(_roots: List<JavaRoot>) {
         val packagesPath = request.packageFqName.pathSegments().map { it.getIdentifier() }
         // a list of caches corresponding to packages, [default, "org", "org.jb", "org.jb.kotlin"]
         val caches = cachesPath(packagesPath)
+        // indices of packages in the snapshot, [-, "org", "org.jb", "org.jb.kotlin"], computed on first use
+        var snapshotPackageIndices: IntArray? = null
+        fun snapshotPackages(): IntArray {
+            if (snapshotPackageIndices == null) {
+                val packages = IntArray(caches.size())
+                packages[0] = -1
+                for (i in 1..packagesPath.size()) {
+                    packages[i] = snapshot!!.findPackage(packagesPath.subList(0, i).joinToString("."))
+                }
+                snapshotPackageIndices = packages
+            }
+            return snapshotPackageIndices!!
+        }
 
         var processedRootsUpTo = -1
         // traverse caches starting from last, which contains most specific information
@@ -181,7 +215,13 @@ public class JvmDependenciesIndex(_roots: List<JavaRoot>) {
                 val rootIndex = cache.rootIndices[i]
                 if (rootIndex <= processedRootsUpTo) continue // roots with those indices have been processed by now
 
-                val directoryInRoot = travelPath(rootIndex, packagesPath, reverseCacheIndex, caches) ?: continue
+                val directoryInRoot =
+                        if (rootIndex < maxIndex && snapshot != null && snapshotJarIndices[rootIndex] >= 0) {
+                            travelPathInSnapshot(rootIndex, packagesPath, reverseCacheIndex, caches, snapshotPackages())
+                        }
+                        else {
+                            travelPath(rootIndex, packagesPath, reverseCacheIndex, caches)
+                        } ?: continue
                 val root = roots[rootIndex]
                 val result = handle(root, directoryInRoot)
                 if (result != null) {
@@ -218,6 +258,27 @@ public class JvmDependenciesIndex(_roots: List<JavaRoot>) {
         return currentFile
     }
 
+    // same as travelPath, but learns which subpackages exist in the root from the snapshot, without looking into the jar
+    private fun travelPathInSnapshot(
+            rootIndex: Int,
+            packagesPath: List<String>,
+            fillCachesAfter: Int,
+            cachesPath: List<Cache>,
+            snapshotPackages: IntArray
+    ): VirtualFile? {
+        val jarIndex = snapshotJarIndices[rootIndex]
+        for (pathIndex in packagesPath.indices) {
+            val correspondingCacheIndex = pathIndex + 1
+            val packageIndex = snapshotPackages[correspondingCacheIndex]
+            if (packageIndex < 0 || !snapshot!!.jarContainsPackage(jarIndex, packageIndex)) return null
+            if (correspondingCacheIndex > fillCachesAfter) {
+                cachesPath[correspondingCacheIndex].rootIndices.add(rootIndex)
+            }
+        }
+        if (packagesPath.isEmpty()) return roots[rootIndex].file
+        return roots[rootIndex].file.findFileByRelativePath(packagesPath.joinToString("/"))
+    }
+
     private fun cachesPath(path: List<String>): List<Cache> {
         val caches = ArrayList<Cache>()
         caches.add(rootCache)
@@ -251,5 +312,7 @@ public class JvmDependenciesIndex(_roots: List<JavaRoot>) {
     }
 }
 
+private fun JavaRoot.isJar() = file.getFileSystem().getProtocol() == StandardFileSystems.JAR_PROTOCOL
+
 private fun IntArrayList.lastOrNull() = if (isEmpty()) null else get(size() - 1)
 private val IntArrayList.indices: IntRange get() = 0..size()-1
\ No newline at end of file
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.cli.jvm.compiler
+
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.util.ArrayList
+import java.util.BitSet
+import java.util.TreeMap
+import java.util.zip.ZipFile
+
+/**
+ * A persisted "package -> jars containing it" table for a list of jars, which lets [JvmDependenciesIndex] skip looking
+ * into jars which don't contain the requested package.
+ *
+ * The snapshot is stored in the cache directory in a file named after the list of jars and is memory-mapped when loaded.
+ * It is valid as long as paths, lengths and modification times of all jars are the same as at the time it was written,
+ * otherwise it is rebuilt by reading the central directories of the jars.
+ *
+ * Layout (big-endian):
+ *     magic, version
+ *     jar count, then for each jar: path, length, last modified
+ *     package count, number of bitmap words per package
+ *     offsets of package names, sorted by name
+ *     package bitmaps, bit N of a bitmap is set if the package exists in jar N
+ *     package names
+ * Strings are stored as a length followed by UTF-8 bytes.
+ */
+public class JvmDependenciesIndexSnapshot private constructor(private val buffer: ByteBuffer) {
+    private val packageCount: Int
+    private val wordsPerPackage: Int
+    private val nameOffsetsStart: Int
+    private val bitmapsStart: Int
+
+    init {
+        var position = 8
+        val jarCount = buffer.getInt(position)
+        position += 4
+        for (i in 0..jarCount - 1) {
+            position += 4 + buffer.getInt(position) + 16
+        }
+        packageCount = buffer.getInt(position)
+        wordsPerPackage = buffer.getInt(position + 4)
+        nameOffsetsStart = position + 8
+        bitmapsStart = nameOffsetsStart + packageCount * 4
+    }
+
+    /**
+     * @return index of the package with the given name or -1 if none of the jars contains it
+     */
+    public fun findPackage(fqName: String): Int {
+        var low = 0
+        var high = packageCount - 1
+        while (low <= high) {
+            val middle = (low + high) ushr 1
+            val comparison = readString(buffer, buffer.getInt(nameOffsetsStart + middle * 4)).compareTo(fqName)
+            when {
+                comparison < 0 -> low = middle + 1
+                comparison > 0 -> high = middle - 1
+                else -> return middle
+            }
+        }
+        return -1
+    }
+
+    public fun jarContainsPackage(jarIndex: Int, packageIndex: Int): Boolean {
+        val word = buffer.getLong(bitmapsStart + (packageIndex * wordsPerPackage + jarIndex / 64) * 8)
+        return word and (1L shl (jarIndex % 64)) != 0L
+    }
+
+    companion object {
+        private val MAGIC = 0x4B4A4449 // "KJDI"
+        private val VERSION = 1
+
+        /**
+         * @return the snapshot for the given jars, or null if it could neither be read from [cacheDir] nor built
+         */
+        public fun loadOrBuild(cacheDir: File, jars: List<File>): JvmDependenciesIndexSnapshot? {
+            val snapshotFile = File(cacheDir, "index-" + Integer.toHexString(jars.joinToString(File.pathSeparator).hashCode()) + ".bin")
+            try {
+                val buffer = mapIfValid(snapshotFile, jars)
+                if (buffer != null) return JvmDependenciesIndexSnapshot(buffer)
+            }
+            catch (e: IOException) {
+                // rebuild below
+            }
+            catch (e: RuntimeException) {
+                // the file is corrupt in a way the checks in mapIfValid don't catch, rebuild below
+            }
+
+            val bytes = try {
+                build(jars)
+            }
+            catch (e: IOException) {
+                return null
+            }
+
+            try {
+                cacheDir.mkdirs()
+                val tempFile = File.createTempFile(snapshotFile.getName(), ".tmp", cacheDir)
+                tempFile.writeBytes(bytes)
+                if (!tempFile.renameTo(snapshotFile)) {
+                    snapshotFile.delete()
+                    if (!tempFile.renameTo(snapshotFile)) tempFile.delete()
+                }
+            }
+            catch (e: IOException) {
+                // the snapshot is still usable for this compilation
+            }
+
+            return JvmDependenciesIndexSnapshot(ByteBuffer.wrap(bytes))
+        }
+
+        private fun mapIfValid(snapshotFile: File, jars: List<File>): ByteBuffer? {
+            if (!snapshotFile.isFile()) return null
+
+            val file = RandomAccessFile(snapshotFile, "r")
+            try {
+                val buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length())
+                if (buffer.limit() < 12) return null
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != jars.size()) return null
+
+                var position = 12
+                for (jar in jars) {
+                    if (!isStringInBounds(buffer, position)) return null
+                    val path = readString(buffer, position)
+                    position += 4 + buffer.getInt(position)
+                    if (position > buffer.limit() - 16) return null
+                    if (path != jar.getPath() || buffer.getLong(position) != jar.length() || buffer.getLong(position + 8) != jar.lastModified()) {
+                        return null
+                    }
+                    position += 16
+                }
+                return if (isPackageTableValid(buffer, position, jars.size())) buffer else null
+            }
+            finally {
+                // the mapping stays valid after the channel is closed
+                file.close()
+            }
+        }
+
+        // a truncated or partially written file must not make lookups fail later, so all offsets are checked up front
+        private fun isPackageTableValid(buffer: ByteBuffer, position: Int, jarCount: Int): Boolean {
+            if (position > buffer.limit() - 8) return false
+            val packageCount = buffer.getInt(position)
+            val wordsPerPackage = buffer.getInt(position + 4)
+            if (packageCount < 0 || wordsPerPackage != (jarCount + 63) / 64) return false
+
+            val namesStart = position + 8 + packageCount.toLong() * (4 + wordsPerPackage * 8)
+            if (namesStart > buffer.limit()) return false
+            for (i in 0..packageCount - 1) {
+                val nameOffset = buffer.getInt(position + 8 + i * 4)
+                if (nameOffset < namesStart || !isStringInBounds(buffer, nameOffset)) return false
+            }
+            return true
+        }
+
+        private fun isStringInBounds(buffer: ByteBuffer, position: Int): Boolean {
+            if (position < 0 || position > buffer.limit() - 4) return false
+            val length = buffer.getInt(position)
+            return length >= 0 && length <= buffer.limit() - position - 4
+        }
+
+        private fun build(jars: List<File>): ByteArray {
+            val packages = TreeMap<String, BitSet>()
+            for ((jarIndex, jar) in jars.withIndex()) {
+                val zipFile = ZipFile(jar)
+                try {
+                    val entries = zipFile.entries()
+                    while (entries.hasMoreElements()) {
+                        val name = entries.nextElement().getName()
+                        var separator = name.indexOf('/')
+                        while (separator > 0) {
+                            packages.getOrPut(name.substring(0, separator).replace('/', '.')) { BitSet() }.set(jarIndex)
+                            separator = name.indexOf('/', separator + 1)
+                        }
+                    }
+                }
+                finally {
+                    zipFile.close()
+                }
+            }
+
+            val wordsPerPackage = (jars.size() + 63) / 64
+            val names = ArrayList<ByteArray>(packages.size())
+            val header = ByteArrayOutputStream()
+            with(DataOutputStream(header)) {
+                writeInt(MAGIC)
+                writeInt(VERSION)
+                writeInt(jars.size())
+                for (jar in jars) {
+                    writeString(jar.getPath().toByteArray(Charsets.UTF_8))
+                    writeLong(jar.length())
+                    writeLong(jar.lastModified())
+                }
+                writeInt(packages.size())
+                writeInt(wordsPerPackage)
+                flush()
+            }
+
+            val result = ByteArrayOutputStream()
+            with(DataOutputStream(result)) {
+                write(header.toByteArray())
+
+                var nameOffset = header.size() + packages.size() * (4 + wordsPerPackage * 8)
+                for (name in packages.keySet()) {
+                    val bytes = name.toByteArray(Charsets.UTF_8)
+                    names.add(bytes)
+                    writeInt(nameOffset)
+                    nameOffset += 4 + bytes.size()
+                }
+                for (jarsWithPackage in packages.values()) {
+                    for (word in 0..wordsPerPackage - 1) {
+                        var bits = 0L
+                        for (bit in 0..63) {
+                            if (jarsWithPackage.get(word * 64 + bit)) bits = bits or (1L shl bit)
+                        }
+                        writeLong(bits)
+                    }
+                }
+                for (bytes in names) {
+                    writeString(bytes)
+                }
+                flush()
+            }
+            return result.toByteArray()
+        }
+
+        private fun DataOutputStream.writeString(bytes: ByteArray) {
+            writeInt(bytes.size())
+            write(bytes)
+        }
+
+        private fun readString(buffer: ByteBuffer, position: Int): String {
+            val bytes = ByteArray(buffer.getInt(position))
+            for (i in bytes.indices) {
+                bytes[i] = buffer.get(position + 4 + i)
+            }
+            return String(bytes, Charsets.UTF_8)
+        }
+    }
+}
@@ -64,6 +64,7 @@ import org.jetbrains.kotlin.cli.jvm.config.JvmClasspathRoot
 import org.jetbrains.kotlin.cli.jvm.config.JvmContentRoot
 import org.jetbrains.kotlin.codegen.extensions.ClassBuilderInterceptorExtension
 import org.jetbrains.kotlin.codegen.extensions.ExpressionCodegenExtension
+import org.jetbrains.kotlin.codegen.extensions.OptimizationPassExtension
 import org.jetbrains.kotlin.compiler.plugin.ComponentRegistrar
 import org.jetbrains.kotlin.config.CommonConfigurationKeys
 import org.jetbrains.kotlin.config.CompilerConfiguration
@@ -76,6 +77,7 @@ import org.jetbrains.kotlin.load.kotlin.KotlinBinaryClassCache
 import org.jetbrains.kotlin.load.kotlin.ModuleVisibilityManager
 import org.jetbrains.kotlin.parsing.JetParserDefinition
 import org.jetbrains.kotlin.parsing.JetScriptDefinitionProvider
+import org.jetbrains.kotlin.progress.CompilationPhase
 import org.jetbrains.kotlin.psi.KtFile
 import org.jetbrains.kotlin.resolve.CodeAnalyzerInitializer
 import org.jetbrains.kotlin.resolve.jvm.KotlinJavaPsiFacade
@@ -115,13 +117,20 @@ public class KotlinCoreEnvironment private constructor(
 
         fillClasspath(configuration)
         val fileManager = ServiceManager.getService(project, javaClass<CoreJavaFileManager>())
-        val index = JvmDependenciesIndex(javaRoots)
+        val index = JvmDependenciesIndex(javaRoots, configuration.get(JVMConfigurationKeys.DEPENDENCIES_INDEX_CACHE_DIR))
         (fileManager as KotlinCliJavaFileManagerImpl).initIndex(index)
 
-        sourceFiles.addAll(CompileEnvironmentUtil.getJetFiles(project, getSourceRootsCheckingForDuplicates(), {
-            message ->
-            report(ERROR, message)
-        }))
+        val phaseListener = configuration.get(CLIConfigurationKeys.COMPILATION_PHASE_LISTENER)
+        phaseListener?.phaseStarted(CompilationPhase.PARSE)
+        try {
+            sourceFiles.addAll(CompileEnvironmentUtil.getJetFiles(project, getSourceRootsCheckingForDuplicates(), {
+                message ->
+                report(ERROR, message)
+            }))
+        }
+        finally {
+            phaseListener?.phaseFinished(CompilationPhase.PARSE)
+        }
         sourceFiles.sortedWith(object : Comparator<KtFile> {
             override fun compare(o1: KtFile, o2: KtFile): Int {
                 return o1.getVirtualFile().getPath().compareTo(o2.getVirtualFile().getPath(), ignoreCase = true)
@@ -135,6 +144,7 @@ public class KotlinCoreEnvironment private constructor(
         ExternalDeclarationsProvider.registerExtensionPoint(project)
         ExpressionCodegenExtension.registerExtensionPoint(project)
         ClassBuilderInterceptorExtension.registerExtensionPoint(project)
+        OptimizationPassExtension.registerExtensionPoint(project)
         AnalysisCompletedHandlerExtension.registerExtensionPoint(project)
         StorageComponentContainerContributor.registerExtensionPoint(project)
 
@@ -250,12 +260,7 @@ public class KotlinCoreEnvironment private constructor(
                     }
                 })
             }
-            val environment = KotlinCoreEnvironment(parentDisposable, getOrCreateApplicationEnvironmentForProduction(configuration, configFilePaths), configuration)
-
-            synchronized (APPLICATION_LOCK) {
-                ourProjectCount++
-            }
-            return environment
+            return KotlinCoreEnvironment(parentDisposable, getOrCreateApplicationEnvironmentForProduction(configuration, configFilePaths), configuration)
         }
 
         @TestOnly
@@ -267,14 +272,17 @@ public class KotlinCoreEnvironment private constructor(
             return KotlinCoreEnvironment(parentDisposable, createApplicationEnvironment(parentDisposable, configuration, extensionConfigs), configuration)
         }
 
+        // the project is counted under the same lock, so that the environment can't be disposed by another project before it's used
         private fun getOrCreateApplicationEnvironmentForProduction(configuration: CompilerConfiguration, configFilePaths: List<String>): JavaCoreApplicationEnvironment {
             synchronized (APPLICATION_LOCK) {
-                if (ourApplicationEnvironment != null)
+                if (ourApplicationEnvironment != null) {
+                    ourProjectCount++
                     return ourApplicationEnvironment!!
+                }
 
                 val parentDisposable = Disposer.newDisposable()
                 ourApplicationEnvironment = createApplicationEnvironment(parentDisposable, configuration, configFilePaths)
-                ourProjectCount = 0
+                ourProjectCount = 1
                 Disposer.register(parentDisposable, object : Disposable {
                     override fun dispose() {
                         synchronized (APPLICATION_LOCK) {
@@ -40,7 +40,9 @@ import org.jetbrains.kotlin.cli.jvm.config.JVMConfigurationKeys;
 import org.jetbrains.kotlin.cli.jvm.config.JvmContentRootsKt;
 import org.jetbrains.kotlin.cli.jvm.config.ModuleNameKt;
 import org.jetbrains.kotlin.codegen.*;
+import org.jetbrains.kotlin.codegen.optimization.OptimizationPipeline;
 import org.jetbrains.kotlin.codegen.state.GenerationState;
+import org.jetbrains.kotlin.codegen.state.Progress;
 import org.jetbrains.kotlin.config.CompilerConfiguration;
 import org.jetbrains.kotlin.config.ContentRootsKt;
 import org.jetbrains.kotlin.context.ModuleContext;
@@ -55,14 +57,17 @@ import org.jetbrains.kotlin.modules.TargetIdKt;
 import org.jetbrains.kotlin.name.FqName;
 import org.jetbrains.kotlin.parsing.JetScriptDefinition;
 import org.jetbrains.kotlin.parsing.JetScriptDefinitionProvider;
+import org.jetbrains.kotlin.progress.CompilationPhase;
+import org.jetbrains.kotlin.progress.CompilationPhaseListener;
 import org.jetbrains.kotlin.progress.ProgressIndicatorAndCompilationCanceledStatus;
 import org.jetbrains.kotlin.psi.KtFile;
 import org.jetbrains.kotlin.resolve.AnalyzerScriptParameter;
-import org.jetbrains.kotlin.resolve.BindingTrace;
+import org.jetbrains.kotlin.resolve.BindingContext;
 import org.jetbrains.kotlin.resolve.BindingTraceContext;
 import org.jetbrains.kotlin.resolve.ScriptNameUtil;
 import org.jetbrains.kotlin.resolve.jvm.JvmClassName;
 import org.jetbrains.kotlin.resolve.jvm.TopDownAnalyzerFacadeForJVM;
+import org.jetbrains.kotlin.types.checker.TypeCheckerCache;
 import org.jetbrains.kotlin.util.PerformanceCounter;
 import org.jetbrains.kotlin.utils.KotlinPaths;
 
@@ -99,12 +104,34 @@ public class KotlinToJVMBytecodeCompiler {
             boolean jarRuntime,
             @Nullable FqName mainClass
     ) {
-        if (jarPath != null) {
-            CompileEnvironmentUtil.writeToJar(jarPath, jarRuntime, mainClass, outputFiles);
+        phaseStarted(configuration, CompilationPhase.WRITE);
+        try {
+            if (jarPath != null) {
+                boolean compress = !configuration.get(JVMConfigurationKeys.UNCOMPRESSED_JAR, false);
+                CompileEnvironmentUtil.writeToJar(jarPath, jarRuntime, mainClass, outputFiles, compress);
+            }
+            else {
+                MessageCollector messageCollector = configuration.get(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY, MessageCollector.NONE);
+                OutputUtilsKt.writeAll(outputFiles, outputDir == null ? new File(".") : outputDir, messageCollector);
+            }
         }
-        else {
-            MessageCollector messageCollector = configuration.get(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY, MessageCollector.NONE);
-            OutputUtilsKt.writeAll(outputFiles, outputDir == null ? new File(".") : outputDir, messageCollector);
+        finally {
+            outputFiles.releaseStorage();
+            phaseFinished(configuration, CompilationPhase.WRITE);
+        }
+    }
+
+    private static void phaseStarted(@NotNull CompilerConfiguration configuration, @NotNull CompilationPhase phase) {
+        CompilationPhaseListener listener = configuration.get(CLIConfigurationKeys.COMPILATION_PHASE_LISTENER);
+        if (listener != null) {
+            listener.phaseStarted(phase);
+        }
+    }
+
+    private static void phaseFinished(@NotNull CompilerConfiguration configuration, @NotNull CompilationPhase phase) {
+        CompilationPhaseListener listener = configuration.get(CLIConfigurationKeys.COMPILATION_PHASE_LISTENER);
+        if (listener != null) {
+            listener.phaseFinished(phase);
         }
     }
 
@@ -139,26 +166,34 @@ public class KotlinToJVMBytecodeCompiler {
 
         result.throwIfError();
 
-        for (Module module : chunk) {
-            ProgressIndicatorAndCompilationCanceledStatus.checkCanceled();
-            List<KtFile> jetFiles = CompileEnvironmentUtil.getJetFiles(
-                    environment.getProject(), getAbsolutePaths(directory, module), new Function1<String, Unit>() {
-                        @Override
-                        public Unit invoke(String s) {
-                            throw new IllegalStateException("Should have been checked before: " + s);
+        try {
+            for (Module module : chunk) {
+                ProgressIndicatorAndCompilationCanceledStatus.checkCanceled();
+                List<KtFile> jetFiles = CompileEnvironmentUtil.getJetFiles(
+                        environment.getProject(), getAbsolutePaths(directory, module), new Function1<String, Unit>() {
+                            @Override
+                            public Unit invoke(String s) {
+                                throw new IllegalStateException("Should have been checked before: " + s);
+                            }
                         }
-                    }
-            );
-            File moduleOutputDirectory = new File(module.getOutputDirectory());
-            GenerationState generationState =
-                    generate(environment, result, jetFiles, module, moduleOutputDirectory,
-                             module.getModuleName());
-            outputFiles.put(module, generationState.getFactory());
-        }
+                );
+                File moduleOutputDirectory = new File(module.getOutputDirectory());
+                GenerationState generationState =
+                        generate(environment, result, jetFiles, module, moduleOutputDirectory,
+                                 module.getModuleName());
+                outputFiles.put(module, generationState.getFactory());
+            }
 
-        for (Module module : chunk) {
-            ProgressIndicatorAndCompilationCanceledStatus.checkCanceled();
-            writeOutput(configuration, outputFiles.get(module), new File(module.getOutputDirectory()), jarPath, jarRuntime, null);
+            for (Module module : chunk) {
+                ProgressIndicatorAndCompilationCanceledStatus.checkCanceled();
+                writeOutput(configuration, outputFiles.get(module), new File(module.getOutputDirectory()), jarPath, jarRuntime, null);
+            }
+        }
+        finally {
+            // writeOutput releases the storage of the module it writes, but the modules after a failed one are never written
+            for (ClassFileFactory factory : outputFiles.values()) {
+                factory.releaseStorage();
+            }
         }
         return true;
     }
@@ -310,29 +345,50 @@ public class KotlinToJVMBytecodeCompiler {
         MessageCollector collector = environment.getConfiguration().get(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY);
         assert collector != null;
 
+        final CompilerConfiguration configuration = environment.getConfiguration();
+        final BindingTraceContext sharedTrace = new CliLightClassGenerationSupport.NoScopeRecordCliBindingTrace(
+                configuration.get(JVMConfigurationKeys.RESOLVE_THREADS, 1) > 1,
+                configuration.get(JVMConfigurationKeys.COMPACT_BINDING_TRACE, false));
+
         long analysisStart = PerformanceCounter.Companion.currentTime();
+        phaseStarted(configuration, CompilationPhase.RESOLVE);
         AnalyzerWithCompilerReport analyzerWithCompilerReport = new AnalyzerWithCompilerReport(collector);
-        analyzerWithCompilerReport.analyzeAndReport(
-                environment.getSourceFiles(), new Function0<AnalysisResult>() {
-                    @NotNull
-                    @Override
-                    public AnalysisResult invoke() {
-                        BindingTrace sharedTrace = new CliLightClassGenerationSupport.NoScopeRecordCliBindingTrace();
-                        ModuleContext moduleContext = TopDownAnalyzerFacadeForJVM.createContextWithSealedModule(environment.getProject(),
-                                                                                                                ModuleNameKt
-                                                                                                                        .getModuleName(environment));
-
-                        return TopDownAnalyzerFacadeForJVM.analyzeFilesWithJavaIntegrationWithCustomContext(
-                                moduleContext,
-                                environment.getSourceFiles(),
-                                sharedTrace,
-                                environment.getConfiguration().get(JVMConfigurationKeys.MODULES),
-                                environment.getConfiguration().get(JVMConfigurationKeys.INCREMENTAL_COMPILATION_COMPONENTS),
-                                new JvmPackagePartProvider(environment)
-                        );
+        try {
+            analyzerWithCompilerReport.analyzeAndReport(
+                    environment.getSourceFiles(), new Function0<AnalysisResult>() {
+                        @NotNull
+                        @Override
+                        public AnalysisResult invoke() {
+                            ModuleContext moduleContext = TopDownAnalyzerFacadeForJVM.createContextWithSealedModule(environment.getProject(),
+                                                                                                                    ModuleNameKt
+                                                                                                                            .getModuleName(environment));
+
+                            TypeCheckerCache typeCheckerCache = new TypeCheckerCache(moduleContext.getStorageManager());
+                            TypeCheckerCache previousTypeCheckerCache = typeCheckerCache.enter();
+                            AnalysisResult result;
+                            try {
+                                result = TopDownAnalyzerFacadeForJVM.analyzeFilesWithJavaIntegrationWithCustomContext(
+                                        moduleContext,
+                                        environment.getSourceFiles(),
+                                        sharedTrace,
+                                        configuration.get(JVMConfigurationKeys.MODULES),
+                                        configuration.get(JVMConfigurationKeys.INCREMENTAL_COMPILATION_COMPONENTS),
+                                        new JvmPackagePartProvider(environment),
+                                        configuration.get(JVMConfigurationKeys.RESOLVE_THREADS, 1)
+                                );
+                            }
+                            finally {
+                                TypeCheckerCache.exit(previousTypeCheckerCache);
+                            }
+                            K2JVMCompiler.Companion.reportPerf(configuration, typeCheckerCache.getStatistics());
+                            return result;
+                        }
                     }
-                }
-        );
+            );
+        }
+        finally {
+            phaseFinished(configuration, CompilationPhase.RESOLVE);
+        }
         long analysisNanos = PerformanceCounter.Companion.currentTime() - analysisStart;
         String message = "ANALYZE: " + environment.getSourceFiles().size() + " files (" +
                          environment.getSourceLinesOfCode() + " lines) " +
@@ -349,12 +405,17 @@ public class KotlinToJVMBytecodeCompiler {
             plugin.processFiles(context);
         }
 
-        return analyzerWithCompilerReport.hasErrors() ? null : result;
+        if (analyzerWithCompilerReport.hasErrors()) return null;
+
+        // Code generation only reads a part of the analysis results, let the rest be collected before it starts
+        sharedTrace.removeSlices(BindingContext.ANALYSIS_ONLY_SLICES);
+
+        return result;
     }
 
     @NotNull
     private static GenerationState generate(
-            @NotNull KotlinCoreEnvironment environment,
+            @NotNull final KotlinCoreEnvironment environment,
             @NotNull AnalysisResult result,
             @NotNull List<KtFile> sourceFiles,
             @Nullable Module module,
@@ -405,19 +466,44 @@ public class KotlinToJVMBytecodeCompiler {
                 targetId,
                 moduleName,
                 outputDirectory,
-                incrementalCompilationComponents
+                incrementalCompilationComponents,
+                Progress.DEAF,
+                configuration.get(JVMConfigurationKeys.CODEGEN_THREADS, 1),
+                configuration.get(JVMConfigurationKeys.OPTIMIZATION_LEVEL, OptimizationPipeline.DEFAULT_LEVEL)
         );
         ProgressIndicatorAndCompilationCanceledStatus.checkCanceled();
 
         long generationStart = PerformanceCounter.Companion.currentTime();
 
-        KotlinCodegenFacade.compileCorrectFiles(generationState, CompilationErrorHandler.THROW_EXCEPTION);
+        phaseStarted(configuration, CompilationPhase.GENERATE);
+        boolean generated = false;
+        try {
+            if (configuration.get(JVMConfigurationKeys.STREAM_OUTPUT, false)) {
+                generationState.getFactory().setStorage(ClassFileStorage.createTemporary());
+            }
+            KotlinCodegenFacade.compileCorrectFiles(generationState, CompilationErrorHandler.THROW_EXCEPTION);
+            generated = true;
+        }
+        finally {
+            if (!generated) {
+                // Nobody is going to write this output, so the stored class files would be left on disk otherwise
+                generationState.getFactory().releaseStorage();
+            }
+            phaseFinished(configuration, CompilationPhase.GENERATE);
+        }
 
         long generationNanos = PerformanceCounter.Companion.currentTime() - generationStart;
         String desc = module != null ? "target " + module.getModuleName() + "-" + module.getModuleType() + " " : "";
         String message = "GENERATE: " + sourceFiles.size() + " files (" +
                          environment.countLinesOfCode(sourceFiles) + " lines) " + desc + "in " + TimeUnit.NANOSECONDS.toMillis(generationNanos) + " ms";
         K2JVMCompiler.Companion.reportPerf(environment.getConfiguration(), message);
+        generationState.getOptimizationPipeline().report(new Function1<String, Unit>() {
+            @Override
+            public Unit invoke(String passMessage) {
+                K2JVMCompiler.Companion.reportPerf(environment.getConfiguration(), passMessage);
+                return Unit.INSTANCE$;
+            }
+        });
         ProgressIndicatorAndCompilationCanceledStatus.checkCanceled();
 
         AnalyzerWithCompilerReport.reportDiagnostics(
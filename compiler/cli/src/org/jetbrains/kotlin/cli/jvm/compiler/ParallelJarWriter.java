@@ -0,0 +1,300 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.cli.jvm.compiler;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.utils.ExceptionUtilsKt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+/**
+ * Writes a jar whose entries are compressed on a thread pool. Entries are written in the order they were added,
+ * so the resulting file doesn't depend on scheduling, and at most a bounded number of them is held in memory at a time.
+ *
+ * The writer produces the same layout as {@link java.util.jar.JarOutputStream}: the manifest goes first, sizes and checksums
+ * are stored in local headers, and the zip64 end record is only written when there are too many entries for a plain one
+ */
+public class ParallelJarWriter {
+    private static final int PENDING_ENTRIES_PER_THREAD = 16;
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+    private static final int VERSION = 20;
+    private static final int ZIP64_VERSION = 45;
+    private static final int UTF8_NAME_FLAG = 0x800;
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+    private static final long MAX_UINT32 = 0xFFFFFFFFL;
+    private static final int MAX_UINT16 = 0xFFFF;
+
+    // Same marker as JarOutputStream puts on the first entry, it lets Solaris recognize executable jars
+    private static final byte[] JAR_MAGIC_EXTRA = new byte[] {(byte) 0xFE, (byte) 0xCA, 0, 0};
+    private static final byte[] NO_EXTRA = new byte[0];
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final OutputStream out;
+    private final boolean compress;
+    private final ExecutorService executor;
+    private final int maxPendingEntries;
+    private final Queue<Future<Entry>> pending = new ArrayDeque<Future<Entry>>();
+    private final List<Entry> written = new ArrayList<Entry>();
+    private final Set<String> names = new HashSet<String>();
+    private final int dosTime;
+    private final int dosDate;
+    private long offset = 0;
+
+    public ParallelJarWriter(@NotNull OutputStream out, @NotNull Manifest manifest, boolean compress, int threads) throws IOException {
+        this.out = out;
+        this.compress = compress;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.maxPendingEntries = threads * PENDING_ENTRIES_PER_THREAD;
+
+        Calendar calendar = Calendar.getInstance();
+        if (calendar.get(Calendar.YEAR) < 1980) {
+            dosTime = 0;
+            dosDate = (1 << 5) | 1;
+        }
+        else {
+            dosTime = (calendar.get(Calendar.HOUR_OF_DAY) << 11) | (calendar.get(Calendar.MINUTE) << 5) |
+                      (calendar.get(Calendar.SECOND) >> 1);
+            dosDate = ((calendar.get(Calendar.YEAR) - 1980) << 9) | ((calendar.get(Calendar.MONTH) + 1) << 5) |
+                      calendar.get(Calendar.DAY_OF_MONTH);
+        }
+
+        ByteArrayOutputStream manifestBytes = new ByteArrayOutputStream();
+        manifest.write(manifestBytes);
+        addEntry(JarFile.MANIFEST_NAME, manifestBytes.toByteArray());
+    }
+
+    public void addEntry(@NotNull final String name, @NotNull final byte[] bytes) throws IOException {
+        if (!names.add(name)) {
+            throw new ZipException("duplicate entry: " + name);
+        }
+        if (pending.size() >= maxPendingEntries) {
+            writeEntry(pending.remove());
+        }
+        pending.add(executor.submit(new Callable<Entry>() {
+            @Override
+            public Entry call() {
+                return createEntry(name, bytes);
+            }
+        }));
+    }
+
+    /**
+     * Writes the remaining entries and the central directory, and stops the worker threads. The underlying stream is not closed
+     */
+    public void finish() throws IOException {
+        try {
+            while (!pending.isEmpty()) {
+                writeEntry(pending.remove());
+            }
+            writeCentralDirectory();
+            out.flush();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Stops the worker threads without writing anything, to be called if the jar is abandoned before {@link #finish()}
+     */
+    public void abort() {
+        executor.shutdownNow();
+    }
+
+    @NotNull
+    private Entry createEntry(@NotNull String name, @NotNull byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        if (!compress) {
+            return new Entry(name, METHOD_STORED, crc.getValue(), bytes.length, bytes, bytes.length);
+        }
+
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            byte[] data = new byte[Math.max(64, bytes.length / 2)];
+            int size = 0;
+            while (!deflater.finished()) {
+                if (size == data.length) {
+                    data = Arrays.copyOf(data, data.length * 2);
+                }
+                size += deflater.deflate(data, size, data.length - size);
+            }
+            return new Entry(name, METHOD_DEFLATED, crc.getValue(), bytes.length, data, size);
+        }
+        finally {
+            deflater.end();
+        }
+    }
+
+    private void writeEntry(@NotNull Future<Entry> future) throws IOException {
+        Entry entry;
+        try {
+            entry = future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ExceptionUtilsKt.rethrow(e);
+        }
+        catch (ExecutionException e) {
+            throw ExceptionUtilsKt.rethrow(e.getCause());
+        }
+
+        if (offset > MAX_UINT32) {
+            throw new IOException("Jar file is too large: " + entry.name + " starts beyond 4 GB");
+        }
+        entry.offset = offset;
+        entry.extra = written.isEmpty() ? JAR_MAGIC_EXTRA : NO_EXTRA;
+
+        writeInt(LOCAL_HEADER_SIGNATURE);
+        writeShort(VERSION);
+        writeShort(UTF8_NAME_FLAG);
+        writeShort(entry.method);
+        writeShort(dosTime);
+        writeShort(dosDate);
+        writeInt(entry.crc);
+        writeInt(entry.compressedSize);
+        writeInt(entry.size);
+        writeShort(entry.nameBytes.length);
+        writeShort(entry.extra.length);
+        writeBytes(entry.nameBytes, entry.nameBytes.length);
+        writeBytes(entry.extra, entry.extra.length);
+        writeBytes(entry.data, entry.compressedSize);
+
+        // Only the central directory record is needed from now on
+        entry.data = null;
+        written.add(entry);
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        long start = offset;
+        for (Entry entry : written) {
+            writeInt(CENTRAL_HEADER_SIGNATURE);
+            writeShort(VERSION);
+            writeShort(VERSION);
+            writeShort(UTF8_NAME_FLAG);
+            writeShort(entry.method);
+            writeShort(dosTime);
+            writeShort(dosDate);
+            writeInt(entry.crc);
+            writeInt(entry.compressedSize);
+            writeInt(entry.size);
+            writeShort(entry.nameBytes.length);
+            writeShort(entry.extra.length);
+            writeShort(0); // comment length
+            writeShort(0); // disk number
+            writeShort(0); // internal attributes
+            writeInt(0); // external attributes
+            writeInt(entry.offset);
+            writeBytes(entry.nameBytes, entry.nameBytes.length);
+            writeBytes(entry.extra, entry.extra.length);
+        }
+        long size = offset - start;
+        int count = written.size();
+
+        boolean zip64 = count > MAX_UINT16 || start > MAX_UINT32 || size > MAX_UINT32;
+        if (zip64) {
+            long zip64EndOffset = offset;
+            writeInt(ZIP64_END_SIGNATURE);
+            writeLong(44); // size of the rest of the record
+            writeShort(ZIP64_VERSION);
+            writeShort(ZIP64_VERSION);
+            writeInt(0); // this disk
+            writeInt(0); // disk with the central directory
+            writeLong(count);
+            writeLong(count);
+            writeLong(size);
+            writeLong(start);
+
+            writeInt(ZIP64_LOCATOR_SIGNATURE);
+            writeInt(0); // disk with the zip64 end record
+            writeLong(zip64EndOffset);
+            writeInt(1); // total disks
+        }
+
+        writeInt(END_SIGNATURE);
+        writeShort(0); // this disk
+        writeShort(0); // disk with the central directory
+        writeShort(zip64 ? MAX_UINT16 : count);
+        writeShort(zip64 ? MAX_UINT16 : count);
+        writeInt(zip64 ? MAX_UINT32 : size);
+        writeInt(zip64 ? MAX_UINT32 : start);
+        writeShort(0); // comment length
+    }
+
+    private void writeShort(int value) throws IOException {
+        out.write(value & 0xFF);
+        out.write((value >>> 8) & 0xFF);
+        offset += 2;
+    }
+
+    private void writeInt(long value) throws IOException {
+        writeShort((int) (value & 0xFFFF));
+        writeShort((int) ((value >>> 16) & 0xFFFF));
+    }
+
+    private void writeLong(long value) throws IOException {
+        writeInt(value & MAX_UINT32);
+        writeInt(value >>> 32);
+    }
+
+    private void writeBytes(@NotNull byte[] bytes, int length) throws IOException {
+        out.write(bytes, 0, length);
+        offset += length;
+    }
+
+    private static class Entry {
+        public final String name;
+        public final byte[] nameBytes;
+        public final int method;
+        public final long crc;
+        public final long size;
+        public final int compressedSize;
+        public byte[] data;
+        public byte[] extra;
+        public long offset;
+
+        public Entry(@NotNull String name, int method, long crc, long size, @NotNull byte[] data, int compressedSize) {
+            this.name = name;
+            this.nameBytes = name.getBytes(UTF8);
+            this.method = method;
+            this.crc = crc;
+            this.size = size;
+            this.data = data;
+            this.compressedSize = compressedSize;
+        }
+    }
+}
@@ -22,6 +22,7 @@ import org.jetbrains.kotlin.config.CompilerConfigurationKey;
 import org.jetbrains.kotlin.load.kotlin.incremental.components.IncrementalCompilationComponents;
 import org.jetbrains.kotlin.resolve.AnalyzerScriptParameter;
 
+import java.io.File;
 import java.util.List;
 
 public class JVMConfigurationKeys {
@@ -39,6 +40,21 @@ public class JVMConfigurationKeys {
             CompilerConfigurationKey.create("disable inline");
     public static final CompilerConfigurationKey<Boolean> DISABLE_OPTIMIZATION =
             CompilerConfigurationKey.create("disable optimization");
+    public static final CompilerConfigurationKey<Integer> OPTIMIZATION_LEVEL =
+            CompilerConfigurationKey.create("bytecode optimization level");
+    public static final CompilerConfigurationKey<Integer> CODEGEN_THREADS =
+            CompilerConfigurationKey.create("number of codegen threads");
+    // Only bodies of non-local functions are resolved in parallel, see BodyResolveParallelism
+    public static final CompilerConfigurationKey<Integer> RESOLVE_THREADS =
+            CompilerConfigurationKey.create("number of body resolve threads");
+    public static final CompilerConfigurationKey<Boolean> COMPACT_BINDING_TRACE =
+            CompilerConfigurationKey.create("use compact binding trace storage");
+    public static final CompilerConfigurationKey<File> DEPENDENCIES_INDEX_CACHE_DIR =
+            CompilerConfigurationKey.create("directory for dependencies index snapshots");
+    public static final CompilerConfigurationKey<Boolean> STREAM_OUTPUT =
+            CompilerConfigurationKey.create("keep generated classes on disk until the output is written");
+    public static final CompilerConfigurationKey<Boolean> UNCOMPRESSED_JAR =
+            CompilerConfigurationKey.create("store entries of the output jar without compression");
 
     public static final CompilerConfigurationKey<IncrementalCompilationComponents> INCREMENTAL_COMPILATION_COMPONENTS =
             CompilerConfigurationKey.create("incremental cache provider");
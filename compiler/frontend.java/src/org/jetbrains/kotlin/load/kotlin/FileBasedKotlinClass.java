@@ -61,7 +61,7 @@ public abstract class FileBasedKotlinClass implements KotlinJvmBinaryClass {
         }
     }
 
-    protected static class InnerClassesInfo {
+    public static class InnerClassesInfo {
         private Map<String, OuterAndInnerName> map = null;
 
         public void add(@NotNull String name, @Nullable String outerName, @Nullable String innerName) {
@@ -80,6 +80,11 @@ public abstract class FileBasedKotlinClass implements KotlinJvmBinaryClass {
     @NotNull
     protected abstract byte[] getFileContents();
 
+    @NotNull
+    public InnerClassesInfo getInnerClasses() {
+        return innerClasses;
+    }
+
     // TODO public to be accessible in companion object of subclass, workaround for KT-3974
     @Nullable
     public static <T extends FileBasedKotlinClass> T create(
@@ -62,6 +62,9 @@ public final class KotlinBinaryClassCache implements Disposable {
             VirtualFileKotlinClass aClass = ApplicationManager.getApplication().runReadAction(new Computable<VirtualFileKotlinClass>() {
                 @Override
                 public VirtualFileKotlinClass compute() {
+                    if (LibraryKotlinClassCache.INSTANCE$.isEnabled()) {
+                        return LibraryKotlinClassCache.INSTANCE$.getKotlinClass(file);
+                    }
                     //noinspection deprecation
                     return VirtualFileKotlinClass.Factory.create(file);
                 }
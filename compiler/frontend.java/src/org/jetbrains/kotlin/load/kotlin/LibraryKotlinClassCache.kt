@@ -0,0 +1,176 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.load.kotlin
+
+import com.intellij.openapi.vfs.JarFileSystem
+import com.intellij.openapi.vfs.VirtualFile
+import org.jetbrains.annotations.TestOnly
+import org.jetbrains.kotlin.load.kotlin.header.KotlinClassHeader
+import org.jetbrains.kotlin.name.ClassId
+import java.io.File
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.zip.CRC32
+
+/**
+ * Keeps what was read from class files of library jars across compilations in one JVM, i.e. in the compile daemon,
+ * so that headers of Kotlin classes are not parsed again, and Java classes are not read at all to find out they have no header.
+ *
+ * A jar is identified by its path. Its length and a checksum of its central directory, which lists names, sizes and CRCs of all entries,
+ * are checked once per compilation, see [startCompilation], and everything cached for the jar is dropped when either of them changes;
+ * within a compilation jars are considered unchanged. Jars whose central directory can't be read are not cached.
+ * Only [MAX_CACHED_JARS] most recently used jars are kept. The owner of the cache is expected to [clear] it when memory is low.
+ *
+ * Descriptors are not cached here: they are bound to the module and the storage manager of a particular compilation.
+ */
+public object LibraryKotlinClassCache {
+    public val MAX_CACHED_JARS: Int = 1000
+
+    @Volatile
+    public var isEnabled: Boolean = false
+
+    private val END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50
+    private val END_OF_CENTRAL_DIRECTORY_SIZE = 22
+    private val MAX_ZIP_COMMENT_LENGTH = 0xFFFF
+
+    private val compilation = AtomicInteger()
+    private val readClasses = AtomicInteger()
+
+    // guarded by itself, iterated in the order of access
+    private val jars = object : LinkedHashMap<String, JarClasses>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, JarClasses>?): Boolean = size() > MAX_CACHED_JARS
+    }
+
+    private val NOT_KOTLIN_CLASS = Any()
+
+    private class CachedClass(
+            val classId: ClassId,
+            val header: KotlinClassHeader,
+            val innerClasses: FileBasedKotlinClass.InnerClassesInfo
+    )
+
+    private class JarClasses(val length: Long, val centralDirectoryChecksum: Long) {
+        @Volatile var checkedInCompilation: Int = 0
+
+        // relative path of the class file -> CachedClass or NOT_KOTLIN_CLASS
+        val classes = ConcurrentHashMap<String, Any>()
+    }
+
+    public fun startCompilation() {
+        compilation.incrementAndGet()
+    }
+
+    public fun clear() {
+        synchronized(jars) {
+            jars.clear()
+        }
+    }
+
+    @TestOnly
+    public fun getReadClassCount(): Int = readClasses.get()
+
+    public fun getKotlinClass(file: VirtualFile): VirtualFileKotlinClass? {
+        val path = file.getPath()
+        val separatorIndex = path.indexOf(JarFileSystem.JAR_SEPARATOR)
+        val jarClasses = if (separatorIndex >= 0) getJarClasses(path.substring(0, separatorIndex)) else null
+        @Suppress("DEPRECATION")
+        if (jarClasses == null) return VirtualFileKotlinClass.create(file)
+
+        val relativePath = path.substring(separatorIndex + JarFileSystem.JAR_SEPARATOR.length())
+        val cached = jarClasses.classes[relativePath]
+        if (cached === NOT_KOTLIN_CLASS) return null
+        if (cached is CachedClass) return VirtualFileKotlinClass(file, cached.classId, cached.header, cached.innerClasses)
+
+        readClasses.incrementAndGet()
+        val kotlinClass = VirtualFileKotlinClass.create(file) {
+            jarClasses.classes[relativePath] = NOT_KOTLIN_CLASS
+        }
+        if (kotlinClass != null) {
+            jarClasses.classes[relativePath] = CachedClass(kotlinClass.getClassId(), kotlinClass.getClassHeader(), kotlinClass.getInnerClasses())
+        }
+        return kotlinClass
+    }
+
+    private fun getJarClasses(jarPath: String): JarClasses? {
+        val currentCompilation = compilation.get()
+        val existing = synchronized(jars) { jars[jarPath] }
+        if (existing != null && existing.checkedInCompilation == currentCompilation) return existing
+
+        val jar = File(jarPath)
+        val length = jar.length()
+        val checksum = getCentralDirectoryChecksum(jar)
+        if (checksum == null) {
+            synchronized(jars) {
+                jars.remove(jarPath)
+            }
+            return null
+        }
+
+        val jarClasses =
+                if (existing != null && existing.length == length && existing.centralDirectoryChecksum == checksum) existing
+                else JarClasses(length, checksum)
+        jarClasses.checkedInCompilation = currentCompilation
+        if (jarClasses !== existing) {
+            synchronized(jars) {
+                jars[jarPath] = jarClasses
+            }
+        }
+        return jarClasses
+    }
+
+    // The central directory is at the end of a jar and is much smaller than the jar itself, so it's cheap to read
+    private fun getCentralDirectoryChecksum(jar: File): Long? {
+        try {
+            val file = RandomAccessFile(jar, "r")
+            try {
+                val length = file.length()
+                val tailLength = Math.min(length, (END_OF_CENTRAL_DIRECTORY_SIZE + MAX_ZIP_COMMENT_LENGTH).toLong()).toInt()
+                val tail = ByteArray(tailLength)
+                file.seek(length - tailLength)
+                file.readFully(tail)
+
+                val buffer = ByteBuffer.wrap(tail).order(ByteOrder.LITTLE_ENDIAN)
+                for (position in tailLength - END_OF_CENTRAL_DIRECTORY_SIZE downTo 0) {
+                    if (buffer.getInt(position) != END_OF_CENTRAL_DIRECTORY_SIGNATURE) continue
+
+                    val size = buffer.getInt(position + 12).toLong() and 0xFFFFFFFFL
+                    val offset = buffer.getInt(position + 16).toLong() and 0xFFFFFFFFL
+                    if (offset + size > length - tailLength + position) return null
+
+                    val directory = ByteArray(size.toInt())
+                    file.seek(offset)
+                    file.readFully(directory)
+                    val crc = CRC32()
+                    crc.update(directory)
+                    return crc.getValue()
+                }
+                return null
+            }
+            finally {
+                file.close()
+            }
+        }
+        catch (e: IOException) {
+            return null
+        }
+    }
+}
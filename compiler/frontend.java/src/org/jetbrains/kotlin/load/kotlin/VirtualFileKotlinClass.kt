@@ -26,7 +26,7 @@ import org.jetbrains.kotlin.utils.rethrow
 import java.io.FileNotFoundException
 import java.io.IOException
 
-public class VirtualFileKotlinClass private constructor(
+public class VirtualFileKotlinClass internal constructor(
         public val file: VirtualFile,
         className: ClassId,
         classHeader: KotlinClassHeader,
@@ -54,17 +54,24 @@ public class VirtualFileKotlinClass private constructor(
         private val perfCounter = PerformanceCounter.create("Binary class from Kotlin file")
 
         @Deprecated("Use KotlinBinaryClassCache")
-        fun create(file: VirtualFile): VirtualFileKotlinClass? {
+        fun create(file: VirtualFile): VirtualFileKotlinClass? = create(file, null)
+
+        // onNotKotlinClass is invoked if the file was read successfully but it is not a Kotlin class
+        internal fun create(file: VirtualFile, onNotKotlinClass: (() -> Unit)?): VirtualFileKotlinClass? {
             return perfCounter.time {
                 assert(file.getFileType() == JavaClassFileType.INSTANCE) { "Trying to read binary data from a non-class file $file" }
 
                 try {
                     val byteContent = file.contentsToByteArray(false)
                     if (!byteContent.isEmpty()) {
-                        return@time FileBasedKotlinClass.create(byteContent) {
+                        val kotlinClass = FileBasedKotlinClass.create(byteContent) {
                             name, header, innerClasses ->
                             VirtualFileKotlinClass(file, name, header, innerClasses)
                         }
+                        if (kotlinClass == null) {
+                            onNotKotlinClass?.invoke()
+                        }
+                        return@time kotlinClass
                     }
                 }
                 catch (e: FileNotFoundException) {
@@ -62,7 +62,7 @@ public enum TopDownAnalyzerFacadeForJVM {
             @NotNull TopDownAnalysisMode topDownAnalysisMode,
             PackagePartProvider packagePartProvider
     ) {
-        return analyzeFilesWithJavaIntegration(moduleContext, files, trace, topDownAnalysisMode, null, null, packagePartProvider);
+        return analyzeFilesWithJavaIntegration(moduleContext, files, trace, topDownAnalysisMode, null, null, packagePartProvider, 1);
     }
 
     @NotNull
@@ -73,10 +73,24 @@ public enum TopDownAnalyzerFacadeForJVM {
             @Nullable List<Module> modules,
             @Nullable IncrementalCompilationComponents incrementalCompilationComponents,
             @NotNull PackagePartProvider packagePartProvider
+    ) {
+        return analyzeFilesWithJavaIntegrationWithCustomContext(
+                moduleContext, files, trace, modules, incrementalCompilationComponents, packagePartProvider, 1);
+    }
+
+    @NotNull
+    public static AnalysisResult analyzeFilesWithJavaIntegrationWithCustomContext(
+            @NotNull ModuleContext moduleContext,
+            @NotNull Collection<KtFile> files,
+            @NotNull BindingTrace trace,
+            @Nullable List<Module> modules,
+            @Nullable IncrementalCompilationComponents incrementalCompilationComponents,
+            @NotNull PackagePartProvider packagePartProvider,
+            int bodyResolveThreads
     ) {
         return analyzeFilesWithJavaIntegration(
                 moduleContext, files, trace, TopDownAnalysisMode.TopLevelDeclarations, modules, incrementalCompilationComponents,
-                packagePartProvider);
+                packagePartProvider, bodyResolveThreads);
     }
 
     @NotNull
@@ -87,7 +101,8 @@ public enum TopDownAnalyzerFacadeForJVM {
             @NotNull TopDownAnalysisMode topDownAnalysisMode,
             @Nullable List<Module> modules,
             @Nullable IncrementalCompilationComponents incrementalCompilationComponents,
-            @NotNull PackagePartProvider packagePartProvider
+            @NotNull PackagePartProvider packagePartProvider,
+            int bodyResolveThreads
     ) {
         Project project = moduleContext.getProject();
         List<KtFile> allFiles = JvmAnalyzerFacade.getAllFilesToAnalyze(project, null, files);
@@ -115,7 +130,8 @@ public enum TopDownAnalyzerFacadeForJVM {
                 providerFactory,
                 GlobalSearchScope.allScope(project),
                 lookupTracker,
-                packagePartProvider
+                packagePartProvider,
+                bodyResolveThreads
         );
 
         List<PackageFragmentProvider> additionalProviders = new ArrayList<PackageFragmentProvider>();
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.parsing;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.impl.source.tree.TreeElement;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.KtNodeTypes;
+import org.jetbrains.kotlin.lexer.KotlinLexer;
+import org.jetbrains.kotlin.lexer.KtTokens;
+import org.jetbrains.kotlin.psi.*;
+
+/**
+ * Applies text changes to a parsed file without parsing the whole file again: only the body of the innermost function,
+ * property accessor, constructor or initializer containing the change is lexed and parsed, and the resulting subtree
+ * replaces the old body in place. Elements outside of the body keep their identity.
+ *
+ * Bodies are chosen so that parsing them standalone gives the same tree as parsing the whole file:
+ * the changed body must still be a brace-balanced block, and it must not be nested into a 'by' clause,
+ * which is parsed with a special builder.
+ */
+public class IncrementalReparser {
+    private IncrementalReparser() {
+    }
+
+    /**
+     * Replaces the text in range [startOffset, endOffset) of the file with the new text.
+     *
+     * @return false if the change can't be applied incrementally, e.g. when it is not inside of a body or it touches the braces
+     * of the body. The file is left untouched in this case, and the caller should create it anew from the modified text.
+     */
+    public static boolean reparseRange(@NotNull KtFile file, int startOffset, int endOffset, @NotNull CharSequence newText) {
+        KtBlockExpression block = findReparseableBlock(file, startOffset, endOffset);
+        if (block == null) return false;
+
+        int blockStart = block.getTextRange().getStartOffset();
+        String blockText = block.getText();
+        String newBlockText = blockText.substring(0, startOffset - blockStart) + newText + blockText.substring(endOffset - blockStart);
+        if (!isSingleBalancedBlock(newBlockText)) return false;
+
+        ASTNode newBlock = parseBlock(newBlockText);
+        if (newBlock == null) return false;
+
+        ((TreeElement) block.getNode()).rawReplaceWithList((TreeElement) newBlock);
+        file.subtreeChanged();
+        return true;
+    }
+
+    @Nullable
+    private static KtBlockExpression findReparseableBlock(@NotNull KtFile file, int startOffset, int endOffset) {
+        PsiElement element = file.findElementAt(startOffset);
+        KtBlockExpression block = PsiTreeUtil.getParentOfType(element, KtBlockExpression.class, false);
+        while (block != null) {
+            TextRange range = block.getTextRange();
+            // The braces of the body must stay untouched
+            if (range.getStartOffset() < startOffset && endOffset < range.getEndOffset()) {
+                if (isReparseableBody(block)) return block;
+            }
+            block = PsiTreeUtil.getParentOfType(block, KtBlockExpression.class, true);
+        }
+        return null;
+    }
+
+    private static boolean isReparseableBody(@NotNull KtBlockExpression block) {
+        if (block.getLBrace() == null || block.getRBrace() == null) return false;
+
+        PsiElement parent = block.getParent();
+        if (parent instanceof KtFunctionLiteral) return false;
+
+        boolean isBody = (parent instanceof KtDeclarationWithBody && ((KtDeclarationWithBody) parent).getBodyExpression() == block) ||
+                         (parent instanceof KtClassInitializer && ((KtClassInitializer) parent).getBody() == block);
+        return isBody && PsiTreeUtil.getParentOfType(block, KtDelegatorByExpressionSpecifier.class) == null;
+    }
+
+    /**
+     * Checks that the text is lexed as '{' ... '}' where the last brace closes the first one
+     */
+    private static boolean isSingleBalancedBlock(@NotNull CharSequence text) {
+        Lexer lexer = new KotlinLexer();
+        lexer.start(text);
+        if (lexer.getTokenType() != KtTokens.LBRACE) return false;
+
+        int depth = 0;
+        IElementType tokenType;
+        while ((tokenType = lexer.getTokenType()) != null) {
+            if (tokenType == KtTokens.LBRACE) {
+                depth++;
+            }
+            else if (tokenType == KtTokens.RBRACE) {
+                depth--;
+                if (depth == 0) return lexer.getTokenEnd() == text.length();
+            }
+            lexer.advance();
+        }
+        return false;
+    }
+
+    @Nullable
+    private static ASTNode parseBlock(@NotNull CharSequence text) {
+        PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(JetParserDefinition.getInstance(), new KotlinLexer(), text);
+        ASTNode root = JetParser.parseBlock(builder);
+
+        ASTNode block = root.getFirstChildNode();
+        if (block == null || block != root.getLastChildNode() || block.getElementType() != KtNodeTypes.BLOCK) return null;
+        return block;
+    }
+}
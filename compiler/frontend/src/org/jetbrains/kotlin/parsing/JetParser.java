@@ -72,4 +72,11 @@ public class JetParser implements PsiParser {
         jetParsing.parseBlockCodeFragment();
         return psiBuilder.getTreeBuilt();
     }
+
+    @NotNull
+    public static ASTNode parseBlock(PsiBuilder psiBuilder) {
+        JetParsing jetParsing = JetParsing.createForTopLevel(new SemanticWhitespaceAwarePsiBuilderImpl(psiBuilder));
+        jetParsing.parseStandaloneBlock();
+        return psiBuilder.getTreeBuilt();
+    }
 }
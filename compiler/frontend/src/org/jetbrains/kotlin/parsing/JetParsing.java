@@ -152,6 +152,19 @@ public class JetParsing extends AbstractJetParsing {
         marker.done(BLOCK_CODE_FRAGMENT);
     }
 
+    /*
+     * block [eof]
+     */
+    void parseStandaloneBlock() {
+        PsiBuilder.Marker marker = mark();
+        parseBlock();
+
+        checkForUnexpectedSymbols();
+
+        // The outer marker only holds the tree together, the block is its first child
+        marker.done(BLOCK);
+    }
+
     void parseScript() {
         PsiBuilder.Marker fileMarker = mark();
 
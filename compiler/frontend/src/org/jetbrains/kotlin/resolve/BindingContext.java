@@ -16,6 +16,7 @@
 
 package org.jetbrains.kotlin.resolve;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.intellij.psi.PsiElement;
 import org.jetbrains.annotations.NotNull;
@@ -46,6 +47,7 @@ import org.jetbrains.kotlin.util.slicedMap.*;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import static org.jetbrains.kotlin.util.slicedMap.RewritePolicy.DO_NOTHING;
 
@@ -235,6 +237,16 @@ public interface BindingContext {
     WritableSlice<KtFile, PackageFragmentDescriptor> FILE_TO_PACKAGE_FRAGMENT = Slices.createSimpleSlice();
     WritableSlice<FqName, Collection<KtFile>> PACKAGE_TO_FILES = Slices.createSimpleSlice();
 
+    /**
+     * Slices which are only read while the analysis is in progress or by the IDE, and are never needed by code generation.
+     * They may be dropped with {@link BindingTraceContext#removeSlices} once the analysis is completed
+     */
+    List<WritableSlice<?, ?>> ANALYSIS_ONLY_SLICES = ImmutableList.<WritableSlice<?, ?>>of(
+            EXPECTED_EXPRESSION_TYPE, EXPECTED_RETURN_TYPE, DATAFLOW_INFO_AFTER_CONDITION, CONSTRAINT_SYSTEM_COMPLETER,
+            AMBIGUOUS_REFERENCE_TARGET, AMBIGUOUS_LABEL_TARGET, RESOLUTION_SCOPE, LEXICAL_SCOPE, PROCESSED, USED_AS_EXPRESSION,
+            UNREACHABLE_CODE, PRELIMINARY_VISITOR, DEFERRED_TYPE, IS_UNINITIALIZED
+    );
+
     @SuppressWarnings("UnusedDeclaration")
     @Deprecated // This field is needed only for the side effects of its initializer
             Void _static_initializer = BasicWritableSlice.initSliceDebugNames(BindingContext.class);
@@ -78,10 +78,24 @@ public class BindingTraceContext implements BindingTrace {
     };
 
     public BindingTraceContext() {
-        //noinspection ConstantConditions
-        this(TRACK_REWRITES ? new TrackingSlicedMap(TRACK_WITH_STACK_TRACES) : SlicedMapImpl.create());
+        this(false, false);
+    }
+
+    /**
+     * @param allowConcurrentAccess whether records and diagnostics may come from several threads at once,
+     *                              e.g. when function bodies are resolved in parallel
+     * @param compactStorage whether to keep records in a {@link CompactSlicedMap}, which uses less memory for big traces
+     */
+    protected BindingTraceContext(boolean allowConcurrentAccess, boolean compactStorage) {
+        this(allowConcurrentAccess ? new SynchronizedSlicedMap(createMap(compactStorage)) : createMap(compactStorage));
     }
 
+    @NotNull
+    private static MutableSlicedMap createMap(boolean compactStorage) {
+        //noinspection ConstantConditions
+        if (TRACK_REWRITES) return new TrackingSlicedMap(TRACK_WITH_STACK_TRACES);
+        return compactStorage ? CompactSlicedMap.create() : SlicedMapImpl.create();
+    }
 
     private BindingTraceContext(@NotNull MutableSlicedMap map) {
         this.map = map;
@@ -93,15 +107,29 @@ public class BindingTraceContext implements BindingTrace {
         return new BindingTraceContext(new TrackingSlicedMap(TRACK_WITH_STACK_TRACES));
     }
 
+    @NotNull
+    public static BindingTraceContext createCompactBindingTrace() {
+        return new BindingTraceContext(false, true);
+    }
+
     @Override
     public void report(@NotNull Diagnostic diagnostic) {
-        mutableDiagnostics.report(diagnostic);
+        synchronized (mutableDiagnostics) {
+            mutableDiagnostics.report(diagnostic);
+        }
     }
 
     public void clearDiagnostics() {
         mutableDiagnostics.clear();
     }
 
+    /**
+     * Removes all records of the given slices, e.g. of {@link BindingContext#ANALYSIS_ONLY_SLICES} before code generation
+     */
+    public void removeSlices(@NotNull Collection<? extends WritableSlice<?, ?>> slices) {
+        map.removeSlices(slices);
+    }
+
     @NotNull
     @Override
     public BindingContext getBindingContext() {
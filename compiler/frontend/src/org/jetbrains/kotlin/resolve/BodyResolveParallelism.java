@@ -0,0 +1,54 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.resolve;
+
+/**
+ * Number of threads {@link BodyResolver} may use to resolve bodies of non-local functions.
+ * Containers which don't register an instance get a sequential one.
+ *
+ * Parallel resolve is only safe when the binding trace tolerates concurrent access. Lazy descriptors stay guarded by the single
+ * lock of {@link org.jetbrains.kotlin.storage.LockBasedStorageManager}: computations started by different threads may depend on
+ * each other, which only one lock can serialize without deadlocks.
+ *
+ * As a result the worker threads serialize whenever they compute a lazy declaration, and property initializers, class bodies and
+ * everything else outside of function bodies are still resolved sequentially. The speedup has not been measured to be significant,
+ * so parallel resolve stays opt-in.
+ */
+public class BodyResolveParallelism {
+    private final int threads;
+
+    public BodyResolveParallelism() {
+        this(1);
+    }
+
+    private BodyResolveParallelism(int threads) {
+        this.threads = threads;
+    }
+
+    public static BodyResolveParallelism withThreads(int threads) {
+        assert threads > 0 : "Thread count should be positive: " + threads;
+        return new BodyResolveParallelism(threads);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public boolean isParallel() {
+        return threads > 1;
+    }
+}
@@ -44,6 +44,7 @@ import org.jetbrains.kotlin.resolve.scopes.LexicalScopeImpl;
 import org.jetbrains.kotlin.resolve.scopes.RedeclarationHandler;
 import org.jetbrains.kotlin.resolve.scopes.receivers.ReceiverValue;
 import org.jetbrains.kotlin.types.*;
+import org.jetbrains.kotlin.types.checker.TypeCheckerCache;
 import org.jetbrains.kotlin.types.expressions.ExpressionTypingContext;
 import org.jetbrains.kotlin.types.expressions.ExpressionTypingServices;
 import org.jetbrains.kotlin.types.expressions.PreliminaryDeclarationVisitor;
@@ -52,8 +53,10 @@ import org.jetbrains.kotlin.types.expressions.typeInfoFactory.TypeInfoFactoryKt;
 import org.jetbrains.kotlin.util.Box;
 import org.jetbrains.kotlin.util.ReenteringLazyValueComputationException;
 import org.jetbrains.kotlin.util.slicedMap.WritableSlice;
+import org.jetbrains.kotlin.utils.ExceptionUtilsKt;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 import static org.jetbrains.kotlin.diagnostics.Errors.*;
 import static org.jetbrains.kotlin.resolve.BindingContext.*;
@@ -72,10 +75,12 @@ public class BodyResolver {
     @NotNull private final FunctionAnalyzerExtension functionAnalyzerExtension;
     @NotNull private final ValueParameterResolver valueParameterResolver;
     @NotNull private final BodyResolveCache bodyResolveCache;
+    @NotNull private final BodyResolveParallelism bodyResolveParallelism;
 
     public BodyResolver(
             @NotNull AnnotationResolver annotationResolver,
             @NotNull BodyResolveCache bodyResolveCache,
+            @NotNull BodyResolveParallelism bodyResolveParallelism,
             @NotNull CallResolver callResolver,
             @NotNull ControlFlowAnalyzer controlFlowAnalyzer,
             @NotNull DeclarationsChecker declarationsChecker,
@@ -89,6 +94,7 @@ public class BodyResolver {
     ) {
         this.annotationResolver = annotationResolver;
         this.bodyResolveCache = bodyResolveCache;
+        this.bodyResolveParallelism = bodyResolveParallelism;
         this.callResolver = callResolver;
         this.controlFlowAnalyzer = controlFlowAnalyzer;
         this.declarationsChecker = declarationsChecker;
@@ -739,6 +745,12 @@ public class BodyResolver {
     }
 
     private void resolveFunctionBodies(@NotNull BodiesResolveContext c) {
+        if (bodyResolveParallelism.isParallel() && !c.getTopDownAnalysisMode().isLocalDeclarations() && c.getFunctions().size() > 1 &&
+            expressionTypingServices.getStatementFilter() == StatementFilter.NONE) {
+            resolveFunctionBodiesInParallel(c);
+            return;
+        }
+
         for (Map.Entry<KtNamedFunction, SimpleFunctionDescriptor> entry : c.getFunctions().entrySet()) {
             KtNamedFunction declaration = entry.getKey();
 
@@ -755,6 +767,55 @@ public class BodyResolver {
         }
     }
 
+    // Each body is resolved to its own trace on top of the shared one, as the IDE does when it resolves bodies lazily.
+    // The traces are committed in declaration order afterwards, so that the result doesn't depend on scheduling.
+    // Workers still serialize on the storage manager lock while they compute lazy declarations, see BodyResolveParallelism
+    private void resolveFunctionBodiesInParallel(@NotNull final BodiesResolveContext c) {
+        final BindingContext parentContext = trace.getBindingContext();
+        final TypeCheckerCache typeCheckerCache = TypeCheckerCache.getCurrent();
+        List<Callable<DelegatingBindingTrace>> tasks = new ArrayList<Callable<DelegatingBindingTrace>>(c.getFunctions().size());
+        for (Map.Entry<KtNamedFunction, SimpleFunctionDescriptor> entry : c.getFunctions().entrySet()) {
+            final KtNamedFunction declaration = entry.getKey();
+            final SimpleFunctionDescriptor descriptor = entry.getValue();
+
+            final LexicalScope scope = c.getDeclaringScope(declaration);
+            assert scope != null : "Scope is null: " + PsiUtilsKt.getElementTextWithContext(declaration);
+
+            tasks.add(new Callable<DelegatingBindingTrace>() {
+                @Override
+                public DelegatingBindingTrace call() {
+                    DelegatingBindingTrace functionTrace =
+                            new DelegatingBindingTrace(parentContext, "trace to resolve function body in parallel", declaration);
+                    TypeCheckerCache previousTypeCheckerCache = typeCheckerCache != null ? typeCheckerCache.enter() : null;
+                    try {
+                        resolveFunctionBody(c.getOuterDataFlowInfo(), functionTrace, declaration, descriptor, scope);
+                    }
+                    finally {
+                        if (typeCheckerCache != null) TypeCheckerCache.exit(previousTypeCheckerCache);
+                    }
+                    return functionTrace;
+                }
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(bodyResolveParallelism.getThreads(), tasks.size()));
+        try {
+            for (Future<DelegatingBindingTrace> future : executor.invokeAll(tasks)) {
+                future.get().addOwnDataTo(trace);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ExceptionUtilsKt.rethrow(e);
+        }
+        catch (ExecutionException e) {
+            throw ExceptionUtilsKt.rethrow(e.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
     public void resolveFunctionBody(
             @NotNull DataFlowInfo outerDataFlowInfo,
             @NotNull BindingTrace trace,
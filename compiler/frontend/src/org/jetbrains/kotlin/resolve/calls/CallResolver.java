@@ -84,6 +84,7 @@ public class CallResolver {
     private CallCompleter callCompleter;
     private final TaskPrioritizer taskPrioritizer;
     private final ResolutionResultsHandler resolutionResultsHandler;
+    private final CandidatePreFilter candidatePreFilter;
     @NotNull private KotlinBuiltIns builtIns;
 
     private static final PerformanceCounter callResolvePerfCounter = PerformanceCounter.Companion.create("Call resolve", ExpressionTypingVisitorDispatcher.typeInfoPerfCounter);
@@ -92,10 +93,12 @@ public class CallResolver {
     public CallResolver(
             @NotNull TaskPrioritizer taskPrioritizer,
             @NotNull ResolutionResultsHandler resolutionResultsHandler,
+            @NotNull CandidatePreFilter candidatePreFilter,
             @NotNull KotlinBuiltIns builtIns
     ) {
         this.taskPrioritizer = taskPrioritizer;
         this.resolutionResultsHandler = resolutionResultsHandler;
+        this.candidatePreFilter = candidatePreFilter;
         this.builtIns = builtIns;
     }
 
@@ -657,6 +660,11 @@ public class CallResolver {
         final List<CallCandidateResolutionContext<D>> candidateResolutionContexts = ContainerUtil.newArrayList();
         for (final ResolutionCandidate<D> resolutionCandidate : task.getCandidates()) {
             if (DeprecationUtilKt.isAnnotatedAsHidden(resolutionCandidate.getDescriptor())) continue;
+            // Candidates failing for sure are not needed to find a successful one.
+            // If there is none, resolution is repeated with FULLY mode where all candidates are analyzed for diagnostics
+            if (candidateResolveMode == EXIT_ON_FIRST_ERROR && candidatePreFilter.isDefinitelyInapplicable(resolutionCandidate, task)) {
+                continue;
+            }
 
             candidatePerfCounter.time(new Function0<Unit>() {
                 @Override
@@ -16,10 +16,11 @@
 
 package org.jetbrains.kotlin.resolve.calls.smartcasts;
 
-import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.SetMultimap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.kotlin.types.KotlinType;
+import org.jetbrains.kotlin.util.HashTrieMap;
 
 import java.util.Map;
 import java.util.Set;
@@ -29,7 +30,8 @@ import java.util.Set;
  * Data flow info is immutable so functions never change it.
  */
 public interface DataFlowInfo {
-    DataFlowInfo EMPTY = new DelegatingDataFlowInfo(null, ImmutableMap.<DataFlowValue, Nullability>of(), DelegatingDataFlowInfo.newTypeInfo());
+    DataFlowInfo EMPTY = new PersistentDataFlowInfo(HashTrieMap.<DataFlowValue, Nullability>empty(),
+                                                    HashTrieMap.<DataFlowValue, ImmutableSet<KotlinType>>empty());
 
     @NotNull
     Map<DataFlowValue, Nullability> getCompleteNullabilityInfo();
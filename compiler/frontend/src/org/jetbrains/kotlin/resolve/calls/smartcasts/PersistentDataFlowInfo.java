@@ -0,0 +1,297 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.resolve.calls.smartcasts;
+
+import com.google.common.collect.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.types.KotlinType;
+import org.jetbrains.kotlin.types.TypeUtils;
+import org.jetbrains.kotlin.util.HashTrieMap;
+
+import java.util.*;
+
+import static org.jetbrains.kotlin.resolve.calls.smartcasts.Nullability.NOT_NULL;
+
+/**
+ * Keeps complete data flow information in persistent hash tries, so every modification costs O(log n)
+ * and shares everything else with the original info. Combining infos in 'and' / 'or' visits only the parts which
+ * differ, which is cheap for the typical case of two infos derived from a common one (e.g. two branches of an 'if').
+ */
+/* package */ class PersistentDataFlowInfo implements DataFlowInfo {
+    @NotNull
+    private final HashTrieMap<DataFlowValue, Nullability> nullabilityInfo;
+
+    /**
+     * Possible types of each value, the most recently established ones first
+     */
+    @NotNull
+    private final HashTrieMap<DataFlowValue, ImmutableSet<KotlinType>> typeInfo;
+
+    /* package */ PersistentDataFlowInfo(
+            @NotNull HashTrieMap<DataFlowValue, Nullability> nullabilityInfo,
+            @NotNull HashTrieMap<DataFlowValue, ImmutableSet<KotlinType>> typeInfo
+    ) {
+        this.nullabilityInfo = nullabilityInfo;
+        this.typeInfo = typeInfo;
+    }
+
+    @Override
+    @NotNull
+    public Map<DataFlowValue, Nullability> getCompleteNullabilityInfo() {
+        return nullabilityInfo.toMap();
+    }
+
+    @Override
+    @NotNull
+    public SetMultimap<DataFlowValue, KotlinType> getCompleteTypeInfo() {
+        SetMultimap<DataFlowValue, KotlinType> result = LinkedHashMultimap.create();
+        for (Map.Entry<DataFlowValue, ImmutableSet<KotlinType>> entry : typeInfo) {
+            result.putAll(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    @Override
+    @NotNull
+    public Nullability getNullability(@NotNull DataFlowValue key) {
+        if (!key.isPredictable()) return key.getImmanentNullability();
+        Nullability nullability = nullabilityInfo.get(key);
+        return nullability != null ? nullability : key.getImmanentNullability();
+    }
+
+    @NotNull
+    private HashTrieMap<DataFlowValue, Nullability> putNullability(
+            @NotNull HashTrieMap<DataFlowValue, Nullability> map,
+            @NotNull DataFlowValue value,
+            @NotNull Nullability nullability
+    ) {
+        if (!value.isPredictable()) return map;
+        return map.plus(value, nullability);
+    }
+
+    @NotNull
+    private ImmutableSet<KotlinType> getTypes(@NotNull DataFlowValue value) {
+        ImmutableSet<KotlinType> types = typeInfo.get(value);
+        return types != null ? types : ImmutableSet.<KotlinType>of();
+    }
+
+    @NotNull
+    private static HashTrieMap<DataFlowValue, ImmutableSet<KotlinType>> putTypes(
+            @NotNull HashTrieMap<DataFlowValue, ImmutableSet<KotlinType>> map,
+            @NotNull DataFlowValue value,
+            @NotNull Collection<KotlinType> types
+    ) {
+        return types.isEmpty() ? map.minus(value) : map.plus(value, ImmutableSet.copyOf(types));
+    }
+
+    @NotNull
+    private static Set<KotlinType> union(@NotNull Set<KotlinType> first, @NotNull Set<KotlinType> second) {
+        if (second.isEmpty()) return first;
+        Set<KotlinType> result = new LinkedHashSet<KotlinType>(first);
+        result.addAll(second);
+        return result;
+    }
+
+    @Override
+    @NotNull
+    public Set<KotlinType> getPossibleTypes(@NotNull DataFlowValue key) {
+        KotlinType originalType = key.getType();
+        Set<KotlinType> types = getTypes(key);
+        if (getNullability(key).canBeNull()) {
+            return types;
+        }
+
+        Set<KotlinType> enrichedTypes = Sets.newHashSetWithExpectedSize(types.size() + 1);
+        if (originalType.isMarkedNullable()) {
+            enrichedTypes.add(TypeUtils.makeNotNullable(originalType));
+        }
+        for (KotlinType type : types) {
+            enrichedTypes.add(TypeUtils.makeNotNullable(type));
+        }
+
+        return enrichedTypes;
+    }
+
+    @Override
+    @NotNull
+    public DataFlowInfo clearValueInfo(@NotNull DataFlowValue value) {
+        return new PersistentDataFlowInfo(putNullability(nullabilityInfo, value, Nullability.UNKNOWN), typeInfo.minus(value));
+    }
+
+    @Override
+    @NotNull
+    public DataFlowInfo assign(@NotNull DataFlowValue a, @NotNull DataFlowValue b) {
+        Nullability nullabilityOfB = getNullability(b);
+
+        Set<KotlinType> typesForB = getTypes(b);
+        // Own type of B must be recorded separately, e.g. for a constant
+        // But if its type is the same as A or it's null, there is no reason to do it
+        // because usually null type or own type are not saved in this set
+        if (nullabilityOfB.canBeNonNull() && !a.getType().equals(b.getType())) {
+            typesForB = union(typesForB, Collections.singleton(b.getType()));
+        }
+
+        return new PersistentDataFlowInfo(putNullability(nullabilityInfo, a, nullabilityOfB), putTypes(typeInfo, a, typesForB));
+    }
+
+    @Override
+    @NotNull
+    public DataFlowInfo equate(@NotNull DataFlowValue a, @NotNull DataFlowValue b) {
+        Nullability nullabilityOfA = getNullability(a);
+        Nullability nullabilityOfB = getNullability(b);
+        Nullability newNullabilityOfA = nullabilityOfA.refine(nullabilityOfB);
+        Nullability newNullabilityOfB = nullabilityOfB.refine(nullabilityOfA);
+
+        Set<KotlinType> typesOfA = getTypes(a);
+        Set<KotlinType> typesOfB = getTypes(b);
+
+        boolean changed = (a.isPredictable() && newNullabilityOfA != nullabilityOfA) ||
+                          (b.isPredictable() && newNullabilityOfB != nullabilityOfB) ||
+                          !typesOfA.isEmpty() || !typesOfB.isEmpty();
+        if (!changed) return this;
+
+        HashTrieMap<DataFlowValue, Nullability> newNullabilityInfo = putNullability(nullabilityInfo, a, newNullabilityOfA);
+        newNullabilityInfo = putNullability(newNullabilityInfo, b, newNullabilityOfB);
+
+        HashTrieMap<DataFlowValue, ImmutableSet<KotlinType>> newTypeInfo = typeInfo;
+        if (!typesOfB.isEmpty()) {
+            newTypeInfo = putTypes(newTypeInfo, a, union(typesOfB, typesOfA));
+        }
+        if (!typesOfA.isEmpty()) {
+            newTypeInfo = putTypes(newTypeInfo, b, union(typesOfA, typesOfB));
+        }
+
+        return new PersistentDataFlowInfo(newNullabilityInfo, newTypeInfo);
+    }
+
+    @Override
+    @NotNull
+    public DataFlowInfo disequate(@NotNull DataFlowValue a, @NotNull DataFlowValue b) {
+        Nullability nullabilityOfA = getNullability(a);
+        Nullability nullabilityOfB = getNullability(b);
+        Nullability newNullabilityOfA = nullabilityOfA.refine(nullabilityOfB.invert());
+        Nullability newNullabilityOfB = nullabilityOfB.refine(nullabilityOfA.invert());
+
+        boolean changed = (a.isPredictable() && newNullabilityOfA != nullabilityOfA) ||
+                          (b.isPredictable() && newNullabilityOfB != nullabilityOfB);
+        if (!changed) return this;
+
+        HashTrieMap<DataFlowValue, Nullability> newNullabilityInfo = putNullability(nullabilityInfo, a, newNullabilityOfA);
+        newNullabilityInfo = putNullability(newNullabilityInfo, b, newNullabilityOfB);
+        return new PersistentDataFlowInfo(newNullabilityInfo, typeInfo);
+    }
+
+    @Override
+    @NotNull
+    public DataFlowInfo establishSubtyping(@NotNull DataFlowValue value, @NotNull KotlinType type) {
+        if (value.getType().equals(type)) return this;
+        if (getPossibleTypes(value).contains(type)) return this;
+        HashTrieMap<DataFlowValue, Nullability> newNullabilityInfo =
+                type.isMarkedNullable() ? nullabilityInfo : nullabilityInfo.plus(value, NOT_NULL);
+        return new PersistentDataFlowInfo(newNullabilityInfo, putTypes(typeInfo, value, union(Collections.singleton(type), getTypes(value))));
+    }
+
+    @NotNull
+    @Override
+    public DataFlowInfo and(@NotNull DataFlowInfo otherInfo) {
+        if (otherInfo == EMPTY) return this;
+        if (this == EMPTY) return otherInfo;
+        if (this == otherInfo) return this;
+
+        assert otherInfo instanceof PersistentDataFlowInfo : "Unknown DataFlowInfo type: " + otherInfo;
+        PersistentDataFlowInfo other = (PersistentDataFlowInfo) otherInfo;
+
+        HashTrieMap<DataFlowValue, Nullability> newNullabilityInfo = nullabilityInfo;
+        for (DataFlowValue key : differentKeys(nullabilityInfo, other.nullabilityInfo)) {
+            Nullability otherFlags = other.nullabilityInfo.get(key);
+            if (otherFlags == null) continue;
+            Nullability thisFlags = getNullability(key);
+            Nullability flags = thisFlags.and(otherFlags);
+            if (flags != thisFlags) {
+                newNullabilityInfo = newNullabilityInfo.plus(key, flags);
+            }
+        }
+
+        boolean typesChanged = false;
+        HashTrieMap<DataFlowValue, ImmutableSet<KotlinType>> newTypeInfo = typeInfo;
+        for (DataFlowValue key : differentKeys(typeInfo, other.typeInfo)) {
+            ImmutableSet<KotlinType> otherTypes = other.typeInfo.get(key);
+            if (otherTypes == null) continue;
+            ImmutableSet<KotlinType> thisTypes = getTypes(key);
+            typesChanged |= !thisTypes.containsAll(otherTypes);
+            newTypeInfo = putTypes(newTypeInfo, key, union(otherTypes, thisTypes));
+        }
+
+        if (newNullabilityInfo == nullabilityInfo && !typesChanged) {
+            return this;
+        }
+
+        return new PersistentDataFlowInfo(newNullabilityInfo, newTypeInfo);
+    }
+
+    @NotNull
+    @Override
+    public DataFlowInfo or(@NotNull DataFlowInfo otherInfo) {
+        if (otherInfo == EMPTY) return EMPTY;
+        if (this == EMPTY) return EMPTY;
+        if (this == otherInfo) return this;
+
+        assert otherInfo instanceof PersistentDataFlowInfo : "Unknown DataFlowInfo type: " + otherInfo;
+        PersistentDataFlowInfo other = (PersistentDataFlowInfo) otherInfo;
+
+        HashTrieMap<DataFlowValue, Nullability> newNullabilityInfo = nullabilityInfo;
+        for (DataFlowValue key : differentKeys(nullabilityInfo, other.nullabilityInfo)) {
+            Nullability otherFlags = other.nullabilityInfo.get(key);
+            newNullabilityInfo = otherFlags == null
+                                 ? newNullabilityInfo.minus(key)
+                                 : newNullabilityInfo.plus(key, getNullability(key).or(otherFlags));
+        }
+
+        HashTrieMap<DataFlowValue, ImmutableSet<KotlinType>> newTypeInfo = typeInfo;
+        for (DataFlowValue key : differentKeys(typeInfo, other.typeInfo)) {
+            ImmutableSet<KotlinType> thisTypes = typeInfo.get(key);
+            ImmutableSet<KotlinType> otherTypes = other.typeInfo.get(key);
+            newTypeInfo = thisTypes == null || otherTypes == null
+                          ? newTypeInfo.minus(key)
+                          : putTypes(newTypeInfo, key, Sets.intersection(thisTypes, otherTypes));
+        }
+
+        if (newNullabilityInfo.isEmpty() && newTypeInfo.isEmpty()) {
+            return EMPTY;
+        }
+
+        return new PersistentDataFlowInfo(newNullabilityInfo, newTypeInfo);
+    }
+
+    @NotNull
+    private static <V> Collection<DataFlowValue> differentKeys(
+            @NotNull HashTrieMap<DataFlowValue, V> first,
+            @NotNull HashTrieMap<DataFlowValue, V> second
+    ) {
+        Set<DataFlowValue> result = new LinkedHashSet<DataFlowValue>();
+        HashTrieMap.collectDifferentKeys(first, second, result);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        if (typeInfo.isEmpty() && nullabilityInfo.isEmpty()) {
+            return "EMPTY";
+        }
+        return "Non-trivial DataFlowInfo";
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.resolve.calls.tasks
+
+import org.jetbrains.kotlin.descriptors.CallableMemberDescriptor
+import org.jetbrains.kotlin.descriptors.FunctionDescriptor
+import org.jetbrains.kotlin.resolve.calls.callResolverUtil.getErasedReceiverType
+import org.jetbrains.kotlin.resolve.calls.callResolverUtil.isInvokeCallOnExpressionWithBothReceivers
+import org.jetbrains.kotlin.resolve.calls.callUtil.getValueArgumentsInParentheses
+import org.jetbrains.kotlin.resolve.calls.context.CheckArgumentTypesMode
+import org.jetbrains.kotlin.resolve.calls.smartcasts.SmartCastManager
+import org.jetbrains.kotlin.resolve.descriptorUtil.hasDefaultValue
+import org.jetbrains.kotlin.types.ErrorUtils
+import org.jetbrains.kotlin.util.PerformanceCounter
+
+/**
+ * Discards candidates which are certain to fail argument mapping or the receiver type check,
+ * before a trace and a resolved call are created for them.
+ *
+ * Each check here is a conservative subset of what [org.jetbrains.kotlin.resolve.calls.CandidateResolver] does,
+ * so a pruned candidate would have got ARGUMENTS_MAPPING_ERROR or RECEIVER_TYPE_ERROR anyway.
+ * Pruning is only allowed while looking for a successful candidate: if none is found, all candidates are resolved again
+ * to report errors, so diagnostics do not depend on this filter.
+ */
+public class CandidatePreFilter(private val smartCastManager: SmartCastManager) {
+
+    public fun isDefinitelyInapplicable(candidate: ResolutionCandidate<*>, task: ResolutionTask<*, *>): Boolean {
+        if (isDefinitelyInapplicableImpl(candidate, task)) {
+            prunedCounter.increment()
+            return true
+        }
+        return false
+    }
+
+    private fun isDefinitelyInapplicableImpl(candidate: ResolutionCandidate<*>, task: ResolutionTask<*, *>): Boolean {
+        val descriptor = candidate.descriptor
+        if (descriptor !is FunctionDescriptor || ErrorUtils.isError(descriptor)) return false
+
+        if (task.checkArguments == CheckArgumentTypesMode.CHECK_VALUE_ARGUMENTS && !argumentsMayMatch(descriptor, task)) return true
+
+        return !extensionReceiverMayMatch(descriptor, candidate, task)
+    }
+
+    private fun argumentsMayMatch(descriptor: FunctionDescriptor, task: ResolutionTask<*, *>): Boolean {
+        val call = task.call
+        val parameters = descriptor.valueParameters
+        val argumentsInParentheses = call.getValueArgumentsInParentheses()
+        val argumentCount = argumentsInParentheses.size() + call.functionLiteralArguments.size()
+
+        // Every argument takes a parameter of its own unless there is a vararg
+        if (argumentCount > parameters.size() && parameters.none { it.varargElementType != null }) return false
+
+        // Every parameter without a default value must get an argument
+        if (argumentCount < parameters.size()) {
+            val requiredCount = parameters.count { it.varargElementType == null && !it.hasDefaultValue() }
+            if (argumentCount < requiredCount) return false
+        }
+
+        // Named arguments of fake overrides may refer to parameters of the overridden functions
+        if (descriptor.kind != CallableMemberDescriptor.Kind.FAKE_OVERRIDE) {
+            for (argument in argumentsInParentheses) {
+                val name = argument.getArgumentName()?.asName ?: continue
+                if (parameters.none { it.name == name }) return false
+            }
+        }
+        return true
+    }
+
+    private fun extensionReceiverMayMatch(
+            descriptor: FunctionDescriptor,
+            candidate: ResolutionCandidate<*>,
+            task: ResolutionTask<*, *>
+    ): Boolean {
+        val receiverParameter = descriptor.extensionReceiverParameter ?: return true
+        val receiverArgument = candidate.extensionReceiver
+        if (!receiverArgument.exists() || isInvokeCallOnExpressionWithBothReceivers(task.call)) return true
+
+        val erasedReceiverType = getErasedReceiverType(receiverParameter, descriptor)
+        return smartCastManager.isSubTypeBySmartCastIgnoringNullability(receiverArgument, erasedReceiverType, task)
+    }
+
+    companion object {
+        private val prunedCounter = PerformanceCounter.create("Call resolve candidates pruned before analysis")
+    }
+}
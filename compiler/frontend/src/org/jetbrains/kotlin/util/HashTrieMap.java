@@ -0,0 +1,406 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * A persistent map from non-null keys to non-null values, implemented as a hash array mapped trie.
+ * All modifications return a new map which shares all untouched nodes with the original one,
+ * so a modification costs O(log n) both in time and in allocated memory.
+ */
+public final class HashTrieMap<K, V> implements Iterable<Map.Entry<K, V>> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final HashTrieMap<Object, Object> EMPTY = new HashTrieMap<Object, Object>(null, 0);
+
+    @SuppressWarnings("unchecked")
+    @NotNull
+    public static <K, V> HashTrieMap<K, V> empty() {
+        return (HashTrieMap<K, V>) EMPTY;
+    }
+
+    @Nullable
+    private final Node root;
+    private final int size;
+
+    private HashTrieMap(@Nullable Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public V get(@NotNull Object key) {
+        return root == null ? null : (V) root.get(key, key.hashCode(), 0);
+    }
+
+    public boolean containsKey(@NotNull Object key) {
+        return get(key) != null;
+    }
+
+    @NotNull
+    public HashTrieMap<K, V> plus(@NotNull K key, @NotNull V value) {
+        int hash = key.hashCode();
+        if (root == null) {
+            return new HashTrieMap<K, V>(new BitmapNode(bit(hash, 0), new Object[] {key, value}), 1);
+        }
+        boolean[] added = new boolean[1];
+        Node newRoot = root.put(key, value, hash, 0, added);
+        if (newRoot == root) return this;
+        return new HashTrieMap<K, V>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    @NotNull
+    public HashTrieMap<K, V> minus(@NotNull Object key) {
+        if (root == null) return this;
+        Node newRoot = root.remove(key, key.hashCode(), 0);
+        if (newRoot == root) return this;
+        if (newRoot == null) return empty();
+        return new HashTrieMap<K, V>(newRoot, size - 1);
+    }
+
+    /**
+     * Adds to the result all keys with different or absent values in the given maps, and possibly some keys with the same values.
+     * Subtrees shared by both maps are skipped, so when one map is derived from the other, the cost is proportional to the number
+     * of modifications rather than to the size of the maps.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K> void collectDifferentKeys(
+            @NotNull HashTrieMap<K, ?> first,
+            @NotNull HashTrieMap<K, ?> second,
+            @NotNull Collection<? super K> result
+    ) {
+        diff(first.root, second.root, (Collection<Object>) result);
+    }
+
+    @NotNull
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        List<Map.Entry<K, V>> entries = new ArrayList<Map.Entry<K, V>>(size);
+        if (root != null) {
+            root.collectEntries(entries);
+        }
+        return Collections.unmodifiableList(entries).iterator();
+    }
+
+    @NotNull
+    public Map<K, V> toMap() {
+        Map<K, V> result = new HashMap<K, V>();
+        for (Map.Entry<K, V> entry : this) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static void diff(@Nullable Node first, @Nullable Node second, @NotNull Collection<Object> result) {
+        if (first == second) return;
+        if (first == null) {
+            second.collectKeys(result);
+            return;
+        }
+        if (second == null) {
+            first.collectKeys(result);
+            return;
+        }
+        if (!(first instanceof BitmapNode) || !(second instanceof BitmapNode)) {
+            first.collectKeys(result);
+            second.collectKeys(result);
+            return;
+        }
+
+        BitmapNode a = (BitmapNode) first;
+        BitmapNode b = (BitmapNode) second;
+        int bits = a.bitmap | b.bitmap;
+        while (bits != 0) {
+            int bit = Integer.lowestOneBit(bits);
+            bits &= ~bit;
+
+            if ((a.bitmap & bit) == 0) {
+                b.collectSlotKeys(b.index(bit), result);
+            }
+            else if ((b.bitmap & bit) == 0) {
+                a.collectSlotKeys(a.index(bit), result);
+            }
+            else {
+                int i = a.index(bit);
+                int j = b.index(bit);
+                Object keyA = a.array[2 * i];
+                Object valueA = a.array[2 * i + 1];
+                Object keyB = b.array[2 * j];
+                Object valueB = b.array[2 * j + 1];
+                if (keyA == null && keyB == null) {
+                    diff((Node) valueA, (Node) valueB, result);
+                }
+                else if (keyA != keyB || valueA != valueB) {
+                    a.collectSlotKeys(i, result);
+                    b.collectSlotKeys(j, result);
+                }
+            }
+        }
+    }
+
+    private static abstract class Node {
+        @Nullable
+        abstract Object get(@NotNull Object key, int hash, int shift);
+
+        // Returns this if nothing has changed
+        @NotNull
+        abstract Node put(@NotNull Object key, @NotNull Object value, int hash, int shift, @NotNull boolean[] added);
+
+        // Returns this if there was no such key, null if the node became empty
+        @Nullable
+        abstract Node remove(@NotNull Object key, int hash, int shift);
+
+        abstract void collectKeys(@NotNull Collection<Object> result);
+
+        abstract <K, V> void collectEntries(@NotNull List<Map.Entry<K, V>> result);
+    }
+
+    /**
+     * Each present bit of the bitmap corresponds to a pair of elements in the array:
+     * either a key and its value, or null and a child node for the next 5 bits of the hash.
+     */
+    private static final class BitmapNode extends Node {
+        private final int bitmap;
+        private final Object[] array;
+
+        BitmapNode(int bitmap, @NotNull Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object get(@NotNull Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) return null;
+            int i = index(bit);
+            Object keyOrNull = array[2 * i];
+            Object valueOrNode = array[2 * i + 1];
+            if (keyOrNull == null) return ((Node) valueOrNode).get(key, hash, shift + BITS);
+            return key.equals(keyOrNull) ? valueOrNode : null;
+        }
+
+        @NotNull
+        @Override
+        Node put(@NotNull Object key, @NotNull Object value, int hash, int shift, @NotNull boolean[] added) {
+            int bit = bit(hash, shift);
+            int i = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, 2 * i);
+                newArray[2 * i] = key;
+                newArray[2 * i + 1] = value;
+                System.arraycopy(array, 2 * i, newArray, 2 * i + 2, array.length - 2 * i);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, newArray);
+            }
+
+            Object keyOrNull = array[2 * i];
+            Object valueOrNode = array[2 * i + 1];
+            if (keyOrNull == null) {
+                Node node = (Node) valueOrNode;
+                Node newNode = node.put(key, value, hash, shift + BITS, added);
+                return newNode == node ? this : withSlot(i, null, newNode);
+            }
+            if (key.equals(keyOrNull)) {
+                return keyOrNull == key && valueOrNode == value ? this : withSlot(i, key, value);
+            }
+
+            added[0] = true;
+            return withSlot(i, null, createNode(keyOrNull, valueOrNode, key, value, hash, shift + BITS));
+        }
+
+        @Nullable
+        @Override
+        Node remove(@NotNull Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) return this;
+            int i = index(bit);
+            Object keyOrNull = array[2 * i];
+            Object valueOrNode = array[2 * i + 1];
+            if (keyOrNull == null) {
+                Node node = (Node) valueOrNode;
+                Node newNode = node.remove(key, hash, shift + BITS);
+                if (newNode == node) return this;
+                if (newNode != null) return withSlot(i, null, newNode);
+            }
+            else if (!key.equals(keyOrNull)) {
+                return this;
+            }
+
+            if (bitmap == bit) return null;
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, 2 * i);
+            System.arraycopy(array, 2 * i + 2, newArray, 2 * i, newArray.length - 2 * i);
+            return new BitmapNode(bitmap & ~bit, newArray);
+        }
+
+        @NotNull
+        private BitmapNode withSlot(int i, @Nullable Object key, @NotNull Object valueOrNode) {
+            Object[] newArray = array.clone();
+            newArray[2 * i] = key;
+            newArray[2 * i + 1] = valueOrNode;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        void collectSlotKeys(int i, @NotNull Collection<Object> result) {
+            Object keyOrNull = array[2 * i];
+            if (keyOrNull == null) {
+                ((Node) array[2 * i + 1]).collectKeys(result);
+            }
+            else {
+                result.add(keyOrNull);
+            }
+        }
+
+        @Override
+        void collectKeys(@NotNull Collection<Object> result) {
+            for (int i = 0; i < array.length / 2; i++) {
+                collectSlotKeys(i, result);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        <K, V> void collectEntries(@NotNull List<Map.Entry<K, V>> result) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Node) array[i + 1]).collectEntries(result);
+                }
+                else {
+                    result.add(new AbstractMap.SimpleImmutableEntry<K, V>((K) array[i], (V) array[i + 1]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Keys with the same full hash code, stored as key-value pairs in the array
+     */
+    private static final class CollisionNode extends Node {
+        private final int hash;
+        private final Object[] array;
+
+        CollisionNode(int hash, @NotNull Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int indexOf(@NotNull Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) return i;
+            }
+            return -1;
+        }
+
+        @Override
+        Object get(@NotNull Object key, int hash, int shift) {
+            if (hash != this.hash) return null;
+            int i = indexOf(key);
+            return i == -1 ? null : array[i + 1];
+        }
+
+        @NotNull
+        @Override
+        Node put(@NotNull Object key, @NotNull Object value, int hash, int shift, @NotNull boolean[] added) {
+            if (hash != this.hash) {
+                return new BitmapNode(bit(this.hash, shift), new Object[] {null, this}).put(key, value, hash, shift, added);
+            }
+            int i = indexOf(key);
+            if (i == -1) {
+                Object[] newArray = Arrays.copyOf(array, array.length + 2);
+                newArray[array.length] = key;
+                newArray[array.length + 1] = value;
+                added[0] = true;
+                return new CollisionNode(hash, newArray);
+            }
+            if (array[i] == key && array[i + 1] == value) return this;
+            Object[] newArray = array.clone();
+            newArray[i] = key;
+            newArray[i + 1] = value;
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Nullable
+        @Override
+        Node remove(@NotNull Object key, int hash, int shift) {
+            if (hash != this.hash) return this;
+            int i = indexOf(key);
+            if (i == -1) return this;
+            if (array.length == 2) return null;
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, newArray.length - i);
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        void collectKeys(@NotNull Collection<Object> result) {
+            for (int i = 0; i < array.length; i += 2) {
+                result.add(array[i]);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        <K, V> void collectEntries(@NotNull List<Map.Entry<K, V>> result) {
+            for (int i = 0; i < array.length; i += 2) {
+                result.add(new AbstractMap.SimpleImmutableEntry<K, V>((K) array[i], (V) array[i + 1]));
+            }
+        }
+    }
+
+    @NotNull
+    private static Node createNode(
+            @NotNull Object key1, @NotNull Object value1,
+            @NotNull Object key2, @NotNull Object value2,
+            int hash2, int shift
+    ) {
+        int hash1 = key1.hashCode();
+        if (hash1 == hash2) {
+            return new CollisionNode(hash1, new Object[] {key1, value1, key2, value2});
+        }
+        boolean[] added = new boolean[1];
+        return new BitmapNode(bit(hash1, shift), new Object[] {key1, value1}).put(key2, value2, hash2, shift, added);
+    }
+}
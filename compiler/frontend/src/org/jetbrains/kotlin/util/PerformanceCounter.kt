@@ -30,7 +30,8 @@ public abstract class PerformanceCounter protected constructor(val name: String)
     companion object {
         private val allCounters = arrayListOf<PerformanceCounter>()
 
-        private var enabled = false
+        // number of compilations that asked for time measurement
+        private val timeCounterUsers = AtomicInteger()
 
         public fun currentTime(): Long = System.nanoTime()
 
@@ -41,8 +42,16 @@ public abstract class PerformanceCounter protected constructor(val name: String)
             countersCopy.forEach { it.report(consumer) }
         }
 
-        public fun setTimeCounterEnabled(enable: Boolean) {
-            enabled = enable
+        /**
+         * Time is measured while at least one compilation running in this JVM has enabled it and not disabled yet,
+         * so that compilations don't turn it off for each other
+         */
+        public fun enableTimeCounters() {
+            timeCounterUsers.incrementAndGet()
+        }
+
+        public fun disableTimeCounters() {
+            timeCounterUsers.decrementAndGet()
         }
 
         public fun resetAllCounters() {
@@ -90,7 +99,7 @@ public abstract class PerformanceCounter protected constructor(val name: String)
 
     public final fun time<T>(block: () -> T): T {
         count++
-        if (!enabled) return block()
+        if (timeCounterUsers.get() == 0) return block()
 
         excludedFrom.forEach { it.enterExcludedMethod() }
         try {
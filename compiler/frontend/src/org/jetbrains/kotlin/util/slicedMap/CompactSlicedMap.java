@@ -0,0 +1,365 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.util.slicedMap;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multimap;
+import com.intellij.openapi.util.Key;
+import kotlin.jvm.functions.Function3;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * A {@link MutableSlicedMap} which doesn't allocate a holder object per key.
+ *
+ * Keys are stored in an open addressing table with linear probing. The most common case, a key with a value in only one slice,
+ * keeps the slice key and the value inline in parallel arrays. Once a second slice is recorded for the key, its slot switches
+ * to an array of alternating slice keys and values.
+ */
+public class CompactSlicedMap implements MutableSlicedMap {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final Object NULL_KEY = new Object() {
+        @Override
+        public String toString() {
+            return "NULL_KEY";
+        }
+    };
+
+    // Marks a slot whose value is an array of alternating slice keys and values
+    private static final Object SEVERAL_SLICES = new Object() {
+        @Override
+        public String toString() {
+            return "SEVERAL_SLICES";
+        }
+    };
+
+    public static CompactSlicedMap create() {
+        return new CompactSlicedMap();
+    }
+
+    private Object[] keys = new Object[INITIAL_CAPACITY];
+    private Object[] sliceKeys = new Object[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int size = 0;
+
+    private Multimap<WritableSlice<?, ?>, Object> collectiveSliceKeys = null;
+
+    @Override
+    public <K, V> void put(WritableSlice<K, V> slice, K key, V value) {
+        if (!slice.check(key, value)) {
+            return;
+        }
+
+        Key<V> sliceKey = slice.getKey();
+
+        RewritePolicy rewritePolicy = slice.getRewritePolicy();
+        if (rewritePolicy.rewriteProcessingNeeded(key)) {
+            V oldValue = getValue(key, sliceKey);
+            if (oldValue != null) {
+                //noinspection unchecked
+                if (!rewritePolicy.processRewrite(slice, key, oldValue, value)) {
+                    return;
+                }
+            }
+        }
+
+        if (slice.isCollective()) {
+            if (collectiveSliceKeys == null) {
+                collectiveSliceKeys = ArrayListMultimap.create();
+            }
+
+            collectiveSliceKeys.put(slice, key);
+        }
+
+        putValue(key, sliceKey, value);
+        slice.afterPut(this, key, value);
+    }
+
+    @Override
+    public void clear() {
+        keys = new Object[INITIAL_CAPACITY];
+        sliceKeys = new Object[INITIAL_CAPACITY];
+        values = new Object[INITIAL_CAPACITY];
+        size = 0;
+        collectiveSliceKeys = null;
+    }
+
+    @Override
+    public void removeSlices(@NotNull Collection<? extends WritableSlice<?, ?>> slices) {
+        Set<Key<?>> removedSliceKeys = new HashSet<Key<?>>();
+        for (WritableSlice<?, ?> slice : slices) {
+            removedSliceKeys.add(slice.getKey());
+            if (collectiveSliceKeys != null) {
+                collectiveSliceKeys.removeAll(slice);
+            }
+        }
+
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null) continue;
+
+            if (sliceKeys[i] == SEVERAL_SLICES) {
+                Object[] entries = (Object[]) values[i];
+                for (int j = 0; j < entries.length && entries[j] != null; j += 2) {
+                    if (removedSliceKeys.contains(entries[j])) {
+                        entries[j + 1] = null;
+                    }
+                }
+            }
+            else if (removedSliceKeys.contains(sliceKeys[i])) {
+                values[i] = null;
+            }
+        }
+
+        compact();
+    }
+
+    @Override
+    public <K, V> V get(ReadOnlySlice<K, V> slice, K key) {
+        V value = getValue(key, slice.getKey());
+
+        return slice.computeValue(this, key, value, value == null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> Collection<K> getKeys(WritableSlice<K, V> slice) {
+        assert slice.isCollective() : "Keys are not collected for slice " + slice;
+
+        if (collectiveSliceKeys == null) return Collections.emptyList();
+        return (Collection<K>) collectiveSliceKeys.get(slice);
+    }
+
+    @Override
+    public void forEach(@NotNull Function3<WritableSlice, Object, Object, Void> f) {
+        for (int i = 0; i < keys.length; i++) {
+            Object key = keys[i];
+            if (key == null) continue;
+            if (key == NULL_KEY) key = null;
+
+            if (sliceKeys[i] == SEVERAL_SLICES) {
+                Object[] entries = (Object[]) values[i];
+                for (int j = 0; j < entries.length && entries[j] != null; j += 2) {
+                    if (entries[j + 1] == null) continue;
+                    f.invoke(((AbstractWritableSlice) entries[j]).getSlice(), key, entries[j + 1]);
+                }
+            }
+            else if (values[i] != null) {
+                f.invoke(((AbstractWritableSlice) sliceKeys[i]).getSlice(), key, values[i]);
+            }
+        }
+    }
+
+    @NotNull
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> ImmutableMap<K, V> getSliceContents(@NotNull ReadOnlySlice<K, V> slice) {
+        ImmutableMap.Builder<K, V> builder = ImmutableMap.builder();
+
+        Key<V> sliceKey = slice.getKey();
+        for (int i = 0; i < keys.length; i++) {
+            Object key = keys[i];
+            if (key == null) continue;
+
+            V value = getValueAt(i, sliceKey);
+            if (value != null) {
+                builder.put((K) (key == NULL_KEY ? null : key), value);
+            }
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private <V> V getValue(Object key, Key<V> sliceKey) {
+        int index = indexOf(key == null ? NULL_KEY : key);
+        return index < 0 ? null : getValueAt(index, sliceKey);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V getValueAt(int index, Key<V> sliceKey) {
+        Object slotSliceKey = sliceKeys[index];
+        if (slotSliceKey == sliceKey) {
+            return (V) values[index];
+        }
+        if (slotSliceKey == SEVERAL_SLICES) {
+            Object[] entries = (Object[]) values[index];
+            for (int j = 0; j < entries.length && entries[j] != null; j += 2) {
+                if (entries[j] == sliceKey) {
+                    return (V) entries[j + 1];
+                }
+            }
+        }
+        return null;
+    }
+
+    private void putValue(Object key, Key<?> sliceKey, Object value) {
+        if (key == null) key = NULL_KEY;
+
+        int index = indexOf(key);
+        if (index < 0) {
+            if (value == null) return;
+
+            if ((size + 1) * 4 > keys.length * 3) {
+                resize(keys.length * 2);
+            }
+
+            index = freeSlotFor(keys, key);
+            keys[index] = key;
+            sliceKeys[index] = sliceKey;
+            values[index] = value;
+            size++;
+            return;
+        }
+
+        Object slotSliceKey = sliceKeys[index];
+        if (slotSliceKey == sliceKey) {
+            values[index] = value;
+        }
+        else if (slotSliceKey == SEVERAL_SLICES) {
+            values[index] = putToEntries((Object[]) values[index], sliceKey, value);
+        }
+        else if (value != null) {
+            sliceKeys[index] = SEVERAL_SLICES;
+            values[index] = new Object[] {slotSliceKey, values[index], sliceKey, value};
+        }
+    }
+
+    @NotNull
+    private static Object[] putToEntries(@NotNull Object[] entries, @NotNull Key<?> sliceKey, Object value) {
+        int j = 0;
+        for (; j < entries.length && entries[j] != null; j += 2) {
+            if (entries[j] == sliceKey) {
+                entries[j + 1] = value;
+                return entries;
+            }
+        }
+        if (value == null) return entries;
+
+        if (j == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length + 4);
+        }
+        entries[j] = sliceKey;
+        entries[j + 1] = value;
+        return entries;
+    }
+
+    private int indexOf(@NotNull Object key) {
+        int mask = keys.length - 1;
+        for (int index = hash(key) & mask; ; index = (index + 1) & mask) {
+            Object candidate = keys[index];
+            if (candidate == null) return -1;
+            if (candidate == key || candidate.equals(key)) return index;
+        }
+    }
+
+    private static int freeSlotFor(@NotNull Object[] table, @NotNull Object key) {
+        int mask = table.length - 1;
+        int index = hash(key) & mask;
+        while (table[index] != null) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void resize(int newCapacity) {
+        Object[] oldKeys = keys;
+        Object[] oldSliceKeys = sliceKeys;
+        Object[] oldValues = values;
+
+        keys = new Object[newCapacity];
+        sliceKeys = new Object[newCapacity];
+        values = new Object[newCapacity];
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            Object key = oldKeys[i];
+            if (key == null) continue;
+
+            int index = freeSlotFor(keys, key);
+            keys[index] = key;
+            sliceKeys[index] = oldSliceKeys[i];
+            values[index] = oldValues[i];
+        }
+    }
+
+    // Removes keys without values and shrinks the table and the entries of keys with several slices
+    private void compact() {
+        Object[] oldKeys = keys;
+        Object[] oldSliceKeys = sliceKeys;
+        Object[] oldValues = values;
+
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null) continue;
+
+            if (oldSliceKeys[i] == SEVERAL_SLICES) {
+                Object[] entries = compactEntries((Object[]) oldValues[i]);
+                if (entries == null) {
+                    oldKeys[i] = null;
+                }
+                else if (entries.length == 2) {
+                    oldSliceKeys[i] = entries[0];
+                    oldValues[i] = entries[1];
+                }
+                else {
+                    oldValues[i] = entries;
+                }
+            }
+            else if (oldValues[i] == null) {
+                oldKeys[i] = null;
+            }
+
+            if (oldKeys[i] != null) size++;
+        }
+
+        int capacity = INITIAL_CAPACITY;
+        while (size * 4 > capacity * 3) {
+            capacity *= 2;
+        }
+        resize(capacity);
+    }
+
+    @Nullable
+    private static Object[] compactEntries(@NotNull Object[] entries) {
+        int count = 0;
+        for (int j = 0; j < entries.length && entries[j] != null; j += 2) {
+            if (entries[j + 1] != null) count++;
+        }
+        if (count == 0) return null;
+
+        Object[] result = new Object[count * 2];
+        int index = 0;
+        for (int j = 0; j < entries.length && entries[j] != null; j += 2) {
+            if (entries[j + 1] != null) {
+                result[index++] = entries[j];
+                result[index++] = entries[j + 1];
+            }
+        }
+        return result;
+    }
+
+    private static int hash(@NotNull Object key) {
+        int h = key.hashCode();
+        // Only the lower bits are used to index the table, so mix the higher ones in
+        return h ^ (h >>> 16);
+    }
+}
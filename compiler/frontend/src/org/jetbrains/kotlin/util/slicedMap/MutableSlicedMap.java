@@ -20,12 +20,17 @@ import com.google.common.collect.ImmutableMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.TestOnly;
 
+import java.util.Collection;
+
 public interface MutableSlicedMap extends SlicedMap {
 
     <K, V> void put(WritableSlice<K, V> slice, K key, V value);
 
     void clear();
 
+    // Removes the values of all given slices for all keys
+    void removeSlices(@NotNull Collection<? extends WritableSlice<?, ?>> slices);
+
     @NotNull
     @TestOnly
     <K, V> ImmutableMap<K, V> getSliceContents(@NotNull ReadOnlySlice<K, V> slice);
@@ -27,6 +27,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
 
 public class SlicedMapImpl implements MutableSlicedMap {
@@ -81,6 +82,25 @@ public class SlicedMapImpl implements MutableSlicedMap {
         collectiveSliceKeys = null;
     }
 
+    @Override
+    public void removeSlices(@NotNull Collection<? extends WritableSlice<?, ?>> slices) {
+        for (Iterator<UserDataHolderImpl> iterator = map.values().iterator(); iterator.hasNext(); ) {
+            UserDataHolderImpl holder = iterator.next();
+            for (WritableSlice<?, ?> slice : slices) {
+                holder.putUserData(slice.getKey(), null);
+            }
+            if (holder.getKeys().length == 0) {
+                iterator.remove();
+            }
+        }
+
+        if (collectiveSliceKeys != null) {
+            for (WritableSlice<?, ?> slice : slices) {
+                collectiveSliceKeys.removeAll(slice);
+            }
+        }
+    }
+
     @Override
     public <K, V> V get(ReadOnlySlice<K, V> slice, K key) {
         UserDataHolderImpl holder = map.get(key);
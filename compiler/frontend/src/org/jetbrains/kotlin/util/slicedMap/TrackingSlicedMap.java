@@ -21,7 +21,9 @@ import kotlin.jvm.functions.Function3;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.kotlin.utils.Printer;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 public class TrackingSlicedMap extends SlicedMapImpl {
@@ -52,6 +54,15 @@ public class TrackingSlicedMap extends SlicedMapImpl {
         return super.getKeys(wrapSlice(slice));
     }
 
+    @Override
+    public void removeSlices(@NotNull Collection<? extends WritableSlice<?, ?>> slices) {
+        List<WritableSlice<?, ?>> wrappedSlices = new ArrayList<WritableSlice<?, ?>>(slices.size());
+        for (WritableSlice<?, ?> slice : slices) {
+            wrappedSlices.add(wrapSlice(slice));
+        }
+        super.removeSlices(wrappedSlices);
+    }
+
     @Override
     public void forEach(@NotNull final Function3<WritableSlice, Object, Object, Void> f) {
         super.forEach(new Function3<WritableSlice, Object, Object, Void>() {
@@ -23,6 +23,8 @@ import org.jetbrains.kotlin.load.kotlin.incremental.components.JvmPackagePartPro
 import org.jetbrains.kotlin.modules.TargetId
 import org.jetbrains.kotlin.progress.CompilationCanceledStatus
 import org.jetbrains.kotlin.rmi.CompilerCallbackServicesFacade
+import org.jetbrains.kotlin.rmi.InlineRegistration
+import org.jetbrains.kotlin.rmi.LookupRecord
 import org.jetbrains.kotlin.rmi.LoopbackNetworkInterface
 import org.jetbrains.kotlin.rmi.SOCKET_ANY_FREE_PORT
 
@@ -58,6 +60,13 @@ public class CompilerCallbackServicesFacadeServer(
         incrementalCompilationComponents!!.getIncrementalCache(target).registerInline(fromPath, jvmSignature, toPath)
     }
 
+    override fun incrementalCache_registerInlines(target: TargetId, inlines: Collection<InlineRegistration>) {
+        val incrementalCache = incrementalCompilationComponents!!.getIncrementalCache(target)
+        for (inline in inlines) {
+            incrementalCache.registerInline(inline.fromPath, inline.jvmSignature, inline.toPath)
+        }
+    }
+
     override fun incrementalCache_getClassFilePath(target: TargetId, internalClassName: String): String = incrementalCompilationComponents!!.getIncrementalCache(target).getClassFilePath(internalClassName)
 
     override fun incrementalCache_close(target: TargetId) {
@@ -68,6 +77,13 @@ public class CompilerCallbackServicesFacadeServer(
         incrementalCompilationComponents!!.getLookupTracker().record(lookupContainingFile, lookupLine, lookupColumn, scopeFqName, scopeKind, name)
     }
 
+    override fun lookupTracker_recordAll(lookups: Collection<LookupRecord>) {
+        val lookupTracker = incrementalCompilationComponents!!.getLookupTracker()
+        for (lookup in lookups) {
+            lookupTracker.record(lookup.lookupContainingFile, lookup.lookupLine, lookup.lookupColumn, lookup.scopeFqName, lookup.scopeKind, lookup.name)
+        }
+    }
+
     private val lookupTracker_isDoNothing: Boolean = incrementalCompilationComponents != null && incrementalCompilationComponents.getLookupTracker() == LookupTracker.DO_NOTHING
 
     override fun lookupTracker_isDoNothing(): Boolean = lookupTracker_isDoNothing
@@ -136,12 +136,17 @@ public object KotlinCompilerClient {
                     RemoteOutputStreamServer(daemonOut))
     }
 
+    public fun getDaemonMetrics(compileService: CompileService): DaemonMetrics = compileService.getMetrics()
+
+
     public val COMPILE_DAEMON_CLIENT_OPTIONS_PROPERTY: String = "kotlin.daemon.client.options"
     data class ClientOptions(
-            public var stop: Boolean = false
+            public var stop: Boolean = false,
+            public var metrics: Boolean = false
     ) : OptionsGroup {
         override val mappers: List<PropMapper<*, *, *>>
-            get() = listOf(BoolPropMapper(this, ClientOptions::stop))
+            get() = listOf(BoolPropMapper(this, ClientOptions::stop),
+                           BoolPropMapper(this, ClientOptions::metrics))
     }
 
     private fun configureClientOptions(opts: ClientOptions): ClientOptions {
@@ -166,7 +171,9 @@ public object KotlinCompilerClient {
         val clientOptions = configureClientOptions()
         val filteredArgs = args.asIterable().filterExtractProps(compilerId, daemonOptions, daemonLaunchingOptions, clientOptions, prefix = COMPILE_DAEMON_CMDLINE_OPTIONS_PREFIX)
 
-        if (!clientOptions.stop) {
+        val connectOnly = clientOptions.stop || clientOptions.metrics
+
+        if (!connectOnly) {
             if (compilerId.compilerClasspath.none()) {
                 // attempt to find compiler to use
                 System.err.println("compiler wasn't explicitly specified, attempt to find appropriate jar")
@@ -181,15 +188,21 @@ public object KotlinCompilerClient {
             compilerId.updateDigest()
         }
 
-        val daemon = connectToCompileService(compilerId, daemonLaunchingOptions, daemonOptions, DaemonReportingTargets(out = System.out), autostart = !clientOptions.stop, checkId = !clientOptions.stop)
+        val daemon = connectToCompileService(compilerId, daemonLaunchingOptions, daemonOptions, DaemonReportingTargets(out = System.out), autostart = !connectOnly, checkId = !connectOnly)
 
         if (daemon == null) {
             if (clientOptions.stop) {
                 System.err.println("No daemon found to shut down")
             }
+            else if (clientOptions.metrics) {
+                System.err.println("No daemon found to get metrics from")
+            }
             else throw Exception("Unable to connect to daemon")
         }
         else when {
+            clientOptions.metrics -> {
+                println(getDaemonMetrics(daemon).toJson())
+            }
             clientOptions.stop -> {
                 println("Shutdown the daemon")
                 daemon.shutdown()
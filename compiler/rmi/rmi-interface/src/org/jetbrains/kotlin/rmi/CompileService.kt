@@ -37,6 +37,9 @@ public interface CompileService : Remote {
     @Throws(RemoteException::class)
     public fun getUsedMemory(): Long
 
+    @Throws(RemoteException::class)
+    public fun getMetrics(): DaemonMetrics
+
     @Throws(RemoteException::class)
     public fun shutdown()
 
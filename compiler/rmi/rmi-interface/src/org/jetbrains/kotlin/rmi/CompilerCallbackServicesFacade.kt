@@ -19,6 +19,7 @@ package org.jetbrains.kotlin.rmi
 import org.jetbrains.kotlin.incremental.components.ScopeKind
 import org.jetbrains.kotlin.load.kotlin.incremental.components.JvmPackagePartProto
 import org.jetbrains.kotlin.modules.TargetId
+import java.io.Serializable
 import java.rmi.Remote
 import java.rmi.RemoteException
 
@@ -59,6 +60,9 @@ public interface CompilerCallbackServicesFacade : Remote {
     @Throws(RemoteException::class)
     public fun incrementalCache_registerInline(target: TargetId, fromPath: String, jvmSignature: String, toPath: String)
 
+    @Throws(RemoteException::class)
+    public fun incrementalCache_registerInlines(target: TargetId, inlines: Collection<InlineRegistration>)
+
     @Throws(RemoteException::class)
     fun incrementalCache_getClassFilePath(target: TargetId, internalClassName: String): String
 
@@ -80,6 +84,9 @@ public interface CompilerCallbackServicesFacade : Remote {
             name: String
     )
     
+    @Throws(RemoteException::class)
+    fun lookupTracker_recordAll(lookups: Collection<LookupRecord>)
+
     @Throws(RemoteException::class)
     fun lookupTracker_isDoNothing(): Boolean
     
@@ -89,3 +96,16 @@ public interface CompilerCallbackServicesFacade : Remote {
     fun compilationCanceledStatus_checkCanceled(): Unit
 }
 
+// arguments of IncrementalCache.registerInline, for sending them in batches
+public class InlineRegistration(val fromPath: String, val jvmSignature: String, val toPath: String) : Serializable
+
+// arguments of LookupTracker.record, for sending them in batches
+public class LookupRecord(
+        val lookupContainingFile: String,
+        val lookupLine: Int?,
+        val lookupColumn: Int?,
+        val scopeFqName: String,
+        val scopeKind: ScopeKind,
+        val name: String
+) : Serializable
+
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.rmi
+
+import java.io.Serializable
+
+/**
+ * Counters of a compilation phase, summed over all times the phase was entered in a session.
+ * CPU time and allocations are those of the thread running the compilation, work done by parallel resolve or codegen threads is not included.
+ */
+public class PhaseMetrics(
+        public val phase: String,
+        public val count: Long,
+        public val wallNanos: Long,
+        public val cpuNanos: Long,
+        public val allocatedBytes: Long
+) : Serializable
+
+/**
+ * Metrics of one compilation session on the daemon. GC counters are JVM-wide, so they include the work of concurrent sessions.
+ */
+public class CompilationSessionMetrics(
+        public val startTimeMillis: Long,
+        public val exitCode: Int,
+        public val wallNanos: Long,
+        public val cpuNanos: Long,
+        public val allocatedBytes: Long,
+        public val gcCount: Long,
+        public val gcTimeMillis: Long,
+        public val heapUsedAfter: Long,
+        public val phases: List<PhaseMetrics>
+) : Serializable
+
+public class DaemonMetrics(
+        public val uptimeMillis: Long,
+        public val compilations: Long,
+        public val activeCompilations: Int,
+        public val heapUsed: Long,
+        public val heapMax: Long,
+        public val gcCount: Long,
+        public val gcTimeMillis: Long,
+        public val rpcCalls: Long,
+        public val rpcNanos: Long,
+        // the most recent sessions, oldest first
+        public val recentSessions: List<CompilationSessionMetrics>
+) : Serializable {
+
+    public fun toJson(): String {
+        val json = StringBuilder()
+        json.append("{")
+        json.field("uptimeMillis", uptimeMillis).append(",")
+        json.field("compilations", compilations).append(",")
+        json.field("activeCompilations", activeCompilations.toLong()).append(",")
+        json.field("heapUsed", heapUsed).append(",")
+        json.field("heapMax", heapMax).append(",")
+        json.field("gcCount", gcCount).append(",")
+        json.field("gcTimeMillis", gcTimeMillis).append(",")
+        json.field("rpcCalls", rpcCalls).append(",")
+        json.field("rpcNanos", rpcNanos).append(",")
+        json.name("recentSessions").array(recentSessions) { session ->
+            append("{")
+            field("startTimeMillis", session.startTimeMillis).append(",")
+            field("exitCode", session.exitCode.toLong()).append(",")
+            field("wallNanos", session.wallNanos).append(",")
+            field("cpuNanos", session.cpuNanos).append(",")
+            field("allocatedBytes", session.allocatedBytes).append(",")
+            field("gcCount", session.gcCount).append(",")
+            field("gcTimeMillis", session.gcTimeMillis).append(",")
+            field("heapUsedAfter", session.heapUsedAfter).append(",")
+            name("phases").array(session.phases) { phase ->
+                append("{")
+                name("phase").append("\"").append(phase.phase).append("\",")
+                field("count", phase.count).append(",")
+                field("wallNanos", phase.wallNanos).append(",")
+                field("cpuNanos", phase.cpuNanos).append(",")
+                field("allocatedBytes", phase.allocatedBytes)
+                append("}")
+            }
+            append("}")
+        }
+        json.append("}")
+        return json.toString()
+    }
+}
+
+// names and phases are identifiers, so no escaping is needed
+private fun StringBuilder.name(name: String): StringBuilder = append("\"").append(name).append("\":")
+
+private fun StringBuilder.field(name: String, value: Long): StringBuilder = name(name).append(value)
+
+private fun <T> StringBuilder.array(items: List<T>, appendItem: StringBuilder.(T) -> Unit): StringBuilder {
+    append("[")
+    for ((index, item) in items.withIndex()) {
+        if (index > 0) append(",")
+        appendItem(item)
+    }
+    return append("]")
+}
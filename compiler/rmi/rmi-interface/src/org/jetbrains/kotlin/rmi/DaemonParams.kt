@@ -47,6 +47,7 @@ public val COMPILE_DAEMON_DATA_DIRECTORY_NAME: String = "." + COMPILE_DAEMON_DEF
 public val COMPILE_DAEMON_TIMEOUT_INFINITE_S: Int = 0
 public val COMPILE_DAEMON_DEFAULT_IDLE_TIMEOUT_S: Int = 7200 // 2 hours
 public val COMPILE_DAEMON_MEMORY_THRESHOLD_INFINITE: Long = 0L
+public val COMPILE_DAEMON_PARALLEL_COMPILATIONS_AUTO: Int = 0 // as many as there are available processors
 
 public val COMPILE_DAEMON_DEFAULT_RUN_DIR_PATH: String get() =
     // TODO consider special case for windows - local appdata
@@ -208,7 +209,8 @@ public data class DaemonOptions(
         public var autoshutdownIdleSeconds: Int = COMPILE_DAEMON_DEFAULT_IDLE_TIMEOUT_S,
         public var clientAliveFlagPath: String? = null,
         public var verbose: Boolean = false,
-        public var reportPerf: Boolean = false
+        public var reportPerf: Boolean = false,
+        public var maxParallelCompilations: Int = COMPILE_DAEMON_PARALLEL_COMPILATIONS_AUTO
 ) : OptionsGroup {
 
     override val mappers: List<PropMapper<*, *, *>>
@@ -217,7 +219,8 @@ public data class DaemonOptions(
                        PropMapper(this, DaemonOptions::autoshutdownIdleSeconds, fromString = { it.toInt() }, skipIf = { it == 0 }, mergeDelimiter = "="),
                        NullablePropMapper(this, DaemonOptions::clientAliveFlagPath, fromString = { it }, toString = { "${it?.trimQuotes()}" }, mergeDelimiter = "="),
                        BoolPropMapper(this, DaemonOptions::verbose),
-                       BoolPropMapper(this, DaemonOptions::reportPerf))
+                       BoolPropMapper(this, DaemonOptions::reportPerf),
+                       PropMapper(this, DaemonOptions::maxParallelCompilations, fromString = { it.toInt() }, skipIf = { it == 0 }, mergeDelimiter = "="))
 }
 
 
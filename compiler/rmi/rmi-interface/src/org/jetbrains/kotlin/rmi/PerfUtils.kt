@@ -75,6 +75,25 @@ inline fun ThreadMXBean.threadCpuTime() = if (isCurrentThreadCpuTimeSupported) c
 @Suppress("NOTHING_TO_INLINE")
 inline fun ThreadMXBean.threadUserTime() = if (isCurrentThreadCpuTimeSupported) currentThreadUserTime else 0L
 
+// allocation counters are a HotSpot extension, so they may be missing
+private val allocationMXBean: com.sun.management.ThreadMXBean? by lazy {
+    try {
+        (ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean)?.let {
+            if (it.isThreadAllocatedMemorySupported && it.isThreadAllocatedMemoryEnabled) it else null
+        }
+    }
+    catch (e: LinkageError) {
+        null
+    }
+}
+
+fun threadAllocatedBytes(): Long = allocationMXBean?.getThreadAllocatedBytes(Thread.currentThread().id) ?: 0L
+
+// the counters are -1 for collectors that don't support them
+fun gcCount(): Long = ManagementFactory.getGarbageCollectorMXBeans().fold(0L) { total, gc -> total + Math.max(gc.collectionCount, 0L) }
+
+fun gcTimeMillis(): Long = ManagementFactory.getGarbageCollectorMXBeans().fold(0L) { total, gc -> total + Math.max(gc.collectionTime, 0L) }
+
 @Suppress("NOTHING_TO_INLINE")
 inline fun usedMemory(withGC: Boolean): Long {
     if (withGC) {
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.rmi.service
+
+import org.jetbrains.kotlin.rmi.DummyProfiler
+import org.jetbrains.kotlin.rmi.Profiler
+import org.jetbrains.kotlin.rmi.RemoteOutputStream
+import java.io.OutputStream
+import java.util.Timer
+import java.util.TimerTask
+
+val REMOTE_OUTPUT_STREAM_BUFFER_SIZE = 8192
+val REMOTE_OUTPUT_STREAM_FLUSH_INTERVAL_MS = 200L
+
+/**
+ * Sends the data written to it to the [remote] stream in batches, one remote call per batch.
+ * The data is sent when the buffer is full, when the stream is flushed, or when the oldest buffered data is older than [flushIntervalMs],
+ * so that messages are not held back during long compilation phases.
+ * Closing the stream sends the rest of the data, but doesn't close the remote stream.
+ */
+class BatchingRemoteOutputStreamClient(
+        val remote: RemoteOutputStream,
+        val profiler: Profiler = DummyProfiler(),
+        bufferSize: Int = REMOTE_OUTPUT_STREAM_BUFFER_SIZE,
+        val flushIntervalMs: Long = REMOTE_OUTPUT_STREAM_FLUSH_INTERVAL_MS
+) : OutputStream() {
+
+    private val buffer = ByteArray(bufferSize)
+    private var count = 0
+    private var oldestWriteTime = 0L
+
+    private val flushTask = object : TimerTask() {
+        override fun run() {
+            try {
+                flushIfStale()
+            }
+            catch (e: Exception) {
+                // will be reported by the next write or flush from the compiler
+            }
+        }
+    }
+
+    init {
+        flushTimer.schedule(flushTask, flushIntervalMs, flushIntervalMs)
+    }
+
+    @Synchronized
+    override fun write(byte: Int) {
+        if (count == buffer.size()) {
+            sendBuffer()
+        }
+        markWrite()
+        buffer[count++] = byte.toByte()
+    }
+
+    override fun write(data: ByteArray) {
+        write(data, 0, data.size())
+    }
+
+    @Synchronized
+    override fun write(data: ByteArray, offset: Int, length: Int) {
+        if (length >= buffer.size()) {
+            sendBuffer()
+            send(data, offset, length)
+            return
+        }
+        if (length > buffer.size() - count) {
+            sendBuffer()
+        }
+        markWrite()
+        System.arraycopy(data, offset, buffer, count, length)
+        count += length
+    }
+
+    @Synchronized
+    override fun flush() {
+        sendBuffer()
+    }
+
+    @Synchronized
+    override fun close() {
+        flushTask.cancel()
+        sendBuffer()
+    }
+
+    @Synchronized
+    private fun flushIfStale() {
+        if (count > 0 && System.currentTimeMillis() - oldestWriteTime >= flushIntervalMs) {
+            sendBuffer()
+        }
+    }
+
+    private fun markWrite() {
+        if (count == 0) {
+            oldestWriteTime = System.currentTimeMillis()
+        }
+    }
+
+    private fun sendBuffer() {
+        if (count > 0) {
+            send(buffer, 0, count)
+            count = 0
+        }
+    }
+
+    private fun send(data: ByteArray, offset: Int, length: Int) {
+        profiler.withMeasure(this) { remote.write(data, offset, length) }
+    }
+
+    companion object {
+        private val flushTimer = Timer("remote output stream flush", true)
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.rmi.service
+
+import org.jetbrains.kotlin.rmi.usedMemory
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+val COMPILATION_ADMISSION_RECHECK_INTERVAL_MS = 1000L
+
+/**
+ * Decides when a compilation session may start on the daemon.
+ *
+ * A session is always admitted when no other session is running. Otherwise it is admitted if there are less than [maxSessions]
+ * sessions and the free heap, computed from [usedMemory], is enough for one more session. The memory a session needs is estimated
+ * from the growth of used memory during the sessions completed so far, starting with a quarter of the heap.
+ * Sessions which are not admitted wait until another session completes.
+ */
+class CompilationAdmission(
+        val maxSessions: Int,
+        private val maxMemory: Long = Runtime.getRuntime().maxMemory(),
+        private val currentUsedMemory: () -> Long = { usedMemory(withGC = false) }
+) {
+    private val lock = ReentrantLock()
+    private val sessionCompleted = lock.newCondition()
+
+    private var activeSessions = 0
+    private var sessionMemoryEstimate = maxMemory / 4
+
+    val active: Int get() = lock.withLock { activeSessions }
+
+    val memoryEstimate: Long get() = lock.withLock { sessionMemoryEstimate }
+
+    fun<R> withAdmission(body: () -> R): R {
+        val memoryBefore = admit()
+        try {
+            return body()
+        }
+        finally {
+            release(currentUsedMemory() - memoryBefore)
+        }
+    }
+
+    private fun admit(): Long = lock.withLock {
+        while (!canAdmit()) {
+            sessionCompleted.await(COMPILATION_ADMISSION_RECHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)
+        }
+        activeSessions++
+        currentUsedMemory()
+    }
+
+    private fun canAdmit(): Boolean {
+        if (activeSessions == 0) return true
+        if (activeSessions >= maxSessions) return false
+        return maxMemory - currentUsedMemory() >= sessionMemoryEstimate
+    }
+
+    private fun release(memoryGrowth: Long) {
+        lock.withLock {
+            activeSessions--
+            // used memory is shared by concurrent sessions and may drop due to GC, so the estimate is only smoothed towards the new value
+            if (memoryGrowth > 0) {
+                sessionMemoryEstimate = Math.max((sessionMemoryEstimate + memoryGrowth) / 2, maxMemory / 16)
+            }
+            sessionCompleted.signalAll()
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.rmi.service
+
+import org.jetbrains.kotlin.progress.CompilationPhase
+import org.jetbrains.kotlin.progress.CompilationPhaseListener
+import org.jetbrains.kotlin.rmi.*
+import java.lang.management.ManagementFactory
+import java.util.EnumMap
+
+/**
+ * Collects metrics of one compilation session: of the session as a whole and of the phases reported by the compiler.
+ * Should be created on the thread running the compilation, CPU time and allocations are measured for this thread.
+ */
+class CompilationMetricsCollector : CompilationPhaseListener {
+    private val threadMXBean = ManagementFactory.getThreadMXBean()
+
+    private inner class Snapshot {
+        val time = System.nanoTime()
+        val threadTime = threadMXBean.threadCpuTime()
+        val threadUserTime = threadMXBean.threadUserTime()
+        val allocatedBytes = threadAllocatedBytes()
+
+        fun measureSince(start: Snapshot, counters: PerfCounters) {
+            counters.addMeasurement(time = time - start.time,
+                                    thread = threadTime - start.threadTime,
+                                    threadUser = threadUserTime - start.threadUserTime,
+                                    memory = allocatedBytes - start.allocatedBytes)
+        }
+    }
+
+    private val startTimeMillis = System.currentTimeMillis()
+    private val start = Snapshot()
+    private val startGcCount = gcCount()
+    private val startGcTimeMillis = gcTimeMillis()
+
+    private val phaseStarts = EnumMap<CompilationPhase, Snapshot>(CompilationPhase::class.java)
+    // memory of the counters is the number of allocated bytes
+    private val phaseCounters = EnumMap<CompilationPhase, PerfCounters>(CompilationPhase::class.java)
+
+    @Synchronized
+    override fun phaseStarted(phase: CompilationPhase) {
+        phaseStarts[phase] = Snapshot()
+    }
+
+    @Synchronized
+    override fun phaseFinished(phase: CompilationPhase) {
+        val phaseStart = phaseStarts.remove(phase) ?: return
+        Snapshot().measureSince(phaseStart, phaseCounters.getOrPut(phase) { SimplePerfCounters() })
+    }
+
+    @Synchronized
+    fun finish(exitCode: Int): CompilationSessionMetrics {
+        val total = SimplePerfCounters()
+        Snapshot().measureSince(start, total)
+        return CompilationSessionMetrics(
+                startTimeMillis = startTimeMillis,
+                exitCode = exitCode,
+                wallNanos = total.time,
+                cpuNanos = total.threadTime,
+                allocatedBytes = total.memory,
+                gcCount = gcCount() - startGcCount,
+                gcTimeMillis = gcTimeMillis() - startGcTimeMillis,
+                heapUsedAfter = usedMemory(withGC = false),
+                phases = phaseCounters.map { PhaseMetrics(it.key.name(), it.value.count, it.value.time, it.value.threadTime, it.value.memory) }
+        )
+    }
+}
@@ -19,16 +19,19 @@ package org.jetbrains.kotlin.rmi.service
 import org.jetbrains.kotlin.cli.common.CLICompiler
 import org.jetbrains.kotlin.cli.common.ExitCode
 import org.jetbrains.kotlin.config.Services
+import org.jetbrains.kotlin.load.kotlin.LibraryKotlinClassCache
 import org.jetbrains.kotlin.load.kotlin.incremental.components.IncrementalCompilationComponents
 import org.jetbrains.kotlin.progress.CompilationCanceledStatus
+import org.jetbrains.kotlin.progress.CompilationPhaseListener
 import org.jetbrains.kotlin.rmi.*
-import java.io.BufferedOutputStream
 import java.io.PrintStream
+import java.lang.management.ManagementFactory
 import java.rmi.NoSuchObjectException
 import java.rmi.registry.Registry
 import java.rmi.server.UnicastRemoteObject
 import java.util.*
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
 import java.util.concurrent.locks.ReentrantReadWriteLock
 import java.util.logging.Logger
 import kotlin.concurrent.read
@@ -37,6 +40,8 @@ import kotlin.concurrent.schedule
 
 val DAEMON_SHUTDOWN_DELAY_MS = 1000L
 
+val DAEMON_METRICS_HISTORY_SIZE = 100
+
 fun nowSeconds() = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime())
 
 interface CompilerSelector {
@@ -57,11 +62,27 @@ class CompileServiceImpl(
 
     override fun getUsedMemory(): Long = ifAlive { usedMemory(withGC = true) }
 
+    override fun getMetrics(): DaemonMetrics = ifAlive {
+        DaemonMetrics(
+                uptimeMillis = ManagementFactory.getRuntimeMXBean().uptime,
+                compilations = compilationsCount.get(),
+                activeCompilations = admission.active,
+                heapUsed = usedMemory(withGC = false),
+                heapMax = Runtime.getRuntime().maxMemory(),
+                gcCount = gcCount(),
+                gcTimeMillis = gcTimeMillis(),
+                rpcCalls = rpcCalls.get(),
+                rpcNanos = rpcNanos.get(),
+                recentSessions = synchronized(recentSessions) { recentSessions.toList() })
+    }
+
     override fun shutdown() {
         ifAliveExclusive {
             log.info("Shutdown started")
             alive = false
             UnicastRemoteObject.unexportObject(this, true)
+            LibraryKotlinClassCache.isEnabled = false
+            LibraryKotlinClassCache.clear()
             log.info("Shutdown complete")
             if (System.getProperty(COMPILE_DAEMON_FORCE_SHUTDOWN_PROPERTY) != null) {
                 // running a watcher thread that ensures that if the daemon is not exited normally (may be due to RMI leftovers), it's forced to exit
@@ -80,10 +101,12 @@ class CompileServiceImpl(
                                compilerOutputStream: RemoteOutputStream,
                                outputFormat: CompileService.OutputFormat, serviceOutputStream: RemoteOutputStream
     ): Int =
-            doCompile(args, compilerOutputStream, serviceOutputStream) { printStream, profiler ->
+            doCompile(args, compilerOutputStream, serviceOutputStream) { printStream, profiler, phaseListener ->
                 when (outputFormat) {
-                    CompileService.OutputFormat.PLAIN -> compiler[targetPlatform].exec(printStream, *args)
-                    CompileService.OutputFormat.XML -> compiler[targetPlatform].execAndOutputXml(printStream, createCompileServices(servicesFacade, profiler), *args)
+                    CompileService.OutputFormat.PLAIN -> compiler[targetPlatform].exec(printStream, createPlainCompileServices(phaseListener), *args)
+                    CompileService.OutputFormat.XML -> withCompileServices(servicesFacade, profiler, phaseListener) {
+                        compiler[targetPlatform].execAndOutputXml(printStream, it, *args)
+                    }
                 }
             }
 
@@ -94,10 +117,12 @@ class CompileServiceImpl(
                                           compilerOutputFormat: CompileService.OutputFormat,
                                           serviceOutputStream: RemoteOutputStream
     ): Int =
-            doCompile(args, compilerOutputStream, serviceOutputStream) { printStream, profiler ->
+            doCompile(args, compilerOutputStream, serviceOutputStream) { printStream, profiler, phaseListener ->
                 when (compilerOutputFormat) {
                     CompileService.OutputFormat.PLAIN -> throw NotImplementedError("Only XML output is supported in remote incremental compilation")
-                    CompileService.OutputFormat.XML -> compiler[targetPlatform].execAndOutputXml(printStream, createCompileServices(servicesFacade, profiler), *args)
+                    CompileService.OutputFormat.XML -> withCompileServices(servicesFacade, profiler, phaseListener) {
+                        compiler[targetPlatform].execAndOutputXml(printStream, it, *args)
+                    }
                 }
             }
 
@@ -111,6 +136,17 @@ class CompileServiceImpl(
     private val rwlock = ReentrantReadWriteLock()
     private var alive = false
 
+    // each compilation session creates its own environment and disposes it when done, so sessions may run concurrently,
+    // sharing only the read-only library caches
+    private val admission = CompilationAdmission(
+            if (daemonOptions.maxParallelCompilations > 0) daemonOptions.maxParallelCompilations
+            else Runtime.getRuntime().availableProcessors())
+
+    private val compilationsCount = AtomicLong()
+    private val rpcCalls = AtomicLong()
+    private val rpcNanos = AtomicLong()
+    private val recentSessions = ArrayDeque<CompilationSessionMetrics>()
+
     // TODO: consider matching compilerId coming from outside with actual one
     //    private val selfCompilerId by lazy {
     //        CompilerId(
@@ -137,35 +173,96 @@ class CompileServiceImpl(
         val stub = UnicastRemoteObject.exportObject(this, port, LoopbackNetworkInterface.clientLoopbackSocketFactory, LoopbackNetworkInterface.serverLoopbackSocketFactory) as CompileService
         registry.rebind (COMPILER_SERVICE_RMI_NAME, stub);
         alive = true
+
+        // library jars are mostly the same from one compilation to another, so the daemon keeps what was read from them
+        LibraryKotlinClassCache.isEnabled = true
     }
 
-    private fun doCompile(args: Array<out String>, compilerMessagesStreamProxy: RemoteOutputStream, serviceOutputStreamProxy: RemoteOutputStream, body: (PrintStream, Profiler) -> ExitCode): Int =
-            ifAlive {
-                val rpcProfiler = if (daemonOptions.reportPerf) WallAndThreadTotalProfiler() else DummyProfiler()
-                val compilerMessagesStream = PrintStream(BufferedOutputStream(RemoteOutputStreamClient(compilerMessagesStreamProxy, rpcProfiler), 4096))
-                val serviceOutputStream = PrintStream(BufferedOutputStream(RemoteOutputStreamClient(serviceOutputStreamProxy, rpcProfiler), 4096))
-                try {
-                    checkedCompile(args, serviceOutputStream, rpcProfiler) {
-                        val res = body(compilerMessagesStream, rpcProfiler).code
-                        _lastUsedSeconds = nowSeconds()
-                        res
+    private fun doCompile(
+            args: Array<out String>,
+            compilerMessagesStreamProxy: RemoteOutputStream,
+            serviceOutputStreamProxy: RemoteOutputStream,
+            body: (PrintStream, Profiler, CompilationPhaseListener) -> ExitCode
+    ): Int =
+            // the read lock is only taken once the session is admitted: waiting for admission under it would block shutdown
+            admission.withAdmission {
+                ifAlive {
+                    // wall time of callbacks is always measured for metrics
+                    val rpcProfiler = if (daemonOptions.reportPerf) WallAndThreadTotalProfiler() else WallTotalProfiler()
+                    val compilerMessagesStream = PrintStream(BatchingRemoteOutputStreamClient(compilerMessagesStreamProxy, rpcProfiler))
+                    val serviceOutputStream = PrintStream(BatchingRemoteOutputStreamClient(serviceOutputStreamProxy, rpcProfiler))
+                    try {
+                        LibraryKotlinClassCache.startCompilation()
+                        val metrics = CompilationMetricsCollector()
+                        var exitCode = ExitCode.INTERNAL_ERROR.code
+                        try {
+                            checkedCompile(args, serviceOutputStream, rpcProfiler) {
+                                exitCode = body(compilerMessagesStream, rpcProfiler, metrics).code
+                                _lastUsedSeconds = nowSeconds()
+                                exitCode
+                            }
+                        }
+                        finally {
+                            recordSession(metrics.finish(exitCode), rpcProfiler)
+                            releaseLibraryCacheIfLowOnMemory()
+                        }
+                    }
+                    finally {
+                        // closing sends the rest of the output, the remote streams stay open
+                        serviceOutputStream.close()
+                        compilerMessagesStream.close()
                     }
-                }
-                finally {
-                    serviceOutputStream.flush()
-                    compilerMessagesStream.flush()
                 }
             }
 
-    private fun createCompileServices(facade: CompilerCallbackServicesFacade, rpcProfiler: Profiler): Services {
+    private fun recordSession(session: CompilationSessionMetrics, rpcProfiler: Profiler) {
+        compilationsCount.incrementAndGet()
+        val rpc = rpcProfiler.getTotalCounters()
+        rpcCalls.addAndGet(rpc.count)
+        rpcNanos.addAndGet(rpc.time)
+        synchronized(recentSessions) {
+            recentSessions.addLast(session)
+            if (recentSessions.size() > DAEMON_METRICS_HISTORY_SIZE) {
+                recentSessions.removeFirst()
+            }
+        }
+    }
+
+    // the library cache only saves time, so it is the first thing to give up when the heap can't fit one more session
+    private fun releaseLibraryCacheIfLowOnMemory() {
+        if (Runtime.getRuntime().maxMemory() - usedMemory(withGC = false) < admission.memoryEstimate) {
+            log.info("Low on memory, clearing library class cache")
+            LibraryKotlinClassCache.clear()
+        }
+    }
+
+    private fun createPlainCompileServices(phaseListener: CompilationPhaseListener): Services =
+            Services.Builder().register(CompilationPhaseListener::class.java, phaseListener).build()
+
+    private fun<R> withCompileServices(
+            facade: CompilerCallbackServicesFacade,
+            rpcProfiler: Profiler,
+            phaseListener: CompilationPhaseListener,
+            body: (Services) -> R
+    ): R {
         val builder = Services.Builder()
-        if (facade.hasIncrementalCaches() || facade.hasLookupTracker()) {
-            builder.register(IncrementalCompilationComponents::class.java, RemoteIncrementalCompilationComponentsClient(facade, rpcProfiler))
+        builder.register(CompilationPhaseListener::class.java, phaseListener)
+        val incrementalCompilationComponents =
+                if (facade.hasIncrementalCaches() || facade.hasLookupTracker()) RemoteIncrementalCompilationComponentsClient(facade, rpcProfiler)
+                else null
+        if (incrementalCompilationComponents != null) {
+            builder.register(IncrementalCompilationComponents::class.java, incrementalCompilationComponents)
         }
         if (facade.hasCompilationCanceledStatus()) {
             builder.register(CompilationCanceledStatus::class.java, RemoteCompilationCanceledStatusClient(facade, rpcProfiler))
         }
-        return builder.build()
+        try {
+            return body(builder.build())
+        }
+        finally {
+            // send the rest of batched lookups and inline registrations
+            incrementalCompilationComponents?.flush()
+        }
     }
 
 
@@ -21,13 +21,30 @@ import org.jetbrains.kotlin.load.kotlin.incremental.components.JvmPackagePartPro
 import org.jetbrains.kotlin.modules.TargetId
 import org.jetbrains.kotlin.rmi.CompilerCallbackServicesFacade
 import org.jetbrains.kotlin.rmi.DummyProfiler
+import org.jetbrains.kotlin.rmi.InlineRegistration
 import org.jetbrains.kotlin.rmi.Profiler
+import java.util.ArrayList
 
-public class RemoteIncrementalCacheClient(val facade: CompilerCallbackServicesFacade, val target: TargetId, val profiler: Profiler = DummyProfiler()): IncrementalCache {
+val INLINE_REGISTRATION_BATCH_SIZE = 1000
 
-    override fun getObsoletePackageParts(): Collection<String> = profiler.withMeasure(this) { facade.incrementalCache_getObsoletePackageParts(target) }
+// inline registrations are sent in batches of [batchSize], the rest is sent on [flush] or [close]
+// obsolete parts and classes don't change during a compilation, so they are requested once
+public class RemoteIncrementalCacheClient(
+        val facade: CompilerCallbackServicesFacade,
+        val target: TargetId,
+        val profiler: Profiler = DummyProfiler(),
+        val batchSize: Int = INLINE_REGISTRATION_BATCH_SIZE
+): IncrementalCache {
 
-    override fun getObsoleteMultifileClasses(): Collection<String> = profiler.withMeasure(this) { facade.incrementalCache_getObsoleteMultifileClassFacades(target) }
+    private val obsoletePackageParts by lazy { profiler.withMeasure(this) { facade.incrementalCache_getObsoletePackageParts(target) } }
+
+    private val obsoleteMultifileClasses by lazy { profiler.withMeasure(this) { facade.incrementalCache_getObsoleteMultifileClassFacades(target) } }
+
+    private var pendingInlines = ArrayList<InlineRegistration>()
+
+    override fun getObsoletePackageParts(): Collection<String> = obsoletePackageParts
+
+    override fun getObsoleteMultifileClasses(): Collection<String> = obsoleteMultifileClasses
 
     override fun getStableMultifileFacadeParts(facadeInternalName: String): Collection<String>? = profiler.withMeasure(this) { facade.incrementalCache_getMultifileFacadeParts(target, facadeInternalName) }
 
@@ -38,10 +55,35 @@ public class RemoteIncrementalCacheClient(val facade: CompilerCallbackServicesFa
     override fun getModuleMappingData(): ByteArray? = profiler.withMeasure(this) { facade.incrementalCache_getModuleMappingData(target) }
 
     override fun registerInline(fromPath: String, jvmSignature: String, toPath: String) {
-        profiler.withMeasure(this) { facade.incrementalCache_registerInline(target, fromPath, jvmSignature, toPath) }
+        val batch = synchronized(this) {
+            pendingInlines.add(InlineRegistration(fromPath, jvmSignature, toPath))
+            if (pendingInlines.size() < batchSize) return
+            takePendingInlines()
+        }
+        sendInlines(batch)
     }
 
     override fun getClassFilePath(internalClassName: String): String = profiler.withMeasure(this) { facade.incrementalCache_getClassFilePath(target,internalClassName) }
 
-    override fun close(): Unit = profiler.withMeasure(this) { facade.incrementalCache_close(target) }
+    override fun close() {
+        flush()
+        profiler.withMeasure(this) { facade.incrementalCache_close(target) }
+    }
+
+    fun flush() {
+        val batch = synchronized(this) { takePendingInlines() }
+        if (batch.isNotEmpty()) {
+            sendInlines(batch)
+        }
+    }
+
+    private fun takePendingInlines(): List<InlineRegistration> {
+        val batch = pendingInlines
+        pendingInlines = ArrayList<InlineRegistration>()
+        return batch
+    }
+
+    private fun sendInlines(batch: List<InlineRegistration>) {
+        profiler.withMeasure(this) { facade.incrementalCache_registerInlines(target, batch) }
+    }
 }
@@ -23,11 +23,27 @@ import org.jetbrains.kotlin.modules.TargetId
 import org.jetbrains.kotlin.rmi.CompilerCallbackServicesFacade
 import org.jetbrains.kotlin.rmi.DummyProfiler
 import org.jetbrains.kotlin.rmi.Profiler
+import java.util.HashMap
 
 
+// the clients are shared during a compilation, so that their batched calls are sent together by [flush]
 class RemoteIncrementalCompilationComponentsClient(val facade: CompilerCallbackServicesFacade, val profiler: Profiler = DummyProfiler()) : IncrementalCompilationComponents {
 
-    override fun getIncrementalCache(target: TargetId): IncrementalCache = RemoteIncrementalCacheClient(facade, target, profiler)
+    private val incrementalCaches = HashMap<TargetId, RemoteIncrementalCacheClient>()
 
-    override fun getLookupTracker(): LookupTracker = RemoteLookupTrackerClient(facade, profiler)
+    private var lookupTracker: RemoteLookupTrackerClient? = null
+
+    override fun getIncrementalCache(target: TargetId): IncrementalCache = synchronized(incrementalCaches) {
+        incrementalCaches.getOrPut(target) { RemoteIncrementalCacheClient(facade, target, profiler) }
+    }
+
+    @Synchronized
+    override fun getLookupTracker(): LookupTracker {
+        return lookupTracker ?: RemoteLookupTrackerClient(facade, profiler).let { lookupTracker = it; it }
+    }
+
+    fun flush() {
+        synchronized(incrementalCaches) { incrementalCaches.values().toList() }.forEach { it.flush() }
+        synchronized(this) { lookupTracker }?.flush()
+    }
 }
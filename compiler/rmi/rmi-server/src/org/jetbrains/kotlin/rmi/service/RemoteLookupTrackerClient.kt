@@ -20,18 +20,48 @@ import org.jetbrains.kotlin.incremental.components.LookupTracker
 import org.jetbrains.kotlin.incremental.components.ScopeKind
 import org.jetbrains.kotlin.rmi.CompilerCallbackServicesFacade
 import org.jetbrains.kotlin.rmi.DummyProfiler
+import org.jetbrains.kotlin.rmi.LookupRecord
 import org.jetbrains.kotlin.rmi.Profiler
+import java.util.ArrayList
 
+val LOOKUP_TRACKER_BATCH_SIZE = 1000
 
-class RemoteLookupTrackerClient(val facade: CompilerCallbackServicesFacade, val profiler: Profiler = DummyProfiler()) : LookupTracker {
+// lookups are sent in batches of [batchSize], the rest is sent on [flush]
+class RemoteLookupTrackerClient(
+        val facade: CompilerCallbackServicesFacade,
+        val profiler: Profiler = DummyProfiler(),
+        val batchSize: Int = LOOKUP_TRACKER_BATCH_SIZE
+) : LookupTracker {
 
     private val isDoNothing = profiler.withMeasure(this) { facade.lookupTracker_isDoNothing() }
 
+    private var pending = ArrayList<LookupRecord>()
+
     override fun record(lookupContainingFile: String, lookupLine: Int?, lookupColumn: Int?, scopeFqName: String, scopeKind: ScopeKind, name: String) {
-        if (!isDoNothing) {
-            profiler.withMeasure(this) {
-                facade.lookupTracker_record(lookupContainingFile, lookupLine, lookupColumn, scopeFqName, scopeKind, name)
-            }
+        if (isDoNothing) return
+
+        val batch = synchronized(this) {
+            pending.add(LookupRecord(lookupContainingFile, lookupLine, lookupColumn, scopeFqName, scopeKind, name))
+            if (pending.size() < batchSize) return
+            takePending()
+        }
+        send(batch)
+    }
+
+    fun flush() {
+        val batch = synchronized(this) { takePending() }
+        if (batch.isNotEmpty()) {
+            send(batch)
         }
     }
+
+    private fun takePending(): List<LookupRecord> {
+        val batch = pending
+        pending = ArrayList<LookupRecord>()
+        return batch
+    }
+
+    private fun send(batch: List<LookupRecord>) {
+        profiler.withMeasure(this) { facade.lookupTracker_recordAll(batch) }
+    }
 }
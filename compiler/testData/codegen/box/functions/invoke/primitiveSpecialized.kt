@@ -0,0 +1,26 @@
+// OPT_LEVEL: 3
+
+fun applyInt(f: (Int) -> Int, x: Int) = f(x)
+
+fun compareLongs(f: (Long, Long) -> Int, a: Long, b: Long) = f(a, b)
+
+fun testDouble(f: (Double) -> Boolean, x: Double) = f(x)
+
+class Twice : (Int) -> Int {
+    override fun invoke(x: Int) = x * 2
+}
+
+fun box(): String {
+    if (applyInt({ it + 1 }, 1) != 2) return "fail 1"
+    if (applyInt(Twice(), 3) != 6) return "fail 2"
+    if (compareLongs({ a, b -> if (a < b) -1 else if (a > b) 1 else 0 }, 1L, 2L) != -1) return "fail 3"
+    if (!testDouble({ it > 0.5 }, 1.0)) return "fail 4"
+
+    val generic: (Any) -> Int = { it.hashCode() }
+    if (applyInt(generic, 42) != 42) return "fail 5"
+
+    val nullable: (Int?) -> Int = { it ?: -1 }
+    if (nullable(null) != -1) return "fail 6"
+
+    return "OK"
+}
@@ -0,0 +1,14 @@
+// OPT_LEVEL: 3
+
+fun foo(x: Int): Int {
+    var flags = 4
+    flags = flags or 2
+    if ((flags and 1) != 0) {
+        return x
+    }
+    return -x
+}
+
+// 0 IOR
+// 0 IAND
+// 1 IRETURN
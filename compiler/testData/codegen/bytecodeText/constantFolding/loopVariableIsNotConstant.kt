@@ -0,0 +1,12 @@
+// OPT_LEVEL: 3
+
+fun foo(): Int {
+    var i = 0
+    while (i != 3) {
+        i++
+    }
+    return i
+}
+
+// 1 ICONST_3
+// 1 IRETURN
@@ -0,0 +1,12 @@
+fun foo(x: Int): Int {
+    var flags = 4
+    flags = flags or 2
+    if ((flags and 1) != 0) {
+        return x
+    }
+    return -x
+}
+
+// 1 IOR
+// 1 IAND
+// 2 IRETURN
@@ -0,0 +1,17 @@
+// OPT_LEVEL: 3
+
+fun foo(): String {
+    var kind = 1
+    kind++
+    return when (kind) {
+        1 -> "one"
+        2 -> "two"
+        else -> "many"
+    }
+}
+
+// 0 TABLESWITCH
+// 0 LOOKUPSWITCH
+// 0 LDC "one"
+// 1 LDC "two"
+// 0 LDC "many"
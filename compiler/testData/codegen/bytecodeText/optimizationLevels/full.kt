@@ -0,0 +1,29 @@
+// OPT_LEVEL: 2
+
+inline fun call(f: () -> Unit) {
+    f()
+}
+
+class A(val x: Int) {
+    private fun twice(y: Int) = y * 2
+
+    // the wrapper of a shared var is removed from level 2 on
+    fun shared(): Int {
+        var v = 1
+        call { v = 2 }
+        return v
+    }
+
+    // code after return is removed together with its variable from level 1 on
+    fun dead() {
+        return
+        val xyz = 1
+    }
+
+    // the call of a tiny private method is inlined at level 3
+    fun trivial() = twice(x) + 1
+}
+
+// 0 NEW kotlin/jvm/internal/Ref\$IntRef
+// 0 xyz
+// 1 A\.twice
@@ -0,0 +1,13 @@
+// OPT_LEVEL: 3
+
+fun applyInt(f: (Int) -> Int, x: Int) = f(x)
+
+fun compareLongs(c: (Long, Long) -> Int, a: Long, b: Long) = c(a, b)
+
+fun applyString(f: (String) -> Int, s: String) = f(s)
+
+// 1 INVOKESTATIC kotlin/jvm/internal/PrimitiveFunctions.invokeIntToInt \(Lkotlin/jvm/functions/Function1;I\)I
+// 1 INVOKESTATIC kotlin/jvm/internal/PrimitiveFunctions.invokeLongLongToInt \(Lkotlin/jvm/functions/Function2;JJ\)I
+// 1 INVOKEINTERFACE kotlin/jvm/functions/Function1.invoke
+// 0 INVOKEINTERFACE kotlin/jvm/functions/Function2.invoke
+// 0 valueOf
@@ -0,0 +1,6 @@
+fun applyInt(f: (Int) -> Int, x: Int) = f(x)
+
+val twice = { x: Int -> x * 2 }
+
+// 0 PrimitiveFunctions
+// 1 INVOKEINTERFACE kotlin/jvm/functions/Function1.invoke
@@ -0,0 +1,6 @@
+fun counter(): () -> Int {
+    var count = 0
+    return { ++count }
+}
+
+// 1 NEW kotlin/jvm/internal/Ref\$IntRef
@@ -0,0 +1,16 @@
+fun sum(a: IntArray): Int {
+    var result = 0
+    a.forEach { result += it }
+    return result
+}
+
+fun last(a: Array<String>): String? {
+    var result: String? = null
+    a.forEach { result = it }
+    return result
+}
+
+// 0 IntRef
+// 0 ObjectRef
+// 0 GETFIELD
+// 0 PUTFIELD
@@ -0,0 +1,12 @@
+inline fun call(f: () -> Unit) {
+    f()
+}
+
+fun foo(): Int {
+    var x = 1
+    call { x = 2 }
+    return x
+}
+
+// 0 IntRef
+// 1 LOCALVARIABLE x I
@@ -0,0 +1,7 @@
+class A(val x: Int) {
+    private fun twice(y: Int) = y * 2
+
+    fun foo() = twice(x) + 1
+}
+
+// 1 A\.twice
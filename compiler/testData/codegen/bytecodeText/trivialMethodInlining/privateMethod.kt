@@ -0,0 +1,14 @@
+// OPT_LEVEL: 3
+
+class A(val x: Int) {
+    private fun twice(y: Int) = y * 2
+
+    fun foo() = twice(x) + 1
+
+    fun bar(y: Int) = y * 3
+
+    fun baz() = bar(x)
+}
+
+// 0 A\.twice
+// 1 A\.bar
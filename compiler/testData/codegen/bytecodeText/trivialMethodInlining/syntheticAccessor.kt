@@ -0,0 +1,10 @@
+// OPT_LEVEL: 3
+
+class A {
+    private fun inc(y: Int) = y + 1
+
+    fun lambda(): (Int) -> Int = { inc(it) }
+}
+
+// 0 A\.inc
+// 1 A\.access\$inc
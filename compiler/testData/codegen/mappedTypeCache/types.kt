@@ -0,0 +1,60 @@
+import java.util.ArrayList
+
+interface Source<out T> {
+    fun next(): T
+}
+
+interface Sink<in T> {
+    fun put(value: T)
+}
+
+class Box<T : Comparable<T>>(var value: T) : Source<T> {
+    override fun next(): T = value
+
+    fun <R> map(f: (T) -> R): R = f(value)
+
+    inner class Inner<S>(val s: S) {
+        fun pair(): Array<Any?> = arrayOf(value, s)
+    }
+}
+
+object Primitives {
+    val int: Int = 1
+    val nullableInt: Int? = 2
+    var char: Char = 'c'
+    val longs: LongArray = longArrayOf(1L)
+    val boxedLongs: Array<Long> = arrayOf(1L)
+    val nullableLongs: Array<Long?> = arrayOf(null)
+    val nested: Array<Array<IntArray>> = arrayOf(arrayOf(intArrayOf()))
+    val unit: Unit = Unit
+
+    fun nothing(): Nothing = throw AssertionError()
+
+    fun nullableNothing(): Nothing? = null
+}
+
+fun copy(from: Source<Number>, to: Sink<Number>) {
+    to.put(from.next())
+}
+
+fun star(box: Box<*>, source: Source<*>, sink: Sink<*>): Any? = box.next() ?: source.next() ?: sink
+
+fun javaTypes(list: ArrayList<String>, map: java.util.HashMap<String, Int?>): MutableList<String> = if (map.isEmpty()) list else ArrayList(list)
+
+fun functions(f: (Int, String?) -> Unit, g: Int.() -> Long, h: () -> Array<String>): ((Int) -> Int)? = null
+
+inline fun <reified T> reified(value: Any): T? = value as? T
+
+fun <T : Comparable<T>> max(a: T, b: T): T = if (a > b) a else b
+
+fun box(): String {
+    val box = Box("O")
+    val inner = box.Inner(42)
+    val lambda = { x: Int -> x.toLong() }
+    val anonymous = object : Sink<String> {
+        override fun put(value: String) {
+        }
+    }
+    anonymous.put(box.map { it + "K" })
+    return if (inner.pair().size == 2 && lambda(1) == 1L && reified<String>("") != null) max("OK", "NO") else "fail"
+}
@@ -0,0 +1,13 @@
+package a
+
+import b.B
+
+class A(val name: String) {
+    fun greet(others: List<B>): List<String> = others.map { "$name greets ${it.name}" }
+
+    inner class Inner {
+        fun outerName() = name
+    }
+}
+
+fun increment(x: Int) = run { x + 1 }
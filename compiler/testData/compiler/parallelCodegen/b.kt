@@ -0,0 +1,10 @@
+package b
+
+data class B(val name: String)
+
+enum class Color { RED, GREEN }
+
+fun colorName(color: Color): String = when (color) {
+    Color.RED -> "red"
+    Color.GREEN -> "green"
+}
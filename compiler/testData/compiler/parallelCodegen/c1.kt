@@ -0,0 +1,4 @@
+@file:[JvmName("Utils") JvmMultifileClass]
+package c
+
+fun greetAll(): List<String> = a.A("c").greet(listOf(b.B("one"), b.B("two")))
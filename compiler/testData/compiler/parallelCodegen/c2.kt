@@ -0,0 +1,6 @@
+@file:[JvmName("Utils") JvmMultifileClass]
+package c
+
+fun startLater(body: () -> Unit): Thread = Thread(body)
+
+val colors = b.Color.values().map { b.colorName(it) }
@@ -0,0 +1,20 @@
+package d
+
+interface Named {
+    val name: String
+    fun describe() = "named $name"
+}
+
+object Registry : Named {
+    override val name = "registry"
+    val sizes: Map<String, Int> by lazy { mapOf("a" to 1, "b" to 2) }
+}
+
+fun runnable(body: () -> Unit): Runnable = Runnable(body)
+
+fun colorCode(color: b.Color): Int = when (color) {
+    b.Color.RED -> 1
+    b.Color.GREEN -> 2
+}
+
+fun printer(): Runnable = e.repeating(2) { System.out.println(it) }
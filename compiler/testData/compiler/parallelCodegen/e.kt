@@ -0,0 +1,8 @@
+package e
+
+inline fun repeating(times: Int, crossinline body: (Int) -> Unit): Runnable = object : Runnable {
+    override fun run() {
+        var i = 0
+        while (i < times) body(i++)
+    }
+}
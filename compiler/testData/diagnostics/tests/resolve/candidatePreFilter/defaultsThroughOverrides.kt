@@ -0,0 +1,26 @@
+// !DIAGNOSTICS: -UNUSED_PARAMETER
+
+interface I {
+    fun foo(x: Int, y: String = ""): Int
+}
+
+open class Base {
+    open fun bar(x: Int = 0, y: Int = 1): Int = 0
+}
+
+open class Derived : Base(), I {
+    override fun foo(x: Int, y: String): Int = 0
+    override fun bar(x: Int, y: Int): Int = 1
+}
+
+class Leaf : Derived()
+
+// Chosen instead of the members if those are dropped by mistake
+fun I.foo(x: Int, y: String = ""): String = ""
+fun Base.bar(x: Int = 0, y: Int = 1): String = ""
+
+fun test1(d: Derived): Int = d.foo(1)
+fun test2(d: Derived): Int = d.bar()
+fun test3(l: Leaf): Int = l.foo(1)
+fun test4(l: Leaf): Int = l.bar(2)
+fun test5(l: Leaf): Int = l.bar(y = 3)
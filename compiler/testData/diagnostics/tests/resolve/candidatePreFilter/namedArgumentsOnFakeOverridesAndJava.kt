@@ -0,0 +1,34 @@
+// !DIAGNOSTICS: -UNUSED_PARAMETER
+// FILE: J.java
+
+public class J {
+    public int foo(int javaName) {
+        return 0;
+    }
+}
+
+// FILE: 1.kt
+
+interface A {
+    fun foo(a1: Int, a2: Double): Int
+}
+
+interface B {
+    fun foo(b1: Int, b2: Double): Int
+}
+
+<!DIFFERENT_NAMES_FOR_THE_SAME_PARAMETER_IN_SUPERTYPES, DIFFERENT_NAMES_FOR_THE_SAME_PARAMETER_IN_SUPERTYPES!>interface C<!> : A, B {
+    fun foo(c1: Int): String
+}
+
+class K : J()
+
+// Chosen instead of the members if those are dropped by mistake
+fun C.foo(a1: Int, a2: Double): String = ""
+fun J.foo(javaName: Int): String = ""
+
+fun test1(c: C): Int = c.foo(<!NAME_FOR_AMBIGUOUS_PARAMETER!>a1<!> = 1, <!NAME_FOR_AMBIGUOUS_PARAMETER!>a2<!> = 1.0)
+fun test2(c: C): Int = c.foo(<!NAME_FOR_AMBIGUOUS_PARAMETER!>b1<!> = 1, <!NAME_FOR_AMBIGUOUS_PARAMETER!>b2<!> = 1.0)
+fun test3(c: C): String = c.foo(c1 = 1)
+fun test4(j: J): Int = j.foo(<!NAMED_ARGUMENTS_NOT_ALLOWED!>javaName<!> = 1)
+fun test5(k: K): Int = k.foo(<!NAMED_ARGUMENTS_NOT_ALLOWED!>javaName<!> = 2)
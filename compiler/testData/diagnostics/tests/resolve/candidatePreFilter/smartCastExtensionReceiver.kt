@@ -0,0 +1,13 @@
+interface A
+interface B
+
+// The more specific extensions are only applicable through a smart cast
+fun A.foo(): Int = 0
+fun Any.foo(): String = ""
+
+fun B.baz(x: Int): Int = x
+fun Any.baz(x: Any): String = ""
+
+fun test1(x: Any): Int = if (x is A) <!DEBUG_INFO_SMARTCAST!>x<!>.foo() else 0
+fun test2(x: A?): Int = if (x != null) <!DEBUG_INFO_SMARTCAST!>x<!>.foo() else 0
+fun test3(x: Any): Int = if (x is B) <!DEBUG_INFO_SMARTCAST!>x<!>.baz(1) else 0
@@ -0,0 +1,18 @@
+// !DIAGNOSTICS: -UNUSED_PARAMETER
+
+class Host {
+    fun foo(vararg xs: Int, f: () -> Unit): Int = 0
+    fun bar(vararg xs: String, f: () -> Unit): Int = 0
+    fun baz(x: Int, vararg ys: Int, f: (Int) -> Int): Int = 0
+}
+
+// Chosen instead of the members if those are dropped by mistake
+fun Host.foo(vararg xs: Int, f: () -> Unit): String = ""
+fun Host.bar(vararg xs: String, f: () -> Unit): String = ""
+fun Host.baz(x: Int, vararg ys: Int, f: (Int) -> Int): String = ""
+
+fun test1(h: Host): Int = h.foo(1, 2, 3) { }
+fun test2(h: Host): Int = h.foo { }
+fun test3(h: Host): Int = h.bar("a", "b") { }
+fun test4(h: Host): Int = h.baz(1) { it }
+fun test5(h: Host): Int = h.baz(1, 2, 3, 4) { it }
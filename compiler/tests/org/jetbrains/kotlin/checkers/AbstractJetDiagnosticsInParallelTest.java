@@ -0,0 +1,58 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.checkers;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.cli.jvm.compiler.CliLightClassGenerationSupport;
+import org.jetbrains.kotlin.cli.jvm.compiler.JvmPackagePartProvider;
+import org.jetbrains.kotlin.context.ModuleContext;
+import org.jetbrains.kotlin.psi.KtFile;
+import org.jetbrains.kotlin.resolve.BindingTrace;
+import org.jetbrains.kotlin.resolve.jvm.TopDownAnalyzerFacadeForJVM;
+
+import java.util.List;
+
+/**
+ * Checks diagnostics test data with function bodies resolved by several threads.
+ * The expected data is the one of a sequential run, so any difference caused by the parallel resolve fails the test.
+ */
+public abstract class AbstractJetDiagnosticsInParallelTest extends AbstractJetDiagnosticsTest {
+    private static final int RESOLVE_THREADS = 4;
+
+    @NotNull
+    @Override
+    protected BindingTrace createModuleTrace() {
+        return new CliLightClassGenerationSupport.NoScopeRecordCliBindingTrace(/* allowConcurrentAccess = */ true);
+    }
+
+    @Override
+    protected void analyzeModuleContents(
+            @NotNull ModuleContext moduleContext,
+            @NotNull List<KtFile> jetFiles,
+            @NotNull BindingTrace moduleTrace
+    ) {
+        TopDownAnalyzerFacadeForJVM.analyzeFilesWithJavaIntegrationWithCustomContext(
+                moduleContext,
+                jetFiles,
+                moduleTrace,
+                null,
+                null,
+                new JvmPackagePartProvider(getEnvironment()),
+                RESOLVE_THREADS
+        );
+    }
+}
@@ -122,7 +122,7 @@ public abstract class AbstractJetDiagnosticsTest extends BaseDiagnosticsTest {
             List<KtFile> jetFiles = getJetFiles(testFilesInModule, true);
 
             ModuleDescriptorImpl module = modules.get(testModule);
-            BindingTrace moduleTrace = new CliLightClassGenerationSupport.NoScopeRecordCliBindingTrace();
+            BindingTrace moduleTrace = createModuleTrace();
 
             moduleBindings.put(testModule, moduleTrace.getBindingContext());
 
@@ -232,6 +232,11 @@ public abstract class AbstractJetDiagnosticsTest extends BaseDiagnosticsTest {
         return new File(FileUtil.getNameWithoutExtension(testDataFile.getAbsolutePath()) + ".lazy.log");
     }
 
+    @NotNull
+    protected BindingTrace createModuleTrace() {
+        return new CliLightClassGenerationSupport.NoScopeRecordCliBindingTrace();
+    }
+
     protected void analyzeModuleContents(
             @NotNull ModuleContext moduleContext,
             @NotNull List<KtFile> jetFiles,
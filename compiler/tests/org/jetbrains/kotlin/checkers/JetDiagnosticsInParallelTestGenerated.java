@@ -0,0 +1,1042 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.checkers;
+
+import com.intellij.testFramework.TestDataPath;
+import org.jetbrains.kotlin.test.JUnit3RunnerWithInners;
+import org.jetbrains.kotlin.test.JetTestUtils;
+import org.jetbrains.kotlin.test.TestMetadata;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.regex.Pattern;
+
+/** This class is generated by {@link org.jetbrains.kotlin.generators.tests.TestsPackage}. DO NOT MODIFY MANUALLY */
+@SuppressWarnings("all")
+@RunWith(JUnit3RunnerWithInners.class)
+public class JetDiagnosticsInParallelTestGenerated extends AbstractJetDiagnosticsInParallelTest {
+    @TestMetadata("compiler/testData/diagnostics/tests/controlStructures")
+    @TestDataPath("$PROJECT_ROOT")
+    @RunWith(JUnit3RunnerWithInners.class)
+    public static class ControlStructures extends AbstractJetDiagnosticsInParallelTest {
+        public void testAllFilesPresentInControlStructures() throws Exception {
+            JetTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/diagnostics/tests/controlStructures"), Pattern.compile("^(.+)\\.kt$"), true);
+        }
+
+        @TestMetadata("commonSupertypeOfT.kt")
+        public void testCommonSupertypeOfT() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/commonSupertypeOfT.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("emptyIf.kt")
+        public void testEmptyIf() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/emptyIf.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("forLoopWithNullableRange.kt")
+        public void testForLoopWithNullableRange() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/forLoopWithNullableRange.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("forWithNullableIterator.kt")
+        public void testForWithNullableIterator() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/forWithNullableIterator.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ForWithoutBraces.kt")
+        public void testForWithoutBraces() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/ForWithoutBraces.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ForbidStatementAsDirectFunctionBody.kt")
+        public void testForbidStatementAsDirectFunctionBody() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/ForbidStatementAsDirectFunctionBody.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("improperElseInExpression.kt")
+        public void testImproperElseInExpression() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/improperElseInExpression.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("jumpAcrossFunctionBoundary.kt")
+        public void testJumpAcrossFunctionBoundary() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/jumpAcrossFunctionBoundary.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt1075.kt")
+        public void testKt1075() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/kt1075.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt4310.kt")
+        public void testKt4310() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/kt4310.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt657.kt")
+        public void testKt657() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/kt657.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt770.kt351.kt735_StatementType.kt")
+        public void testKt770_kt351_kt735_StatementType() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/kt770.kt351.kt735_StatementType.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt786.kt")
+        public void testKt786() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/kt786.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt799.kt")
+        public void testKt799() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/kt799.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("lambdasInExclExclAndElvis.kt")
+        public void testLambdasInExclExclAndElvis() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/lambdasInExclExclAndElvis.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("tryReturnType.kt")
+        public void testTryReturnType() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/tryReturnType.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("typeInferenceForExclExcl.kt")
+        public void testTypeInferenceForExclExcl() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/typeInferenceForExclExcl.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("valVarCatchParameter.kt")
+        public void testValVarCatchParameter() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/valVarCatchParameter.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("valVarLoopParameter.kt")
+        public void testValVarLoopParameter() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/valVarLoopParameter.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("when.kt234.kt973.kt")
+        public void testWhen_kt234_kt973() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/controlStructures/when.kt234.kt973.kt");
+            doTest(fileName);
+        }
+    }
+
+    @TestMetadata("compiler/testData/diagnostics/tests/imports")
+    @TestDataPath("$PROJECT_ROOT")
+    @RunWith(JUnit3RunnerWithInners.class)
+    public static class Imports extends AbstractJetDiagnosticsInParallelTest {
+        public void testAllFilesPresentInImports() throws Exception {
+            JetTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/diagnostics/tests/imports"), Pattern.compile("^(.+)\\.kt$"), true);
+        }
+
+        @TestMetadata("AllUnderImportsAmbiguity.kt")
+        public void testAllUnderImportsAmbiguity() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/AllUnderImportsAmbiguity.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("AllUnderImportsLessPriority.kt")
+        public void testAllUnderImportsLessPriority() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/AllUnderImportsLessPriority.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("AllUnderImportsSamePriorityForFunction.kt")
+        public void testAllUnderImportsSamePriorityForFunction() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/AllUnderImportsSamePriorityForFunction.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("AllUnderImportsSamePriorityForProperty.kt")
+        public void testAllUnderImportsSamePriorityForProperty() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/AllUnderImportsSamePriorityForProperty.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("CheckJavaVisibility.kt")
+        public void testCheckJavaVisibility() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/CheckJavaVisibility.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("CheckVisibility.kt")
+        public void testCheckVisibility() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/CheckVisibility.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ClassClash.kt")
+        public void testClassClash() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ClassClash.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ClassClashStarImport.kt")
+        public void testClassClashStarImport() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ClassClashStarImport.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ClassImportsConflicting.kt")
+        public void testClassImportsConflicting() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ClassImportsConflicting.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("CurrentPackageAndAllUnderImport.kt")
+        public void testCurrentPackageAndAllUnderImport() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/CurrentPackageAndAllUnderImport.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("CurrentPackageAndExplicitImport.kt")
+        public void testCurrentPackageAndExplicitImport() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/CurrentPackageAndExplicitImport.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("DefaultImportsPriority.kt")
+        public void testDefaultImportsPriority() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/DefaultImportsPriority.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExplicitImportsAmbiguity.kt")
+        public void testExplicitImportsAmbiguity() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ExplicitImportsAmbiguity.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExplicitImportsUnambiguityForFunction.kt")
+        public void testExplicitImportsUnambiguityForFunction() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ExplicitImportsUnambiguityForFunction.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExplicitPackageImportsAmbiguity.kt")
+        public void testExplicitPackageImportsAmbiguity() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ExplicitPackageImportsAmbiguity.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ImportClassClash.kt")
+        public void testImportClassClash() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ImportClassClash.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ImportFromCompanionObject.kt")
+        public void testImportFromCompanionObject() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ImportFromCompanionObject.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ImportFromCurrentWithDifferentName.kt")
+        public void testImportFromCurrentWithDifferentName() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ImportFromCurrentWithDifferentName.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ImportFromObject.kt")
+        public void testImportFromObject() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ImportFromObject.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ImportFromRootPackage.kt")
+        public void testImportFromRootPackage() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ImportFromRootPackage.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("importFunctionWithAllUnderImport.kt")
+        public void testImportFunctionWithAllUnderImport() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/importFunctionWithAllUnderImport.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("importFunctionWithAllUnderImportAfterNamedImport.kt")
+        public void testImportFunctionWithAllUnderImportAfterNamedImport() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/importFunctionWithAllUnderImportAfterNamedImport.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ImportHidingDefinitionInTheSameFile.kt")
+        public void testImportHidingDefinitionInTheSameFile() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ImportHidingDefinitionInTheSameFile.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ImportObjectAndUseAsSupertype.kt")
+        public void testImportObjectAndUseAsSupertype() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ImportObjectAndUseAsSupertype.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ImportObjectHidesCurrentPackage.kt")
+        public void testImportObjectHidesCurrentPackage() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ImportObjectHidesCurrentPackage.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ImportOverloadFunctions.kt")
+        public void testImportOverloadFunctions() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ImportOverloadFunctions.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ImportProtectedClass.kt")
+        public void testImportProtectedClass() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ImportProtectedClass.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ImportResolutionOrder.kt")
+        public void testImportResolutionOrder() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ImportResolutionOrder.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ImportTwoTimes.kt")
+        public void testImportTwoTimes() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ImportTwoTimes.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ImportTwoTimesStar.kt")
+        public void testImportTwoTimesStar() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ImportTwoTimesStar.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("Imports.kt")
+        public void testImports() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/Imports.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ImportsConflicting.kt")
+        public void testImportsConflicting() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/ImportsConflicting.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("JavaPackageLocalClassNotImported.kt")
+        public void testJavaPackageLocalClassNotImported() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/JavaPackageLocalClassNotImported.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("MalformedImports.kt")
+        public void testMalformedImports() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/MalformedImports.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("NestedClassClash.kt")
+        public void testNestedClassClash() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/NestedClassClash.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("PackageLocalClassNotImported.kt")
+        public void testPackageLocalClassNotImported() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/PackageLocalClassNotImported.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("PackageLocalClassReferencedError.kt")
+        public void testPackageLocalClassReferencedError() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/PackageLocalClassReferencedError.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("PackageVsClass.kt")
+        public void testPackageVsClass() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/PackageVsClass.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("PrivateClassNotImported.kt")
+        public void testPrivateClassNotImported() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/PrivateClassNotImported.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("PrivateClassReferencedError.kt")
+        public void testPrivateClassReferencedError() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/PrivateClassReferencedError.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("propertyClassFileDependencyRecursion.kt")
+        public void testPropertyClassFileDependencyRecursion() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/propertyClassFileDependencyRecursion.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("RenameOnImport.kt")
+        public void testRenameOnImport() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/RenameOnImport.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("StarImportFromObject.kt")
+        public void testStarImportFromObject() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/StarImportFromObject.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("SyntaxError.kt")
+        public void testSyntaxError() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/SyntaxError.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("TopLevelClassVsPackage.kt")
+        public void testTopLevelClassVsPackage() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/TopLevelClassVsPackage.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("WrongImport.kt")
+        public void testWrongImport() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/imports/WrongImport.kt");
+            doTest(fileName);
+        }
+    }
+
+    @TestMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts")
+    @TestDataPath("$PROJECT_ROOT")
+    @RunWith(JUnit3RunnerWithInners.class)
+    public static class NullabilityAndSmartCasts extends AbstractJetDiagnosticsInParallelTest {
+        public void testAllFilesPresentInNullabilityAndSmartCasts() throws Exception {
+            JetTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts"), Pattern.compile("^(.+)\\.kt$"), true);
+        }
+
+        @TestMetadata("AssertNotNull.kt")
+        public void testAssertNotNull() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/AssertNotNull.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("dataFlowInfoAfterExclExcl.kt")
+        public void testDataFlowInfoAfterExclExcl() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/dataFlowInfoAfterExclExcl.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("equalityUnderNotNullCheck.kt")
+        public void testEqualityUnderNotNullCheck() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/equalityUnderNotNullCheck.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("funcLiteralArgsInsideAmbiguity.kt")
+        public void testFuncLiteralArgsInsideAmbiguity() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/funcLiteralArgsInsideAmbiguity.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("funcLiteralArgsInsideUnresolvedFunction.kt")
+        public void testFuncLiteralArgsInsideUnresolvedFunction() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/funcLiteralArgsInsideUnresolvedFunction.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("InfixCallNullability.kt")
+        public void testInfixCallNullability() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/InfixCallNullability.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt1270.kt")
+        public void testKt1270() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/kt1270.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt1680.kt")
+        public void testKt1680() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/kt1680.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt1778.kt")
+        public void testKt1778() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/kt1778.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt2109.kt")
+        public void testKt2109() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/kt2109.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt2125.kt")
+        public void testKt2125() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/kt2125.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt2146.kt")
+        public void testKt2146() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/kt2146.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt2164.kt")
+        public void testKt2164() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/kt2164.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt2176.kt")
+        public void testKt2176() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/kt2176.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt2195.kt")
+        public void testKt2195() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/kt2195.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt2212.kt")
+        public void testKt2212() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/kt2212.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt2216.kt")
+        public void testKt2216() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/kt2216.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt2223.kt")
+        public void testKt2223() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/kt2223.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt2234.kt")
+        public void testKt2234() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/kt2234.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt2336.kt")
+        public void testKt2336() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/kt2336.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt244.kt")
+        public void testKt244() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/kt244.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt362.kt")
+        public void testKt362() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/kt362.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("noSenselessNullOnNullableType.kt")
+        public void testNoSenselessNullOnNullableType() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/noSenselessNullOnNullableType.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("noUnnecessaryNotNullAssertionOnErrorType.kt")
+        public void testNoUnnecessaryNotNullAssertionOnErrorType() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/noUnnecessaryNotNullAssertionOnErrorType.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("NullableNothingIsExactlyNull.kt")
+        public void testNullableNothingIsExactlyNull() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/NullableNothingIsExactlyNull.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("PreferExtensionsOnNullableReceiver.kt")
+        public void testPreferExtensionsOnNullableReceiver() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/PreferExtensionsOnNullableReceiver.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("QualifiedExpressionNullability.kt")
+        public void testQualifiedExpressionNullability() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/QualifiedExpressionNullability.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ReceiverNullability.kt")
+        public void testReceiverNullability() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/ReceiverNullability.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("SenselessNullInWhen.kt")
+        public void testSenselessNullInWhen() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/SenselessNullInWhen.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("senslessComparisonWithNullOnTypeParameters.kt")
+        public void testSenslessComparisonWithNullOnTypeParameters() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/senslessComparisonWithNullOnTypeParameters.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("smartCastReceiverWithGenerics.kt")
+        public void testSmartCastReceiverWithGenerics() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/smartCastReceiverWithGenerics.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("smartCastsAndBooleanExpressions.kt")
+        public void testSmartCastsAndBooleanExpressions() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/nullabilityAndSmartCasts/smartCastsAndBooleanExpressions.kt");
+            doTest(fileName);
+        }
+    }
+
+    @TestMetadata("compiler/testData/diagnostics/tests/overload")
+    @TestDataPath("$PROJECT_ROOT")
+    @RunWith(JUnit3RunnerWithInners.class)
+    public static class Overload extends AbstractJetDiagnosticsInParallelTest {
+        public void testAllFilesPresentInOverload() throws Exception {
+            JetTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/diagnostics/tests/overload"), Pattern.compile("^(.+)\\.kt$"), true);
+        }
+
+        @TestMetadata("ConflictingOverloadsFunsDifferentReturnInClass.kt")
+        public void testConflictingOverloadsFunsDifferentReturnInClass() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/ConflictingOverloadsFunsDifferentReturnInClass.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ConflictingOverloadsFunsDifferentReturnInPackage.kt")
+        public void testConflictingOverloadsFunsDifferentReturnInPackage() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/ConflictingOverloadsFunsDifferentReturnInPackage.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ConflictingOverloadsIdenticalExtFunsInPackage.kt")
+        public void testConflictingOverloadsIdenticalExtFunsInPackage() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/ConflictingOverloadsIdenticalExtFunsInPackage.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ConflictingOverloadsIdenticalFunsInClass.kt")
+        public void testConflictingOverloadsIdenticalFunsInClass() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/ConflictingOverloadsIdenticalFunsInClass.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ConflictingOverloadsIdenticalFunsTPInClass.kt")
+        public void testConflictingOverloadsIdenticalFunsTPInClass() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/ConflictingOverloadsIdenticalFunsTPInClass.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ConflictingOverloadsIdenticalValsInClass.kt")
+        public void testConflictingOverloadsIdenticalValsInClass() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/ConflictingOverloadsIdenticalValsInClass.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ConflictingOverloadsValsDifferentTypeInClass.kt")
+        public void testConflictingOverloadsValsDifferentTypeInClass() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/ConflictingOverloadsValsDifferentTypeInClass.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ConstructorVsFunOverload.kt")
+        public void testConstructorVsFunOverload() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/ConstructorVsFunOverload.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("defaultParameters.kt")
+        public void testDefaultParameters() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/defaultParameters.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("EmptyArgumentListInLambda.kt")
+        public void testEmptyArgumentListInLambda() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/EmptyArgumentListInLambda.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExtFunDifferentReceiver.kt")
+        public void testExtFunDifferentReceiver() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/ExtFunDifferentReceiver.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("FunNoConflictInDifferentPackages.kt")
+        public void testFunNoConflictInDifferentPackages() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/FunNoConflictInDifferentPackages.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt1998.kt")
+        public void testKt1998() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/kt1998.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt2493.kt")
+        public void testKt2493() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/kt2493.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt7068.kt")
+        public void testKt7068() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/kt7068.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt7068_2.kt")
+        public void testKt7068_2() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/kt7068_2.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("OverloadFunRegularAndExt.kt")
+        public void testOverloadFunRegularAndExt() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/OverloadFunRegularAndExt.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("OverloadVarAndFunInClass.kt")
+        public void testOverloadVarAndFunInClass() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/OverloadVarAndFunInClass.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("SyntheticAndNotSynthetic.kt")
+        public void testSyntheticAndNotSynthetic() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/SyntheticAndNotSynthetic.kt");
+            doTest(fileName);
+        }
+    }
+
+    @TestMetadata("compiler/testData/diagnostics/tests/when")
+    @TestDataPath("$PROJECT_ROOT")
+    @RunWith(JUnit3RunnerWithInners.class)
+    public static class When extends AbstractJetDiagnosticsInParallelTest {
+        public void testAllFilesPresentInWhen() throws Exception {
+            JetTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/diagnostics/tests/when"), Pattern.compile("^(.+)\\.kt$"), true);
+        }
+
+        @TestMetadata("AnnotatedWhenStatement.kt")
+        public void testAnnotatedWhenStatement() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/AnnotatedWhenStatement.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("BranchBypassVal.kt")
+        public void testBranchBypassVal() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/BranchBypassVal.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("BranchBypassVar.kt")
+        public void testBranchBypassVar() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/BranchBypassVar.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("BranchFalseBypass.kt")
+        public void testBranchFalseBypass() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/BranchFalseBypass.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("BranchFalseBypassElse.kt")
+        public void testBranchFalseBypassElse() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/BranchFalseBypassElse.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ElseOnNullableEnum.kt")
+        public void testElseOnNullableEnum() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ElseOnNullableEnum.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ElseOnNullableEnumWithSmartCast.kt")
+        public void testElseOnNullableEnumWithSmartCast() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ElseOnNullableEnumWithSmartCast.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("EmptyConditionWithExpression.kt")
+        public void testEmptyConditionWithExpression() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/EmptyConditionWithExpression.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("EmptyConditionWithExpressionEnum.kt")
+        public void testEmptyConditionWithExpressionEnum() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/EmptyConditionWithExpressionEnum.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExhaustiveBoolean.kt")
+        public void testExhaustiveBoolean() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ExhaustiveBoolean.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExhaustiveBooleanBrackets.kt")
+        public void testExhaustiveBooleanBrackets() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ExhaustiveBooleanBrackets.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExhaustiveBooleanComplex.kt")
+        public void testExhaustiveBooleanComplex() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ExhaustiveBooleanComplex.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExhaustiveBooleanNullable.kt")
+        public void testExhaustiveBooleanNullable() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ExhaustiveBooleanNullable.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExhaustiveEnumIs.kt")
+        public void testExhaustiveEnumIs() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ExhaustiveEnumIs.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExhaustiveEnumMixed.kt")
+        public void testExhaustiveEnumMixed() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ExhaustiveEnumMixed.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExhaustiveInitialization.kt")
+        public void testExhaustiveInitialization() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ExhaustiveInitialization.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExhaustiveNullable.kt")
+        public void testExhaustiveNullable() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ExhaustiveNullable.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExhaustivePlatformEnum.kt")
+        public void testExhaustivePlatformEnum() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ExhaustivePlatformEnum.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExhaustivePlatformEnumAnnotated.kt")
+        public void testExhaustivePlatformEnumAnnotated() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ExhaustivePlatformEnumAnnotated.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExhaustivePlatformEnumElse.kt")
+        public void testExhaustivePlatformEnumElse() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ExhaustivePlatformEnumElse.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExhaustivePlatformEnumNull.kt")
+        public void testExhaustivePlatformEnumNull() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ExhaustivePlatformEnumNull.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExhaustivePlatformEnumStatement.kt")
+        public void testExhaustivePlatformEnumStatement() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ExhaustivePlatformEnumStatement.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExhaustiveReturn.kt")
+        public void testExhaustiveReturn() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ExhaustiveReturn.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExhaustiveWithNullabilityCheck.kt")
+        public void testExhaustiveWithNullabilityCheck() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ExhaustiveWithNullabilityCheck.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExhaustiveWithNullabilityCheckBefore.kt")
+        public void testExhaustiveWithNullabilityCheckBefore() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ExhaustiveWithNullabilityCheckBefore.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExhaustiveWithNullabilityCheckBoolean.kt")
+        public void testExhaustiveWithNullabilityCheckBoolean() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ExhaustiveWithNullabilityCheckBoolean.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("ExhaustiveWithNullabilityCheckElse.kt")
+        public void testExhaustiveWithNullabilityCheckElse() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/ExhaustiveWithNullabilityCheckElse.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("kt4434.kt")
+        public void testKt4434() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/kt4434.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("NoElseExpectedUnit.kt")
+        public void testNoElseExpectedUnit() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/NoElseExpectedUnit.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("NoElseNoExpectedType.kt")
+        public void testNoElseNoExpectedType() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/NoElseNoExpectedType.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("NoElseReturnedCoercionToUnit.kt")
+        public void testNoElseReturnedCoercionToUnit() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/NoElseReturnedCoercionToUnit.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("NoElseReturnedFromLambdaExpectedInt.kt")
+        public void testNoElseReturnedFromLambdaExpectedInt() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/NoElseReturnedFromLambdaExpectedInt.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("NoElseReturnedNonUnit.kt")
+        public void testNoElseReturnedNonUnit() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/NoElseReturnedNonUnit.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("NoElseReturnedUnit.kt")
+        public void testNoElseReturnedUnit() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/NoElseReturnedUnit.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("NoElseWhenStatement.kt")
+        public void testNoElseWhenStatement() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/NoElseWhenStatement.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("NonExhaustiveBooleanNullable.kt")
+        public void testNonExhaustiveBooleanNullable() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/NonExhaustiveBooleanNullable.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("NonExhaustivePlatformEnum.kt")
+        public void testNonExhaustivePlatformEnum() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/NonExhaustivePlatformEnum.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("NonExhaustiveWarning.kt")
+        public void testNonExhaustiveWarning() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/NonExhaustiveWarning.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("NonExhaustiveWarningElse.kt")
+        public void testNonExhaustiveWarningElse() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/NonExhaustiveWarningElse.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("NonExhaustiveWarningFalse.kt")
+        public void testNonExhaustiveWarningFalse() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/NonExhaustiveWarningFalse.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("NonExhaustiveWarningNull.kt")
+        public void testNonExhaustiveWarningNull() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/NonExhaustiveWarningNull.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("NonExhaustiveWithNullabilityCheck.kt")
+        public void testNonExhaustiveWithNullabilityCheck() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/NonExhaustiveWithNullabilityCheck.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("PropertyNotInitialized.kt")
+        public void testPropertyNotInitialized() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/PropertyNotInitialized.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("When.kt")
+        public void testWhen() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/when/When.kt");
+            doTest(fileName);
+        }
+    }
+}
@@ -12861,6 +12861,39 @@ public class JetDiagnosticsTestGenerated extends AbstractJetDiagnosticsTest {
                 doTest(fileName);
             }
 
+            @TestMetadata("compiler/testData/diagnostics/tests/resolve/candidatePreFilter")
+            @TestDataPath("$PROJECT_ROOT")
+            @RunWith(JUnit3RunnerWithInners.class)
+            public static class CandidatePreFilter extends AbstractJetDiagnosticsTest {
+                public void testAllFilesPresentInCandidatePreFilter() throws Exception {
+                    JetTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/diagnostics/tests/resolve/candidatePreFilter"), Pattern.compile("^(.+)\\.kt$"), true);
+                }
+
+                @TestMetadata("defaultsThroughOverrides.kt")
+                public void testDefaultsThroughOverrides() throws Exception {
+                    String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/resolve/candidatePreFilter/defaultsThroughOverrides.kt");
+                    doTest(fileName);
+                }
+
+                @TestMetadata("namedArgumentsOnFakeOverridesAndJava.kt")
+                public void testNamedArgumentsOnFakeOverridesAndJava() throws Exception {
+                    String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/resolve/candidatePreFilter/namedArgumentsOnFakeOverridesAndJava.kt");
+                    doTest(fileName);
+                }
+
+                @TestMetadata("smartCastExtensionReceiver.kt")
+                public void testSmartCastExtensionReceiver() throws Exception {
+                    String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/resolve/candidatePreFilter/smartCastExtensionReceiver.kt");
+                    doTest(fileName);
+                }
+
+                @TestMetadata("varargAndTrailingLambda.kt")
+                public void testVarargAndTrailingLambda() throws Exception {
+                    String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/resolve/candidatePreFilter/varargAndTrailingLambda.kt");
+                    doTest(fileName);
+                }
+            }
+
             @TestMetadata("compiler/testData/diagnostics/tests/resolve/invoke")
             @TestDataPath("$PROJECT_ROOT")
             @RunWith(JUnit3RunnerWithInners.class)
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.cli.jvm
+
+import junit.framework.TestCase
+import org.jetbrains.kotlin.cli.jvm.compiler.JvmDependenciesIndexSnapshot
+import org.jetbrains.kotlin.test.JetTestUtils
+import java.io.File
+import java.io.FileOutputStream
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+public class JvmDependenciesIndexSnapshotTest : TestCase() {
+    public fun testPackagesOfJars() {
+        val tmpdir = JetTestUtils.tmpDirForTest(this)
+        val first = createJar(File(tmpdir, "first.jar"), "a/b/C.class", "a/D.class", "META-INF/MANIFEST.MF")
+        val second = createJar(File(tmpdir, "second.jar"), "a/E.class", "x/y/z/")
+
+        val snapshot = JvmDependenciesIndexSnapshot.loadOrBuild(File(tmpdir, "cache"), listOf(first, second))!!
+
+        assertJars(snapshot, "a", true, true)
+        assertJars(snapshot, "a.b", true, false)
+        assertJars(snapshot, "x.y", false, true)
+        assertJars(snapshot, "x.y.z", false, true)
+        assertEquals(-1, snapshot.findPackage("b"))
+        assertEquals(-1, snapshot.findPackage("a.b.C"))
+    }
+
+    public fun testSnapshotIsRebuiltWhenJarChanges() {
+        val tmpdir = JetTestUtils.tmpDirForTest(this)
+        val cacheDir = File(tmpdir, "cache")
+        val jar = createJar(File(tmpdir, "lib.jar"), "a/A.class")
+
+        assertTrue(JvmDependenciesIndexSnapshot.loadOrBuild(cacheDir, listOf(jar))!!.findPackage("a") >= 0)
+        assertEquals(1, cacheDir.listFiles()!!.size())
+
+        createJar(jar, "b/B.class", "b/c/C.class")
+        jar.setLastModified(jar.lastModified() + 2000)
+
+        val snapshot = JvmDependenciesIndexSnapshot.loadOrBuild(cacheDir, listOf(jar))!!
+        assertEquals(-1, snapshot.findPackage("a"))
+        assertJars(snapshot, "b.c", true)
+    }
+
+    public fun testTruncatedSnapshotIsRebuilt() {
+        val tmpdir = JetTestUtils.tmpDirForTest(this)
+        val cacheDir = File(tmpdir, "cache")
+        val jars = listOf(createJar(File(tmpdir, "first.jar"), "a/b/C.class"), createJar(File(tmpdir, "second.jar"), "x/Y.class"))
+
+        JvmDependenciesIndexSnapshot.loadOrBuild(cacheDir, jars)!!
+        val snapshotFile = cacheDir.listFiles()!!.single()
+        val bytes = snapshotFile.readBytes()
+
+        for (length in listOf(0, 6, 14, bytes.size() / 2, bytes.size() - 1)) {
+            snapshotFile.writeBytes(bytes.copyOf(length))
+
+            val snapshot = JvmDependenciesIndexSnapshot.loadOrBuild(cacheDir, jars)
+            assertNotNull("Snapshot truncated to $length bytes", snapshot)
+            assertJars(snapshot!!, "a.b", true, false)
+            assertJars(snapshot, "x", false, true)
+            assertEquals("Snapshot truncated to $length bytes should be rewritten", bytes.size(), snapshotFile.length().toInt())
+        }
+    }
+
+    public fun testSnapshotWithCorruptLengthIsRebuilt() {
+        val tmpdir = JetTestUtils.tmpDirForTest(this)
+        val cacheDir = File(tmpdir, "cache")
+        val jars = listOf(createJar(File(tmpdir, "lib.jar"), "a/A.class"))
+
+        JvmDependenciesIndexSnapshot.loadOrBuild(cacheDir, jars)!!
+        val snapshotFile = cacheDir.listFiles()!!.single()
+        val bytes = snapshotFile.readBytes()
+        // length of the first jar path
+        bytes[12] = 0x7F
+
+        snapshotFile.writeBytes(bytes)
+
+        val snapshot = JvmDependenciesIndexSnapshot.loadOrBuild(cacheDir, jars)
+        assertNotNull(snapshot)
+        assertJars(snapshot!!, "a", true)
+    }
+
+    private fun assertJars(snapshot: JvmDependenciesIndexSnapshot, packageName: String, vararg expected: Boolean) {
+        val packageIndex = snapshot.findPackage(packageName)
+        assertTrue("Package not found: $packageName", packageIndex >= 0)
+        for ((jarIndex, contains) in expected.withIndex()) {
+            assertEquals("Package $packageName in jar #$jarIndex", contains, snapshot.jarContainsPackage(jarIndex, packageIndex))
+        }
+    }
+
+    private fun createJar(file: File, vararg entries: String): File {
+        val output = ZipOutputStream(FileOutputStream(file))
+        try {
+            for (entry in entries) {
+                output.putNextEntry(ZipEntry(entry))
+                output.closeEntry()
+            }
+        }
+        finally {
+            output.close()
+        }
+        return file
+    }
+}
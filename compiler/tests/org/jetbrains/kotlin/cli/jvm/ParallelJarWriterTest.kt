@@ -0,0 +1,106 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.cli.jvm
+
+import junit.framework.TestCase
+import org.jetbrains.kotlin.cli.jvm.compiler.ParallelJarWriter
+import org.jetbrains.kotlin.test.JetTestUtils
+import java.io.ByteArrayOutputStream
+import java.io.File
+import java.io.FileOutputStream
+import java.util.Arrays
+import java.util.Collections
+import java.util.jar.JarFile
+import java.util.jar.JarInputStream
+import java.util.jar.Manifest
+import java.util.zip.ZipEntry
+import java.util.zip.ZipException
+
+public class ParallelJarWriterTest : TestCase() {
+    public fun testDeflatedEntries() {
+        doTest(true, ZipEntry.DEFLATED)
+    }
+
+    public fun testStoredEntries() {
+        doTest(false, ZipEntry.STORED)
+    }
+
+    public fun testDuplicateEntry() {
+        val writer = ParallelJarWriter(ByteArrayOutputStream(), Manifest(), true, 2)
+        try {
+            writer.addEntry("a/C.class", ByteArray(10))
+            writer.addEntry("a/C.class", ByteArray(20))
+            fail("Duplicate entry is not reported")
+        }
+        catch (e: ZipException) {
+            assertEquals("duplicate entry: a/C.class", e.message)
+        }
+        finally {
+            writer.abort()
+        }
+    }
+
+    private fun doTest(compress: Boolean, expectedMethod: Int) {
+        val jar = File(JetTestUtils.tmpDirForTest(this), "out.jar")
+        val contents = (0..99).map { i ->
+            val bytes = ByteArray(i * 37)
+            for (j in bytes.indices) bytes[j] = (j % 13).toByte()
+            "a/C$i.class" to bytes
+        }
+
+        val manifest = Manifest()
+        manifest.mainAttributes.putValue("Manifest-Version", "1.0")
+        manifest.mainAttributes.putValue("Main-Class", "a.C0")
+
+        val output = FileOutputStream(jar)
+        try {
+            val writer = ParallelJarWriter(output, manifest, compress, 4)
+            for ((name, bytes) in contents) {
+                writer.addEntry(name, bytes)
+            }
+            writer.finish()
+        }
+        finally {
+            output.close()
+        }
+
+        val jarFile = JarFile(jar)
+        try {
+            assertEquals("a.C0", jarFile.manifest.mainAttributes.getValue("Main-Class"))
+            val entries = Collections.list(jarFile.entries())
+            assertEquals(JarFile.MANIFEST_NAME, entries[0].name)
+            assertEquals(contents.map { it.first }, entries.drop(1).map { it.name })
+            for ((name, bytes) in contents) {
+                val entry = jarFile.getEntry(name)
+                assertEquals(expectedMethod, entry.method)
+                assertTrue(name, Arrays.equals(bytes, jarFile.getInputStream(entry).readBytes()))
+            }
+        }
+        finally {
+            jarFile.close()
+        }
+
+        val stream = JarInputStream(jar.inputStream())
+        try {
+            assertNotNull(stream.manifest)
+            assertEquals(contents[0].first, stream.nextJarEntry.name)
+        }
+        finally {
+            stream.close()
+        }
+    }
+}
@@ -22,7 +22,10 @@ import com.intellij.util.ArrayUtil;
 import com.intellij.util.Processor;
 import kotlin.Charsets;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.cli.jvm.config.JVMConfigurationKeys;
+import org.jetbrains.kotlin.config.CompilerConfiguration;
 import org.jetbrains.kotlin.test.ConfigurationKind;
+import org.jetbrains.kotlin.test.InTextDirectivesUtils;
 import org.jetbrains.kotlin.utils.ExceptionUtilsKt;
 
 import java.io.File;
@@ -33,14 +36,25 @@ import java.util.regex.Pattern;
 public abstract class AbstractBytecodeTextTest extends CodegenTestCase {
     private static final Pattern AT_OUTPUT_FILE_PATTERN = Pattern.compile("^\\s*//\\s*@(.*):$");
     private static final Pattern EXPECTED_OCCURRENCES_PATTERN = Pattern.compile("^\\s*//\\s*(\\d+)\\s*(.*)$");
+    private static final String OPT_LEVEL_DIRECTIVE = "// OPT_LEVEL:";
+
+    private Integer optimizationLevel;
 
     public void doTest(@NotNull String filename) throws Exception {
+        optimizationLevel = InTextDirectivesUtils.getPrefixedInt(FileUtil.loadFile(new File(filename), true), OPT_LEVEL_DIRECTIVE);
         createEnvironmentWithMockJdkAndIdeaAnnotations(ConfigurationKind.ALL);
         loadFileByFullPath(filename);
         List<OccurrenceInfo> expected = readExpectedOccurrences(filename);
         countAndCompareActualOccurrences(expected);
     }
 
+    @Override
+    protected void updateConfiguration(@NotNull CompilerConfiguration configuration) {
+        if (optimizationLevel != null) {
+            configuration.put(JVMConfigurationKeys.OPTIMIZATION_LEVEL, optimizationLevel);
+        }
+    }
+
     protected void countAndCompareActualOccurrences(@NotNull List<OccurrenceInfo> expectedOccurrences) {
         String text = generateToText();
 
@@ -215,6 +215,18 @@ public class BytecodeTextTestGenerated extends AbstractBytecodeTextTest {
         doTest(fileName);
     }
 
+    @TestMetadata("primitiveFunctionInvoke.kt")
+    public void testPrimitiveFunctionInvoke() throws Exception {
+        String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/bytecodeText/primitiveFunctionInvoke.kt");
+        doTest(fileName);
+    }
+
+    @TestMetadata("primitiveFunctionInvokeDefaultLevel.kt")
+    public void testPrimitiveFunctionInvokeDefaultLevel() throws Exception {
+        String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/bytecodeText/primitiveFunctionInvokeDefaultLevel.kt");
+        doTest(fileName);
+    }
+
     @TestMetadata("privateDefaultArgs.kt")
     public void testPrivateDefaultArgs() throws Exception {
         String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/bytecodeText/privateDefaultArgs.kt");
@@ -449,6 +461,39 @@ public class BytecodeTextTestGenerated extends AbstractBytecodeTextTest {
         }
     }
 
+    @TestMetadata("compiler/testData/codegen/bytecodeText/constantFolding")
+    @TestDataPath("$PROJECT_ROOT")
+    @RunWith(JUnit3RunnerWithInners.class)
+    public static class ConstantFolding extends AbstractBytecodeTextTest {
+        public void testAllFilesPresentInConstantFolding() throws Exception {
+            JetTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/codegen/bytecodeText/constantFolding"), Pattern.compile("^(.+)\\.kt$"), true);
+        }
+
+        @TestMetadata("branchOnConstantLocal.kt")
+        public void testBranchOnConstantLocal() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/bytecodeText/constantFolding/branchOnConstantLocal.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("loopVariableIsNotConstant.kt")
+        public void testLoopVariableIsNotConstant() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/bytecodeText/constantFolding/loopVariableIsNotConstant.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("notFoldedByDefault.kt")
+        public void testNotFoldedByDefault() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/bytecodeText/constantFolding/notFoldedByDefault.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("whenOnConstantLocal.kt")
+        public void testWhenOnConstantLocal() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/bytecodeText/constantFolding/whenOnConstantLocal.kt");
+            doTest(fileName);
+        }
+    }
+
     @TestMetadata("compiler/testData/codegen/bytecodeText/constants")
     @TestDataPath("$PROJECT_ROOT")
     @RunWith(JUnit3RunnerWithInners.class)
@@ -737,6 +782,66 @@ public class BytecodeTextTestGenerated extends AbstractBytecodeTextTest {
         }
     }
 
+    @TestMetadata("compiler/testData/codegen/bytecodeText/optimizationLevels")
+    @TestDataPath("$PROJECT_ROOT")
+    @RunWith(JUnit3RunnerWithInners.class)
+    public static class OptimizationLevels extends AbstractBytecodeTextTest {
+        @TestMetadata("aggressive.kt")
+        public void testAggressive() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/bytecodeText/optimizationLevels/aggressive.kt");
+            doTest(fileName);
+        }
+
+        public void testAllFilesPresentInOptimizationLevels() throws Exception {
+            JetTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/codegen/bytecodeText/optimizationLevels"), Pattern.compile("^(.+)\\.kt$"), true);
+        }
+
+        @TestMetadata("basic.kt")
+        public void testBasic() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/bytecodeText/optimizationLevels/basic.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("full.kt")
+        public void testFull() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/bytecodeText/optimizationLevels/full.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("none.kt")
+        public void testNone() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/bytecodeText/optimizationLevels/none.kt");
+            doTest(fileName);
+        }
+    }
+
+    @TestMetadata("compiler/testData/codegen/bytecodeText/sharedVarsOptimization")
+    @TestDataPath("$PROJECT_ROOT")
+    @RunWith(JUnit3RunnerWithInners.class)
+    public static class SharedVarsOptimization extends AbstractBytecodeTextTest {
+        public void testAllFilesPresentInSharedVarsOptimization() throws Exception {
+            JetTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/codegen/bytecodeText/sharedVarsOptimization"), Pattern.compile("^(.+)\\.kt$"), true);
+        }
+
+        @TestMetadata("escapingLambda.kt")
+        public void testEscapingLambda() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/bytecodeText/sharedVarsOptimization/escapingLambda.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("inlinedLambda.kt")
+        public void testInlinedLambda() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/bytecodeText/sharedVarsOptimization/inlinedLambda.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("localVariableTable.kt")
+        public void testLocalVariableTable() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/bytecodeText/sharedVarsOptimization/localVariableTable.kt");
+            doTest(fileName);
+        }
+    }
+
     @TestMetadata("compiler/testData/codegen/bytecodeText/statements")
     @TestDataPath("$PROJECT_ROOT")
     @RunWith(JUnit3RunnerWithInners.class)
@@ -899,6 +1004,33 @@ public class BytecodeTextTestGenerated extends AbstractBytecodeTextTest {
         }
     }
 
+    @TestMetadata("compiler/testData/codegen/bytecodeText/trivialMethodInlining")
+    @TestDataPath("$PROJECT_ROOT")
+    @RunWith(JUnit3RunnerWithInners.class)
+    public static class TrivialMethodInlining extends AbstractBytecodeTextTest {
+        public void testAllFilesPresentInTrivialMethodInlining() throws Exception {
+            JetTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/codegen/bytecodeText/trivialMethodInlining"), Pattern.compile("^(.+)\\.kt$"), true);
+        }
+
+        @TestMetadata("notInlinedByDefault.kt")
+        public void testNotInlinedByDefault() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/bytecodeText/trivialMethodInlining/notInlinedByDefault.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("privateMethod.kt")
+        public void testPrivateMethod() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/bytecodeText/trivialMethodInlining/privateMethod.kt");
+            doTest(fileName);
+        }
+
+        @TestMetadata("syntheticAccessor.kt")
+        public void testSyntheticAccessor() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/bytecodeText/trivialMethodInlining/syntheticAccessor.kt");
+            doTest(fileName);
+        }
+    }
+
     @TestMetadata("compiler/testData/codegen/bytecodeText/when")
     @TestDataPath("$PROJECT_ROOT")
     @RunWith(JUnit3RunnerWithInners.class)
@@ -1009,6 +1141,12 @@ public class BytecodeTextTestGenerated extends AbstractBytecodeTextTest {
             doTest(fileName);
         }
 
+        @TestMetadata("largeWhen.kt")
+        public void testLargeWhen() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/bytecodeText/whenStringOptimization/largeWhen.kt");
+            doTest(fileName);
+        }
+
         @TestMetadata("nonInlinedConst.kt")
         public void testNonInlinedConst() throws Exception {
             String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/bytecodeText/whenStringOptimization/nonInlinedConst.kt");
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen
+
+import org.jetbrains.kotlin.codegen.state.GenerationState
+import org.jetbrains.kotlin.descriptors.PackagePartProvider
+import org.jetbrains.kotlin.resolve.lazy.JvmResolveUtil
+import org.jetbrains.kotlin.test.ConfigurationKind
+import org.jetbrains.org.objectweb.asm.ClassReader
+import org.jetbrains.org.objectweb.asm.util.TraceClassVisitor
+import java.io.PrintWriter
+import java.io.StringWriter
+
+public class ClassFileFactoryStorageTest : CodegenTestCase() {
+    public fun testStoredClassFilesAreDecodedToText() {
+        createEnvironmentWithMockJdkAndIdeaAnnotations(ConfigurationKind.JDK_ONLY)
+        myFiles = CodegenTestFiles.create(
+                "file.kt",
+                """
+                    class A {
+                        fun foo(): () -> Int = { 42 }
+                    }
+
+                    inline fun bar(f: () -> String) = f()
+
+                    fun baz() = bar { object { override fun toString() = "O" }.toString() + "K" }
+                """,
+                myEnvironment!!.project
+        )
+
+        val expected = generateClassesInFile().asList().toMap({ it.relativePath }, { decode(it.asByteArray()) })
+
+        val storage = ClassFileStorage.createTemporary()
+        val state = createGenerationState()
+        try {
+            state.factory.setStorage(storage)
+            KotlinCodegenFacade.compileCorrectFiles(state, CompilationErrorHandler.THROW_EXCEPTION)
+
+            val actual = state.factory.asList().toMap({ it.relativePath }, { it.asText() })
+            assertEquals(expected, actual)
+        }
+        finally {
+            state.factory.releaseStorage()
+        }
+    }
+
+    private fun createGenerationState(): GenerationState {
+        val files = myFiles.psiFiles
+        val analysisResult = JvmResolveUtil.analyzeFilesWithJavaIntegrationAndCheckForErrors(
+                myEnvironment!!.project, files, PackagePartProvider.EMPTY
+        )
+        return GenerationState(
+                myEnvironment!!.project, ClassBuilderFactories.TEST,
+                analysisResult.moduleDescriptor, analysisResult.bindingContext, files,
+                disableCallAssertions = false, disableParamAssertions = false
+        )
+    }
+
+    private fun decode(bytes: ByteArray): String {
+        val writer = StringWriter()
+        ClassReader(bytes).accept(TraceClassVisitor(PrintWriter(writer)), 0)
+        return writer.toString()
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen
+
+import com.intellij.openapi.util.io.FileUtil
+import junit.framework.TestCase
+import java.io.File
+
+public class ClassFileStorageTest : TestCase() {
+    private var directory: File? = null
+
+    override fun setUp() {
+        super.setUp()
+        directory = FileUtil.createTempDirectory("classFileStorage", null, false)
+    }
+
+    override fun tearDown() {
+        FileUtil.delete(directory!!)
+        super.tearDown()
+    }
+
+    public fun testEvictedFilesAreLoadedFromDisk() {
+        val storage = ClassFileStorage(directory!!, /* cacheSizeInBytes = */ 4)
+        storage.store("a/A.class", byteArrayOf(1, 2, 3))
+        storage.store("a/B.class", byteArrayOf(4, 5, 6))
+
+        assertTrue(File(directory, "a/A.class").exists())
+        assertEquals(listOf<Byte>(1, 2, 3), storage.load("a/A.class").toList())
+        assertEquals(listOf<Byte>(4, 5, 6), storage.load("a/B.class").toList())
+    }
+
+    public fun testDeleteAndDispose() {
+        val storage = ClassFileStorage(directory!!)
+        storage.store("A.class", byteArrayOf(1))
+        storage.delete("A.class")
+        assertFalse(File(directory, "A.class").exists())
+
+        storage.dispose()
+        assertFalse(directory!!.exists())
+    }
+}
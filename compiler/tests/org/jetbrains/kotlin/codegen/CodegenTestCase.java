@@ -81,6 +81,7 @@ public abstract class CodegenTestCase extends UsefulTestCase {
         CompilerConfiguration configuration =
                 compilerConfigurationForTests(configurationKind, TestJdkKind.MOCK_JDK,
                                               Collections.singletonList(getAnnotationsJar()), new SmartList<File>(javaSourceRoot));
+        updateConfiguration(configuration);
 
         myEnvironment = KotlinCoreEnvironment.createForTests(
                 getTestRootDisposable(),
@@ -88,6 +89,9 @@ public abstract class CodegenTestCase extends UsefulTestCase {
                 EnvironmentConfigFiles.JVM_CONFIG_FILES);
     }
 
+    protected void updateConfiguration(@NotNull CompilerConfiguration configuration) {
+    }
+
     @Override
     protected void tearDown() throws Exception {
         myFiles = null;
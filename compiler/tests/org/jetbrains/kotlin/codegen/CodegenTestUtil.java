@@ -26,8 +26,11 @@ import org.jetbrains.kotlin.cli.jvm.compiler.JvmPackagePartProvider;
 import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment;
 import org.jetbrains.kotlin.cli.jvm.config.JVMConfigurationKeys;
 import org.jetbrains.kotlin.codegen.forTestCompile.ForTestCompileRuntime;
+import org.jetbrains.kotlin.codegen.optimization.OptimizationPipeline;
 import org.jetbrains.kotlin.codegen.state.GenerationState;
+import org.jetbrains.kotlin.codegen.state.Progress;
 import org.jetbrains.kotlin.config.CompilerConfiguration;
+import org.jetbrains.kotlin.name.FqName;
 import org.jetbrains.kotlin.resolve.AnalyzingUtils;
 import org.jetbrains.kotlin.resolve.BindingTraceContext;
 import org.jetbrains.kotlin.resolve.lazy.JvmResolveUtil;
@@ -68,7 +71,16 @@ public class CodegenTestUtil {
                 configuration.get(JVMConfigurationKeys.DISABLE_INLINE, false),
                 configuration.get(JVMConfigurationKeys.DISABLE_OPTIMIZATION, false),
                 /* useTypeTableInSerializer = */ false,
-                forExtraDiagnostics
+                forExtraDiagnostics,
+                Collections.<FqName>emptySet(),
+                Collections.<FqName>emptySet(),
+                /* targetId = */ null,
+                /* moduleName = */ null,
+                /* outDirectory = */ null,
+                /* incrementalCompilationComponents = */ null,
+                Progress.DEAF,
+                /* codegenThreads = */ 1,
+                configuration.get(JVMConfigurationKeys.OPTIMIZATION_LEVEL, OptimizationPipeline.DEFAULT_LEVEL)
         );
         KotlinCodegenFacade.compileCorrectFiles(state, CompilationErrorHandler.THROW_EXCEPTION);
 
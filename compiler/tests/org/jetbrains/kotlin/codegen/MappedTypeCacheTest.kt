@@ -0,0 +1,47 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen
+
+import org.jetbrains.kotlin.analyzer.AnalysisResult
+import org.jetbrains.kotlin.codegen.state.GenerationState
+import org.jetbrains.kotlin.descriptors.PackagePartProvider
+import org.jetbrains.kotlin.resolve.lazy.JvmResolveUtil
+import org.jetbrains.kotlin.test.ConfigurationKind
+
+public class MappedTypeCacheTest : CodegenTestCase() {
+    public fun testTypesAreMappedTheSameWithoutCache() {
+        createEnvironmentWithMockJdkAndIdeaAnnotations(ConfigurationKind.JDK_ONLY)
+        loadFile("mappedTypeCache/types.kt")
+
+        val files = myFiles.psiFiles
+        val analysisResult = JvmResolveUtil.analyzeFilesWithJavaIntegrationAndCheckForErrors(
+                myEnvironment!!.project, files, PackagePartProvider.EMPTY
+        )
+
+        assertEquals(generate(analysisResult, cacheEnabled = false), generate(analysisResult, cacheEnabled = true))
+    }
+
+    private fun generate(analysisResult: AnalysisResult, cacheEnabled: Boolean): String {
+        val state = GenerationState(
+                myEnvironment!!.project, ClassBuilderFactories.TEST,
+                analysisResult.moduleDescriptor, analysisResult.bindingContext, myFiles.psiFiles
+        )
+        state.typeMapper.setMappedTypeCacheEnabled(cacheEnabled)
+        KotlinCodegenFacade.compileCorrectFiles(state, CompilationErrorHandler.THROW_EXCEPTION)
+        return state.factory.createText()
+    }
+}
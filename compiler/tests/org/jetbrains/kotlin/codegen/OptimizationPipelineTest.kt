@@ -0,0 +1,76 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen
+
+import org.jetbrains.kotlin.codegen.optimization.OptimizationPipeline
+import org.jetbrains.kotlin.resolve.lazy.KotlinTestWithEnvironment
+import org.jetbrains.kotlin.test.ConfigurationKind
+import org.jetbrains.org.objectweb.asm.Opcodes
+import org.jetbrains.org.objectweb.asm.tree.InsnNode
+import org.jetbrains.org.objectweb.asm.tree.MethodNode
+import java.util.ArrayList
+import java.util.regex.Pattern
+
+public class OptimizationPipelineTest : KotlinTestWithEnvironment() {
+    override fun createEnvironment() = createEnvironmentWithMockJdk(ConfigurationKind.JDK_ONLY)
+
+    public fun testPassesOfEachLevel() {
+        assertEquals(listOf<String>(), getPassNames(OptimizationPipeline.LEVEL_NONE))
+        assertEquals(listOf("dead code", "redundant goto"), getPassNames(OptimizationPipeline.LEVEL_BASIC))
+        assertEquals(
+                listOf("redundant null checks", "redundant boxing", "redundant shared vars", "dead code", "redundant goto"),
+                getPassNames(OptimizationPipeline.LEVEL_FULL)
+        )
+        assertEquals(
+                listOf("redundant null checks", "redundant boxing", "redundant shared vars", "constant folding", "dead code", "redundant goto"),
+                getPassNames(OptimizationPipeline.LEVEL_AGGRESSIVE)
+        )
+
+        assertTrue(create(OptimizationPipeline.LEVEL_NONE).isEmpty())
+        assertNull(create(OptimizationPipeline.LEVEL_FULL).getTrivialMethodInliner())
+        assertNotNull(create(OptimizationPipeline.LEVEL_AGGRESSIVE).getTrivialMethodInliner())
+    }
+
+    public fun testStatistics() {
+        val pipeline = create(OptimizationPipeline.LEVEL_BASIC)
+        pipeline.transform("A", createMethodWithDeadCode())
+        pipeline.transform("A", createMethodWithDeadCode())
+
+        val report = ArrayList<String>()
+        pipeline.report { report.add(it) }
+
+        assertEquals(2, report.size())
+        assertTrue(report[0], Pattern.matches("OPTIMIZE: pass 'dead code' ran on 2 methods in \\d+ ms, removed 4 instructions", report[0]))
+        assertTrue(report[1], Pattern.matches("OPTIMIZE: pass 'redundant goto' ran on 2 methods in \\d+ ms, removed 0 instructions", report[1]))
+    }
+
+    private fun create(level: Int) = OptimizationPipeline.create(getProject(), level)
+
+    private fun getPassNames(level: Int): List<String> = create(level).getPasses().map { it.getName() }
+
+    // return 1; return 2
+    private fun createMethodWithDeadCode(): MethodNode {
+        val node = MethodNode(Opcodes.ACC_STATIC, "foo", "()I", null, null)
+        node.instructions.add(InsnNode(Opcodes.ICONST_1))
+        node.instructions.add(InsnNode(Opcodes.IRETURN))
+        node.instructions.add(InsnNode(Opcodes.ICONST_2))
+        node.instructions.add(InsnNode(Opcodes.IRETURN))
+        node.maxStack = 1
+        node.maxLocals = 0
+        return node
+    }
+}
@@ -25,6 +25,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.kotlin.cli.common.output.outputUtils.OutputUtilsKt;
 import org.jetbrains.kotlin.cli.jvm.compiler.EnvironmentConfigFiles;
 import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment;
+import org.jetbrains.kotlin.cli.jvm.config.JVMConfigurationKeys;
 import org.jetbrains.kotlin.cli.jvm.config.JvmContentRootsKt;
 import org.jetbrains.kotlin.codegen.CodegenTestCase;
 import org.jetbrains.kotlin.codegen.GeneratedClassLoader;
@@ -48,11 +49,25 @@ import java.util.List;
 import static org.jetbrains.kotlin.codegen.CodegenTestUtil.compileJava;
 
 public abstract class AbstractBlackBoxCodegenTest extends CodegenTestCase {
+    private static final String OPT_LEVEL_DIRECTIVE = "// OPT_LEVEL:";
+
+    private Integer optimizationLevel;
+
     public void doTest(@NotNull String filename) {
+        optimizationLevel = InTextDirectivesUtils.getPrefixedInt(
+                FilesKt.readText(new File(filename), Charsets.UTF_8), OPT_LEVEL_DIRECTIVE
+        );
         createEnvironmentWithMockJdkAndIdeaAnnotations(ConfigurationKind.JDK_ONLY);
         blackBoxFileByFullPath(filename);
     }
 
+    @Override
+    protected void updateConfiguration(@NotNull CompilerConfiguration configuration) {
+        if (optimizationLevel != null) {
+            configuration.put(JVMConfigurationKeys.OPTIMIZATION_LEVEL, optimizationLevel);
+        }
+    }
+
     public void doTestAgainstJava(@NotNull String filename) {
         blackBoxFileAgainstJavaByFullPath(filename);
     }
@@ -4253,6 +4253,12 @@ public class BlackBoxCodegenTestGenerated extends AbstractBlackBoxCodegenTest {
                 String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/box/functions/invoke/kt3822invokeOnThis.kt");
                 doTest(fileName);
             }
+
+            @TestMetadata("primitiveSpecialized.kt")
+            public void testPrimitiveSpecialized() throws Exception {
+                String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/box/functions/invoke/primitiveSpecialized.kt");
+                doTest(fileName);
+            }
         }
 
         @TestMetadata("compiler/testData/codegen/box/functions/localFunctions")
@@ -4891,6 +4891,12 @@ public class BlackBoxWithStdlibCodegenTestGenerated extends AbstractBlackBoxCode
             doTestWithStdlib(fileName);
         }
 
+        @TestMetadata("largeWhen.kt")
+        public void testLargeWhen() throws Exception {
+            String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/whenStringOptimization/largeWhen.kt");
+            doTestWithStdlib(fileName);
+        }
+
         @TestMetadata("nullability.kt")
         public void testNullability() throws Exception {
             String fileName = JetTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/whenStringOptimization/nullability.kt");
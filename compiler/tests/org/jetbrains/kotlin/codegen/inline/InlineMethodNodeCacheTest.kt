@@ -0,0 +1,63 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.inline
+
+import junit.framework.TestCase
+import org.jetbrains.kotlin.name.ClassId
+import org.jetbrains.kotlin.name.FqName
+import org.jetbrains.org.objectweb.asm.ClassWriter
+import org.jetbrains.org.objectweb.asm.Opcodes
+
+public class InlineMethodNodeCacheTest : TestCase() {
+    private val classId = ClassId.topLevel(FqName("test.A"))
+
+    public fun testHitReturnsIndependentCopy() {
+        val cache = InlineMethodNodeCache()
+        val classData = createClass()
+
+        val first = cache.getMethodNode(classData, "foo", "()I", classId)!!
+        val size = first.node.instructions.size()
+        first.node.instructions.clear()
+
+        val second = cache.getMethodNode(classData, "foo", "()I", classId)!!
+        assertNotSame(first.node, second.node)
+        assertEquals(size, second.node.instructions.size())
+        assertTrue(size > 0)
+    }
+
+    public fun testMissReturnsNull() {
+        val cache = InlineMethodNodeCache()
+        val classData = createClass()
+
+        assertNull(cache.getMethodNode(classData, "bar", "()I", classId))
+        assertNull(cache.getMethodNode(classData, "foo", "()J", classId))
+        assertNotNull(cache.getMethodNode(classData, "foo", "()I", classId))
+    }
+
+    private fun createClass(): ByteArray {
+        val writer = ClassWriter(ClassWriter.COMPUTE_MAXS)
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, "test/A", null, "java/lang/Object", null)
+        val method = writer.visitMethod(Opcodes.ACC_PUBLIC or Opcodes.ACC_STATIC, "foo", "()I", null, null)
+        method.visitCode()
+        method.visitInsn(Opcodes.ICONST_1)
+        method.visitInsn(Opcodes.IRETURN)
+        method.visitMaxs(-1, -1)
+        method.visitEnd()
+        writer.visitEnd()
+        return writer.toByteArray()
+    }
+}
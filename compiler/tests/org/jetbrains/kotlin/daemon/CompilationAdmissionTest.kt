@@ -0,0 +1,117 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.daemon
+
+import junit.framework.TestCase
+import org.jetbrains.kotlin.rmi.service.CompilationAdmission
+import java.util.concurrent.*
+import java.util.concurrent.atomic.AtomicLong
+
+public class CompilationAdmissionTest : TestCase() {
+    private val executor = Executors.newCachedThreadPool()
+
+    override fun tearDown() {
+        executor.shutdownNow()
+        super.tearDown()
+    }
+
+    public fun testAlwaysAdmitsWhenIdle() {
+        // more memory is used than there is, but nothing else is running
+        val admission = CompilationAdmission(maxSessions = 1, maxMemory = 100, currentUsedMemory = { 1000L })
+        assertEquals("done", admission.withAdmission { "done" })
+        assertEquals(0, admission.active)
+    }
+
+    public fun testBlocksAtMaxSessions() {
+        val admission = CompilationAdmission(maxSessions = 2, maxMemory = 1000, currentUsedMemory = { 0L })
+        val first = startSession(admission)
+        val second = startSession(admission)
+        assertTrue(first.entered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        assertTrue(second.entered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+
+        val third = startSession(admission)
+        assertFalse(third.entered.await(NOT_ADMITTED_WAIT_MS, TimeUnit.MILLISECONDS))
+        assertEquals(2, admission.active)
+
+        first.finish()
+        assertTrue(third.entered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+
+        second.finish()
+        third.finish()
+        assertEquals(0, admission.active)
+    }
+
+    public fun testRefusesWhenMemoryIsLow() {
+        val usedMemory = AtomicLong(0)
+        // a session is first estimated to need a quarter of the heap
+        val admission = CompilationAdmission(maxSessions = 4, maxMemory = 100, currentUsedMemory = { usedMemory.get() })
+        val first = startSession(admission)
+        assertTrue(first.entered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+
+        usedMemory.set(90)
+        val second = startSession(admission)
+        assertFalse(second.entered.await(NOT_ADMITTED_WAIT_MS, TimeUnit.MILLISECONDS))
+
+        // waiting sessions check the memory again without waiting for another session to complete
+        usedMemory.set(10)
+        assertTrue(second.entered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+
+        first.finish()
+        second.finish()
+        assertEquals(0, admission.active)
+    }
+
+    public fun testReleasesOnFailure() {
+        val admission = CompilationAdmission(maxSessions = 1, maxMemory = 1000, currentUsedMemory = { 0L })
+        try {
+            admission.withAdmission { throw IllegalStateException("failed") }
+            fail("Exception expected")
+        }
+        catch (e: IllegalStateException) {
+            assertEquals("failed", e.getMessage())
+        }
+        assertEquals(0, admission.active)
+
+        val next = startSession(admission)
+        assertTrue(next.entered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        next.finish()
+    }
+
+    private class Session(val entered: CountDownLatch, val finished: CountDownLatch, val future: Future<*>) {
+        fun finish() {
+            finished.countDown()
+            future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        }
+    }
+
+    private fun startSession(admission: CompilationAdmission): Session {
+        val entered = CountDownLatch(1)
+        val finished = CountDownLatch(1)
+        val future = executor.submit(Callable {
+            admission.withAdmission {
+                entered.countDown()
+                finished.await()
+            }
+        })
+        return Session(entered, finished, future)
+    }
+
+    companion object {
+        private val TIMEOUT_SECONDS = 10L
+        private val NOT_ADMITTED_WAIT_MS = 300L
+    }
+}
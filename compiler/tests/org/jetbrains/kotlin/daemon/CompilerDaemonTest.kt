@@ -185,6 +185,54 @@ public class CompilerDaemonTest : KotlinIntegrationTestBase() {
         logFile2.delete()
     }
 
+    public fun testDaemonMetrics() {
+        val jar = tmpdir.absolutePath + File.separator + "hello.jar"
+        val flagFile = createTempFile(getTestName(true), ".alive")
+        flagFile.deleteOnExit()
+        val daemonOptions = DaemonOptions(runFilesPath = File(tmpdir, getTestName(true)).absolutePath,
+                                          clientAliveFlagPath = flagFile.absolutePath)
+        val daemonJVMOptions = configureDaemonJVMOptions(false)
+
+        KotlinCompilerClient.shutdownCompileService(compilerId, daemonOptions)
+
+        try {
+            runDaemonCompilerTwice(compilerId, daemonJVMOptions, daemonOptions,
+                                   "-include-runtime", File(getHelloAppBaseDir(), "hello.kt").absolutePath, "-d", jar)
+
+            val daemon = KotlinCompilerClient.connectToCompileService(compilerId, daemonJVMOptions, daemonOptions,
+                                                                      DaemonReportingTargets(out = System.err), autostart = false, checkId = true)
+            TestCase.assertNotNull("failed to connect daemon", daemon)
+            val metrics = KotlinCompilerClient.getDaemonMetrics(daemon!!)
+
+            TestCase.assertEquals(2L, metrics.compilations)
+            TestCase.assertEquals(0, metrics.activeCompilations)
+            TestCase.assertTrue(metrics.uptimeMillis > 0)
+            TestCase.assertTrue(metrics.heapUsed in 1..metrics.heapMax)
+            TestCase.assertTrue(metrics.rpcCalls > 0)
+            TestCase.assertEquals(2, metrics.recentSessions.size())
+
+            for (session in metrics.recentSessions) {
+                TestCase.assertEquals(0, session.exitCode)
+                TestCase.assertTrue(session.wallNanos > 0)
+                TestCase.assertTrue(session.cpuNanos > 0)
+                TestCase.assertTrue(session.allocatedBytes > 0)
+                TestCase.assertEquals(listOf("PARSE", "RESOLVE", "GENERATE", "WRITE"), session.phases.map { it.phase })
+                for (phase in session.phases) {
+                    TestCase.assertTrue("${phase.phase} was not entered", phase.count > 0)
+                    TestCase.assertTrue("${phase.phase} took no time", phase.wallNanos > 0)
+                }
+                TestCase.assertTrue("phases take longer than the session", session.phases.map { it.wallNanos }.sum() <= session.wallNanos)
+            }
+            TestCase.assertTrue(metrics.recentSessions[0].startTimeMillis <= metrics.recentSessions[1].startTimeMillis)
+
+            val json = metrics.toJson()
+            TestCase.assertTrue(json, json.startsWith("{\"uptimeMillis\":") && json.contains("\"phase\":\"GENERATE\""))
+        }
+        finally {
+            KotlinCompilerClient.shutdownCompileService(compilerId, daemonOptions)
+        }
+    }
+
 
     /** Testing that running daemon in the child process doesn't block on s child process.waitFor()
      *  that may happen on windows if simple processBuilder.start is used due to handles inheritance:
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.daemon
+
+import junit.framework.TestCase
+import org.jetbrains.kotlin.incremental.components.ScopeKind
+import org.jetbrains.kotlin.modules.TargetId
+import org.jetbrains.kotlin.rmi.CompilerCallbackServicesFacade
+import org.jetbrains.kotlin.rmi.InlineRegistration
+import org.jetbrains.kotlin.rmi.LookupRecord
+import org.jetbrains.kotlin.rmi.RemoteOutputStream
+import org.jetbrains.kotlin.rmi.service.BatchingRemoteOutputStreamClient
+import org.jetbrains.kotlin.rmi.service.RemoteIncrementalCacheClient
+import org.jetbrains.kotlin.rmi.service.RemoteLookupTrackerClient
+import java.lang.reflect.InvocationHandler
+import java.lang.reflect.Proxy
+import java.util.ArrayList
+import java.util.Collections
+
+public class RemoteBatchingTest : TestCase() {
+    private class RecordingRemoteOutputStream : RemoteOutputStream {
+        val batches: MutableList<ByteArray> = Collections.synchronizedList(ArrayList<ByteArray>())
+
+        override fun write(data: ByteArray, offset: Int, length: Int) {
+            batches.add(data.copyOfRange(offset, offset + length))
+        }
+
+        override fun write(dataByte: Int) {
+            batches.add(byteArrayOf(dataByte.toByte()))
+        }
+
+        override fun close() {
+        }
+
+        fun receivedBytes(): List<Byte> = synchronized(batches) { batches.flatMap { it.toList() } }
+    }
+
+    public fun testOutputIsSentOnClose() {
+        val remote = RecordingRemoteOutputStream()
+        val stream = BatchingRemoteOutputStreamClient(remote, flushIntervalMs = NO_TIMER_FLUSH_MS)
+        stream.write("abc".toByteArray())
+        stream.write('d'.toInt())
+        assertTrue(remote.batches.isEmpty())
+
+        stream.close()
+        assertEquals(1, remote.batches.size())
+        assertEquals("abcd", String(remote.batches[0]))
+    }
+
+    public fun testOutputIsSentOnTimer() {
+        val remote = RecordingRemoteOutputStream()
+        val stream = BatchingRemoteOutputStreamClient(remote, flushIntervalMs = 50)
+        try {
+            stream.write("abc".toByteArray())
+
+            val deadline = System.currentTimeMillis() + TIMEOUT_MS
+            while (remote.batches.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10)
+            }
+            assertEquals(listOf("abc"), remote.batches.map { String(it) })
+        }
+        finally {
+            stream.close()
+        }
+    }
+
+    public fun testOutputIsSentWhenBufferFills() {
+        val remote = RecordingRemoteOutputStream()
+        val stream = BatchingRemoteOutputStreamClient(remote, bufferSize = 4, flushIntervalMs = NO_TIMER_FLUSH_MS)
+        stream.write("abc".toByteArray())
+        assertTrue(remote.batches.isEmpty())
+
+        stream.write("de".toByteArray())
+        assertEquals(listOf("abc"), remote.batches.map { String(it) })
+
+        stream.write('f'.toInt())
+        stream.write('g'.toInt())
+        assertEquals(listOf("abc"), remote.batches.map { String(it) })
+        stream.write('h'.toInt())
+        assertEquals(listOf("abc", "defg"), remote.batches.map { String(it) })
+
+        stream.close()
+        assertEquals(listOf("abc", "defg", "h"), remote.batches.map { String(it) })
+    }
+
+    public fun testBytesAndOrderArePreservedAcrossBatches() {
+        val remote = RecordingRemoteOutputStream()
+        val stream = BatchingRemoteOutputStreamClient(remote, bufferSize = 8, flushIntervalMs = NO_TIMER_FLUSH_MS)
+        val data = ByteArray(300)
+        for (i in data.indices) {
+            data[i] = (i * 7).toByte()
+        }
+
+        var position = 0
+        var chunk = 0
+        while (position < data.size()) {
+            // single bytes, chunks that fit into the buffer, and chunks larger than it
+            val length = Math.min(data.size() - position, chunk % 12)
+            if (length == 0) {
+                stream.write(data[position].toInt())
+                position++
+            }
+            else {
+                stream.write(data, position, length)
+                position += length
+            }
+            chunk++
+        }
+        stream.close()
+
+        assertTrue(remote.batches.size() > 1)
+        assertEquals(data.toList(), remote.receivedBytes())
+    }
+
+    public fun testLookupsAreSentInBatches() {
+        val batches = ArrayList<List<String>>()
+        val facade = createFacade { name, args ->
+            when (name) {
+                "lookupTracker_isDoNothing" -> false
+                "lookupTracker_recordAll" -> {
+                    @Suppress("UNCHECKED_CAST")
+                    batches.add((args[0] as Collection<LookupRecord>).map { it.name })
+                    null
+                }
+                else -> throw UnsupportedOperationException(name)
+            }
+        }
+
+        val tracker = RemoteLookupTrackerClient(facade, batchSize = 3)
+        for (i in 1..7) {
+            tracker.record("file.kt", i, 1, "test", ScopeKind.PACKAGE, "name$i")
+        }
+        assertEquals(listOf(listOf("name1", "name2", "name3"), listOf("name4", "name5", "name6")), batches)
+
+        tracker.flush()
+        assertEquals(listOf("name7"), batches.last())
+
+        tracker.flush()
+        assertEquals(3, batches.size())
+    }
+
+    public fun testInlineRegistrationsAreSentInBatches() {
+        val calls = ArrayList<String>()
+        val facade = createFacade { name, args ->
+            when (name) {
+                "incrementalCache_registerInlines" -> {
+                    @Suppress("UNCHECKED_CAST")
+                    calls.add((args[1] as Collection<InlineRegistration>).map { it.toPath }.joinToString())
+                    null
+                }
+                "incrementalCache_close" -> {
+                    calls.add("close")
+                    null
+                }
+                else -> throw UnsupportedOperationException(name)
+            }
+        }
+
+        val cache = RemoteIncrementalCacheClient(facade, TargetId("test", "java-production"), batchSize = 2)
+        for (i in 1..5) {
+            cache.registerInline("from$i", "foo()V", "to$i")
+        }
+        assertEquals(listOf("to1, to2", "to3, to4"), calls)
+
+        cache.close()
+        assertEquals(listOf("to1, to2", "to3, to4", "to5", "close"), calls)
+    }
+
+    private fun createFacade(handler: (String, Array<Any?>) -> Any?): CompilerCallbackServicesFacade {
+        val facadeClass = javaClass<CompilerCallbackServicesFacade>()
+        return Proxy.newProxyInstance(facadeClass.getClassLoader(), arrayOf(facadeClass), InvocationHandler { proxy, method, args ->
+            handler(method.getName(), args ?: arrayOf())
+        }) as CompilerCallbackServicesFacade
+    }
+
+    companion object {
+        private val NO_TIMER_FLUSH_MS = 3600 * 1000L
+        private val TIMEOUT_MS = 10000L
+    }
+}
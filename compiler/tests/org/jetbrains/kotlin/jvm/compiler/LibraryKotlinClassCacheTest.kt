@@ -0,0 +1,153 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.jvm.compiler
+
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.openapi.vfs.impl.jar.CoreJarFileSystem
+import org.jetbrains.kotlin.load.kotlin.LibraryKotlinClassCache
+import org.jetbrains.kotlin.resolve.lazy.KotlinTestWithEnvironment
+import org.jetbrains.kotlin.test.ConfigurationKind
+import org.jetbrains.kotlin.test.JetTestUtils
+import org.jetbrains.org.objectweb.asm.ClassWriter
+import org.jetbrains.org.objectweb.asm.Opcodes
+import java.io.File
+import java.io.FileOutputStream
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+public class LibraryKotlinClassCacheTest : KotlinTestWithEnvironment() {
+    private var tmpdir: File? = null
+    private var kotlinClass: ByteArray? = null
+
+    override fun createEnvironment() = createEnvironmentWithMockJdk(ConfigurationKind.JDK_ONLY)
+
+    override fun setUp() {
+        super.setUp()
+        tmpdir = JetTestUtils.tmpDirForTest(this)
+        val source = File(tmpdir, "A.kt")
+        source.writeText("package a\n\nclass A\n")
+        val classes = File(tmpdir, "classes")
+        JetTestUtils.compileKotlinWithJava(listOf(), listOf(source), classes, getTestRootDisposable()!!, null)
+        kotlinClass = File(classes, "a/A.class").readBytes()
+        LibraryKotlinClassCache.clear()
+    }
+
+    override fun tearDown() {
+        LibraryKotlinClassCache.clear()
+        super.tearDown()
+    }
+
+    public fun testUnchangedJarIsReadOnce() {
+        val jar = writeJar("lib.jar", "a/A.class" to kotlinClass!!)
+
+        LibraryKotlinClassCache.startCompilation()
+        assertEquals("a/A", LibraryKotlinClassCache.getKotlinClass(findClass(jar, "a/A.class"))?.getClassId()?.toString())
+        val readClasses = LibraryKotlinClassCache.getReadClassCount()
+
+        LibraryKotlinClassCache.startCompilation()
+        assertEquals("a/A", LibraryKotlinClassCache.getKotlinClass(findClass(jar, "a/A.class"))?.getClassId()?.toString())
+        assertEquals(readClasses, LibraryKotlinClassCache.getReadClassCount())
+    }
+
+    public fun testChangedJarIsReadAgain() {
+        val jar = writeJar("lib.jar", "a/A.class" to createJavaClass("a/A"))
+        val lastModified = jar.lastModified()
+
+        LibraryKotlinClassCache.startCompilation()
+        assertNull(LibraryKotlinClassCache.getKotlinClass(findClass(jar, "a/A.class")))
+
+        // The modification time is not enough to notice the change
+        writeJar("lib.jar", "a/A.class" to kotlinClass!!)
+        jar.setLastModified(lastModified)
+
+        LibraryKotlinClassCache.startCompilation()
+        assertEquals("a/A", LibraryKotlinClassCache.getKotlinClass(findClass(jar, "a/A.class"))?.getClassId()?.toString())
+    }
+
+    public fun testConcurrentAccess() {
+        val jar = writeJar("lib.jar", "a/A.class" to kotlinClass!!, "a/B.class" to createJavaClass("a/B"))
+        LibraryKotlinClassCache.startCompilation()
+        val readClasses = LibraryKotlinClassCache.getReadClassCount()
+
+        val started = CountDownLatch(1)
+        val executor = Executors.newFixedThreadPool(THREADS)
+        try {
+            val futures = (1..THREADS).map {
+                executor.submit(Callable {
+                    val fileSystem = CoreJarFileSystem()
+                    started.await()
+                    for (i in 1..ITERATIONS) {
+                        val a = LibraryKotlinClassCache.getKotlinClass(findClass(fileSystem, jar, "a/A.class"))
+                        assertEquals("a/A", a?.getClassId()?.toString())
+                        assertNull(LibraryKotlinClassCache.getKotlinClass(findClass(fileSystem, jar, "a/B.class")))
+                    }
+                })
+            }
+            started.countDown()
+
+            for (future in futures) {
+                future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            }
+        }
+        finally {
+            executor.shutdownNow()
+        }
+
+        // Threads may read a class at the same time before it's cached, but not after that
+        assertTrue(LibraryKotlinClassCache.getReadClassCount() - readClasses <= 2 * THREADS)
+    }
+
+    private fun writeJar(name: String, vararg entries: Pair<String, ByteArray>): File {
+        val jar = File(tmpdir, name)
+        val stream = ZipOutputStream(FileOutputStream(jar))
+        try {
+            for ((path, bytes) in entries) {
+                stream.putNextEntry(ZipEntry(path))
+                stream.write(bytes)
+                stream.closeEntry()
+            }
+        }
+        finally {
+            stream.close()
+        }
+        return jar
+    }
+
+    // A new file system every time, so that the jar is not read from its caches
+    private fun findClass(jar: File, path: String): VirtualFile = findClass(CoreJarFileSystem(), jar, path)
+
+    private fun findClass(fileSystem: CoreJarFileSystem, jar: File, path: String): VirtualFile =
+            fileSystem.findFileByPath(FileUtil.toSystemIndependentName(jar.getPath()) + "!/" + path)!!
+
+    private fun createJavaClass(internalName: String): ByteArray {
+        val writer = ClassWriter(0)
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, internalName, null, "java/lang/Object", null)
+        writer.visitEnd()
+        return writer.toByteArray()
+    }
+
+    companion object {
+        private val THREADS = 8
+        private val ITERATIONS = 100
+        private val TIMEOUT_SECONDS = 30L
+    }
+}
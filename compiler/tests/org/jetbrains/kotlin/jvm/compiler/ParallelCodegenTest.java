@@ -0,0 +1,103 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.jvm.compiler;
+
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.cli.common.ExitCode;
+import org.jetbrains.kotlin.cli.jvm.K2JVMCompiler;
+import org.jetbrains.kotlin.codegen.forTestCompile.ForTestCompileRuntime;
+import org.jetbrains.kotlin.test.JetTestUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public class ParallelCodegenTest extends TestCase {
+    private static final String TEST_DATA_DIR = JetTestUtils.getTestDataPathBase() + "/compiler/parallelCodegen";
+
+    public void testJarDoesNotDependOnCodegenThreads() throws IOException {
+        File tempDir = FileUtil.createTempDirectory("parallelCodegen", null);
+        try {
+            List<JarEntryContent> expected = readJar(compileToJar(new File(tempDir, "single.jar"), 1));
+            List<JarEntryContent> actual = readJar(compileToJar(new File(tempDir, "parallel.jar"), 4));
+
+            assertTrue(getNames(expected).contains("c/Utils.class"));
+            assertEquals(getNames(expected), getNames(actual));
+            for (int i = 0; i < expected.size(); i++) {
+                assertTrue("Different content of " + expected.get(i).name, Arrays.equals(expected.get(i).content, actual.get(i).content));
+            }
+        }
+        finally {
+            FileUtil.delete(tempDir);
+        }
+    }
+
+    @NotNull
+    private static File compileToJar(@NotNull File jar, int codegenThreads) {
+        ExitCode exitCode = new K2JVMCompiler().exec(
+                System.out,
+                TEST_DATA_DIR,
+                "-d", jar.getAbsolutePath(),
+                "-no-stdlib",
+                "-classpath", ForTestCompileRuntime.runtimeJarForTests().getAbsolutePath(),
+                "-Xcodegen-threads", String.valueOf(codegenThreads)
+        );
+        assertEquals(ExitCode.OK, exitCode);
+        return jar;
+    }
+
+    @NotNull
+    private static List<JarEntryContent> readJar(@NotNull File jar) throws IOException {
+        List<JarEntryContent> entries = new ArrayList<JarEntryContent>();
+        ZipInputStream stream = new ZipInputStream(new FileInputStream(jar));
+        try {
+            for (ZipEntry entry = stream.getNextEntry(); entry != null; entry = stream.getNextEntry()) {
+                entries.add(new JarEntryContent(entry.getName(), FileUtil.loadBytes(stream)));
+            }
+        }
+        finally {
+            stream.close();
+        }
+        return entries;
+    }
+
+    @NotNull
+    private static List<String> getNames(@NotNull List<JarEntryContent> entries) {
+        List<String> names = new ArrayList<String>(entries.size());
+        for (JarEntryContent entry : entries) {
+            names.add(entry.name);
+        }
+        return names;
+    }
+
+    private static class JarEntryContent {
+        public final String name;
+        public final byte[] content;
+
+        public JarEntryContent(@NotNull String name, @NotNull byte[] content) {
+            this.name = name;
+            this.content = content;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.parsing;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import com.intellij.psi.stubs.StubElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.cli.jvm.compiler.EnvironmentConfigFiles;
+import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment;
+import org.jetbrains.kotlin.config.CompilerConfiguration;
+import org.jetbrains.kotlin.lexer.KotlinLexer;
+import org.jetbrains.kotlin.psi.KtFile;
+import org.jetbrains.kotlin.psi.KtPsiFactory;
+import org.jetbrains.kotlin.psi.stubs.elements.KtFileStubBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the lexer, the parser, PSI construction and stub building over a fixed corpus (stdlib sources plus a few generated
+ * large files) and reports throughput, allocation per thousand lines and GC activity for each stage.
+ *
+ * Usage: FrontendParsingBenchmark [corpus directory] [measured iterations]
+ */
+public class FrontendParsingBenchmark {
+    private static final String DEFAULT_CORPUS = "libraries/stdlib/src";
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 10;
+    private static final int GENERATED_FILE_COUNT = 3;
+    private static final int GENERATED_CLASSES_PER_FILE = 400;
+
+    private interface Stage {
+        @NotNull
+        String getName();
+
+        // Returns something derived from the result, so that the work can't be optimized away
+        int run(@NotNull String name, @NotNull String text);
+    }
+
+    public static void main(String[] args) throws IOException {
+        File corpusRoot = new File(args.length > 0 ? args[0] : DEFAULT_CORPUS);
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : MEASURED_ITERATIONS;
+
+        List<String> names = new ArrayList<String>();
+        List<String> texts = new ArrayList<String>();
+        collectSources(corpusRoot, names, texts);
+        for (int i = 0; i < GENERATED_FILE_COUNT; i++) {
+            names.add("generated" + i + ".kt");
+            texts.add(generateLargeFile(i, GENERATED_CLASSES_PER_FILE));
+        }
+
+        long lines = 0;
+        long chars = 0;
+        for (String text : texts) {
+            lines += StringUtil.countNewLines(text) + 1;
+            chars += text.length();
+        }
+        System.out.println("Corpus: " + texts.size() + " files, " + lines + " lines, " + chars / 1024 + " KB");
+
+        Disposable disposable = Disposer.newDisposable();
+        try {
+            KotlinCoreEnvironment environment = KotlinCoreEnvironment.createForTests(
+                    disposable, new CompilerConfiguration(), EnvironmentConfigFiles.JVM_CONFIG_FILES);
+            Stage[] stages = createStages(environment.getProject());
+
+            for (Stage stage : stages) {
+                for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                    runOnCorpus(stage, names, texts);
+                }
+                measure(stage, names, texts, iterations, lines);
+            }
+        }
+        finally {
+            Disposer.dispose(disposable);
+        }
+    }
+
+    @NotNull
+    private static Stage[] createStages(@NotNull Project project) {
+        final KtPsiFactory psiFactory = new KtPsiFactory(project);
+
+        // Each stage includes the work of the previous ones: PSI and stubs need a parsed file to start from
+        return new Stage[] {
+                new Stage() {
+                    @NotNull
+                    @Override
+                    public String getName() {
+                        return "Lexing";
+                    }
+
+                    @Override
+                    public int run(@NotNull String name, @NotNull String text) {
+                        KotlinLexer lexer = new KotlinLexer();
+                        lexer.start(text);
+                        int tokens = 0;
+                        while (lexer.getTokenType() != null) {
+                            tokens++;
+                            lexer.advance();
+                        }
+                        return tokens;
+                    }
+                },
+                new Stage() {
+                    @NotNull
+                    @Override
+                    public String getName() {
+                        return "Parsing";
+                    }
+
+                    @Override
+                    public int run(@NotNull String name, @NotNull String text) {
+                        KtFile file = psiFactory.createFile(name, text);
+                        return file.getNode().getLastChildNode() != null ? 1 : 0;
+                    }
+                },
+                new Stage() {
+                    @NotNull
+                    @Override
+                    public String getName() {
+                        return "Parsing + PSI";
+                    }
+
+                    @Override
+                    public int run(@NotNull String name, @NotNull String text) {
+                        KtFile file = psiFactory.createFile(name, text);
+                        final int[] elements = new int[1];
+                        file.accept(new PsiRecursiveElementWalkingVisitor() {
+                            @Override
+                            public void visitElement(PsiElement element) {
+                                elements[0]++;
+                                super.visitElement(element);
+                            }
+                        });
+                        return elements[0];
+                    }
+                },
+                new Stage() {
+                    @NotNull
+                    @Override
+                    public String getName() {
+                        return "Parsing + stubs";
+                    }
+
+                    @Override
+                    public int run(@NotNull String name, @NotNull String text) {
+                        KtFile file = psiFactory.createFile(name, text);
+                        StubElement stub = new KtFileStubBuilder().buildStubTree(file);
+                        return stub.getChildrenStubs().size();
+                    }
+                }
+        };
+    }
+
+    private static int runOnCorpus(@NotNull Stage stage, @NotNull List<String> names, @NotNull List<String> texts) {
+        int result = 0;
+        for (int i = 0; i < texts.size(); i++) {
+            result += stage.run(names.get(i), texts.get(i));
+        }
+        return result;
+    }
+
+    private static void measure(@NotNull Stage stage, @NotNull List<String> names, @NotNull List<String> texts, int iterations, long lines) {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocationBean =
+                threadBean instanceof com.sun.management.ThreadMXBean &&
+                ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()
+                ? (com.sun.management.ThreadMXBean) threadBean
+                : null;
+        long threadId = Thread.currentThread().getId();
+
+        System.gc();
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTime();
+        long allocatedBefore = allocationBean != null ? allocationBean.getThreadAllocatedBytes(threadId) : 0;
+        long start = System.nanoTime();
+
+        int result = 0;
+        for (int i = 0; i < iterations; i++) {
+            result += runOnCorpus(stage, names, texts);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocationBean != null ? allocationBean.getThreadAllocatedBytes(threadId) - allocatedBefore : -1;
+        long gcCount = gcCount() - gcCountBefore;
+        long gcTime = gcTime() - gcTimeBefore;
+
+        double seconds = elapsed / 1e9;
+        long files = (long) iterations * texts.size();
+        StringBuilder report = new StringBuilder();
+        report.append(stage.getName()).append(": ");
+        report.append(String.format("%.1f files/s, %.1f KLOC/s", files / seconds, iterations * lines / 1000.0 / seconds));
+        if (allocated >= 0) {
+            report.append(String.format(", %.1f MB allocated per KLOC", allocated / (iterations * lines / 1000.0) / (1024 * 1024)));
+        }
+        report.append(String.format(", %d GCs taking %d ms (%.1f%% of run time)", gcCount, gcTime, 100.0 * gcTime / (elapsed / 1e6)));
+        report.append(", checksum ").append(result);
+        System.out.println(report);
+    }
+
+    private static long gcCount() {
+        long result = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            result += Math.max(bean.getCollectionCount(), 0);
+        }
+        return result;
+    }
+
+    private static long gcTime() {
+        long result = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            result += Math.max(bean.getCollectionTime(), 0);
+        }
+        return result;
+    }
+
+    private static void collectSources(@NotNull File file, @NotNull List<String> names, @NotNull List<String> texts) throws IOException {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children == null) return;
+            for (File child : children) {
+                collectSources(child, names, texts);
+            }
+        }
+        else if (file.getName().endsWith(".kt")) {
+            names.add(file.getName());
+            texts.add(StringUtil.convertLineSeparators(FileUtil.loadFile(file, "UTF-8")));
+        }
+    }
+
+    // Produces a file with a mix of declarations, control flow, lambdas and string templates, larger than any real source file
+    @NotNull
+    private static String generateLargeFile(int index, int classCount) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package generated").append(index).append("\n\n");
+        sb.append("import kotlin.collections.*\n\n");
+        for (int i = 0; i < classCount; i++) {
+            sb.append("/**\n * Generated class number ").append(i).append("\n */\n");
+            sb.append("public open class C").append(i).append("<T : Comparable<T>>(val x: Int, private var s: String?) : Base").append(i % 10).append("() {\n");
+            sb.append("    private val cache = hashMapOf<String, List<T>>()\n\n");
+            sb.append("    override fun compute(items: List<T>, predicate: (T) -> Boolean = { true }): Int {\n");
+            sb.append("        var result = x * ").append(i).append(" + (s?.length ?: 0)\n");
+            sb.append("        for ((j, item) in items.withIndex()) {\n");
+            sb.append("            if (!predicate(item)) continue\n");
+            sb.append("            result += when {\n");
+            sb.append("                j % 3 == 0 -> j shl 1\n");
+            sb.append("                item is Number -> item.toInt()\n");
+            sb.append("                else -> \"$j: ${item.toString().length}\".length\n");
+            sb.append("            }\n");
+            sb.append("        }\n");
+            sb.append("        return items.filter { it != null }.map { it.hashCode() }.fold(result) { acc, h -> acc xor h }\n");
+            sb.append("    }\n\n");
+            sb.append("    fun String.ext").append(i).append("(): String = this + s!! + \"\"\"raw ${x}\"\"\"\n");
+            sb.append("}\n\n");
+        }
+        return sb.toString();
+    }
+}
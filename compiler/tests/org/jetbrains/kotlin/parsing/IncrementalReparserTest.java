@@ -0,0 +1,107 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.parsing;
+
+import com.intellij.psi.impl.DebugUtil;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.kotlin.cli.jvm.compiler.EnvironmentConfigFiles;
+import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment;
+import org.jetbrains.kotlin.config.CompilerConfiguration;
+import org.jetbrains.kotlin.psi.KtFile;
+import org.jetbrains.kotlin.psi.KtNamedFunction;
+import org.jetbrains.kotlin.psi.KtPsiFactoryKt;
+import org.jetbrains.kotlin.test.JetLiteFixture;
+
+public class IncrementalReparserTest extends JetLiteFixture {
+    private static final String TEXT = "class A {\n" +
+                                       "    init { val a = 1 }\n" +
+                                       "    fun foo() {\n" +
+                                       "        bar { it }\n" +
+                                       "    }\n" +
+                                       "    val x: Int get() { return 1 }\n" +
+                                       "}\n" +
+                                       "fun baz() = 1\n";
+
+    public void testChangeInFunctionBody() {
+        doTest("bar { it }", "bar(\"}\") { /* { */ it + 1 }", true);
+    }
+
+    public void testChangeInInitializer() {
+        doTest("val a = 1", "val a = \"${ 1 }\"", true);
+    }
+
+    public void testChangeInAccessor() {
+        doTest("return 1", "return 2; fun local() {}", true);
+    }
+
+    public void testUnbalancedChange() {
+        doTest("bar { it }", "bar { it", false);
+    }
+
+    public void testUnterminatedRawString() {
+        doTest("bar { it }", "\"\"\"bar", false);
+    }
+
+    public void testChangeOutsideOfBodies() {
+        doTest("fun baz() = 1", "fun baz() = 2", false);
+    }
+
+    public void testDeclarationsOutsideOfBodyAreKept() {
+        KtFile file = createFile(TEXT);
+        KtNamedFunction function = findFunction(file, "foo");
+        int offset = TEXT.indexOf("bar");
+
+        assertTrue(IncrementalReparser.reparseRange(file, offset, offset + 3, "baz"));
+        assertSame(function, findFunction(file, "foo"));
+        assertTrue(function.isValid());
+        assertEquals("{\n        baz { it }\n    }", function.getBodyExpression().getText());
+    }
+
+    private void doTest(String oldFragment, String newFragment, boolean expectedReparsed) {
+        KtFile file = createFile(TEXT);
+        int offset = TEXT.indexOf(oldFragment);
+        assertTrue(offset >= 0);
+        String newText = TEXT.substring(0, offset) + newFragment + TEXT.substring(offset + oldFragment.length());
+
+        boolean reparsed = IncrementalReparser.reparseRange(file, offset, offset + oldFragment.length(), newFragment);
+        assertEquals(expectedReparsed, reparsed);
+
+        if (reparsed) {
+            assertEquals(newText, file.getText());
+            assertEquals(DebugUtil.psiToString(createFile(newText), false), DebugUtil.psiToString(file, false));
+        }
+        else {
+            assertEquals(TEXT, file.getText());
+        }
+    }
+
+    private KtFile createFile(String text) {
+        return KtPsiFactoryKt.KtPsiFactory(getProject()).createFile(text);
+    }
+
+    private static KtNamedFunction findFunction(KtFile file, String name) {
+        for (KtNamedFunction function : PsiTreeUtil.findChildrenOfType(file, KtNamedFunction.class)) {
+            if (name.equals(function.getName())) return function;
+        }
+        throw new AssertionError("No function " + name);
+    }
+
+    @Override
+    protected KotlinCoreEnvironment createEnvironment() {
+        return KotlinCoreEnvironment.createForTests(getTestRootDisposable(), new CompilerConfiguration(), EnvironmentConfigFiles.JVM_CONFIG_FILES);
+    }
+}
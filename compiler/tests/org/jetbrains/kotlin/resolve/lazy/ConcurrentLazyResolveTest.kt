@@ -0,0 +1,126 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.resolve.lazy
+
+import org.jetbrains.kotlin.descriptors.ClassDescriptor
+import org.jetbrains.kotlin.descriptors.PackageViewDescriptor
+import org.jetbrains.kotlin.name.FqName
+import org.jetbrains.kotlin.psi.KtPsiFactory
+import org.jetbrains.kotlin.renderer.DescriptorRenderer
+import org.jetbrains.kotlin.resolve.scopes.KtScope
+import org.jetbrains.kotlin.test.ConfigurationKind
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * Resolves declarations of several files, which depend on each other through star imports, supertypes and inferred types,
+ * from several threads at once in the storage manager used by the analysis, and checks that the result is the same as in
+ * a sequential run
+ */
+public class ConcurrentLazyResolveTest : KotlinTestWithEnvironment() {
+    override fun createEnvironment() = createEnvironmentWithMockJdk(ConfigurationKind.JDK_ONLY)
+
+    public fun testConcurrentResolveMatchesSequential() {
+        val expected = resolveInOrder(createSession(), 0)
+
+        for (attempt in 1..ATTEMPTS) {
+            val session = createSession()
+            val started = CountDownLatch(1)
+            val executor = Executors.newFixedThreadPool(THREADS)
+            try {
+                // Every thread resolves all the files starting from a different one, so that they meet on the same lazy values
+                val futures = (0..THREADS - 1).map { thread ->
+                    executor.submit(Callable {
+                        started.await()
+                        resolveInOrder(session, thread * FILES / THREADS)
+                    })
+                }
+                started.countDown()
+
+                for (future in futures) {
+                    assertEquals(expected, future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                }
+            }
+            finally {
+                executor.shutdownNow()
+            }
+        }
+    }
+
+    private fun createSession(): ResolveSession {
+        val psiFactory = KtPsiFactory(getProject())
+        val files = (0..FILES - 1).map { psiFactory.createFile("file$it.kt", fileText(it)) }
+        return createResolveSessionForFiles(getProject(), files, addBuiltIns = true)
+    }
+
+    private fun fileText(index: Int): String {
+        val next = (index + 1) % FILES
+        val superClass = if (index > 0) " : p${index - 1}.C${index - 1}<T>()" else ""
+        return """
+            package p$index
+
+            import p$next.*
+
+            open class C$index<T>$superClass {
+                val value$index = create$next()
+                fun <R : T> array$index(r: R): Array<R>? = null
+                inner class Inner$index : I$next
+            }
+
+            interface I$index {
+                fun default$index() = D$index.VALUE
+            }
+
+            object D$index {
+                val VALUE = C$index<String>()
+            }
+
+            fun create$index() = C$index<Int>()
+            val property$index = create$next().value$next
+        """
+    }
+
+    private fun resolveInOrder(session: ResolveSession, first: Int): List<String> {
+        val rendered = arrayOfNulls<String>(FILES)
+        for (i in 0..FILES - 1) {
+            val index = (first + i) % FILES
+            val builder = StringBuilder()
+            render(session.getModuleDescriptor().getPackage(FqName("p$index")).memberScope, builder, "")
+            rendered[index] = builder.toString()
+        }
+        return rendered.map { it!! }
+    }
+
+    private fun render(scope: KtScope, builder: StringBuilder, indent: String) {
+        val descriptors = scope.getAllDescriptors().filter { it !is PackageViewDescriptor }
+        for ((text, descriptor) in descriptors.map { DescriptorRenderer.FQ_NAMES_IN_TYPES.render(it) to it }.sortedBy { it.first }) {
+            builder.append(indent).append(text).append("\n")
+            if (descriptor is ClassDescriptor) {
+                render(descriptor.getDefaultType().getMemberScope(), builder, "$indent    ")
+            }
+        }
+    }
+
+    companion object {
+        private val FILES = 8
+        private val THREADS = 4
+        private val ATTEMPTS = 3
+        private val TIMEOUT_SECONDS = 60L
+    }
+}
@@ -19,6 +19,8 @@ package org.jetbrains.kotlin.types;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.intellij.openapi.project.Project;
+import kotlin.Unit;
+import kotlin.jvm.functions.Function0;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.kotlin.builtins.KotlinBuiltIns;
 import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment;
@@ -41,12 +43,14 @@ import org.jetbrains.kotlin.resolve.lazy.LazyResolveTestUtil;
 import org.jetbrains.kotlin.resolve.scopes.*;
 import org.jetbrains.kotlin.resolve.scopes.receivers.ExpressionReceiver;
 import org.jetbrains.kotlin.resolve.scopes.utils.ScopeUtilsKt;
+import org.jetbrains.kotlin.storage.LockBasedStorageManager;
 import org.jetbrains.kotlin.test.ConfigurationKind;
 import org.jetbrains.kotlin.test.JetLiteFixture;
 import org.jetbrains.kotlin.test.JetTestUtils;
 import org.jetbrains.kotlin.tests.di.ContainerForTests;
 import org.jetbrains.kotlin.tests.di.InjectionKt;
 import org.jetbrains.kotlin.types.checker.KotlinTypeChecker;
+import org.jetbrains.kotlin.types.checker.TypeCheckerCache;
 import org.jetbrains.kotlin.types.expressions.ExpressionTypingServices;
 
 import java.io.File;
@@ -350,6 +354,60 @@ public class JetTypeCheckerTest extends JetLiteFixture {
         assertNotSubtype("Rec<*>", "Rec<out Any>");
     }
 
+    public void testSubtypeCheckCache() throws Exception {
+        KotlinType subtype = makeType("List<Int>");
+        KotlinType supertype = makeType("Collection<Number>");
+        TypeCheckerCache cache = new TypeCheckerCache(new LockBasedStorageManager());
+
+        TypeCheckerCache previous = cache.enter();
+        try {
+            assertTrue(KotlinTypeChecker.DEFAULT.isSubtypeOf(subtype, supertype));
+            assertFalse(KotlinTypeChecker.DEFAULT.isSubtypeOf(supertype, subtype));
+
+            long hits = cache.getHitCount();
+            assertTrue(KotlinTypeChecker.DEFAULT.isSubtypeOf(subtype, supertype));
+            assertFalse(KotlinTypeChecker.DEFAULT.isSubtypeOf(supertype, subtype));
+            assertEquals(hits + 2, cache.getHitCount());
+        }
+        finally {
+            TypeCheckerCache.exit(previous);
+        }
+
+        long hits = cache.getHitCount();
+        long misses = cache.getMissCount();
+        assertTrue(KotlinTypeChecker.DEFAULT.isSubtypeOf(subtype, supertype));
+        assertEquals(hits, cache.getHitCount());
+        assertEquals(misses, cache.getMissCount());
+    }
+
+    public void testSubtypeCheckCacheSkipsResultsComputedByLazyValues() throws Exception {
+        final KotlinType subtype = makeType("List<Int>");
+        final KotlinType supertype = makeType("Collection<Number>");
+        LockBasedStorageManager storageManager = new LockBasedStorageManager();
+        TypeCheckerCache cache = new TypeCheckerCache(storageManager);
+
+        TypeCheckerCache previous = cache.enter();
+        try {
+            storageManager.compute(new Function0<Unit>() {
+                @Override
+                public Unit invoke() {
+                    assertTrue(KotlinTypeChecker.DEFAULT.isSubtypeOf(subtype, supertype));
+                    assertTrue(KotlinTypeChecker.DEFAULT.isSubtypeOf(subtype, supertype));
+                    return Unit.INSTANCE$;
+                }
+            });
+            assertEquals(0, cache.getHitCount());
+
+            assertTrue(KotlinTypeChecker.DEFAULT.isSubtypeOf(subtype, supertype));
+            long hits = cache.getHitCount();
+            assertTrue(KotlinTypeChecker.DEFAULT.isSubtypeOf(subtype, supertype));
+            assertEquals(hits + 1, cache.getHitCount());
+        }
+        finally {
+            TypeCheckerCache.exit(previous);
+        }
+    }
+
     public void testThis() throws Exception {
         assertType("Derived_T<Int>", "this", "Derived_T<Int>");
 //        assertType("Derived_T<Int>", "super<Base_T>", "Base_T<Int>");
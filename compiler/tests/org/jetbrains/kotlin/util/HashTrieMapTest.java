@@ -0,0 +1,134 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.util;
+
+import com.intellij.openapi.util.Comparing;
+import junit.framework.TestCase;
+
+import java.util.*;
+
+public class HashTrieMapTest extends TestCase {
+    private static class Key {
+        private final int id;
+        private final int hash;
+
+        Key(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && ((Key) obj).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return "Key" + id;
+        }
+    }
+
+    public void testPlusMinus() {
+        HashTrieMap<String, Integer> empty = HashTrieMap.empty();
+        HashTrieMap<String, Integer> map = empty.plus("a", 1).plus("b", 2).plus("a", 3);
+
+        assertEquals(2, map.size());
+        assertEquals(Integer.valueOf(3), map.get("a"));
+        assertEquals(Integer.valueOf(2), map.get("b"));
+        assertNull(map.get("c"));
+
+        HashTrieMap<String, Integer> removed = map.minus("a");
+        assertEquals(1, removed.size());
+        assertNull(removed.get("a"));
+        assertEquals(Integer.valueOf(3), map.get("a"));
+
+        assertSame(map, map.minus("c"));
+        assertSame(empty, removed.minus("b"));
+    }
+
+    public void testCollisions() {
+        doTestRandomModifications(new Random(1), 20);
+    }
+
+    public void testRandomModifications() {
+        doTestRandomModifications(new Random(2), Integer.MAX_VALUE);
+    }
+
+    public void testDifferentKeysOfDerivedMap() {
+        HashTrieMap<Key, Integer> map = HashTrieMap.empty();
+        for (int i = 0; i < 10000; i++) {
+            map = map.plus(new Key(i, i * 31), i);
+        }
+        HashTrieMap<Key, Integer> derived = map.plus(new Key(5, 5 * 31), -1).minus(new Key(7, 7 * 31));
+
+        Set<Key> keys = new HashSet<Key>();
+        HashTrieMap.collectDifferentKeys(map, derived, keys);
+        assertTrue(keys.contains(new Key(5, 5 * 31)));
+        assertTrue(keys.contains(new Key(7, 7 * 31)));
+        assertTrue("Too many keys visited: " + keys.size(), keys.size() < 10);
+    }
+
+    private static void doTestRandomModifications(Random random, int hashRange) {
+        HashTrieMap<Key, Integer> map = HashTrieMap.empty();
+        Map<Key, Integer> expected = new HashMap<Key, Integer>();
+        List<HashTrieMap<Key, Integer>> snapshots = new ArrayList<HashTrieMap<Key, Integer>>();
+        List<Map<Key, Integer>> expectedSnapshots = new ArrayList<Map<Key, Integer>>();
+
+        for (int i = 0; i < 2000; i++) {
+            int id = random.nextInt(300);
+            Key key = new Key(id, hashRange == Integer.MAX_VALUE ? id * 0x9E3779B1 : id % hashRange);
+            if (random.nextInt(3) == 0) {
+                map = map.minus(key);
+                expected.remove(key);
+            }
+            else {
+                int value = random.nextInt(5);
+                map = map.plus(key, value);
+                expected.put(key, value);
+            }
+            assertEquals(expected.size(), map.size());
+
+            if (i % 200 == 0) {
+                snapshots.add(map);
+                expectedSnapshots.add(new HashMap<Key, Integer>(expected));
+            }
+        }
+        assertEquals(expected, map.toMap());
+
+        for (int i = 0; i < snapshots.size(); i++) {
+            for (int j = 0; j < snapshots.size(); j++) {
+                Set<Key> keys = new HashSet<Key>();
+                HashTrieMap.collectDifferentKeys(snapshots.get(i), snapshots.get(j), keys);
+
+                Map<Key, Integer> first = expectedSnapshots.get(i);
+                Map<Key, Integer> second = expectedSnapshots.get(j);
+                Set<Key> allKeys = new HashSet<Key>(first.keySet());
+                allKeys.addAll(second.keySet());
+                for (Key key : allKeys) {
+                    if (!Comparing.equal(first.get(key), second.get(key))) {
+                        assertTrue("Different key is not collected: " + key, keys.contains(key));
+                    }
+                }
+            }
+        }
+    }
+}
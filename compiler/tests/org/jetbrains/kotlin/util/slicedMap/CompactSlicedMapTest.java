@@ -0,0 +1,153 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.util.slicedMap;
+
+import junit.framework.TestCase;
+import kotlin.jvm.functions.Function3;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CompactSlicedMapTest extends TestCase {
+    private static final WritableSlice<Object, String> NAME = new BasicWritableSlice<Object, String>(RewritePolicy.DO_NOTHING);
+    private static final WritableSlice<Object, Integer> SIZE = new BasicWritableSlice<Object, Integer>(RewritePolicy.DO_NOTHING);
+    private static final WritableSlice<Object, Boolean> FLAG = Slices.createSimpleSetSlice();
+    private static final WritableSlice<Object, Boolean> COLLECTED = Slices.createCollectiveSetSlice();
+
+    public void testSingleSlice() {
+        CompactSlicedMap map = CompactSlicedMap.create();
+        map.put(NAME, "a", "A");
+
+        assertEquals("A", map.get(NAME, "a"));
+        assertNull(map.get(SIZE, "a"));
+        assertNull(map.get(NAME, "b"));
+    }
+
+    public void testSeveralSlicesForKey() {
+        CompactSlicedMap map = CompactSlicedMap.create();
+        map.put(NAME, "a", "A");
+        map.put(SIZE, "a", 1);
+        map.put(FLAG, "a", true);
+        map.put(NAME, "a", "AA");
+
+        assertEquals("AA", map.get(NAME, "a"));
+        assertEquals(Integer.valueOf(1), map.get(SIZE, "a"));
+        assertEquals(Boolean.TRUE, map.get(FLAG, "a"));
+        assertEquals(1, map.size());
+    }
+
+    public void testEqualKeys() {
+        CompactSlicedMap map = CompactSlicedMap.create();
+        map.put(NAME, new String("key"), "value");
+
+        assertEquals("value", map.get(NAME, new String("key")));
+    }
+
+    public void testNullKey() {
+        CompactSlicedMap map = CompactSlicedMap.create();
+        map.put(NAME, null, "null");
+
+        assertEquals("null", map.get(NAME, null));
+    }
+
+    public void testManyKeys() {
+        CompactSlicedMap map = CompactSlicedMap.create();
+        int count = 10000;
+        for (int i = 0; i < count; i++) {
+            map.put(SIZE, i, i);
+            if (i % 3 == 0) {
+                map.put(NAME, i, String.valueOf(i));
+            }
+        }
+
+        assertEquals(count, map.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(Integer.valueOf(i), map.get(SIZE, i));
+            assertEquals(i % 3 == 0 ? String.valueOf(i) : null, map.get(NAME, i));
+        }
+    }
+
+    public void testCollectiveSlice() {
+        CompactSlicedMap map = CompactSlicedMap.create();
+        map.put(COLLECTED, "a", true);
+        map.put(COLLECTED, "b", true);
+
+        assertEquals(2, map.getKeys(COLLECTED).size());
+        assertTrue(map.getKeys(COLLECTED).contains("a"));
+    }
+
+    public void testForEachMatchesSlicedMapImpl() {
+        CompactSlicedMap compact = CompactSlicedMap.create();
+        SlicedMapImpl reference = SlicedMapImpl.create();
+        for (int i = 0; i < 100; i++) {
+            for (MutableSlicedMap map : new MutableSlicedMap[] {compact, reference}) {
+                map.put(SIZE, i, i);
+                if (i % 2 == 0) map.put(NAME, i, "#" + i);
+                if (i % 5 == 0) map.put(FLAG, i, true);
+            }
+        }
+
+        assertEquals(contents(reference), contents(compact));
+    }
+
+    public void testRemoveSlices() {
+        CompactSlicedMap compact = CompactSlicedMap.create();
+        SlicedMapImpl reference = SlicedMapImpl.create();
+        for (int i = 0; i < 100; i++) {
+            for (MutableSlicedMap map : new MutableSlicedMap[] {compact, reference}) {
+                map.put(NAME, i, "#" + i);
+                if (i % 2 == 0) map.put(SIZE, i, i);
+                if (i % 3 == 0) map.put(COLLECTED, i, true);
+            }
+        }
+
+        List<WritableSlice<?, ?>> removed = Arrays.<WritableSlice<?, ?>>asList(NAME, COLLECTED);
+        compact.removeSlices(removed);
+        reference.removeSlices(removed);
+
+        assertEquals(contents(reference), contents(compact));
+        assertEquals(50, compact.size());
+        assertNull(compact.get(NAME, 0));
+        assertEquals(Integer.valueOf(0), compact.get(SIZE, 0));
+        assertTrue(compact.getKeys(COLLECTED).isEmpty());
+    }
+
+    public void testClear() {
+        CompactSlicedMap map = CompactSlicedMap.create();
+        map.put(NAME, "a", "A");
+        map.put(COLLECTED, "b", true);
+        map.clear();
+
+        assertNull(map.get(NAME, "a"));
+        assertTrue(map.getKeys(COLLECTED).isEmpty());
+        assertEquals(0, map.size());
+    }
+
+    private static Map<String, Object> contents(SlicedMap map) {
+        final Map<String, Object> result = new HashMap<String, Object>();
+        map.forEach(new Function3<WritableSlice, Object, Object, Void>() {
+            @Override
+            public Void invoke(WritableSlice slice, Object key, Object value) {
+                result.put(System.identityHashCode(slice) + ":" + key, value);
+                return null;
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.util.slicedMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the heap retained by {@link SlicedMapImpl} and {@link CompactSlicedMap} filled in a way similar to a binding trace
+ * of a big module: most keys have a value in a single slice, some have several.
+ */
+public class SlicedMapMemoryBenchmark {
+    private static final int KEY_COUNT = 1000000;
+
+    @SuppressWarnings("unchecked")
+    private static final WritableSlice<Object, Object>[] SLICES = new WritableSlice[] {
+            Slices.createSimpleSlice(), Slices.createSimpleSlice(), Slices.createSimpleSlice(), Slices.createSimpleSlice()
+    };
+
+    public static void main(String[] args) {
+        int keyCount = args.length > 0 ? Integer.parseInt(args[0]) : KEY_COUNT;
+
+        List<Object> keys = new ArrayList<Object>(keyCount);
+        for (int i = 0; i < keyCount; i++) {
+            keys.add(new Object());
+        }
+        Object value = new Object();
+
+        long implBytes = measure(SlicedMapImpl.create(), keys, value);
+        long compactBytes = measure(CompactSlicedMap.create(), keys, value);
+
+        System.out.println("Keys: " + keyCount);
+        System.out.println("SlicedMapImpl:    " + implBytes / 1024 + " KB");
+        System.out.println("CompactSlicedMap: " + compactBytes / 1024 + " KB (" + (100 * compactBytes / implBytes) + "%)");
+    }
+
+    private static long measure(MutableSlicedMap map, List<Object> keys, Object value) {
+        long before = usedMemory();
+        for (int i = 0; i < keys.size(); i++) {
+            Object key = keys.get(i);
+            map.put(SLICES[0], key, value);
+            // Roughly a quarter of expressions get a resolved call, a type and data flow info on top of the type info
+            if (i % 4 == 0) {
+                for (int j = 1; j < SLICES.length; j++) {
+                    map.put(SLICES[j], key, value);
+                }
+            }
+        }
+        long after = usedMemory();
+
+        if (map.get(SLICES[0], keys.get(0)) != value) throw new AssertionError();
+        return after - before;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
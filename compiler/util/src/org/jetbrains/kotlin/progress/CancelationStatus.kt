@@ -26,17 +26,18 @@ public interface CompilationCanceledStatus {
 }
 
 public object ProgressIndicatorAndCompilationCanceledStatus {
-    private var canceledStatus: CompilationCanceledStatus? = null
+    // several compilations may run in one JVM (e.g. in the compile daemon), each with its own status;
+    // the status is inherited by the threads a compilation starts for parallel resolve and codegen
+    private val canceledStatus = InheritableThreadLocal<CompilationCanceledStatus?>()
 
     @JvmStatic
-    @Synchronized
     public fun setCompilationCanceledStatus(newCanceledStatus: CompilationCanceledStatus?): Unit {
-        canceledStatus = newCanceledStatus
+        canceledStatus.set(newCanceledStatus)
     }
 
     @JvmStatic
     public fun checkCanceled(): Unit {
         ProgressIndicatorProvider.checkCanceled()
-        canceledStatus?.checkCanceled()
+        canceledStatus.get()?.checkCanceled()
     }
 }
\ No newline at end of file
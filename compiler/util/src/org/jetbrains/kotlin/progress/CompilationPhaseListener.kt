@@ -0,0 +1,35 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.progress
+
+public enum class CompilationPhase {
+    // loading source files and creating PSI for them; lazily built parts of syntax trees are built during RESOLVE
+    PARSE,
+    RESOLVE,
+    GENERATE,
+    WRITE
+}
+
+/**
+ * Is notified by the compiler when it enters and leaves phases of compilation. A phase may be entered several times,
+ * e.g. GENERATE and WRITE for each module. The notifications come from the thread running the compilation.
+ */
+public interface CompilationPhaseListener {
+    fun phaseStarted(phase: CompilationPhase)
+
+    fun phaseFinished(phase: CompilationPhase)
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.types.checker;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.resolve.calls.inference.CapturedTypeConstructorKt;
+import org.jetbrains.kotlin.storage.LockBasedStorageManager;
+import org.jetbrains.kotlin.storage.StorageManager;
+import org.jetbrains.kotlin.types.FlexibleTypesKt;
+import org.jetbrains.kotlin.types.KotlinType;
+import org.jetbrains.kotlin.types.TypeProjection;
+
+import java.util.List;
+
+/**
+ * Remembers results of subtype and type equality checks of type checking procedures whose callbacks have no side effects,
+ * for the duration of one analysis session. Overload resolution asks the same questions about the same type instances over and over,
+ * and for types that are neither flexible nor captured (at any depth) the answer only depends on the types themselves.
+ *
+ * A cache is only used by the threads that {@link #enter()} it. Results computed while a lazy value or a memoized function
+ * of the session's storage manager is being computed are not stored: they may observe a fallback value of a recursive computation.
+ *
+ * The cache is a fixed-size table indexed by identity hash codes. A lookup doesn't allocate, storing a result allocates one entry.
+ * Entries are immutable and may be replaced by other threads at any time, which at worst causes a miss.
+ * Hit and miss counts are not synchronized and thus approximate
+ */
+public class TypeCheckerCache {
+    public static final int UNKNOWN = -1;
+
+    private static final ThreadLocal<TypeCheckerCache> CURRENT = new ThreadLocal<TypeCheckerCache>();
+
+    private static final int TABLE_SIZE = 1 << 12;
+
+    private static final int SUBTYPE = 0;
+    private static final int EQUAL = 1;
+
+    private final StorageManager storageManager;
+    private final Entry[] table = new Entry[TABLE_SIZE];
+    private long hits;
+    private long misses;
+
+    public TypeCheckerCache(@NotNull StorageManager storageManager) {
+        this.storageManager = storageManager;
+    }
+
+    @Nullable
+    public static TypeCheckerCache getCurrent() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes this cache the current one in this thread.
+     * @return the cache that was current before, which must be passed to {@link #exit(TypeCheckerCache)}
+     */
+    @Nullable
+    public TypeCheckerCache enter() {
+        TypeCheckerCache previous = CURRENT.get();
+        CURRENT.set(this);
+        return previous;
+    }
+
+    public static void exit(@Nullable TypeCheckerCache previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        }
+        else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static boolean isCacheable(@NotNull KotlinType type) {
+        if (FlexibleTypesKt.isFlexible(type) || CapturedTypeConstructorKt.isCaptured(type)) return false;
+        List<TypeProjection> arguments = type.getArguments();
+        for (int i = 0, size = arguments.size(); i < size; i++) {
+            TypeProjection argument = arguments.get(i);
+            if (!argument.isStarProjection() && !isCacheable(argument.getType())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return 1 if subtype is known to be a subtype of supertype, 0 if it is known not to be, {@link #UNKNOWN} otherwise
+     */
+    public int getSubtype(@NotNull TypeCheckingProcedure procedure, @NotNull KotlinType subtype, @NotNull KotlinType supertype) {
+        return get(procedure, subtype, supertype, SUBTYPE);
+    }
+
+    public void putSubtype(
+            @NotNull TypeCheckingProcedure procedure, @NotNull KotlinType subtype, @NotNull KotlinType supertype, boolean result
+    ) {
+        put(procedure, subtype, supertype, SUBTYPE, result);
+    }
+
+    /**
+     * @return 1 if types are known to be equal, 0 if they are known not to be, {@link #UNKNOWN} otherwise
+     */
+    public int getEqual(@NotNull TypeCheckingProcedure procedure, @NotNull KotlinType type1, @NotNull KotlinType type2) {
+        return get(procedure, type1, type2, EQUAL);
+    }
+
+    public void putEqual(@NotNull TypeCheckingProcedure procedure, @NotNull KotlinType type1, @NotNull KotlinType type2, boolean result) {
+        put(procedure, type1, type2, EQUAL, result);
+    }
+
+    public long getHitCount() {
+        return hits;
+    }
+
+    public long getMissCount() {
+        return misses;
+    }
+
+    @NotNull
+    public String getStatistics() {
+        long total = hits + misses;
+        return "Type checker cache: " + hits + " hits, " + misses + " misses" +
+               (total == 0 ? "" : " (" + (hits * 100 / total) + "% hit rate)");
+    }
+
+    private int get(@NotNull TypeCheckingProcedure procedure, @NotNull KotlinType first, @NotNull KotlinType second, int kind) {
+        Entry entry = table[index(procedure, first, second, kind)];
+        if (entry != null && entry.kind == kind && entry.procedure == procedure && entry.first == first && entry.second == second) {
+            hits++;
+            return entry.result ? 1 : 0;
+        }
+        misses++;
+        return UNKNOWN;
+    }
+
+    private void put(
+            @NotNull TypeCheckingProcedure procedure, @NotNull KotlinType first, @NotNull KotlinType second, int kind, boolean result
+    ) {
+        if (isComputingLazyValue()) return;
+        table[index(procedure, first, second, kind)] = new Entry(procedure, first, second, kind, result);
+    }
+
+    private boolean isComputingLazyValue() {
+        return !(storageManager instanceof LockBasedStorageManager) ||
+               ((LockBasedStorageManager) storageManager).isComputingInCurrentThread();
+    }
+
+    private static int index(@NotNull TypeCheckingProcedure procedure, @NotNull KotlinType first, @NotNull KotlinType second, int kind) {
+        int hash = System.identityHashCode(first) * 31 + System.identityHashCode(second);
+        hash = (hash * 31 + System.identityHashCode(procedure)) * 2 + kind;
+        return (hash ^ (hash >>> 16)) & (TABLE_SIZE - 1);
+    }
+
+    private static class Entry {
+        public final TypeCheckingProcedure procedure;
+        public final KotlinType first;
+        public final KotlinType second;
+        public final int kind;
+        public final boolean result;
+
+        public Entry(@NotNull TypeCheckingProcedure procedure, @NotNull KotlinType first, @NotNull KotlinType second, int kind, boolean result) {
+            this.procedure = procedure;
+            this.first = first;
+            this.second = second;
+            this.kind = kind;
+            this.result = result;
+        }
+    }
+}
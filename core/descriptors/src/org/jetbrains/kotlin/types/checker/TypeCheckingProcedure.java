@@ -54,13 +54,37 @@ public class TypeCheckingProcedure {
     }
 
     private final TypeCheckingProcedureCallbacks constraints;
+    private final boolean cacheResults;
 
     public TypeCheckingProcedure(TypeCheckingProcedureCallbacks constraints) {
+        this(constraints, false);
+    }
+
+    /**
+     * @param cacheResults whether results may be stored in the {@link TypeCheckerCache#getCurrent() current type checker cache};
+     *                     may only be true if the callbacks have no side effects and depend on nothing but their arguments
+     */
+    public TypeCheckingProcedure(TypeCheckingProcedureCallbacks constraints, boolean cacheResults) {
         this.constraints = constraints;
+        this.cacheResults = cacheResults;
     }
 
     public boolean equalTypes(@NotNull KotlinType type1, @NotNull KotlinType type2) {
         if (type1 == type2) return true;
+        TypeCheckerCache cache = cacheResults ? TypeCheckerCache.getCurrent() : null;
+        if (cache == null || !TypeCheckerCache.isCacheable(type1) || !TypeCheckerCache.isCacheable(type2)) {
+            return computeEqualTypes(type1, type2);
+        }
+
+        int cached = cache.getEqual(this, type1, type2);
+        if (cached != TypeCheckerCache.UNKNOWN) return cached == 1;
+
+        boolean result = computeEqualTypes(type1, type2);
+        cache.putEqual(this, type1, type2, result);
+        return result;
+    }
+
+    private boolean computeEqualTypes(@NotNull KotlinType type1, @NotNull KotlinType type2) {
         if (FlexibleTypesKt.isFlexible(type1)) {
             if (FlexibleTypesKt.isFlexible(type2)) {
                 return !type1.isError() && !type2.isError() && isSubtypeOf(type1, type2) && isSubtypeOf(type2, type1);
@@ -182,6 +206,20 @@ public class TypeCheckingProcedure {
         if (TypeCapabilitiesKt.sameTypeConstructors(subtype, supertype)) {
             return !subtype.isMarkedNullable() || supertype.isMarkedNullable();
         }
+        TypeCheckerCache cache = cacheResults ? TypeCheckerCache.getCurrent() : null;
+        if (cache == null || !TypeCheckerCache.isCacheable(subtype) || !TypeCheckerCache.isCacheable(supertype)) {
+            return computeIsSubtypeOf(subtype, supertype);
+        }
+
+        int cached = cache.getSubtype(this, subtype, supertype);
+        if (cached != TypeCheckerCache.UNKNOWN) return cached == 1;
+
+        boolean result = computeIsSubtypeOf(subtype, supertype);
+        cache.putSubtype(this, subtype, supertype, result);
+        return result;
+    }
+
+    private boolean computeIsSubtypeOf(@NotNull KotlinType subtype, @NotNull KotlinType supertype) {
         KotlinType subtypeRepresentative = TypeCapabilitiesKt.getSubtypeRepresentative(subtype);
         KotlinType supertypeRepresentative = TypeCapabilitiesKt.getSupertypeRepresentative(supertype);
         if (subtypeRepresentative != subtype || supertypeRepresentative != supertype) {
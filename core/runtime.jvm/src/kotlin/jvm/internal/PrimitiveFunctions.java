@@ -0,0 +1,210 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+// Auto-generated file. DO NOT EDIT!
+
+package kotlin.jvm.internal;
+
+import kotlin.jvm.functions.Function1;
+import kotlin.jvm.functions.Function2;
+
+/**
+ * Interfaces implemented by lambdas whose `invoke` takes and returns primitive values, and helpers used by the compiler
+ * to call a function of such type without boxing when the receiver implements the corresponding interface.
+ */
+public class PrimitiveFunctions {
+    private PrimitiveFunctions() {}
+
+    public interface IntToInt {
+        int invoke(int p1);
+    }
+
+    public interface IntToLong {
+        long invoke(int p1);
+    }
+
+    public interface IntToDouble {
+        double invoke(int p1);
+    }
+
+    public interface IntToBoolean {
+        boolean invoke(int p1);
+    }
+
+    public interface LongToInt {
+        int invoke(long p1);
+    }
+
+    public interface LongToLong {
+        long invoke(long p1);
+    }
+
+    public interface LongToDouble {
+        double invoke(long p1);
+    }
+
+    public interface LongToBoolean {
+        boolean invoke(long p1);
+    }
+
+    public interface DoubleToInt {
+        int invoke(double p1);
+    }
+
+    public interface DoubleToLong {
+        long invoke(double p1);
+    }
+
+    public interface DoubleToDouble {
+        double invoke(double p1);
+    }
+
+    public interface DoubleToBoolean {
+        boolean invoke(double p1);
+    }
+
+    public interface IntIntToInt {
+        int invoke(int p1, int p2);
+    }
+
+    public interface IntIntToBoolean {
+        boolean invoke(int p1, int p2);
+    }
+
+    public interface LongLongToLong {
+        long invoke(long p1, long p2);
+    }
+
+    public interface LongLongToInt {
+        int invoke(long p1, long p2);
+    }
+
+    public interface LongLongToBoolean {
+        boolean invoke(long p1, long p2);
+    }
+
+    public interface DoubleDoubleToDouble {
+        double invoke(double p1, double p2);
+    }
+
+    public interface DoubleDoubleToInt {
+        int invoke(double p1, double p2);
+    }
+
+    public interface DoubleDoubleToBoolean {
+        boolean invoke(double p1, double p2);
+    }
+
+    public static int invokeIntToInt(Function1<Integer, Integer> f, int p1) {
+        if (f instanceof IntToInt) return ((IntToInt) f).invoke(p1);
+        return f.invoke(p1);
+    }
+
+    public static long invokeIntToLong(Function1<Integer, Long> f, int p1) {
+        if (f instanceof IntToLong) return ((IntToLong) f).invoke(p1);
+        return f.invoke(p1);
+    }
+
+    public static double invokeIntToDouble(Function1<Integer, Double> f, int p1) {
+        if (f instanceof IntToDouble) return ((IntToDouble) f).invoke(p1);
+        return f.invoke(p1);
+    }
+
+    public static boolean invokeIntToBoolean(Function1<Integer, Boolean> f, int p1) {
+        if (f instanceof IntToBoolean) return ((IntToBoolean) f).invoke(p1);
+        return f.invoke(p1);
+    }
+
+    public static int invokeLongToInt(Function1<Long, Integer> f, long p1) {
+        if (f instanceof LongToInt) return ((LongToInt) f).invoke(p1);
+        return f.invoke(p1);
+    }
+
+    public static long invokeLongToLong(Function1<Long, Long> f, long p1) {
+        if (f instanceof LongToLong) return ((LongToLong) f).invoke(p1);
+        return f.invoke(p1);
+    }
+
+    public static double invokeLongToDouble(Function1<Long, Double> f, long p1) {
+        if (f instanceof LongToDouble) return ((LongToDouble) f).invoke(p1);
+        return f.invoke(p1);
+    }
+
+    public static boolean invokeLongToBoolean(Function1<Long, Boolean> f, long p1) {
+        if (f instanceof LongToBoolean) return ((LongToBoolean) f).invoke(p1);
+        return f.invoke(p1);
+    }
+
+    public static int invokeDoubleToInt(Function1<Double, Integer> f, double p1) {
+        if (f instanceof DoubleToInt) return ((DoubleToInt) f).invoke(p1);
+        return f.invoke(p1);
+    }
+
+    public static long invokeDoubleToLong(Function1<Double, Long> f, double p1) {
+        if (f instanceof DoubleToLong) return ((DoubleToLong) f).invoke(p1);
+        return f.invoke(p1);
+    }
+
+    public static double invokeDoubleToDouble(Function1<Double, Double> f, double p1) {
+        if (f instanceof DoubleToDouble) return ((DoubleToDouble) f).invoke(p1);
+        return f.invoke(p1);
+    }
+
+    public static boolean invokeDoubleToBoolean(Function1<Double, Boolean> f, double p1) {
+        if (f instanceof DoubleToBoolean) return ((DoubleToBoolean) f).invoke(p1);
+        return f.invoke(p1);
+    }
+
+    public static int invokeIntIntToInt(Function2<Integer, Integer, Integer> f, int p1, int p2) {
+        if (f instanceof IntIntToInt) return ((IntIntToInt) f).invoke(p1, p2);
+        return f.invoke(p1, p2);
+    }
+
+    public static boolean invokeIntIntToBoolean(Function2<Integer, Integer, Boolean> f, int p1, int p2) {
+        if (f instanceof IntIntToBoolean) return ((IntIntToBoolean) f).invoke(p1, p2);
+        return f.invoke(p1, p2);
+    }
+
+    public static long invokeLongLongToLong(Function2<Long, Long, Long> f, long p1, long p2) {
+        if (f instanceof LongLongToLong) return ((LongLongToLong) f).invoke(p1, p2);
+        return f.invoke(p1, p2);
+    }
+
+    public static int invokeLongLongToInt(Function2<Long, Long, Integer> f, long p1, long p2) {
+        if (f instanceof LongLongToInt) return ((LongLongToInt) f).invoke(p1, p2);
+        return f.invoke(p1, p2);
+    }
+
+    public static boolean invokeLongLongToBoolean(Function2<Long, Long, Boolean> f, long p1, long p2) {
+        if (f instanceof LongLongToBoolean) return ((LongLongToBoolean) f).invoke(p1, p2);
+        return f.invoke(p1, p2);
+    }
+
+    public static double invokeDoubleDoubleToDouble(Function2<Double, Double, Double> f, double p1, double p2) {
+        if (f instanceof DoubleDoubleToDouble) return ((DoubleDoubleToDouble) f).invoke(p1, p2);
+        return f.invoke(p1, p2);
+    }
+
+    public static int invokeDoubleDoubleToInt(Function2<Double, Double, Integer> f, double p1, double p2) {
+        if (f instanceof DoubleDoubleToInt) return ((DoubleDoubleToInt) f).invoke(p1, p2);
+        return f.invoke(p1, p2);
+    }
+
+    public static boolean invokeDoubleDoubleToBoolean(Function2<Double, Double, Boolean> f, double p1, double p2) {
+        if (f instanceof DoubleDoubleToBoolean) return ((DoubleDoubleToBoolean) f).invoke(p1, p2);
+        return f.invoke(p1, p2);
+    }
+}
@@ -224,6 +224,14 @@ public class LockBasedStorageManager implements StorageManager {
         return new ConcurrentHashMap<K, Object>(3, 1, 2);
     }
 
+    /**
+     * @return true if a lazy value, a memoized function or a {@link #compute(Function0)} block of this storage manager
+     * is being computed in the current thread, or if that is not known
+     */
+    public boolean isComputingInCurrentThread() {
+        return !(lock instanceof ReentrantLock) || ((ReentrantLock) lock).isHeldByCurrentThread();
+    }
+
     @NotNull
     protected <T> RecursionDetectedResult<T> recursionDetectedDefault() {
         throw sanitizeStackTrace(new IllegalStateException("Recursive call in a lazy value under " + this));
@@ -20,6 +20,7 @@ import org.jetbrains.kotlin.generators.builtins.arrayIterators.GenerateArrayIter
 import org.jetbrains.kotlin.generators.builtins.arrays.GenerateArrays
 import org.jetbrains.kotlin.generators.builtins.functionImpl.GenerateFunctionImpl
 import org.jetbrains.kotlin.generators.builtins.functions.GenerateFunctions
+import org.jetbrains.kotlin.generators.builtins.primitiveFunctions.GeneratePrimitiveFunctions
 import org.jetbrains.kotlin.generators.builtins.iterators.GenerateIterators
 import org.jetbrains.kotlin.generators.builtins.progressionIterators.GenerateProgressionIterators
 import org.jetbrains.kotlin.generators.builtins.progressions.GenerateProgressions
@@ -69,6 +70,7 @@ fun generateBuiltIns(generate: (File, (PrintWriter) -> BuiltInsSourceGenerator)
 
     generate(File(RUNTIME_JVM_DIR, "kotlin/jvm/functions/Functions.kt")) { GenerateFunctions(it) }
     generate(File(RUNTIME_JVM_DIR, "kotlin/jvm/internal/FunctionImpl.java")) { GenerateFunctionImpl(it) }
+    generate(File(RUNTIME_JVM_DIR, "kotlin/jvm/internal/PrimitiveFunctions.java")) { GeneratePrimitiveFunctions(it) }
     generate(File(BUILT_INS_NATIVE_DIR, "kotlin/Arrays.kt")) { GenerateArrays(it) }
     generate(File(BUILT_INS_NATIVE_DIR, "kotlin/Primitives.kt")) { GeneratePrimitives(it) }
     generate(File(BUILT_INS_SRC_DIR, "kotlin/Iterators.kt")) { GenerateIterators(it) }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.generators.builtins.primitiveFunctions
+
+import org.jetbrains.kotlin.generators.builtins.PrimitiveType
+import org.jetbrains.kotlin.generators.builtins.PrimitiveType.*
+import org.jetbrains.kotlin.generators.builtins.generateBuiltIns.BuiltInsSourceGenerator
+import org.jetbrains.kotlin.generators.builtins.generateBuiltIns.BuiltInsSourceGenerator.Language
+import java.io.PrintWriter
+
+// Must be kept in sync with PrimitiveSpecializedFunctions in the JVM backend
+private val PARAMETER_TYPES = listOf(INT, LONG, DOUBLE)
+
+class PrimitiveFunctionShape(val parameters: List<PrimitiveType>, val returnType: PrimitiveType) {
+    val name: String
+        get() = parameters.map { it.capitalized }.joinToString("") + "To" + returnType.capitalized
+}
+
+fun primitiveFunctionShapes(): List<PrimitiveFunctionShape> {
+    val result = arrayListOf<PrimitiveFunctionShape>()
+    for (parameter in PARAMETER_TYPES) {
+        for (returnType in listOf(INT, LONG, DOUBLE, BOOLEAN)) {
+            result.add(PrimitiveFunctionShape(listOf(parameter), returnType))
+        }
+    }
+    for (parameter in PARAMETER_TYPES) {
+        for (returnType in listOf(parameter, INT, BOOLEAN).distinct()) {
+            result.add(PrimitiveFunctionShape(listOf(parameter, parameter), returnType))
+        }
+    }
+    return result
+}
+
+class GeneratePrimitiveFunctions(out: PrintWriter) : BuiltInsSourceGenerator(out) {
+    override fun getPackage() = "kotlin.jvm.internal"
+
+    override val language = Language.JAVA
+
+    private val PrimitiveType.javaName: String
+        get() = name().toLowerCase()
+
+    private val PrimitiveType.boxedName: String
+        get() = if (this == INT) "Integer" else capitalized
+
+    override fun generateBody() {
+        val shapes = primitiveFunctionShapes()
+
+        out.println("""import kotlin.jvm.functions.Function1;
+import kotlin.jvm.functions.Function2;
+
+/**
+ * Interfaces implemented by lambdas whose `invoke` takes and returns primitive values, and helpers used by the compiler
+ * to call a function of such type without boxing when the receiver implements the corresponding interface.
+ */
+public class PrimitiveFunctions {
+    private PrimitiveFunctions() {}""")
+
+        for (shape in shapes) {
+            out.println()
+            out.println("    public interface ${shape.name} {")
+            out.println("        ${shape.returnType.javaName} invoke(${shape.parameterList()});")
+            out.println("    }")
+        }
+
+        for (shape in shapes) {
+            val arity = shape.parameters.size()
+            val typeArguments = (shape.parameters + shape.returnType).map { it.boxedName }.joinToString()
+            val arguments = (1..arity).map { "p$it" }.joinToString()
+            out.println()
+            out.println("    public static ${shape.returnType.javaName} invoke${shape.name}(" +
+                        "Function$arity<$typeArguments> f, ${shape.parameterList()}) {")
+            out.println("        if (f instanceof ${shape.name}) return ((${shape.name}) f).invoke($arguments);")
+            out.println("        return f.invoke($arguments);")
+            out.println("    }")
+        }
+
+        out.println("}")
+    }
+
+    private fun PrimitiveFunctionShape.parameterList(): String =
+            parameters.withIndex().map { "${it.value.javaName} p${it.index + 1}" }.joinToString()
+}
@@ -146,6 +146,14 @@ fun main(args: Array<String>) {
             model("codegen/box/diagnostics")
         }
 
+        testClass<AbstractJetDiagnosticsInParallelTest>() {
+            model("diagnostics/tests/controlStructures")
+            model("diagnostics/tests/imports")
+            model("diagnostics/tests/nullabilityAndSmartCasts")
+            model("diagnostics/tests/overload")
+            model("diagnostics/tests/when")
+        }
+
         testClass<AbstractJetDiagnosticsTestWithStdLib>() {
             model("diagnostics/testsWithStdLib")
         }